@@ -1,6 +1,8 @@
 package com.tsurugidb.tsubakuro.channel.common.connection;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
@@ -41,6 +43,8 @@ public class BackgroundFutureResponse<V> implements FutureResponse<V>, Runnable
 
     private final AtomicBoolean gotton = new AtomicBoolean();
 
+    private final List<Runnable> callbacks = new ArrayList<>();
+
     /**
      * Creates a new instance.
      * @param delegate the decoration target
@@ -75,6 +79,18 @@ public class BackgroundFutureResponse<V> implements FutureResponse<V>, Runnable
                 latch.countDown();
             }
         }
+        List<Runnable> actions;
+        synchronized (callbacks) {
+            actions = new ArrayList<>(callbacks);
+            callbacks.clear();
+        }
+        for (var action : actions) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                LOG.warn("error occurred while performing the callback of the response", e); //$NON-NLS-1$
+            }
+        }
     }
 
     @Override
@@ -105,6 +121,18 @@ public class BackgroundFutureResponse<V> implements FutureResponse<V>, Runnable
         return result.get() != null;
     }
 
+    @Override
+    public void whenDone(@Nonnull Runnable action) {
+        Objects.requireNonNull(action);
+        synchronized (callbacks) {
+            if (!isDone()) {
+                callbacks.add(action);
+                return;
+            }
+        }
+        action.run();
+    }
+
     @Override
     public synchronized void close() throws IOException, ServerException, InterruptedException {
         try {
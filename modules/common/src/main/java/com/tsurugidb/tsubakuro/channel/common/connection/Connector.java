@@ -35,6 +35,22 @@ public interface Connector {
         return ConnectorHelper.create(endpoint);
     }
 
+    /**
+     * Sets the maximum number of requests which can be sent without waiting for their responses on each connection.
+     * <p>
+     * The connections established after this call will use the number, or the smaller one if the server
+     * has answered it.
+     * This default implementation does nothing, for the connectors whose number of requests in flight is decided
+     * by the server, like the fixed slots in the shared memory.
+     * </p>
+     * @param n the maximum number of requests in flight
+     * @return {@code true} if this connector accepts the number, or {@code false} if it is not supported
+     * @throws IllegalArgumentException if the number is out of range
+     */
+    default boolean setMaxInFlightRequests(int n) {
+        return false;
+    }
+
     /**
      * Establishes a connection to the Tsurugi server.
      * @return future session wire
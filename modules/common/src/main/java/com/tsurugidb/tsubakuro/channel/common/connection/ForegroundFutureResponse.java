@@ -18,6 +18,7 @@ import com.tsurugidb.tsubakuro.exception.ServerException;
 import com.tsurugidb.tsubakuro.exception.ResponseTimeoutException;
 import com.tsurugidb.tsubakuro.util.ServerResource;
 import com.tsurugidb.tsubakuro.util.FutureResponse;
+import com.tsurugidb.tsubakuro.util.Futures;
 import com.tsurugidb.tsubakuro.util.Owner;
 import com.tsurugidb.tsubakuro.util.Timeout;
 
@@ -135,9 +136,58 @@ public class ForegroundFutureResponse<V> implements FutureResponse<V> {  // FIXM
         }
     }
 
+    /**
+     * Returns whether or not the response has already been received.
+     * <p>
+     * The delegate may be already done even if the response message has not arrived yet,
+     * so that this also checks whether the main response of the underlying {@link Response} is ready.
+     * </p>
+     * @return {@code true} if {@link #get()} will return without waiting for the response message,
+     *      or {@code false} otherwise
+     */
     @Override
     public boolean isDone() {
-        return delegate.isDone();
+        if (result.get() != null || closed.get()) {
+            return true;
+        }
+        if (!delegate.isDone()) {
+            return false;
+        }
+        Response response;
+        try {
+            response = delegate.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (IOException | ServerException | RuntimeException e) {
+            // get() will raise the same error without blocking
+            return true;
+        }
+        return response.isMainResponseReady();
+    }
+
+    @Override
+    public void whenDone(@Nonnull Runnable action) {
+        Objects.requireNonNull(action);
+        delegate.whenDone(() -> {
+            Response response;
+            try {
+                response = delegate.get();
+            } catch (IOException | ServerException | InterruptedException | RuntimeException e) {
+                // get() will raise the same error without blocking
+                action.run();
+                return;
+            }
+            boolean registered;
+            if (mapper.isMainResponseRequired()) {
+                registered = response.whenMainResponseReady(action);
+            } else {
+                registered = response.whenSubResponseReady(action);
+            }
+            if (!registered) {
+                Futures.runInBackground(action);
+            }
+        });
     }
 
     @Override
@@ -4,9 +4,11 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.util.List;
 import java.util.Objects;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 /**
  * ResultSetWire type.
@@ -56,6 +58,63 @@ public interface ResultSetWire extends Closeable {
             }
         }
 
+        /**
+         * Returns the current chunk, whose remaining bytes have not been read yet.
+         * <p>
+         * This is for decoders which read the chunks directly instead of via {@link InputStream} methods.
+         * </p>
+         * @return the current chunk, or {@code null} if there are no more chunks
+         * @see #nextChunk()
+         */
+        public ByteBuffer currentChunk() {
+            return source;
+        }
+
+        /**
+         * Advances to the next chunk.
+         * The previous chunk must not be used after this operation.
+         * @return {@code true} if the next chunk is available as {@link #currentChunk()},
+         *      or {@code false} if there are no more chunks
+         */
+        public boolean nextChunk() {
+            return next();
+        }
+
+        /**
+         * Returns whether or not this can provide the chunks by segments, each of which consists of whole rows.
+         * @return {@code true} if {@link #nextSegment()} is available, otherwise {@code false}
+         * @see #nextSegment()
+         */
+        public boolean isSegmented() {
+            return false;
+        }
+
+        /**
+         * Retrieves the chunks of the next segment, which consists of whole rows.
+         * <p>
+         * Segments can be decoded independently of each other, for example, on different threads.
+         * This must not be used together with the other read operations of this input, and each returned chunk
+         * must be passed to {@link #releaseChunk(ByteBuffer)} after it was consumed.
+         * </p>
+         * @return the chunks of the next segment, or {@code null} if there are no more segments
+         * @throws IOException if I/O error was occurred while receiving the chunks
+         * @throws UnsupportedOperationException if this does not support segments
+         * @see #isSegmented()
+         */
+        public @Nullable List<ByteBuffer> nextSegment() throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * Releases a chunk obtained from {@link #nextSegment()}.
+         * The chunk must not be used after this operation.
+         * This method is thread-safe.
+         * @param chunk the consumed chunk
+         */
+        public void releaseChunk(@Nonnull ByteBuffer chunk) {
+            Objects.requireNonNull(chunk);
+        }
+
         protected abstract boolean next();
     }
 
@@ -4,9 +4,12 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
+import javax.annotation.Nonnull;
+
 import com.tsurugidb.tsubakuro.exception.ServerException;
 import com.tsurugidb.tsubakuro.util.ServerResource;
 
@@ -25,6 +28,31 @@ public interface Response extends ServerResource {
         return false;
     }
 
+    /**
+     * Registers an action which is performed when the main response body becomes available,
+     * that is, {@link #isMainResponseReady()} becomes {@code true}.
+     * The action may be performed on the thread which has received the response message, so that it must not block.
+     * @param action the action to perform
+     * @return {@code true} if the action was registered or has been already performed,
+     *      or {@code false} if this response cannot notify the arrival of the main response without blocking
+     */
+    default boolean whenMainResponseReady(@Nonnull Runnable action) {
+        Objects.requireNonNull(action);
+        return false;
+    }
+
+    /**
+     * Registers an action which is performed when {@link #openSubResponse(String)} becomes available without blocking.
+     * The action may be performed on the thread which has received the response message, so that it must not block.
+     * @param action the action to perform
+     * @return {@code true} if the action was registered or has been already performed,
+     *      or {@code false} if this response cannot notify the arrival of the sub-responses without blocking
+     */
+    default boolean whenSubResponseReady(@Nonnull Runnable action) {
+        Objects.requireNonNull(action);
+        return false;
+    }
+
     /**
      * Returns the main response body.
      * If the main response body is not ready, this operation was blocked until it would be ready.
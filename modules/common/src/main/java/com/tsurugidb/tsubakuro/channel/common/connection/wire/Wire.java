@@ -3,6 +3,7 @@ package com.tsurugidb.tsubakuro.channel.common.connection.wire;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.Objects;
+import java.util.concurrent.ThreadFactory;
 
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.ThreadSafe;
@@ -88,6 +89,18 @@ public interface Wire extends ServerResource {
         return false;
     }
 
+    /**
+     * Starts a dedicated thread which receives response messages from the server,
+     * instead of letting the threads waiting for responses receive them by turns.
+     * @param threadFactory the factory which creates the receiver thread
+     * @return {@code true} if the receiver thread has been started,
+     *      or {@code false} if this wire does not support it or it has been already started
+     */
+    default boolean startReceiver(@Nonnull ThreadFactory threadFactory) {
+        Objects.requireNonNull(threadFactory);
+        return false;
+    }
+
     /**
      * Sets close timeout.
      * @param t the timeout
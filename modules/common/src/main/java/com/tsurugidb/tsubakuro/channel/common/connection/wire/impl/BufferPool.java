@@ -0,0 +1,151 @@
+package com.tsurugidb.tsubakuro.channel.common.connection.wire.impl;
+
+import java.nio.ByteBuffer;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A pool of buffers for received messages.
+ * <p>
+ * The buffers are grouped into size classes of powers of two, from {@link #MIN_CLASS_SIZE} to
+ * {@link #MAX_CLASS_SIZE} bytes. Buffers larger than {@link #MAX_CLASS_SIZE} are never pooled.
+ * A buffer obtained by {@link #acquire(int)} must not be used any more after passed to {@link #release(ByteBuffer)}.
+ * </p>
+ */
+@ThreadSafe
+public final class BufferPool {
+
+    /**
+     * The smallest size class.
+     */
+    public static final int MIN_CLASS_SIZE = 4 * 1024;
+
+    /**
+     * The largest size class.
+     */
+    public static final int MAX_CLASS_SIZE = 16 * 1024 * 1024;
+
+    /**
+     * The default maximum number of buffers retained in each size class.
+     */
+    public static final int DEFAULT_MAX_RETAINED = 16;
+
+    private static final int MIN_CLASS_SHIFT = Integer.numberOfTrailingZeros(MIN_CLASS_SIZE);
+
+    private static final int NUMBER_OF_CLASSES = Integer.numberOfTrailingZeros(MAX_CLASS_SIZE) - MIN_CLASS_SHIFT + 1;
+
+    private final boolean direct;
+
+    private final int maxRetained;
+
+    private final List<ConcurrentLinkedQueue<ByteBuffer>> classes = new ArrayList<>(NUMBER_OF_CLASSES);
+
+    private final List<AtomicInteger> retained = new ArrayList<>(NUMBER_OF_CLASSES);
+
+    /**
+     * Creates a new instance which pools heap buffers.
+     */
+    public BufferPool() {
+        this(false, DEFAULT_MAX_RETAINED);
+    }
+
+    /**
+     * Creates a new instance.
+     * @param direct {@code true} to pool direct (off-heap) buffers, or {@code false} to pool heap buffers
+     * @param maxRetained the maximum number of buffers retained in each size class
+     * @throws IllegalArgumentException if maxRetained is negative
+     */
+    public BufferPool(boolean direct, int maxRetained) {
+        if (maxRetained < 0) {
+            throw new IllegalArgumentException(MessageFormat.format(
+                    "the number of retained buffers must not be negative: {0}",
+                    maxRetained));
+        }
+        this.direct = direct;
+        this.maxRetained = maxRetained;
+        for (int i = 0; i < NUMBER_OF_CLASSES; i++) {
+            classes.add(new ConcurrentLinkedQueue<>());
+            retained.add(new AtomicInteger());
+        }
+    }
+
+    /**
+     * Returns whether or not this pools direct buffers.
+     * @return {@code true} if this pools direct buffers, otherwise {@code false}
+     */
+    public boolean isDirect() {
+        return direct;
+    }
+
+    /**
+     * Obtains a buffer.
+     * The returned buffer has position {@code 0} and limit {@code size}, and its capacity may be larger than the size.
+     * @param size the required size in bytes
+     * @return the buffer
+     * @throws IllegalArgumentException if size is negative
+     */
+    public ByteBuffer acquire(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException(MessageFormat.format(
+                    "buffer size must not be negative: {0}",
+                    size));
+        }
+        int index = classIndex(size);
+        if (index < 0) {
+            return allocate(size);
+        }
+        var buffer = classes.get(index).poll();
+        if (buffer == null) {
+            buffer = allocate(MIN_CLASS_SIZE << index);
+        } else {
+            retained.get(index).decrementAndGet();
+        }
+        buffer.clear().limit(size);
+        return buffer;
+    }
+
+    /**
+     * Returns a buffer to this pool.
+     * Buffers whose capacity is not one of the size classes, or exceeding the retention limit are just dropped.
+     * @param buffer the buffer to return, may be {@code null}
+     */
+    public void release(@Nullable ByteBuffer buffer) {
+        if (buffer == null || buffer.isDirect() != direct || buffer.isReadOnly()) {
+            return;
+        }
+        int capacity = buffer.capacity();
+        if (Integer.bitCount(capacity) != 1) {
+            return;
+        }
+        int index = classIndex(capacity);
+        if (index < 0 || (MIN_CLASS_SIZE << index) != capacity) {
+            return;
+        }
+        if (retained.get(index).incrementAndGet() > maxRetained) {
+            retained.get(index).decrementAndGet();
+            return;
+        }
+        classes.get(index).add(buffer);
+    }
+
+    private static int classIndex(int size) {
+        if (size > MAX_CLASS_SIZE) {
+            return -1;
+        }
+        if (size <= MIN_CLASS_SIZE) {
+            return 0;
+        }
+        int shift = Integer.SIZE - Integer.numberOfLeadingZeros(size - 1);
+        return shift - MIN_CLASS_SHIFT;
+    }
+
+    private ByteBuffer allocate(int capacity) {
+        return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+}
@@ -3,15 +3,24 @@ package com.tsurugidb.tsubakuro.channel.common.connection.wire.impl;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
 
 import javax.annotation.Nonnull;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import com.tsurugidb.framework.proto.FrameworkResponse;
 import com.tsurugidb.sql.proto.SqlResponse;
 import com.tsurugidb.tsubakuro.channel.common.connection.sql.ResultSetWire;
@@ -24,6 +33,8 @@ import com.tsurugidb.tsubakuro.util.ByteBufferInputStream;
  * A simple implementation of {@link Response} which just returns payload data.
  */
 public class ChannelResponse implements Response {
+    static final Logger LOG = LoggerFactory.getLogger(ChannelResponse.class);
+
     public static final String METADATA_CHANNEL_ID = "metadata";
     public static final String RELATION_CHANNEL_ID = "relation";
 
@@ -33,9 +44,22 @@ public class ChannelResponse implements Response {
     private final AtomicReference<IOException> exceptionMain = new AtomicReference<>();
     private final AtomicReference<IOException> exceptionResultSet = new AtomicReference<>();
     private final AtomicBoolean closed = new AtomicBoolean();
+    private final Lock lock = new ReentrantLock();
+    private final Condition arrival = lock.newCondition();
+    private final List<Callback> callbacks = new ArrayList<>();
     private final Link link;
     private String resultSetName = "";  // for diagnostic
 
+    private static final class Callback {
+        final BooleanSupplier ready;
+        final Runnable action;
+
+        Callback(BooleanSupplier ready, Runnable action) {
+            this.ready = ready;
+            this.action = action;
+        }
+    }
+
     /**
      * Creates a new instance
      * @param link the link object by which this ChannelResponse pulls a message from the SQL server
@@ -49,6 +73,48 @@ public class ChannelResponse implements Response {
         return (main.get() != null) || (exceptionMain.get() != null);
     }
 
+    @Override
+    public boolean whenMainResponseReady(@Nonnull Runnable action) {
+        Objects.requireNonNull(action);
+        return addCallback(this::isMainResponseReady, action);
+    }
+
+    @Override
+    public boolean whenSubResponseReady(@Nonnull Runnable action) {
+        Objects.requireNonNull(action);
+        return addCallback(() -> isResultSetReady() || isMainResponseReady(), action);
+    }
+
+    // the callbacks are performed by the thread which has received the message,
+    // that is the receiver thread of the link, or the one pulling messages from the link
+    private boolean addCallback(BooleanSupplier ready, Runnable action) {
+        boolean registered = false;
+        lock.lock();
+        try {
+            if (!ready.getAsBoolean()) {
+                callbacks.add(new Callback(ready, action));
+                link.callbackRegistered();
+                registered = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (registered) {
+            link.requestPump();
+        } else {
+            perform(action);
+        }
+        return true;
+    }
+
+    private static void perform(Runnable action) {
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            LOG.warn("error occurred while performing the callback of the response", e); //$NON-NLS-1$
+        }
+    }
+
     @Override
     public ByteBuffer waitForMainResponse() throws IOException {
         try {
@@ -69,7 +135,11 @@ public class ChannelResponse implements Response {
                 var e = exceptionMain.get();
                 throw new IOException(e.getMessage(), e);
             }
-            link.pullMessage(n, timeout, unit);
+            if (link.isReceiverRunning()) {
+                awaitArrival(this::isMainResponseReady, timeout, unit);
+            } else {
+                link.pullMessage(n, timeout, unit);
+            }
         }
     }
 
@@ -139,7 +209,65 @@ public class ChannelResponse implements Response {
             if (isResultSetReady() || (isMainResponseReady())) {
                 return;
             }
-            link.pullMessage(n, timeout, unit);
+            if (link.isReceiverRunning()) {
+                awaitArrival(() -> isResultSetReady() || isMainResponseReady(), timeout, unit);
+            } else {
+                link.pullMessage(n, timeout, unit);
+            }
+        }
+    }
+
+    // used when the receiver thread of the link is running, wait only for the message to this response
+    private void awaitArrival(BooleanSupplier ready, long timeout, TimeUnit unit) throws IOException, TimeoutException {
+        lock.lock();
+        try {
+            long nanos = (timeout == 0) ? 0 : unit.toNanos(timeout);
+            while (!ready.getAsBoolean() && link.isReceiverRunning()) {
+                if (timeout == 0) {
+                    arrival.await();
+                } else {
+                    if (nanos <= 0) {
+                        throw new TimeoutException("response has not been received within the specified time");
+                    }
+                    nanos = arrival.awaitNanos(nanos);
+                }
+            }
+        } catch (InterruptedException e) {
+            throw new IOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void wakeUp() {
+        List<Runnable> readyActions = null;
+        boolean waiting = false;
+        lock.lock();
+        try {
+            arrival.signalAll();
+            if (!callbacks.isEmpty()) {
+                for (var it = callbacks.iterator(); it.hasNext();) {
+                    var callback = it.next();
+                    if (callback.ready.getAsBoolean()) {
+                        if (readyActions == null) {
+                            readyActions = new ArrayList<>();
+                        }
+                        readyActions.add(callback.action);
+                        it.remove();
+                    }
+                }
+                waiting = !callbacks.isEmpty();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (readyActions != null) {
+            link.callbacksPerformed(readyActions.size());
+            readyActions.forEach(ChannelResponse::perform);
+        }
+        if (waiting) {
+            // the receiver thread may have been stopped
+            link.requestPump();
         }
     }
 
@@ -155,10 +283,12 @@ public class ChannelResponse implements Response {
         } catch (IOException e) {
             exceptionMain.set(e);
         }
+        wakeUp();
     }
     public void setMainResponse(@Nonnull IOException exception) {
         Objects.requireNonNull(exception);
         exceptionMain.set(exception);
+        wakeUp();
     }
 
     public void setResultSet(@Nonnull ByteBuffer response, @Nonnull ResultSetWire resultSetWire) {
@@ -175,6 +305,7 @@ public class ChannelResponse implements Response {
         } catch (IOException e) {
             exceptionResultSet.set(e);
         }
+        wakeUp();
     }
 
     private ByteBuffer skipFrameworkHeader(ByteBuffer response) throws IOException {
@@ -1,27 +1,64 @@
 package com.tsurugidb.tsubakuro.channel.common.connection.wire.impl;
 
 import java.io.IOException;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.Condition;
 
+import javax.annotation.Nonnull;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.tsurugidb.framework.proto.FrameworkRequest;
 import com.tsurugidb.tsubakuro.channel.common.connection.sql.ResultSetWire;
+import com.tsurugidb.tsubakuro.util.Futures;
 import com.tsurugidb.tsubakuro.util.ServerResource;
 import com.tsurugidb.tsubakuro.util.Timeout;
 
 public abstract class Link implements ServerResource {
+    static final Logger LOG = LoggerFactory.getLogger(Link.class);
+
+    /**
+     * The timeout of each pull in the background task of {@link #requestPump()}, in milliseconds.
+     */
+    static final long PUMP_PULL_TIMEOUT_MILLIS = 100;
+
     private final AtomicBoolean useLink = new AtomicBoolean();
+    private final AtomicReference<Thread> receiver = new AtomicReference<>();
+    private final AtomicBoolean receiverRunning = new AtomicBoolean();
     private final Lock lock = new ReentrantLock();
     private final Condition response = lock.newCondition();
+    private final AtomicInteger pullDemands = new AtomicInteger();
+    private final AtomicBoolean pumping = new AtomicBoolean();
     private long receivedMessageNumber = 0;
 
-    protected ResponseBox responseBox = new ResponseBox(this);
+    protected ResponseBox responseBox;
     protected TimeUnit timeUnit;
     protected long timeout = 0;
 
+    /**
+     * Creates a new instance with the default number of requests in flight.
+     */
+    protected Link() {
+        this(ResponseBox.DEFAULT_SIZE);
+    }
+
+    /**
+     * Creates a new instance.
+     * @param responseBoxSize the maximum number of requests in flight
+     * @throws IllegalArgumentException if the number is out of range
+     */
+    protected Link(int responseBoxSize) {
+        this.responseBox = new ResponseBox(this, responseBoxSize);
+    }
+
     /**
      * Getter of the receivedMessageNumber.
      * @return receivedMessageNumber
@@ -93,14 +130,196 @@ public abstract class Link implements ServerResource {
         }
     }
 
+    /**
+     * Starts a dedicated thread which keeps pulling response messages from this link.
+     * <p>
+     * While the receiver is running, threads waiting for a response no longer compete for this link
+     * through {@link #pullMessage(long, long, TimeUnit)}, but wait on the response they are interested in,
+     * and only that waiter is woken up when the message for it has arrived.
+     * This must be called after the handshake with the server has been finished.
+     * </p>
+     * @param threadFactory the factory which creates the receiver thread
+     * @return {@code true} if the receiver has been started, or {@code false} if it has been already started
+     */
+    public boolean startReceiver(@Nonnull ThreadFactory threadFactory) {
+        var thread = threadFactory.newThread(this::receive);
+        if (thread == null || !receiver.compareAndSet(null, thread)) {
+            return false;
+        }
+        receiverRunning.set(true);
+        thread.start();
+        LOG.trace("receiver thread started: {}", thread.getName()); //$NON-NLS-1$
+        return true;
+    }
+
+    /**
+     * Returns whether or not the receiver thread is pulling messages from this link.
+     * @return {@code true} if the receiver thread is running, otherwise {@code false}
+     * @see #startReceiver(ThreadFactory)
+     */
+    public boolean isReceiverRunning() {
+        return receiverRunning.get();
+    }
+
+    /**
+     * Waits for the receiver thread to stop, which happens when this link has been closed.
+     * @param t the timeout value, 0 means no timeout
+     * @param u the timeout unit
+     * @throws TimeoutException if the receiver thread has not been stopped within the specified time
+     * @throws IOException if interrupted while waiting for the receiver thread
+     */
+    protected void awaitReceiverTermination(long t, TimeUnit u) throws TimeoutException, IOException {
+        var thread = receiver.get();
+        if (thread == null || thread == Thread.currentThread()) {
+            return;
+        }
+        try {
+            thread.join(t == 0 ? 0 : Math.max(u.toMillis(t), 1));
+        } catch (InterruptedException e) {
+            throw new IOException(e);
+        }
+        if (thread.isAlive()) {
+            throw new TimeoutException("receiver thread has not been stopped within the specified time");
+        }
+    }
+
+    /**
+     * Returns the timeout of each pull performed by the receiver thread.
+     * The receiver thread retries pulling when it times out while this link is alive,
+     * so the links that must release their resources between pulls can override this.
+     * @return the timeout in milliseconds, 0 means no timeout
+     */
+    protected long receiverPullTimeout() {
+        return 0;
+    }
+
+    private void receive() {
+        long t = receiverPullTimeout();
+        try {
+            while (true) {
+                try {
+                    if (!doPull(t, TimeUnit.MILLISECONDS)) {
+                        break;
+                    }
+                } catch (TimeoutException e) {
+                    if (isAlive()) {
+                        continue;
+                    }
+                    break;
+                }
+                lock.lock();
+                try {
+                    receivedMessageNumber++;
+                } finally {
+                    lock.unlock();
+                }
+            }
+        } catch (RuntimeException | Error e) {
+            LOG.error("receiver thread terminated abnormally", e); //$NON-NLS-1$
+            // nobody can receive the responses of requests in flight any more
+            responseBox.abort("receiver thread terminated abnormally", e);
+            throw e;
+        } finally {
+            receiverRunning.set(false);
+            responseBox.wakeUpAll();
+        }
+        LOG.trace("receiver thread stopped"); //$NON-NLS-1$
+    }
+
+    /**
+     * Notifies that a completion callback of {@link ChannelResponse} is waiting for a response message.
+     * @see #requestPump()
+     */
+    void callbackRegistered() {
+        pullDemands.incrementAndGet();
+    }
+
+    /**
+     * Notifies that completion callbacks of {@link ChannelResponse} were performed.
+     * @param count the number of performed callbacks
+     */
+    void callbacksPerformed(int count) {
+        pullDemands.addAndGet(-count);
+    }
+
+    /**
+     * Demands that messages are pulled from this link in background, until {@link #releasePullDemand()} is called.
+     * <p>
+     * This is used to receive messages ahead of the consumer, for example, to prefetch result set chunks.
+     * The demands share the same background task with the completion callbacks, and it is not necessary
+     * to demand if the receiver thread is running.
+     * </p>
+     * @see #requestPump()
+     */
+    public void acquirePullDemand() {
+        pullDemands.incrementAndGet();
+        requestPump();
+    }
+
+    /**
+     * Withdraws the demand of {@link #acquirePullDemand()}.
+     */
+    public void releasePullDemand() {
+        pullDemands.decrementAndGet();
+    }
+
+    /**
+     * Ensures that someone pulls the messages for the waiting completion callbacks and the other demands.
+     * <p>
+     * If the receiver thread is running, it performs the callbacks.
+     * Otherwise, this starts a background task which pulls messages until no callbacks or demands are waiting,
+     * so that at most one background thread is used for each link, instead of the one for each response.
+     * The task pulls with {@link #PUMP_PULL_TIMEOUT_MILLIS the bounded timeout}, and resubmits itself when it times
+     * out, so that it never occupies a thread of the shared background executor while no messages arrive.
+     * </p>
+     */
+    void requestPump() {
+        if (pullDemands.get() > 0 && !isReceiverRunning() && pumping.compareAndSet(false, true)) {
+            try {
+                Futures.runInBackground(this::pump);
+            } catch (RuntimeException e) {
+                pumping.set(false);
+                throw e;
+            }
+        }
+    }
+
+    private void pump() {
+        boolean completed = false;
+        try {
+            while (pullDemands.get() > 0 && !isReceiverRunning()) {
+                // the callbacks are performed by the thread which has pulled the message, may be other than this
+                try {
+                    pullMessage(messageNumber(), PUMP_PULL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    if (!isAlive()) {
+                        throw new IOException("link was closed while pulling response messages for callbacks", e);
+                    }
+                    // releases the shared executor thread, and then resubmits this if the demands still remain
+                    break;
+                }
+            }
+            completed = true;
+        } catch (IOException | RuntimeException e) {
+            LOG.debug("error occurred while pulling response messages for callbacks", e); //$NON-NLS-1$
+            responseBox.abort("failed to receive the response", e);
+        } finally {
+            pumping.set(false);
+        }
+        if (completed) {
+            // retry if other callbacks were registered while exiting
+            requestPump();
+        }
+    }
+
     /**
      * Send request message via this link to the server.
      * @param s the slot number for the responseBox
-     * @param frameHeader the frameHeader of the request
+     * @param header the framework header of the request, which must be written in length delimited form
      * @param payload the payload of the request
      * @param channelResponse the channelResponse that will store a response for the request
      */
-    public abstract void send(int s, byte[] frameHeader, byte[] payload, ChannelResponse channelResponse);
+    public abstract void send(int s, FrameworkRequest.Header header, byte[] payload, ChannelResponse channelResponse);
 
     /**
      * Create a ResultSetWire without a name, meaning that this link is not connected
@@ -134,10 +353,18 @@ public abstract class Link implements ServerResource {
      */
     public abstract boolean isAlive();
 
-    ResponseBox getResponseBox() {
+    /**
+     * Returns the box which holds the requests in flight on this link.
+     * @return the response box
+     */
+    public ResponseBox getResponseBox() {
         return responseBox;
     }
 
+    boolean isPumping() {
+        return pumping.get();
+    }
+
     // to suppress spotbug error
     long value() {
         return this.timeout;
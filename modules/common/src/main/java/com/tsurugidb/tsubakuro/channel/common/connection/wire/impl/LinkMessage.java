@@ -1,9 +1,11 @@
 package com.tsurugidb.tsubakuro.channel.common.connection.wire.impl;
 
 import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
 
 public class LinkMessage {
     public final byte[] bytes;
+    private final ByteBuffer buffer;
     private final byte info;
     private final int slot;
     private final byte writer;
@@ -11,6 +13,22 @@ public class LinkMessage {
     public LinkMessage(byte info, byte[] bytes, int slot, byte writer) {
         this.info = info;
         this.bytes = bytes;
+        this.buffer = null;
+        this.slot = slot;
+        this.writer = writer;
+    }
+
+    /**
+     * Creates a new instance whose payload is held in a buffer, which may be borrowed from a {@link BufferPool}.
+     * @param info the message type
+     * @param buffer the payload, or {@code null} if the message has no payload
+     * @param slot the slot number
+     * @param writer the writer ID
+     */
+    public LinkMessage(byte info, ByteBuffer buffer, int slot, byte writer) {
+        this.info = info;
+        this.bytes = null;
+        this.buffer = buffer;
         this.slot = slot;
         this.writer = writer;
     }
@@ -18,6 +36,7 @@ public class LinkMessage {
     public LinkMessage(byte info, byte[] bytes, int slot) {
         this.info = info;
         this.bytes = bytes;
+        this.buffer = null;
         this.slot = slot;
         this.writer = 0;
     }
@@ -41,6 +60,12 @@ public class LinkMessage {
     public byte[] getBytes() {
         return bytes;
     }
+    public ByteBuffer getBuffer() {
+        if (buffer == null && bytes != null) {
+            return ByteBuffer.wrap(bytes);
+        }
+        return buffer;
+    }
     public int getSlot() {
         return slot;
     }
@@ -3,6 +3,7 @@ package com.tsurugidb.tsubakuro.channel.common.connection.wire.impl;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 import javax.annotation.Nonnull;
 
@@ -36,6 +37,9 @@ class Queues {
     boolean isRequestEmpty() {
         return requestQueue.isEmpty();
     }
+    void forEachRequest(Consumer<RequestEntry> action) {
+        requestQueue.forEach(action);
+    }
 
     void pairAnnihilation() {
         if (!lock.tryLock()) {
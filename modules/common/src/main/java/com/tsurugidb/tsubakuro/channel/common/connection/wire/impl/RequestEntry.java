@@ -1,11 +1,13 @@
 package com.tsurugidb.tsubakuro.channel.common.connection.wire.impl;
 
+import com.tsurugidb.framework.proto.FrameworkRequest;
+
 class RequestEntry {
     private final ChannelResponse channelResponse;
-    final byte[] header;
+    final FrameworkRequest.Header header;
     final byte[] payload;
 
-    RequestEntry(ChannelResponse channelResponse, byte[] header, byte[] payload) {
+    RequestEntry(ChannelResponse channelResponse, FrameworkRequest.Header header, byte[] payload) {
         this.channelResponse = channelResponse;
         this.header = header;
         this.payload = payload;
@@ -15,7 +17,7 @@ class RequestEntry {
         return channelResponse;
     }
 
-    byte[] header() {
+    FrameworkRequest.Header header() {
         return header;
     }
 
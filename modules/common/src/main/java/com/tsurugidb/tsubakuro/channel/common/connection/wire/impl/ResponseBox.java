@@ -2,36 +2,72 @@ package com.tsurugidb.tsubakuro.channel.common.connection.wire.impl;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.text.MessageFormat;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import javax.annotation.Nonnull;
 
+import com.tsurugidb.framework.proto.FrameworkRequest;
 import com.tsurugidb.sql.proto.SqlRequest;
 import com.tsurugidb.tsubakuro.channel.common.connection.sql.ResultSetWire;
 import com.tsurugidb.tsubakuro.util.ByteBufferInputStream;
 
 /**
  * ResponseBox type.
+ * <p>
+ * Slots are allocated on demand up to the size given at construction, or the restricted one,
+ * and requests are queued only when all of those slots are in use.
+ * </p>
  */
 public class ResponseBox {
-    private static final int SIZE = Byte.MAX_VALUE;
+    /**
+     * The default number of slots.
+     */
+    public static final int DEFAULT_SIZE = Byte.MAX_VALUE;
+
+    /**
+     * The maximum number of slots, slot numbers are 16-bit and 0xffff is reserved by the server.
+     */
+    public static final int MAX_SIZE = 0xfffe;
 
     private final Link link;
     private final Queues queues;
-    private SlotEntry[] boxes = new SlotEntry[SIZE];
+    private volatile int size;
+    private final AtomicReferenceArray<SlotEntry> boxes;
+    private final AtomicInteger allocated = new AtomicInteger();
     private boolean intentionalClose = false;
 
+    /**
+     * Creates a new instance with the default number of slots.
+     * @param link the link which sends requests
+     */
     public ResponseBox(@Nonnull Link link) {
+        this(link, DEFAULT_SIZE);
+    }
+
+    /**
+     * Creates a new instance.
+     * @param link the link which sends requests
+     * @param size the maximum number of requests in flight
+     * @throws IllegalArgumentException if the size is out of range
+     */
+    public ResponseBox(@Nonnull Link link, int size) {
+        if (size <= 0 || size > MAX_SIZE) {
+            throw new IllegalArgumentException(MessageFormat.format(
+                    "the number of slots must be between 1 and {0}: {1}",
+                    MAX_SIZE,
+                    size));
+        }
         this.link = link;
         this.queues = new Queues(link);
-        for (byte i = 0; i < SIZE; i++) {
-            boxes[i] = new SlotEntry(i);
-            queues.addSlot(boxes[i]);
-        }
+        this.size = size;
+        this.boxes = new AtomicReferenceArray<>(size);
     }
 
-    public ChannelResponse register(@Nonnull byte[] header, @Nonnull byte[] payload) {
+    public ChannelResponse register(@Nonnull FrameworkRequest.Header header, @Nonnull byte[] payload) {
         var channelResponse = new ChannelResponse(link);
-        var slotEntry = queues.pollSlot();
+        var slotEntry = acquireSlot();
         if (slotEntry != null) {
             slotEntry.channelResponse(channelResponse);
             slotEntry.requestMessage(payload);
@@ -45,8 +81,26 @@ public class ResponseBox {
         return channelResponse;
     }
 
+    private SlotEntry acquireSlot() {
+        var slotEntry = queues.pollSlot();
+        if (slotEntry != null) {
+            return slotEntry;
+        }
+        while (true) {
+            int n = allocated.get();
+            if (n >= size) {
+                return null;
+            }
+            if (allocated.compareAndSet(n, n + 1)) {
+                slotEntry = new SlotEntry(n);
+                boxes.set(n, slotEntry);
+                return slotEntry;
+            }
+        }
+    }
+
     public void push(int slot, byte[] payload) {
-        var slotEntry = boxes[slot];
+        var slotEntry = boxes.get(slot);
         slotEntry.channelResponse().setMainResponse(ByteBuffer.wrap(payload));
         var queuedRequest = queues.pollRequest();
         if (queuedRequest != null) {
@@ -63,11 +117,11 @@ public class ResponseBox {
     }
 
     public void push(int slot, IOException e) {
-        boxes[slot].channelResponse().setMainResponse(e);
+        boxes.get(slot).channelResponse().setMainResponse(e);
     }
 
     public void pushHead(int slot, byte[] payload, ResultSetWire resultSetWire) throws IOException {
-        boxes[slot].channelResponse().setResultSet(ByteBuffer.wrap(payload), resultSetWire);
+        boxes.get(slot).channelResponse().setResultSet(ByteBuffer.wrap(payload), resultSetWire);
     }
 
     public void doClose(boolean ic) {
@@ -76,26 +130,129 @@ public class ResponseBox {
     }
 
     public void close() {
-        for (SlotEntry e : boxes) {
+        for (int i = 0; i < allocated.get(); i++) {
+            var e = boxes.get(i);
+            if (e == null) {
+                continue;
+            }
             var response = e.channelResponse();
             if (response != null) {
-                if (intentionalClose) {
-                    response.setMainResponse(new IOException("The wire was closed before receiving a response to this request"));
-                } else {
-                    response.setMainResponse(new IOException("Server crashed"));
-                }
+                closeResponse(response);
+            }
+        }
+        while (true) {
+            var queuedRequest = queues.pollRequest();
+            if (queuedRequest == null) {
+                break;
             }
+            closeResponse(queuedRequest.channelResponse());
         }
     }
 
+    /**
+     * Fails all requests in flight, including the ones waiting for a slot.
+     * @param message the error message
+     * @param cause the cause of the failure
+     */
+    void abort(@Nonnull String message, @Nonnull Throwable cause) {
+        for (int i = 0; i < allocated.get(); i++) {
+            var e = boxes.get(i);
+            if (e == null) {
+                continue;
+            }
+            var response = e.channelResponse();
+            if (response != null && !response.isMainResponseReady()) {
+                response.setMainResponse(new IOException(message, cause));
+            }
+        }
+        while (true) {
+            var queuedRequest = queues.pollRequest();
+            if (queuedRequest == null) {
+                break;
+            }
+            queuedRequest.channelResponse().setMainResponse(new IOException(message, cause));
+        }
+    }
+
+    private void closeResponse(ChannelResponse response) {
+        if (intentionalClose) {
+            response.setMainResponse(new IOException("The wire was closed before receiving a response to this request"));
+        } else {
+            response.setMainResponse(new IOException("Server crashed"));
+        }
+    }
+
+    /**
+     * Wakes up all threads waiting for responses in this box,
+     * so that they can notice the receiver thread has been stopped.
+     */
+    void wakeUpAll() {
+        for (int i = 0; i < allocated.get(); i++) {
+            var e = boxes.get(i);
+            if (e == null) {
+                continue;
+            }
+            var response = e.channelResponse();
+            if (response != null) {
+                response.wakeUp();
+            }
+        }
+        queues.forEachRequest(r -> r.channelResponse().wakeUp());
+    }
+
+    /**
+     * Restricts the maximum number of requests in flight of this box, for example, to the number which the server
+     * has accepted.
+     * <p>
+     * This must be called before any requests are registered.
+     * This does nothing if the number is not smaller than the current one.
+     * </p>
+     * @param n the maximum number of requests in flight
+     * @throws IllegalArgumentException if the number is not positive
+     * @throws IllegalStateException if more slots than the number are already in use
+     */
+    public void restrictSize(int n) {
+        if (n <= 0) {
+            throw new IllegalArgumentException(MessageFormat.format(
+                    "the number of slots must be positive: {0}",
+                    n));
+        }
+        if (n >= size) {
+            return;
+        }
+        if (allocated.get() > n) {
+            throw new IllegalStateException(MessageFormat.format(
+                    "{0} slots are already in use",
+                    allocated.get()));
+        }
+        size = n;
+    }
+
+    /**
+     * Returns the maximum number of requests in flight of this box.
+     * @return the number of slots
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the default number of slots.
+     * @return the default number of slots
+     * @see #DEFAULT_SIZE
+     */
     public static int responseBoxSize() {
-        return SIZE;
+        return DEFAULT_SIZE;
     }
 
     // for diagnostic
     String diagnosticInfo() {
         String diagnosticInfo = "";
-        for (var et : boxes) {
+        for (int i = 0; i < allocated.get(); i++) {
+            var et = boxes.get(i);
+            if (et == null) {
+                continue;
+            }
             var cr = et.channelResponse();
             if (cr != null) {
                 try {
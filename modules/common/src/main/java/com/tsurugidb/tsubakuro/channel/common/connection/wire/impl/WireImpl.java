@@ -1,8 +1,9 @@
 package com.tsurugidb.tsubakuro.channel.common.connection.wire.impl;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.annotation.Nonnull;
@@ -57,7 +58,7 @@ public class WireImpl implements Wire {
             throw new IOException("already closed");
         }
         var header = FrameworkRequest.Header.newBuilder().setMessageVersion(1).setServiceId(serviceId).setSessionId(sessionID).build();
-        var response = responseBox.register(toDelimitedByteArray(header), payload);
+        var response = responseBox.register(header, payload);
         return FutureResponse.wrap(Owner.of(response));
     }
 
@@ -93,6 +94,15 @@ public class WireImpl implements Wire {
         return link.isAlive();
     }
 
+    @Override
+    public boolean startReceiver(@Nonnull ThreadFactory threadFactory) {
+        Objects.requireNonNull(threadFactory);
+        if (closed.get()) {
+            return false;
+        }
+        return link.startReceiver(threadFactory);
+    }
+
     @Override
     public void setCloseTimeout(Timeout timeout) {
         link.setCloseTimeout(timeout);
@@ -114,13 +124,6 @@ public class WireImpl implements Wire {
 
     }
 
-    byte[] toDelimitedByteArray(FrameworkRequest.Header request) throws IOException {
-        try (var buffer = new ByteArrayOutputStream()) {
-            request.writeDelimitedTo(buffer);
-            return buffer.toByteArray();
-        }
-    }
-
     // for diagnostic
     public long sessionID() {
         return sessionID;
@@ -2,11 +2,13 @@ package com.tsurugidb.tsubakuro.util;
 
 import java.io.IOException;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -124,6 +126,72 @@ try (Resource resource = send(...).await()) {
     @Override
     void close() throws IOException, ServerException, InterruptedException;
 
+    /**
+     * Registers an action which is performed when this response has been done.
+     * <p>
+     * After the action was started, {@link #get()} returns without waiting for the response message.
+     * The action may be performed on the thread which has received the response message,
+     * so that it must not block.
+     * </p>
+     * <p>
+     * This default implementation performs the action on the bounded background executor of
+     * {@link Futures#runInBackground(Runnable)}, in which {@link #get()} may block until the response arrives.
+     * The implementations which can be notified of the response arrival should override this.
+     * </p>
+     * @param action the action to perform
+     */
+    default void whenDone(@Nonnull Runnable action) {
+        Objects.requireNonNull(action);
+        if (isDone()) {
+            action.run();
+            return;
+        }
+        Futures.runInBackground(action);
+    }
+
+    /**
+     * Returns {@link CompletableFuture} view of this object.
+     * <p>
+     * The returned future is completed with the result of {@link #get()} without occupying the calling thread.
+     * The dependent actions of the returned future may run on the thread which has received the response message,
+     * so that please use the {@code *Async} variants for the blocking actions.
+     * If the dedicated receiver thread is not enabled in the session, a background task pulls the response messages
+     * of the session while such futures are waiting.
+     * </p>
+     * <p>
+     * After the returned future is completed, {@link #close()} will never dispose the corresponding server resources
+     * as same as {@link #get()}.
+     * Cancelling the returned future does not affect this object.
+     * </p>
+     * @return the {@link CompletableFuture} view
+     * @see #whenDone(Runnable)
+     */
+    default CompletableFuture<V> toCompletableFuture() {
+        var future = new CompletableFuture<V>();
+        whenDone(() -> {
+            try {
+                future.complete(get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.completeExceptionally(e);
+            } catch (IOException | ServerException | RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Performs the given action when this response has been completed, without blocking the calling thread.
+     * @param action the action to perform, which accepts the result value or the occurred exception
+     * @return the {@link CompletableFuture} which is completed after the action was performed
+     * @see #toCompletableFuture()
+     */
+    default CompletableFuture<V> whenComplete(@Nonnull BiConsumer<? super V, ? super Throwable> action) {
+        Objects.requireNonNull(action);
+        return toCompletableFuture().whenComplete(action);
+    }
+
     /**
      * Returns {@link java.util.concurrent.Future} view of this object.
      * @return the {@link java.util.concurrent.Future} view
@@ -1,13 +1,46 @@
 package com.tsurugidb.tsubakuro.util;
 
+import java.util.Objects;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 /**
  * Utilities for {@link Future}.
  */
 public final class Futures {
 
+    private static final ThreadFactory THREAD_FACTORY = new ThreadFactory() {
+
+        private final AtomicInteger serial = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r);
+            t.setName(String.format("tsubakuro-completion-%04d", serial.incrementAndGet())); //$NON-NLS-1$
+            t.setDaemon(true);
+            return t;
+        }
+    };
+
+    /**
+     * The default maximum number of background threads.
+     */
+    public static final int DEFAULT_BACKGROUND_THREADS = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+    private static final long BACKGROUND_KEEP_ALIVE_SECONDS = 60;
+
+    private static final Executor DEFAULT_BACKGROUND = newBackgroundExecutor(DEFAULT_BACKGROUND_THREADS);
+
+    private static volatile Executor background = DEFAULT_BACKGROUND;
+
     /**
      * Returns a {@link Future} which just returns the given value.
      * @param <V> the value type
@@ -43,6 +76,50 @@ public final class Futures {
         };
     }
 
+    /**
+     * Performs the given action on the background executor.
+     * <p>
+     * This is used to pull response messages for the completion callbacks while the dedicated receiver thread is not
+     * running, and by {@link FutureResponse} which cannot be notified of the response arrival.
+     * The action may block until a response arrives, but must not wait for the other background actions.
+     * </p>
+     * @param action the action to perform
+     * @see #setBackgroundExecutor(Executor)
+     */
+    public static void runInBackground(@Nonnull Runnable action) {
+        Objects.requireNonNull(action);
+        background.execute(action);
+    }
+
+    /**
+     * Creates a new executor for {@link #setBackgroundExecutor(Executor)}, which uses at most the given number of
+     * daemon threads, and queues the actions while all of them are in use.
+     * @param maxThreads the maximum number of threads
+     * @return the created executor
+     * @throws IllegalArgumentException if the number of threads is not positive
+     */
+    public static Executor newBackgroundExecutor(int maxThreads) {
+        var executor = new ThreadPoolExecutor(
+                maxThreads, maxThreads,
+                BACKGROUND_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                THREAD_FACTORY);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Replaces the executor of {@link #runInBackground(Runnable)}.
+     * <p>
+     * The default one uses at most {@link #DEFAULT_BACKGROUND_THREADS} threads.
+     * The actions which were already submitted still run on the previous executor.
+     * </p>
+     * @param executor the executor, or {@code null} to restore the default one
+     */
+    public static void setBackgroundExecutor(@Nullable Executor executor) {
+        background = executor == null ? DEFAULT_BACKGROUND : executor;
+    }
+
     private Futures() {
         throw new AssertionError();
     }
@@ -76,6 +76,12 @@ public final class MappedFutureResponse<T extends ServerResource, V> implements
         return delegate.isDone();
     }
 
+    @Override
+    public void whenDone(@Nonnull Runnable action) {
+        Objects.requireNonNull(action);
+        delegate.whenDone(action);
+    }
+
     @Override
     public void close() throws IOException, ServerException, InterruptedException {
         delegate.close();
@@ -0,0 +1,91 @@
+package com.tsurugidb.tsubakuro.util;
+
+import java.io.IOException;
+import java.util.Objects;
+
+import javax.annotation.Nonnull;
+
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.MessageLite;
+import com.google.protobuf.WireFormat;
+
+/**
+ * Utilities about protocol buffers messages.
+ */
+public final class Messages {
+
+    /**
+     * Writes extra fields of a message.
+     */
+    @FunctionalInterface
+    public interface FieldWriter {
+
+        /**
+         * Writes the fields.
+         * @param output the destination
+         * @throws IOException if error was occurred while writing the fields
+         */
+        void writeTo(@Nonnull CodedOutputStream output) throws IOException;
+    }
+
+    /**
+     * Serializes the message into a length delimited byte array.
+     * <p>
+     * This is equivalent to {@link MessageLite#writeDelimitedTo(java.io.OutputStream)} into
+     * a {@link java.io.ByteArrayOutputStream}, but allocates only the resulting array of the exact size.
+     * </p>
+     * @param message the message to serialize
+     * @return the length delimited byte array
+     * @throws IOException if error was occurred while serializing the message
+     */
+    public static byte[] toDelimitedByteArray(@Nonnull MessageLite message) throws IOException {
+        Objects.requireNonNull(message);
+        int size = message.getSerializedSize();
+        var bytes = new byte[CodedOutputStream.computeUInt32SizeNoTag(size) + size];
+        var output = CodedOutputStream.newInstance(bytes);
+        output.writeUInt32NoTag(size);
+        message.writeTo(output);
+        output.checkNoSpaceLeft();
+        return bytes;
+    }
+
+    /**
+     * Serializes an enclosing message, whose only field is the given message followed by the extra fields,
+     * into a length delimited byte array.
+     * <p>
+     * This is used for writing the fields which are not represented as message objects, like pre-encoded
+     * repeated fields, without building the whole message.
+     * </p>
+     * @param field the field number of the message in the enclosing message
+     * @param message the message, which must not contain the fields written by {@code extra}
+     * @param extraSize the serialized size of the extra fields
+     * @param extra writes the extra fields into the message body
+     * @return the length delimited byte array
+     * @throws IOException if error was occurred while serializing the message
+     */
+    public static byte[] toDelimitedByteArray(
+            int field,
+            @Nonnull MessageLite message,
+            int extraSize,
+            @Nonnull FieldWriter extra) throws IOException {
+        Objects.requireNonNull(message);
+        Objects.requireNonNull(extra);
+        int bodySize = message.getSerializedSize() + extraSize;
+        int size = CodedOutputStream.computeTagSize(field)
+                + CodedOutputStream.computeUInt32SizeNoTag(bodySize)
+                + bodySize;
+        var bytes = new byte[CodedOutputStream.computeUInt32SizeNoTag(size) + size];
+        var output = CodedOutputStream.newInstance(bytes);
+        output.writeUInt32NoTag(size);
+        output.writeTag(field, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+        output.writeUInt32NoTag(bodySize);
+        message.writeTo(output);
+        extra.writeTo(output);
+        output.checkNoSpaceLeft();
+        return bytes;
+    }
+
+    private Messages() {
+        throw new AssertionError();
+    }
+}
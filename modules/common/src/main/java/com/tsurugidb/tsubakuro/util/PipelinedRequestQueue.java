@@ -0,0 +1,414 @@
+package com.tsurugidb.tsubakuro.util;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.tsurugidb.tsubakuro.exception.ServerException;
+
+/**
+ * Queues requests to a transaction which has not been started yet.
+ * <p>
+ * The requests are queued until the transaction start response arrives, and then sent back-to-back in the
+ * order of their submission, without waiting for the individual responses.
+ * {@link #submit(Operation)} returns a future response immediately, which waits for the transaction start and
+ * then for the actual response.
+ * After the transaction has been started, the requests are sent directly.
+ * </p>
+ * <p>
+ * If the transaction could not be started, the all requests fail with the same error.
+ * </p>
+ * @param <T> the transaction type
+ */
+@ThreadSafe
+public final class PipelinedRequestQueue<T> {
+
+    static final Logger LOG = LoggerFactory.getLogger(PipelinedRequestQueue.class);
+
+    /**
+     * Sends a request to the started transaction.
+     * @param <T> the transaction type
+     * @param <V> the response type
+     */
+    @FunctionalInterface
+    public interface Operation<T, V> {
+
+        /**
+         * Sends the request.
+         * @param transaction the started transaction
+         * @return the future response of the request
+         * @throws IOException if I/O error was occurred while sending request
+         */
+        FutureResponse<V> apply(@Nonnull T transaction) throws IOException;
+    }
+
+    private final FutureResponse<T> begin;
+
+    // guarded by this
+    private final ArrayDeque<Pending<?>> pending = new ArrayDeque<>();
+
+    // guarded by this
+    private boolean started = false;
+
+    // guarded by this
+    private T transaction;
+
+    // guarded by this
+    private Exception failure;
+
+    // guarded by this
+    private boolean draining = false;
+
+    // guarded by this
+    private boolean closed = false;
+
+    /**
+     * Creates a new instance.
+     * <p>
+     * This never waits for the transaction start unless {@link FutureResponse#isDone()} is {@code true}.
+     * </p>
+     * @param begin the future response of the transaction start
+     */
+    public PipelinedRequestQueue(@Nonnull FutureResponse<T> begin) {
+        Objects.requireNonNull(begin);
+        this.begin = begin;
+        if (begin.isDone()) {
+            // the response has already arrived, so that the requests can be sent directly from the first one
+            startQuietly();
+        } else {
+            begin.whenDone(() -> Futures.runInBackground(this::startQuietly));
+        }
+    }
+
+    /**
+     * Returns the started transaction only if the requests can be sent to it directly.
+     * @return the started transaction, or {@code null} if the requests must be queued
+     */
+    public synchronized @Nullable T direct() {
+        if (isDirect()) {
+            return transaction;
+        }
+        return null;
+    }
+
+    // must be guarded by this
+    private boolean isDirect() {
+        return started && failure == null && pending.isEmpty() && !draining && !closed;
+    }
+
+    /**
+     * Submits a request.
+     * <p>
+     * The operation must not refer to mutable objects, because it may be applied after this method returns.
+     * </p>
+     * @param <V> the response type
+     * @param operation sends the request to the started transaction
+     * @return the future response of the request
+     * @throws IOException if I/O error was occurred while sending request, or this queue was already closed
+     */
+    public <V> FutureResponse<V> submit(@Nonnull Operation<? super T, V> operation) throws IOException {
+        Objects.requireNonNull(operation);
+        Pending<V> result;
+        synchronized (this) {
+            if (closed) {
+                throw new IOException("transaction already closed");
+            }
+            if (isDirect()) {
+                return operation.apply(transaction);
+            }
+            result = new Pending<>(operation);
+            pending.add(result);
+            if (!started) {
+                return result;
+            }
+        }
+        drain();
+        return result;
+    }
+
+    /**
+     * Waits for the transaction start, and then sends the queued requests.
+     * @param timeout the maximum time to wait, or {@code 0} to wait indefinitely
+     * @param unit the time unit of {@code timeout}, or {@code null} to wait indefinitely
+     * @return the started transaction
+     * @throws IOException if I/O error was occurred while starting the transaction
+     * @throws ServerException if server error was occurred while starting the transaction
+     * @throws InterruptedException if interrupted while waiting for the transaction start
+     * @throws TimeoutException if the transaction was not started before the timeout
+     */
+    public T getTransaction(long timeout, @Nullable TimeUnit unit)
+            throws IOException, ServerException, InterruptedException, TimeoutException {
+        return start(timeout, unit);
+    }
+
+    /**
+     * Closes this queue, and then sends the rest of queued requests.
+     * <p>
+     * The subsequent {@link #submit(Operation)} will fail.
+     * </p>
+     * @param timeout the maximum time to wait, or {@code 0} to wait indefinitely
+     * @param unit the time unit of {@code timeout}, or {@code null} to wait indefinitely
+     * @return the started transaction which the caller must close,
+     *      or {@code null} if the transaction was not started or this queue was already closed
+     * @throws InterruptedException if interrupted while waiting for the transaction start
+     */
+    public @Nullable T shutdown(long timeout, @Nullable TimeUnit unit) throws InterruptedException {
+        synchronized (this) {
+            if (closed) {
+                return null;
+            }
+            closed = true;
+        }
+        long deadline = unit == null ? 0 : System.nanoTime() + unit.toNanos(timeout);
+        T result;
+        try {
+            result = start(timeout, unit);
+        } catch (TimeoutException e) {
+            LOG.warn("timeout occurred while starting transaction", e);
+            Lang.suppress(
+                    suppressed -> LOG.warn("error occurred while closing transaction", suppressed),
+                    begin::close);
+            return null;
+        } catch (IOException | ServerException | RuntimeException e) {
+            // the transaction was not started
+            LOG.debug("transaction was not started", e); //$NON-NLS-1$
+            return null;
+        }
+        try {
+            awaitDrained(deadline, unit);
+        } catch (TimeoutException e) {
+            LOG.warn("timeout occurred while sending the queued requests", e);
+        }
+        return result;
+    }
+
+    private void startQuietly() {
+        try {
+            start(0, null);
+        } catch (Exception e) {
+            LOG.debug("transaction was not started", e); //$NON-NLS-1$
+        }
+    }
+
+    // waits for the transaction start, and then sends the queued requests
+    private T start(long t, TimeUnit u) throws IOException, ServerException, InterruptedException, TimeoutException {
+        boolean waiting;
+        synchronized (this) {
+            waiting = !started;
+        }
+        if (waiting) {
+            // don't block the other requests
+            T result = null;
+            Exception error = null;
+            try {
+                result = u == null ? begin.get() : begin.get(t, u);
+            } catch (IOException | ServerException | RuntimeException e) {
+                error = e;
+            }
+            synchronized (this) {
+                if (!started) {
+                    started = true;
+                    transaction = result;
+                    failure = error;
+                }
+            }
+        }
+        drain();
+        synchronized (this) {
+            if (failure != null) {
+                throw rethrow(failure);
+            }
+            return transaction;
+        }
+    }
+
+    // sends the queued requests in order, outside of the monitor so that the waiters can time out
+    private void drain() {
+        synchronized (this) {
+            if (draining) {
+                // the other thread sends the rest requests
+                return;
+            }
+            draining = true;
+        }
+        boolean drained = false;
+        try {
+            while (true) {
+                Pending<?> next;
+                T target;
+                Exception beginFailure;
+                synchronized (this) {
+                    next = pending.poll();
+                    if (next == null) {
+                        draining = false;
+                        drained = true;
+                        notifyAll();
+                        return;
+                    }
+                    target = transaction;
+                    beginFailure = failure;
+                }
+                next.dispatch(target, beginFailure);
+            }
+        } finally {
+            if (!drained) {
+                synchronized (this) {
+                    draining = false;
+                    notifyAll();
+                }
+            }
+        }
+    }
+
+    // waits for the other thread which is sending the queued requests
+    private synchronized void awaitDrained(long deadline, TimeUnit u) throws InterruptedException, TimeoutException {
+        while (draining) {
+            if (u == null) {
+                wait();
+            } else {
+                long rest = deadline - System.nanoTime();
+                if (rest <= 0) {
+                    throw new TimeoutException("timeout while waiting for the queued requests to be sent");
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, rest);
+            }
+        }
+    }
+
+    private static IOException rethrow(Exception exception) throws ServerException {
+        if (exception instanceof ServerException) {
+            throw (ServerException) exception;
+        }
+        if (exception instanceof RuntimeException) {
+            throw (RuntimeException) exception;
+        }
+        if (exception instanceof IOException) {
+            return (IOException) exception;
+        }
+        return new IOException(exception);
+    }
+
+    /**
+     * A future response of the queued request.
+     * @param <V> the response type
+     */
+    private final class Pending<V> implements FutureResponse<V> {
+
+        private final Operation<? super T, V> operation;
+
+        // guarded by this
+        private FutureResponse<V> delegate;
+
+        // guarded by this
+        private Exception error;
+
+        // guarded by this
+        private boolean responseClosed = false;
+
+        Pending(Operation<? super T, V> operation) {
+            this.operation = operation;
+        }
+
+        void dispatch(T target, Exception beginFailure) {
+            FutureResponse<V> response = null;
+            Exception exception = beginFailure;
+            if (exception == null) {
+                try {
+                    response = operation.apply(target);
+                } catch (IOException | RuntimeException e) {
+                    exception = e;
+                }
+            }
+            boolean closeNow;
+            synchronized (this) {
+                delegate = response;
+                error = exception;
+                closeNow = responseClosed && response != null;
+                notifyAll();
+            }
+            if (closeNow) {
+                var r = response;
+                Lang.suppress(
+                        e -> LOG.warn("error occurred while closing response", e),
+                        r::close);
+            }
+        }
+
+        @Override
+        public synchronized boolean isDone() {
+            if (delegate != null) {
+                return delegate.isDone();
+            }
+            return error != null;
+        }
+
+        @Override
+        public V get() throws IOException, ServerException, InterruptedException {
+            try {
+                return get(0, null);
+            } catch (TimeoutException e) {
+                throw new AssertionError(e);
+            }
+        }
+
+        @Override
+        public V get(long t, TimeUnit u) throws IOException, ServerException, InterruptedException, TimeoutException {
+            long deadline = u == null ? 0 : System.nanoTime() + u.toNanos(t);
+            FutureResponse<V> response;
+            synchronized (this) {
+                response = delegate;
+            }
+            if (response == null) {
+                try {
+                    start(t, u);
+                } catch (IOException | ServerException | RuntimeException e) {
+                    // the error will be recorded into this
+                    LOG.trace("transaction was not started", e); //$NON-NLS-1$
+                }
+                synchronized (this) {
+                    // the other thread may be still sending the previous requests
+                    while (delegate == null && error == null) {
+                        if (u == null) {
+                            wait();
+                        } else {
+                            long rest = deadline - System.nanoTime();
+                            if (rest <= 0) {
+                                throw new TimeoutException("timeout while waiting for the request to be sent");
+                            }
+                            TimeUnit.NANOSECONDS.timedWait(this, rest);
+                        }
+                    }
+                    if (error != null) {
+                        throw rethrow(error);
+                    }
+                    response = delegate;
+                }
+            }
+            if (u == null) {
+                return response.get();
+            }
+            return response.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void close() throws IOException, ServerException, InterruptedException {
+            FutureResponse<V> response;
+            synchronized (this) {
+                responseClosed = true;
+                response = delegate;
+            }
+            if (response != null) {
+                response.close();
+            }
+        }
+    }
+}
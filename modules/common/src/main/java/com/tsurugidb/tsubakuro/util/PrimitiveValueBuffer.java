@@ -0,0 +1,533 @@
+package com.tsurugidb.tsubakuro.util;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Objects;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+
+/**
+ * Keeps a fixed number of values in primitive arrays, and serializes them directly as protocol buffers fields.
+ * <p>
+ * This is a building block of the reusable value containers, like {@code ParameterBinder} of SQL and
+ * {@code RecordWriter} of KVS. Each entry holds a value of {@code oneof value} in the corresponding message,
+ * and {@link #writeValue(CodedOutputStream, int)} writes it as the field of {@link FieldNumbers}.
+ * </p>
+ * <p>
+ * The decimal values are written as a {@code Decimal} message, which has {@code bytes unscaled_value = 1} and
+ * {@code int32 exponent = 2}.
+ * </p>
+ */
+@NotThreadSafe
+public final class PrimitiveValueBuffer {
+
+    /**
+     * The entry kind of values which are not set.
+     */
+    public static final byte UNBOUND = 0;
+
+    /**
+     * The entry kind of {@code NULL}.
+     */
+    public static final byte NULL = 1;
+
+    /**
+     * The entry kind of {@code BOOLEAN}.
+     */
+    public static final byte BOOLEAN = 2;
+
+    /**
+     * The entry kind of {@code INT4}.
+     */
+    public static final byte INT4 = 3;
+
+    /**
+     * The entry kind of {@code INT8}.
+     */
+    public static final byte INT8 = 4;
+
+    /**
+     * The entry kind of {@code FLOAT4}.
+     */
+    public static final byte FLOAT4 = 5;
+
+    /**
+     * The entry kind of {@code FLOAT8}.
+     */
+    public static final byte FLOAT8 = 6;
+
+    /**
+     * The entry kind of {@code DECIMAL}, whose unscaled value fits in {@code long}.
+     */
+    public static final byte DECIMAL_COMPACT = 7;
+
+    /**
+     * The entry kind of {@code DECIMAL}, whose unscaled value is kept as a byte array.
+     */
+    public static final byte DECIMAL = 8;
+
+    /**
+     * The entry kind of {@code CHARACTER}.
+     */
+    public static final byte CHARACTER = 9;
+
+    /**
+     * The entry kind of {@code OCTET}.
+     */
+    public static final byte OCTET = 10;
+
+    /**
+     * The entry kind of {@code DATE}.
+     */
+    public static final byte DATE = 11;
+
+    /**
+     * The entry kind of {@code TIME_OF_DAY}.
+     */
+    public static final byte TIME_OF_DAY = 12;
+
+    private static final int DECIMAL_UNSCALED_VALUE_FIELD_NUMBER = 1;
+
+    private static final int DECIMAL_EXPONENT_FIELD_NUMBER = 2;
+
+    /**
+     * The field numbers of the individual value kinds in the enclosing message.
+     */
+    @Immutable
+    public static final class FieldNumbers {
+
+        private final int[] numbers;
+
+        /**
+         * Creates a new instance.
+         * @param booleanValue the field number of {@code bool boolean_value}
+         * @param int4Value the field number of {@code sint32 int4_value}
+         * @param int8Value the field number of {@code sint64 int8_value}
+         * @param float4Value the field number of {@code float float4_value}
+         * @param float8Value the field number of {@code double float8_value}
+         * @param decimalValue the field number of {@code Decimal decimal_value}
+         * @param characterValue the field number of {@code string character_value}
+         * @param octetValue the field number of {@code bytes octet_value}
+         * @param dateValue the field number of {@code sint64 date_value}
+         * @param timeOfDayValue the field number of {@code uint64 time_of_day_value}
+         */
+        public FieldNumbers(
+                int booleanValue,
+                int int4Value,
+                int int8Value,
+                int float4Value,
+                int float8Value,
+                int decimalValue,
+                int characterValue,
+                int octetValue,
+                int dateValue,
+                int timeOfDayValue) {
+            var results = new int[TIME_OF_DAY + 1];
+            results[BOOLEAN] = booleanValue;
+            results[INT4] = int4Value;
+            results[INT8] = int8Value;
+            results[FLOAT4] = float4Value;
+            results[FLOAT8] = float8Value;
+            results[DECIMAL_COMPACT] = decimalValue;
+            results[DECIMAL] = decimalValue;
+            results[CHARACTER] = characterValue;
+            results[OCTET] = octetValue;
+            results[DATE] = dateValue;
+            results[TIME_OF_DAY] = timeOfDayValue;
+            this.numbers = results;
+        }
+
+        int get(byte kind) {
+            return numbers[kind];
+        }
+    }
+
+    private final FieldNumbers fieldNumbers;
+
+    private final byte[] kinds;
+
+    // integral values, raw bits of floating point numbers, or unscaled values of compact decimals
+    private final long[] values;
+
+    // exponents of decimals
+    private final int[] exponents;
+
+    // strings, or byte arrays
+    private final Object[] objects;
+
+    /**
+     * Creates a new instance.
+     * <p>
+     * All entries are initially {@link #UNBOUND}.
+     * </p>
+     * @param size the number of entries
+     * @param fieldNumbers the field numbers of the individual value kinds
+     */
+    public PrimitiveValueBuffer(int size, @Nonnull FieldNumbers fieldNumbers) {
+        Objects.requireNonNull(fieldNumbers);
+        this.fieldNumbers = fieldNumbers;
+        this.kinds = new byte[size];
+        this.values = new long[size];
+        this.exponents = new int[size];
+        this.objects = new Object[size];
+    }
+
+    /**
+     * Returns the number of entries.
+     * @return the number of entries
+     */
+    public int size() {
+        return kinds.length;
+    }
+
+    /**
+     * Resets all entries.
+     * @param kind the entry kind, either {@link #UNBOUND} or {@link #NULL}
+     */
+    public void reset(byte kind) {
+        assert kind == UNBOUND || kind == NULL;
+        Arrays.fill(kinds, kind);
+        Arrays.fill(objects, null);
+    }
+
+    /**
+     * Returns the kind of the entry.
+     * @param index the entry index (0-origin)
+     * @return the entry kind
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public byte getKind(int index) {
+        return kinds[index];
+    }
+
+    /**
+     * Returns the primitive value of the entry.
+     * @param index the entry index (0-origin)
+     * @return the integral value, raw bits of floating point number, or unscaled value of compact decimal
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public long getLong(int index) {
+        return values[index];
+    }
+
+    /**
+     * Returns the string or byte array value of the entry.
+     * @param index the entry index (0-origin)
+     * @return the object value, or {@code null} if the entry does not have it
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public Object getObject(int index) {
+        return objects[index];
+    }
+
+    /**
+     * Returns the exponent of the decimal entry.
+     * @param index the entry index (0-origin)
+     * @return the exponent
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public int getExponent(int index) {
+        return exponents[index];
+    }
+
+    /**
+     * Returns the unscaled value of the decimal entry.
+     * @param index the entry index (0-origin)
+     * @return the unscaled value in 2's complement big endian, as same as {@code BigInteger.toByteArray()}
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public byte[] getUnscaledValue(int index) {
+        if (kinds[index] == DECIMAL) {
+            return (byte[]) objects[index];
+        }
+        long unscaled = values[index];
+        var results = new byte[compactUnscaledSize(unscaled)];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = (byte) (unscaled >> ((results.length - i - 1) * Byte.SIZE));
+        }
+        return results;
+    }
+
+    /**
+     * Sets {@code NULL} to the entry.
+     * @param index the entry index (0-origin)
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public void setNull(int index) {
+        set(index, NULL, 0L, null);
+    }
+
+    /**
+     * Sets a {@code BOOLEAN} value to the entry.
+     * @param index the entry index (0-origin)
+     * @param value the value
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public void setBoolean(int index, boolean value) {
+        set(index, BOOLEAN, value ? 1L : 0L, null);
+    }
+
+    /**
+     * Sets an {@code INT4} value to the entry.
+     * @param index the entry index (0-origin)
+     * @param value the value
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public void setInt(int index, int value) {
+        set(index, INT4, value, null);
+    }
+
+    /**
+     * Sets an {@code INT8} value to the entry.
+     * @param index the entry index (0-origin)
+     * @param value the value
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public void setLong(int index, long value) {
+        set(index, INT8, value, null);
+    }
+
+    /**
+     * Sets a {@code FLOAT4} value to the entry.
+     * @param index the entry index (0-origin)
+     * @param value the value
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public void setFloat(int index, float value) {
+        set(index, FLOAT4, Float.floatToRawIntBits(value), null);
+    }
+
+    /**
+     * Sets a {@code FLOAT8} value to the entry.
+     * @param index the entry index (0-origin)
+     * @param value the value
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public void setDouble(int index, double value) {
+        set(index, FLOAT8, Double.doubleToRawLongBits(value), null);
+    }
+
+    /**
+     * Sets a {@code DECIMAL} value to the entry.
+     * @param index the entry index (0-origin)
+     * @param unscaledValue the unscaled value
+     * @param scale the scale of the value ({@code value = unscaledValue * 10^-scale})
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public void setDecimal(int index, long unscaledValue, int scale) {
+        set(index, DECIMAL_COMPACT, unscaledValue, null);
+        exponents[index] = -scale;
+    }
+
+    /**
+     * Sets a {@code DECIMAL} value to the entry.
+     * @param index the entry index (0-origin)
+     * @param value the value
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public void setDecimal(int index, @Nonnull BigDecimal value) {
+        Objects.requireNonNull(value);
+        var unscaled = value.unscaledValue();
+        if (unscaled.bitLength() < Long.SIZE) {
+            setDecimal(index, unscaled.longValue(), value.scale());
+            return;
+        }
+        set(index, DECIMAL, 0L, unscaled.toByteArray());
+        exponents[index] = -value.scale();
+    }
+
+    /**
+     * Sets a {@code CHARACTER} value to the entry.
+     * @param index the entry index (0-origin)
+     * @param value the value
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public void setCharacter(int index, @Nonnull String value) {
+        Objects.requireNonNull(value);
+        set(index, CHARACTER, 0L, value);
+    }
+
+    /**
+     * Sets an {@code OCTET} value to the entry.
+     * <p>
+     * This does not copy the array.
+     * </p>
+     * @param index the entry index (0-origin)
+     * @param value the value
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public void setOctet(int index, @Nonnull byte[] value) {
+        Objects.requireNonNull(value);
+        set(index, OCTET, 0L, value);
+    }
+
+    /**
+     * Sets a {@code DATE} value to the entry.
+     * @param index the entry index (0-origin)
+     * @param epochDay the number of days offset of epoch 1970-01-01
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public void setDate(int index, long epochDay) {
+        set(index, DATE, epochDay, null);
+    }
+
+    /**
+     * Sets a {@code TIME_OF_DAY} value to the entry.
+     * @param index the entry index (0-origin)
+     * @param nanoOfDay the nano-seconds since 00:00:00
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public void setTimeOfDay(int index, long nanoOfDay) {
+        set(index, TIME_OF_DAY, nanoOfDay, null);
+    }
+
+    private void set(int index, byte kind, long value, Object object) {
+        Objects.checkIndex(index, kinds.length);
+        kinds[index] = kind;
+        values[index] = value;
+        objects[index] = object;
+    }
+
+    /**
+     * Returns the serialized size of the entry value, as a field of the enclosing message.
+     * @param index the entry index (0-origin)
+     * @return the serialized size in bytes, or {@code 0} if the entry is {@code NULL}
+     * @throws IndexOutOfBoundsException if the index is out of range
+     * @throws IllegalStateException if the entry is {@link #UNBOUND}
+     */
+    public int computeValueSize(int index) {
+        long value = values[index];
+        byte kind = kinds[index];
+        switch (kind) {
+        case UNBOUND:
+            throw new IllegalStateException("value is not set");
+        case NULL:
+            return 0;
+        case BOOLEAN:
+            return CodedOutputStream.computeBoolSize(fieldNumbers.get(kind), value != 0);
+        case INT4:
+            return CodedOutputStream.computeSInt32Size(fieldNumbers.get(kind), (int) value);
+        case INT8:
+        case DATE:
+            return CodedOutputStream.computeSInt64Size(fieldNumbers.get(kind), value);
+        case FLOAT4:
+            return CodedOutputStream.computeFloatSize(fieldNumbers.get(kind), 0f);
+        case FLOAT8:
+            return CodedOutputStream.computeDoubleSize(fieldNumbers.get(kind), 0d);
+        case DECIMAL_COMPACT:
+        case DECIMAL: {
+            int size = computeDecimalSize(index);
+            return CodedOutputStream.computeTagSize(fieldNumbers.get(kind))
+                    + CodedOutputStream.computeUInt32SizeNoTag(size)
+                    + size;
+        }
+        case CHARACTER:
+            return CodedOutputStream.computeStringSize(fieldNumbers.get(kind), (String) objects[index]);
+        case OCTET:
+            return CodedOutputStream.computeByteArraySize(fieldNumbers.get(kind), (byte[]) objects[index]);
+        case TIME_OF_DAY:
+            return CodedOutputStream.computeUInt64Size(fieldNumbers.get(kind), value);
+        default:
+            throw new AssertionError(kind);
+        }
+    }
+
+    /**
+     * Writes the entry value as a field of the enclosing message.
+     * <p>
+     * This writes nothing if the entry is {@code NULL}.
+     * </p>
+     * @param output the destination
+     * @param index the entry index (0-origin)
+     * @throws IOException if I/O error was occurred while writing the value
+     * @throws IndexOutOfBoundsException if the index is out of range
+     * @throws IllegalStateException if the entry is {@link #UNBOUND}
+     */
+    public void writeValue(@Nonnull CodedOutputStream output, int index) throws IOException {
+        Objects.requireNonNull(output);
+        long value = values[index];
+        byte kind = kinds[index];
+        switch (kind) {
+        case UNBOUND:
+            throw new IllegalStateException("value is not set");
+        case NULL:
+            break;
+        case BOOLEAN:
+            output.writeBool(fieldNumbers.get(kind), value != 0);
+            break;
+        case INT4:
+            output.writeSInt32(fieldNumbers.get(kind), (int) value);
+            break;
+        case INT8:
+        case DATE:
+            output.writeSInt64(fieldNumbers.get(kind), value);
+            break;
+        case FLOAT4:
+            output.writeFloat(fieldNumbers.get(kind), Float.intBitsToFloat((int) value));
+            break;
+        case FLOAT8:
+            output.writeDouble(fieldNumbers.get(kind), Double.longBitsToDouble(value));
+            break;
+        case DECIMAL_COMPACT:
+        case DECIMAL:
+            writeDecimal(output, index);
+            break;
+        case CHARACTER:
+            output.writeString(fieldNumbers.get(kind), (String) objects[index]);
+            break;
+        case OCTET:
+            output.writeByteArray(fieldNumbers.get(kind), (byte[]) objects[index]);
+            break;
+        case TIME_OF_DAY:
+            output.writeUInt64(fieldNumbers.get(kind), value);
+            break;
+        default:
+            throw new AssertionError(kind);
+        }
+    }
+
+    // the size of Decimal message body, omitting the default values as well as protobuf
+    private int computeDecimalSize(int index) {
+        int unscaledSize = kinds[index] == DECIMAL_COMPACT
+                ? compactUnscaledSize(values[index])
+                : ((byte[]) objects[index]).length;
+        int size = CodedOutputStream.computeTagSize(DECIMAL_UNSCALED_VALUE_FIELD_NUMBER)
+                + CodedOutputStream.computeUInt32SizeNoTag(unscaledSize)
+                + unscaledSize;
+        if (exponents[index] != 0) {
+            size += CodedOutputStream.computeInt32Size(DECIMAL_EXPONENT_FIELD_NUMBER, exponents[index]);
+        }
+        return size;
+    }
+
+    private void writeDecimal(CodedOutputStream output, int index) throws IOException {
+        output.writeTag(fieldNumbers.get(kinds[index]), WireFormat.WIRETYPE_LENGTH_DELIMITED);
+        output.writeUInt32NoTag(computeDecimalSize(index));
+        if (kinds[index] == DECIMAL_COMPACT) {
+            // 2's complement, big endian, as same as BigInteger.toByteArray()
+            long unscaled = values[index];
+            int unscaledSize = compactUnscaledSize(unscaled);
+            output.writeTag(DECIMAL_UNSCALED_VALUE_FIELD_NUMBER, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            output.writeUInt32NoTag(unscaledSize);
+            for (int i = unscaledSize - 1; i >= 0; i--) {
+                output.writeRawByte((byte) (unscaled >> (i * Byte.SIZE)));
+            }
+        } else {
+            output.writeByteArray(DECIMAL_UNSCALED_VALUE_FIELD_NUMBER, (byte[]) objects[index]);
+        }
+        if (exponents[index] != 0) {
+            output.writeInt32(DECIMAL_EXPONENT_FIELD_NUMBER, exponents[index]);
+        }
+    }
+
+    private static int compactUnscaledSize(long value) {
+        int bitLength = Long.SIZE - Long.numberOfLeadingZeros(value < 0 ? ~value : value);
+        return bitLength / Byte.SIZE + 1;
+    }
+}
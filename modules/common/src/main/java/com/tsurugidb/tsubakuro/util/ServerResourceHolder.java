@@ -3,6 +3,9 @@ package com.tsurugidb.tsubakuro.util;
 import java.io.IOException;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -14,6 +17,9 @@ import com.tsurugidb.tsubakuro.exception.ServerException;
 
 /**
  * Holds {@link ServerResource}s and closes them.
+ * <p>
+ * This also holds the responses of pending disposal requests, and waits for them in {@link #close()}.
+ * </p>
  */
 public class ServerResourceHolder implements ServerResource, ServerResource.CloseHandler {
 
@@ -21,6 +27,10 @@ public class ServerResourceHolder implements ServerResource, ServerResource.Clos
 
     private final ConcurrentHashMap<IdentityProvider, Boolean> entries = new ConcurrentHashMap<>();
 
+    private final ConcurrentLinkedQueue<FutureResponse<?>> disposals = new ConcurrentLinkedQueue<>();
+
+    private volatile Timeout closeTimeout = Timeout.DISABLED;
+
     /**
      * Registers a {@link ServerResource} to this.
      * The registered object will be closed in {@link ServerResourceHolder#close()}.
@@ -46,8 +56,44 @@ public class ServerResourceHolder implements ServerResource, ServerResource.Clos
         }
     }
 
+    /**
+     * Adds a response of the disposal request.
+     * <p>
+     * The response will be completed and closed in {@link ServerResourceHolder#close()}, so that the requester
+     * need not wait for it. The responses which have already arrived are also reclaimed in this method,
+     * but this never waits for the others.
+     * </p>
+     * @param response the response of the disposal request
+     */
+    public void addDisposal(@Nonnull FutureResponse<?> response) {
+        Objects.requireNonNull(response);
+        disposals.add(response);
+        for (var iter = disposals.iterator(); iter.hasNext();) {
+            var pending = iter.next();
+            // the responses may arrive out of order
+            if (!pending.isDone()) {
+                continue;
+            }
+            if (disposals.remove(pending)) {
+                Lang.suppress(
+                        e -> LOG.warn("error suppressed during cleanup", e),
+                        () -> finishDisposal(pending, 0, null));
+            }
+        }
+    }
+
+    /**
+     * Returns the number of disposal requests which have not been reclaimed yet.
+     * @return the number of pending disposal requests
+     */
+    public int getPendingDisposalCount() {
+        return disposals.size();
+    }
+
     @Override
     public void setCloseTimeout(@Nonnull Timeout timeout) {
+        Objects.requireNonNull(timeout);
+        closeTimeout = timeout;
         for (var iter = entries.entrySet().iterator(); iter.hasNext();) {
             var resource = iter.next().getKey().resource;
             resource.setCloseTimeout(timeout);
@@ -64,6 +110,51 @@ public class ServerResourceHolder implements ServerResource, ServerResource.Clos
                 LOG.warn("error suppressed during cleanup", e);
             }
         }
+        awaitDisposals();
+    }
+
+    private void awaitDisposals() throws InterruptedException {
+        var timeout = closeTimeout;
+        long deadline = 0;
+        if (timeout.isEnabled()) {
+            deadline = System.nanoTime() + timeout.unit().toNanos(timeout.value());
+        }
+        boolean expired = false;
+        while (true) {
+            var pending = disposals.poll();
+            if (pending == null) {
+                break;
+            }
+            if (expired) {
+                // don't wait for the rest
+                Lang.suppress(e -> LOG.warn("error suppressed during cleanup", e), pending::close);
+                continue;
+            }
+            if (timeout.isEnabled()) {
+                long remaining = Math.max(deadline - System.nanoTime(), 0);
+                expired = !finishDisposal(pending, remaining, TimeUnit.NANOSECONDS);
+            } else {
+                expired = !finishDisposal(pending, 0, null);
+            }
+        }
+    }
+
+    private static boolean finishDisposal(FutureResponse<?> response, long timeout, TimeUnit unit)
+            throws InterruptedException {
+        try (response) {
+            if (unit == null) {
+                response.get();
+            } else {
+                response.get(timeout, unit);
+            }
+            return true;
+        } catch (TimeoutException e) {
+            LOG.warn("disposing resource is timeout", e);
+            return false;
+        } catch (IOException | ServerException e) {
+            LOG.warn("error suppressed during cleanup", e);
+            return true;
+        }
     }
 
     public void forEach(java.util.function.Consumer<ServerResource> f) {
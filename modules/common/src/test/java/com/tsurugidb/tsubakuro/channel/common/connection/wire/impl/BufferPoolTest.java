@@ -0,0 +1,83 @@
+package com.tsurugidb.tsubakuro.channel.common.connection.wire.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+
+import org.junit.jupiter.api.Test;
+
+class BufferPoolTest {
+
+    @Test
+    void acquire() {
+        var pool = new BufferPool();
+        var buffer = pool.acquire(100);
+        assertEquals(0, buffer.position());
+        assertEquals(100, buffer.limit());
+        assertEquals(BufferPool.MIN_CLASS_SIZE, buffer.capacity());
+
+        var large = pool.acquire(BufferPool.MIN_CLASS_SIZE + 1);
+        assertEquals(BufferPool.MIN_CLASS_SIZE * 2, large.capacity());
+    }
+
+    @Test
+    void reuse() {
+        var pool = new BufferPool();
+        var buffer = pool.acquire(5000);
+        buffer.put((byte) 1);
+        pool.release(buffer);
+
+        var reused = pool.acquire(6000);
+        assertSame(buffer, reused);
+        assertEquals(0, reused.position());
+        assertEquals(6000, reused.limit());
+
+        assertNotSame(buffer, pool.acquire(6000));
+    }
+
+    @Test
+    void notPooled() {
+        var pool = new BufferPool();
+        var huge = pool.acquire(BufferPool.MAX_CLASS_SIZE + 1);
+        assertEquals(BufferPool.MAX_CLASS_SIZE + 1, huge.capacity());
+        pool.release(huge);
+        assertNotSame(huge, pool.acquire(BufferPool.MAX_CLASS_SIZE + 1));
+
+        var foreign = ByteBuffer.allocate(100);
+        pool.release(foreign);
+        assertNotSame(foreign, pool.acquire(100));
+
+        pool.release(null);
+    }
+
+    @Test
+    void retentionLimit() {
+        var pool = new BufferPool(false, 1);
+        var b0 = pool.acquire(10);
+        var b1 = pool.acquire(10);
+        pool.release(b0);
+        pool.release(b1);
+        assertSame(b0, pool.acquire(10));
+        assertNotSame(b1, pool.acquire(10));
+    }
+
+    @Test
+    void direct() {
+        var pool = new BufferPool(true, BufferPool.DEFAULT_MAX_RETAINED);
+        var buffer = pool.acquire(10);
+        assertTrue(buffer.isDirect());
+        pool.release(ByteBuffer.allocate(BufferPool.MIN_CLASS_SIZE));
+        assertTrue(pool.acquire(10).isDirect());
+    }
+
+    @Test
+    void invalid() {
+        var pool = new BufferPool();
+        assertThrows(IllegalArgumentException.class, () -> pool.acquire(-1));
+        assertThrows(IllegalArgumentException.class, () -> new BufferPool(false, -1));
+    }
+}
@@ -0,0 +1,147 @@
+package com.tsurugidb.tsubakuro.channel.common.connection.wire.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.tsurugidb.framework.proto.FrameworkRequest;
+import com.tsurugidb.tsubakuro.channel.common.connection.wire.impl.LinkTest.ControllableLink;
+import com.tsurugidb.tsubakuro.util.Futures;
+
+class ChannelResponseTest {
+
+    private static final FrameworkRequest.Header HEADER = FrameworkRequest.Header.getDefaultInstance();
+
+    private final AtomicInteger backgroundTasks = new AtomicInteger();
+
+    private final Executor countingExecutor = action -> {
+        backgroundTasks.incrementAndGet();
+        var thread = new Thread(action, "pump");
+        thread.setDaemon(true);
+        thread.start();
+    };
+
+    @AfterEach
+    void restoreExecutor() {
+        Futures.setBackgroundExecutor(null);
+    }
+
+    @Test
+    void callbackWithReceiver() throws Exception {
+        var link = new ControllableLink();
+        assertTrue(link.startReceiver(r -> new Thread(r, "receiver")));
+        try {
+            var response = link.getResponseBox().register(HEADER, new byte[0]);
+            var latch = new CountDownLatch(1);
+            var performer = new AtomicReference<String>();
+            assertTrue(response.whenMainResponseReady(() -> {
+                performer.set(Thread.currentThread().getName());
+                latch.countDown();
+            }));
+            assertEquals(1, latch.getCount());
+
+            link.deliver(0);
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+            assertEquals("receiver", performer.get());
+        } finally {
+            link.close();
+        }
+    }
+
+    @Test
+    void callbackWithoutReceiver() throws Exception {
+        Futures.setBackgroundExecutor(countingExecutor);
+        var link = new ControllableLink();
+        try {
+            var box = link.getResponseBox();
+            var latches = new ArrayList<CountDownLatch>();
+            var responses = new ArrayList<ChannelResponse>();
+            for (int i = 0; i < 3; i++) {
+                var latch = new CountDownLatch(1);
+                var response = box.register(HEADER, new byte[0]);
+                assertTrue(response.whenMainResponseReady(latch::countDown));
+                latches.add(latch);
+                responses.add(response);
+            }
+            // only one task pulls messages for all callbacks of the link
+            assertEquals(1, backgroundTasks.get());
+
+            for (int i = 0; i < 3; i++) {
+                link.deliver(i);
+                assertTrue(latches.get(i).await(10, TimeUnit.SECONDS));
+                assertTrue(responses.get(i).isMainResponseReady());
+            }
+            assertEquals(1, backgroundTasks.get());
+        } finally {
+            link.close();
+        }
+    }
+
+    @Test
+    void callbackAlreadyReady() throws Exception {
+        Futures.setBackgroundExecutor(countingExecutor);
+        var link = new ControllableLink();
+        try {
+            var response = link.getResponseBox().register(HEADER, new byte[0]);
+            link.deliver(0);
+            response.waitForMainResponse();
+
+            var performer = new AtomicReference<Thread>();
+            assertTrue(response.whenMainResponseReady(() -> performer.set(Thread.currentThread())));
+            assertSame(Thread.currentThread(), performer.get());
+            assertEquals(0, backgroundTasks.get());
+        } finally {
+            link.close();
+        }
+    }
+
+    @Test
+    void callbackOnReceiverError() throws Exception {
+        var link = new ControllableLink();
+        assertTrue(link.startReceiver(r -> {
+            var thread = new Thread(r);
+            thread.setUncaughtExceptionHandler((t, e) -> { });
+            return thread;
+        }));
+        var response = link.getResponseBox().register(HEADER, new byte[0]);
+        var latch = new CountDownLatch(1);
+        assertTrue(response.whenSubResponseReady(latch::countDown));
+
+        link.events.add(box -> {
+            throw new LinkageError("intentional");
+        });
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertThrows(IOException.class, () -> response.waitForMainResponse());
+    }
+
+    @Test
+    void callbacksAfterReceiverStopped() throws Exception {
+        Futures.setBackgroundExecutor(countingExecutor);
+        var link = new ControllableLink();
+        assertTrue(link.startReceiver(Thread::new));
+        var response = link.getResponseBox().register(HEADER, new byte[0]);
+        var latch = new CountDownLatch(1);
+        assertTrue(response.whenMainResponseReady(latch::countDown));
+        assertEquals(0, backgroundTasks.get());
+
+        // stop only the receiver thread, and then the callback is taken over by the background task
+        link.events.add(box -> false);
+        link.awaitReceiverTermination(0, TimeUnit.MILLISECONDS);
+        link.deliver(0);
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals(1, backgroundTasks.get());
+        link.close();
+    }
+}
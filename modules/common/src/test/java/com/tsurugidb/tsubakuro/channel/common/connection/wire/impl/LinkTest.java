@@ -0,0 +1,193 @@
+package com.tsurugidb.tsubakuro.channel.common.connection.wire.impl;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import com.tsurugidb.framework.proto.FrameworkRequest;
+import com.tsurugidb.framework.proto.FrameworkResponse;
+import com.tsurugidb.tsubakuro.channel.common.connection.sql.ResultSetWire;
+
+class LinkTest {
+
+    private static final FrameworkRequest.Header HEADER = FrameworkRequest.Header.getDefaultInstance();
+
+    @FunctionalInterface
+    interface Event {
+        boolean pull(ResponseBox box);
+    }
+
+    /**
+     * A link which receives a message only when the test has put an event.
+     */
+    static class ControllableLink extends Link {
+
+        final BlockingQueue<Event> events = new LinkedBlockingQueue<>();
+
+        // the timeouts of pulls, in milliseconds
+        final BlockingQueue<Long> pulls = new LinkedBlockingQueue<>();
+
+        private volatile boolean closed;
+
+        @Override
+        public void send(int s, FrameworkRequest.Header header, byte[] payload, ChannelResponse channelResponse) {
+            return;
+        }
+
+        @Override
+        public ResultSetWire createResultSetWire() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean doPull(long t, TimeUnit u) throws TimeoutException {
+            pulls.add(u == null ? 0 : u.toMillis(t));
+            Event event;
+            try {
+                event = t == 0 ? events.take() : events.poll(t, u);
+            } catch (InterruptedException e) {
+                return false;
+            }
+            if (event == null) {
+                throw new TimeoutException();
+            }
+            return event.pull(getResponseBox());
+        }
+
+        @Override
+        public boolean isAlive() {
+            return !closed;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            events.add(box -> false);
+        }
+
+        void deliver(int slot) {
+            events.add(box -> {
+                box.push(slot, response());
+                return true;
+            });
+        }
+    }
+
+    static byte[] response() {
+        try (var buffer = new ByteArrayOutputStream()) {
+            FrameworkResponse.Header.newBuilder().build().writeDelimitedTo(buffer);
+            return buffer.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Test
+    void waitWithReceiver() throws Exception {
+        var link = new ControllableLink();
+        assertTrue(link.startReceiver(Thread::new));
+        try {
+            var response = link.getResponseBox().register(HEADER, new byte[0]);
+
+            // no messages are available until the test delivers it
+            assertThrows(TimeoutException.class, () -> response.waitForMainResponse(10, TimeUnit.MILLISECONDS));
+            assertFalse(response.isMainResponseReady());
+
+            link.deliver(0);
+            assertNotNull(response.waitForMainResponse());
+        } finally {
+            link.close();
+            link.awaitReceiverTermination(0, TimeUnit.MILLISECONDS);
+        }
+        assertFalse(link.isReceiverRunning());
+    }
+
+    @Test
+    void receiverError() throws Exception {
+        var link = new ControllableLink();
+        var uncaught = new AtomicReference<Throwable>();
+        ThreadFactory factory = r -> {
+            var thread = new Thread(r);
+            thread.setUncaughtExceptionHandler((t, e) -> uncaught.set(e));
+            return thread;
+        };
+        assertTrue(link.startReceiver(factory));
+
+        var box = link.getResponseBox();
+        var r0 = box.register(HEADER, new byte[0]);
+        var r1 = box.register(HEADER, new byte[0]);
+        var error = new LinkageError("intentional");
+        link.events.add(b -> {
+            throw error;
+        });
+        link.awaitReceiverTermination(0, TimeUnit.MILLISECONDS);
+        assertFalse(link.isReceiverRunning());
+        assertSame(error, uncaught.get());
+
+        // the waiters must not be left waiting forever
+        var e0 = assertThrows(IOException.class, () -> r0.waitForMainResponse());
+        assertSame(error, e0.getCause().getCause());
+        var e1 = assertThrows(IOException.class, () -> r1.waitForMainResponse());
+        assertSame(error, e1.getCause().getCause());
+    }
+
+    private static void awaitPumpStop(Link link) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (link.isPumping()) {
+            assertTrue(System.nanoTime() < deadline, "pump was not stopped");
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void pumpWithTimeout() throws Exception {
+        var link = new ControllableLink();
+        try {
+            link.acquirePullDemand();
+            var timeout = link.pulls.poll(10, TimeUnit.SECONDS);
+            assertNotNull(timeout);
+            assertTrue(timeout > 0);
+
+            // the pump stops after the demand was withdrawn, even if no messages arrive
+            link.releasePullDemand();
+            awaitPumpStop(link);
+        } finally {
+            link.close();
+        }
+    }
+
+    @Test
+    void pumpAfterTimeout() throws Exception {
+        var link = new ControllableLink();
+        try {
+            var response = link.getResponseBox().register(HEADER, new byte[0]);
+            var done = new CountDownLatch(1);
+            response.whenMainResponseReady(done::countDown);
+
+            // the pump is resubmitted while the callback is waiting
+            for (int i = 0; i < 3; i++) {
+                assertNotNull(link.pulls.poll(10, TimeUnit.SECONDS));
+            }
+            link.deliver(0);
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            awaitPumpStop(link);
+        } finally {
+            link.close();
+        }
+    }
+}
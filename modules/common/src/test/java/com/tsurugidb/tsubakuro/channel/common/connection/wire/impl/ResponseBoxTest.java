@@ -0,0 +1,134 @@
+package com.tsurugidb.tsubakuro.channel.common.connection.wire.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.tsurugidb.framework.proto.FrameworkRequest;
+import com.tsurugidb.framework.proto.FrameworkResponse;
+import com.tsurugidb.tsubakuro.channel.common.connection.sql.ResultSetWire;
+
+class ResponseBoxTest {
+
+    private static final FrameworkRequest.Header HEADER = FrameworkRequest.Header.getDefaultInstance();
+
+    private static class TestingLink extends Link {
+        final List<Integer> sentSlots = new ArrayList<>();
+
+        TestingLink(int size) {
+            super(size);
+        }
+
+        @Override
+        public void send(int s, FrameworkRequest.Header header, byte[] payload, ChannelResponse channelResponse) {
+            sentSlots.add(s);
+        }
+
+        @Override
+        public ResultSetWire createResultSetWire() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean doPull(long t, TimeUnit u) {
+            return false;
+        }
+
+        @Override
+        public boolean isAlive() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+            // do nothing
+        }
+    }
+
+    private static byte[] response() throws IOException {
+        try (var buffer = new ByteArrayOutputStream()) {
+            FrameworkResponse.Header.newBuilder().build().writeDelimitedTo(buffer);
+            return buffer.toByteArray();
+        }
+    }
+
+    @Test
+    void manySlots() throws Exception {
+        var link = new TestingLink(1000);
+        var box = link.getResponseBox();
+        assertEquals(1000, box.size());
+
+        for (int i = 0; i < 1000; i++) {
+            box.register(HEADER, new byte[0]);
+        }
+        assertEquals(1000, link.sentSlots.size());
+        assertEquals(1000, new HashSet<>(link.sentSlots).size());
+    }
+
+    @Test
+    void queuedUntilSlotReleased() throws Exception {
+        var link = new TestingLink(2);
+        var box = link.getResponseBox();
+
+        var r0 = box.register(HEADER, new byte[0]);
+        box.register(HEADER, new byte[0]);
+        var r2 = box.register(HEADER, new byte[0]);
+        assertEquals(List.of(0, 1), link.sentSlots);
+
+        box.push(0, response());
+        assertTrue(r0.isMainResponseReady());
+        assertFalse(r2.isMainResponseReady());
+        assertEquals(List.of(0, 1, 0), link.sentSlots);
+
+        box.push(0, response());
+        assertTrue(r2.isMainResponseReady());
+    }
+
+    @Test
+    void closeFailsQueuedRequests() throws Exception {
+        var link = new TestingLink(1);
+        var box = link.getResponseBox();
+
+        var r0 = box.register(HEADER, new byte[0]);
+        var r1 = box.register(HEADER, new byte[0]);
+        box.doClose(true);
+        assertThrows(IOException.class, () -> r0.waitForMainResponse());
+        assertThrows(IOException.class, () -> r1.waitForMainResponse());
+    }
+
+    @Test
+    void restrictSize() throws Exception {
+        var link = new TestingLink(10);
+        var box = link.getResponseBox();
+        box.restrictSize(2);
+        assertEquals(2, box.size());
+
+        // never enlarges
+        box.restrictSize(5);
+        assertEquals(2, box.size());
+
+        box.register(HEADER, new byte[0]);
+        box.register(HEADER, new byte[0]);
+        box.register(HEADER, new byte[0]);
+        assertEquals(List.of(0, 1), link.sentSlots);
+
+        assertThrows(IllegalStateException.class, () -> box.restrictSize(1));
+        assertThrows(IllegalArgumentException.class, () -> box.restrictSize(0));
+    }
+
+    @Test
+    void invalidSize() {
+        assertThrows(IllegalArgumentException.class, () -> new TestingLink(0));
+        assertThrows(IllegalArgumentException.class, () -> new TestingLink(ResponseBox.MAX_SIZE + 1));
+    }
+}
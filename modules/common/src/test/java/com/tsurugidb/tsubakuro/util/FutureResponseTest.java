@@ -0,0 +1,78 @@
+package com.tsurugidb.tsubakuro.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import com.tsurugidb.tsubakuro.exception.CoreServiceCode;
+import com.tsurugidb.tsubakuro.exception.CoreServiceException;
+import com.tsurugidb.tsubakuro.exception.ServerException;
+
+class FutureResponseTest {
+
+    @Test
+    void toCompletableFuture_returns() throws Exception {
+        var future = FutureResponse.returns("OK").toCompletableFuture();
+        assertTrue(future.isDone());
+        assertEquals("OK", future.get());
+    }
+
+    @Test
+    void toCompletableFuture_raises() throws Exception {
+        var exception = new CoreServiceException(CoreServiceCode.UNKNOWN, "testing");
+        var future = FutureResponse.<String>raises(exception).toCompletableFuture();
+        assertTrue(future.isDone());
+        var e = assertThrows(ExecutionException.class, () -> future.get());
+        assertSame(exception, e.getCause());
+    }
+
+    @Test
+    void whenComplete_notDone() throws Exception {
+        var latch = new CountDownLatch(1);
+        var response = new FutureResponse<String>() {
+            @Override
+            public boolean isDone() {
+                return latch.getCount() == 0;
+            }
+            @Override
+            public String get() throws InterruptedException {
+                latch.await();
+                return "OK";
+            }
+            @Override
+            public String get(long timeout, TimeUnit unit) throws InterruptedException {
+                return get();
+            }
+            @Override
+            public void close() throws IOException, ServerException, InterruptedException {
+                // do nothing
+            }
+        };
+        var result = new AtomicReference<String>();
+        var future = response.whenComplete((v, e) -> result.set(v));
+        assertNull(result.get());
+
+        latch.countDown();
+        assertEquals("OK", future.get(10, TimeUnit.SECONDS));
+        assertEquals("OK", result.get());
+    }
+
+    @Test
+    void mapped() throws Exception {
+        ServerResource resource = () -> {
+            // do nothing
+        };
+        var response = new MappedFutureResponse<ServerResource, String>(FutureResponse.wrap(Owner.of(resource)), r -> "mapped");
+        assertEquals("mapped", response.toCompletableFuture().get());
+    }
+}
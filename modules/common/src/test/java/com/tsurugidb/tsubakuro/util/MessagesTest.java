@@ -0,0 +1,60 @@
+package com.tsurugidb.tsubakuro.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.protobuf.CodedOutputStream;
+import com.tsurugidb.datastore.proto.DatastoreRequest;
+import com.tsurugidb.framework.proto.FrameworkRequest;
+
+class MessagesTest {
+
+    @Test
+    void toDelimitedByteArray() throws Exception {
+        var header = FrameworkRequest.Header.newBuilder()
+                .setMessageVersion(1)
+                .setServiceId(3)
+                .setSessionId(Long.MAX_VALUE)
+                .build();
+        byte[] bytes = Messages.toDelimitedByteArray(header);
+
+        try (var buffer = new ByteArrayOutputStream()) {
+            header.writeDelimitedTo(buffer);
+            assertArrayEquals(buffer.toByteArray(), bytes);
+        }
+        assertEquals(header, FrameworkRequest.Header.parseDelimitedFrom(new ByteArrayInputStream(bytes)));
+    }
+
+    @Test
+    void toDelimitedByteArrayEmpty() throws Exception {
+        byte[] bytes = Messages.toDelimitedByteArray(FrameworkRequest.Header.getDefaultInstance());
+        assertArrayEquals(new byte[] { 0 }, bytes);
+    }
+
+    @Test
+    void toDelimitedByteArrayExtra() throws Exception {
+        var message = DatastoreRequest.BackupDetailBegin.newBuilder()
+                .setLabel("testing")
+                .build();
+        var type = DatastoreRequest.BackupType.TRANSACTION;
+        int field = DatastoreRequest.BackupDetailBegin.TYPE_FIELD_NUMBER;
+        byte[] bytes = Messages.toDelimitedByteArray(
+                DatastoreRequest.Request.BACKUP_DETAIL_BEGIN_FIELD_NUMBER,
+                message,
+                CodedOutputStream.computeEnumSize(field, type.getNumber()),
+                output -> output.writeEnum(field, type.getNumber()));
+
+        var expected = DatastoreRequest.Request.newBuilder()
+                .setBackupDetailBegin(DatastoreRequest.BackupDetailBegin.newBuilder(message).setType(type))
+                .build();
+        try (var buffer = new ByteArrayOutputStream()) {
+            expected.writeDelimitedTo(buffer);
+            assertArrayEquals(buffer.toByteArray(), bytes);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.tsurugidb.tsubakuro.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.tsurugidb.tsubakuro.channel.common.connection.ForegroundFutureResponse;
+import com.tsurugidb.tsubakuro.channel.common.connection.wire.Response;
+import com.tsurugidb.tsubakuro.channel.common.connection.wire.ResponseProcessor;
+import com.tsurugidb.tsubakuro.channel.common.connection.wire.impl.ChannelResponse;
+
+class PipelinedRequestQueueTest {
+
+    private static class BeginProcessor implements ResponseProcessor<String> {
+        @Override
+        public String process(Response response) throws IOException {
+            response.waitForMainResponse();
+            return "T";
+        }
+    }
+
+    @Test
+    void startAfterBeginArrival() throws Exception {
+        var link = new TestingLink();
+        try {
+            var response = new ChannelResponse(link);
+            var begin = new ForegroundFutureResponse<>(FutureResponse.wrap(Owner.of(response)), new BeginProcessor());
+            assertFalse(begin.isDone());
+
+            // the constructor must not wait for the begin response
+            var queue = assertTimeoutPreemptively(
+                    Duration.ofSeconds(10),
+                    () -> new PipelinedRequestQueue<>(begin));
+            assertNull(queue.direct());
+
+            List<String> sent = new ArrayList<>();
+            var r1 = queue.submit(t -> {
+                synchronized (sent) {
+                    sent.add(t);
+                }
+                return FutureResponse.returns(t);
+            });
+            assertFalse(r1.isDone());
+
+            var exception = new IOException("intentional");
+            link.events.add(() -> response.setMainResponse(exception));
+            var e = assertThrows(IOException.class, () -> r1.get(10, TimeUnit.SECONDS));
+            assertSame(exception, e.getCause());
+            assertTrue(begin.isDone());
+            synchronized (sent) {
+                assertEquals(List.of(), sent);
+            }
+        } finally {
+            link.close();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.tsurugidb.tsubakuro.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.Test;
+
+import com.tsurugidb.tsubakuro.channel.common.connection.ForegroundFutureResponse;
+import com.tsurugidb.tsubakuro.channel.common.connection.wire.Response;
+import com.tsurugidb.tsubakuro.channel.common.connection.wire.ResponseProcessor;
+import com.tsurugidb.tsubakuro.channel.common.connection.wire.impl.ChannelResponse;
+import com.tsurugidb.tsubakuro.exception.ServerException;
+
+class ServerResourceHolderTest {
+
+    private static final class MockResponse implements FutureResponse<Void> {
+
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        boolean closed = false;
+
+        @Override
+        public boolean isDone() {
+            return future.isDone();
+        }
+
+        @Override
+        public Void get() throws IOException, InterruptedException {
+            try {
+                return future.get();
+            } catch (ExecutionException e) {
+                throw new IOException(e.getCause());
+            }
+        }
+
+        @Override
+        public Void get(long timeout, TimeUnit unit) throws IOException, InterruptedException, TimeoutException {
+            try {
+                return future.get(timeout, unit);
+            } catch (ExecutionException e) {
+                throw new IOException(e.getCause());
+            }
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    @Test
+    void disposal() throws Exception {
+        var holder = new ServerResourceHolder();
+        var r1 = new MockResponse();
+        var r2 = new MockResponse();
+        holder.addDisposal(r1);
+        holder.addDisposal(r2);
+        assertEquals(2, holder.getPendingDisposalCount());
+
+        // reclaims completed responses
+        r1.future.complete(null);
+        var r3 = new MockResponse();
+        holder.addDisposal(r3);
+        assertTrue(r1.closed);
+        assertEquals(2, holder.getPendingDisposalCount());
+
+        r2.future.complete(null);
+        r3.future.completeExceptionally(new IOException("intentional"));
+        holder.close();
+        assertTrue(r2.closed);
+        assertTrue(r3.closed);
+        assertEquals(0, holder.getPendingDisposalCount());
+    }
+
+    @Test
+    void disposal_timeout() throws Exception {
+        var holder = new ServerResourceHolder();
+        holder.setCloseTimeout(new Timeout(10, TimeUnit.MILLISECONDS, Timeout.Policy.IGNORE));
+        var r1 = new MockResponse();
+        var r2 = new MockResponse();
+        r2.future.complete(null);
+        holder.addDisposal(r1);
+        holder.addDisposal(r2);
+        holder.close();
+        assertFalse(r1.isDone());
+        assertTrue(r1.closed);
+        assertTrue(r2.closed);
+        assertEquals(0, holder.getPendingDisposalCount());
+    }
+
+    @Test
+    void disposal_closeResources() throws Exception {
+        var holder = new ServerResourceHolder();
+        var response = new MockResponse();
+        holder.register(new ServerResource() {
+            @Override
+            public void close() throws ServerException, IOException, InterruptedException {
+                holder.addDisposal(response);
+                response.future.complete(null);
+            }
+        });
+        holder.close();
+        assertTrue(response.closed);
+        assertEquals(0, holder.getPendingDisposalCount());
+    }
+
+    @Test
+    void disposal_channelResponse() throws Exception {
+        var link = new TestingLink();
+        var holder = new ServerResourceHolder();
+        ResponseProcessor<Void> processor = new ResponseProcessor<>() {
+            @Override
+            public Void process(Response response) throws IOException {
+                response.waitForMainResponse();
+                return null;
+            }
+        };
+        var c1 = new ChannelResponse(link);
+        var c2 = new ChannelResponse(link);
+        var r1 = new ForegroundFutureResponse<>(FutureResponse.wrap(Owner.of(c1)), processor);
+        var r2 = new ForegroundFutureResponse<>(FutureResponse.wrap(Owner.of(c2)), processor);
+
+        // the responses have not arrived yet, must not wait for them
+        holder.addDisposal(r1);
+        holder.addDisposal(r2);
+        assertFalse(r1.isDone());
+        assertEquals(2, holder.getPendingDisposalCount());
+
+        // reclaims only the arrived one, even if it is not the first
+        c2.setMainResponse(new IOException("intentional"));
+        holder.addDisposal(FutureResponse.returns(null));
+        assertEquals(1, holder.getPendingDisposalCount());
+
+        holder.setCloseTimeout(new Timeout(10, TimeUnit.MILLISECONDS, Timeout.Policy.IGNORE));
+        holder.close();
+        assertEquals(0, holder.getPendingDisposalCount());
+        link.close();
+    }
+}
@@ -0,0 +1,57 @@
+package com.tsurugidb.tsubakuro.util;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.tsurugidb.framework.proto.FrameworkRequest;
+import com.tsurugidb.tsubakuro.channel.common.connection.sql.ResultSetWire;
+import com.tsurugidb.tsubakuro.channel.common.connection.wire.impl.ChannelResponse;
+import com.tsurugidb.tsubakuro.channel.common.connection.wire.impl.Link;
+
+/**
+ * A {@link Link} which performs the events given by the test, instead of receiving messages.
+ */
+class TestingLink extends Link {
+
+    final BlockingQueue<Runnable> events = new LinkedBlockingQueue<>();
+
+    private volatile boolean closed;
+
+    @Override
+    public void send(int s, FrameworkRequest.Header header, byte[] payload, ChannelResponse channelResponse) {
+        return;
+    }
+
+    @Override
+    public ResultSetWire createResultSetWire() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean doPull(long t, TimeUnit u) throws TimeoutException {
+        Runnable event;
+        try {
+            event = t == 0 ? events.take() : events.poll(t, u);
+        } catch (InterruptedException e) {
+            return false;
+        }
+        if (event == null) {
+            throw new TimeoutException();
+        }
+        event.run();
+        return !closed;
+    }
+
+    @Override
+    public boolean isAlive() {
+        return !closed;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        events.add(() -> { });
+    }
+}
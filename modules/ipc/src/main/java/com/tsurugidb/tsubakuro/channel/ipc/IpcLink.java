@@ -1,6 +1,7 @@
 package com.tsurugidb.tsubakuro.channel.ipc;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.HashSet;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -12,6 +13,8 @@ import javax.annotation.Nonnull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.protobuf.CodedOutputStream;
+import com.tsurugidb.framework.proto.FrameworkRequest;
 import com.tsurugidb.tsubakuro.channel.common.connection.sql.ResultSetWire;
 import com.tsurugidb.tsubakuro.channel.common.connection.wire.impl.ChannelResponse;
 import com.tsurugidb.tsubakuro.channel.common.connection.wire.impl.Link;
@@ -27,6 +30,7 @@ public final class IpcLink extends Link {
     private final AtomicBoolean serverDown = new AtomicBoolean();
     private final ReentrantReadWriteLock rwl = new ReentrantReadWriteLock();
     private final HashSet<ResultSetWireImpl> resources = new HashSet<>();
+    private ByteBuffer sendBuffer = ByteBuffer.allocateDirect(INITIAL_SEND_BUFFER_SIZE);  // guarded by this
 
     public static final byte RESPONSE_NULL = 0;
     public static final byte RESPONSE_PAYLOAD = 1;
@@ -34,7 +38,7 @@ public final class IpcLink extends Link {
     public static final byte RESPONSE_CODE = 3;
 
     private static native long openNative(String name) throws IOException;
-    private static native void sendNative(long wireHandle, int slot, byte[] message);
+    private static native void sendNative(long wireHandle, int slot, ByteBuffer message, int length) throws IOException;
     private static native int awaitNative(long wireHandle, long timeout) throws IOException, TimeoutException;
     private static native int getInfoNative(long wireHandle);
     private static native byte[] receiveNative(long wireHandle);
@@ -42,6 +46,12 @@ public final class IpcLink extends Link {
     private static native void closeNative(long wireHandle);
     private static native void destroyNative(long wireHandle);
 
+    // the initial capacity of the direct buffer used to pass request messages to the native wire
+    private static final int INITIAL_SEND_BUFFER_SIZE = 4096;
+
+    // the receiver thread must release the read lock periodically so that close() can proceed
+    private static final long RECEIVER_PULL_TIMEOUT = 1000; // in mS
+
     static final Logger LOG = LoggerFactory.getLogger(IpcLink.class);
 
     static {
@@ -59,31 +69,49 @@ public final class IpcLink extends Link {
     }
 
     @Override
-    public void send(int s, @Nonnull byte[] frameHeader, @Nonnull byte[] payload, @Nonnull ChannelResponse channelResponse) {
+    public void send(int s, @Nonnull FrameworkRequest.Header header, @Nonnull byte[] payload, @Nonnull ChannelResponse channelResponse) {
         if (serverDown.get()) {
             channelResponse.setMainResponse(new IOException("Link already closed"));
             return;
         }
-        byte[] message = new byte[frameHeader.length + payload.length];
-        System.arraycopy(frameHeader, 0, message, 0, frameHeader.length);
-        System.arraycopy(payload, 0, message, frameHeader.length, payload.length);
-
         rwl.readLock().lock();
         try {
             if (!closed.get()) {
                 synchronized (this) {
-                    sendNative(wireHandle, s, message);
+                    var message = writeSendBuffer(header, payload);
+                    sendNative(wireHandle, s, message, message.position());
                 }
             } else {
                 channelResponse.setMainResponse(new IOException("Link already closed"));
                 return;
             }
+        } catch (IOException e) {
+            channelResponse.setMainResponse(e);
+            return;
         } finally {
             rwl.readLock().unlock();
         }
         LOG.trace("send {}", payload);
     }
 
+    // must be called in synchronized (this)
+    private ByteBuffer writeSendBuffer(FrameworkRequest.Header header, byte[] payload) throws IOException {
+        int headerSize = header.getSerializedSize();
+        int length = CodedOutputStream.computeUInt32SizeNoTag(headerSize) + headerSize + payload.length;
+        if (sendBuffer.capacity() < length) {
+            sendBuffer = ByteBuffer.allocateDirect(Math.max(length, sendBuffer.capacity() * 2));
+        }
+        sendBuffer.clear();
+
+        // serialize the header directly into the buffer passed to the native wire, and then append the payload
+        var output = CodedOutputStream.newInstance(sendBuffer);
+        output.writeUInt32NoTag(headerSize);
+        header.writeTo(output);
+        output.writeRawBytes(payload);
+        output.flush();
+        return sendBuffer;
+    }
+
     @Override
     public boolean doPull(long timeout, TimeUnit unit) throws TimeoutException {
         LinkMessage message = null;
@@ -118,6 +146,11 @@ public final class IpcLink extends Link {
         return false;
     }
 
+    @Override
+    protected long receiverPullTimeout() {
+        return RECEIVER_PULL_TIMEOUT;
+    }
+
     private LinkMessage receive(long timeout) throws IOException, TimeoutException {
         rwl.readLock().lock();
         try {
@@ -10,15 +10,73 @@ import com.tsurugidb.tsubakuro.channel.ipc.IpcLink;
 
 /**
  * ResultSetWireImpl type.
+ * <p>
+ * By default, each chunk is retrieved by a single native call which also disposes of the previous chunk,
+ * and the remaining chunks are discarded within a native call.
+ * Setting the system property {@value #KEY_PROPERTY_SINGLE_CROSSING} to {@code false} restores the
+ * separate dispose and retrieve calls, which is only for comparing the performance.
+ * </p>
  */
 public class ResultSetWireImpl implements ResultSetWire {
+
+    /**
+     * The system property key whether or not each chunk is retrieved by a single native call.
+     */
+    public static final String KEY_PROPERTY_SINGLE_CROSSING = "com.tsurugidb.tsubakuro.ipc.resultset.singleCrossing"; //$NON-NLS-1$
+
+    static final boolean SINGLE_CROSSING = Boolean.parseBoolean(
+            System.getProperty(KEY_PROPERTY_SINGLE_CROSSING, "true")); //$NON-NLS-1$
+
     private static native long createNative(long sessionWireHandle, String name) throws IOException;
     private static native ByteBuffer getChunkNative(long handle);
     private static native void disposeUsedDataNative(long handle, long length);
+    private static native ByteBuffer nextChunkNative(long handle, boolean disposeUsed);
+    private static native void discardRemainingNative(long handle, boolean disposeUsed);
     private static native boolean isEndOfRecordNative(long handle);
     private static native void closeNative(long handle);
 
+    /**
+     * The operations on the native result set wire, which can be replaced for testing.
+     */
+    interface NativeResultSet {
+        long create(long sessionWireHandle, String name) throws IOException;
+        ByteBuffer getChunk(long handle);
+        void disposeUsedData(long handle, long length);
+        ByteBuffer nextChunk(long handle, boolean disposeUsed);
+        void discardRemaining(long handle, boolean disposeUsed);
+        void close(long handle);
+    }
+
+    static final NativeResultSet NATIVE = new NativeResultSet() {
+        @Override
+        public long create(long sessionWireHandle, String name) throws IOException {
+            return createNative(sessionWireHandle, name);
+        }
+        @Override
+        public ByteBuffer getChunk(long handle) {
+            return getChunkNative(handle);
+        }
+        @Override
+        public void disposeUsedData(long handle, long length) {
+            disposeUsedDataNative(handle, length);
+        }
+        @Override
+        public ByteBuffer nextChunk(long handle, boolean disposeUsed) {
+            return nextChunkNative(handle, disposeUsed);
+        }
+        @Override
+        public void discardRemaining(long handle, boolean disposeUsed) {
+            discardRemainingNative(handle, disposeUsed);
+        }
+        @Override
+        public void close(long handle) {
+            closeNative(handle);
+        }
+    };
+
     private final IpcLink link;
+    private final NativeResultSet nativeResultSet;
+    private final boolean singleCrossing;
     private long sessionWireHandle;
     private ByteBufferBackedInput byteBufferBackedInput;
 
@@ -28,17 +86,21 @@ public class ResultSetWireImpl implements ResultSetWire {
 
         ByteBufferBackedInputForIpc(long sessionWireHandle, String name) throws IOException {
             super(ByteBuffer.allocate(0));
-            this.wireHandle = createNative(sessionWireHandle, name);
+            this.wireHandle = nativeResultSet.create(sessionWireHandle, name);
         }
 
         @Override
         protected boolean next() {
             synchronized (this) {
                 if (wireHandle != 0) {
+                    if (singleCrossing) {
+                        source = nativeResultSet.nextChunk(wireHandle, source.capacity() > 0);
+                        return source != null;
+                    }
                     if (source.capacity() > 0) {
-                        disposeUsedDataNative(wireHandle, source.capacity());
+                        nativeResultSet.disposeUsedData(wireHandle, source.capacity());
                     }
-                    source = getChunkNative(wireHandle);
+                    source = nativeResultSet.getChunk(wireHandle);
                     return source != null;
                 }
                 return false;
@@ -51,19 +113,28 @@ public class ResultSetWireImpl implements ResultSetWire {
                 synchronized (this) {
                     discardRemainingResultSet();
                     super.close();
-                    closeNative(wireHandle);
-                    link.remove(ResultSetWireImpl.this);
+                    nativeResultSet.close(wireHandle);
+                    if (link != null) {
+                        link.remove(ResultSetWireImpl.this);
+                    }
                     wireHandle = 0;
                 }
             }
         }
 
         private void discardRemainingResultSet() {
+            if (singleCrossing) {
+                if (source != null) {
+                    nativeResultSet.discardRemaining(wireHandle, source.capacity() > 0);
+                    source = null;
+                }
+                return;
+            }
             while (source != null) {
                 if (source.capacity() > 0) {
-                    disposeUsedDataNative(wireHandle, source.capacity());
+                    nativeResultSet.disposeUsedData(wireHandle, source.capacity());
                 }
-                source = getChunkNative(wireHandle);
+                source = nativeResultSet.getChunk(wireHandle);
             }
         }
     }
@@ -74,9 +145,22 @@ public class ResultSetWireImpl implements ResultSetWire {
      * @param link the link through which the result set will be sent
      */
     public ResultSetWireImpl(long sessionWireHandle, IpcLink link) {
+        this(sessionWireHandle, link, NATIVE, SINGLE_CROSSING);
+    }
+
+    /**
+     * Creates a new instance with the specified native operations.
+     * @param sessionWireHandle the handle of the Wire to which the transaction that created this object belongs
+     * @param link the link through which the result set will be sent, or {@code null} if it is not managed
+     * @param nativeResultSet the operations on the native result set wire
+     * @param singleCrossing whether or not each chunk is retrieved by a single native call
+     */
+    ResultSetWireImpl(long sessionWireHandle, IpcLink link, NativeResultSet nativeResultSet, boolean singleCrossing) {
         this.sessionWireHandle = sessionWireHandle;
         this.byteBufferBackedInput = null;
         this.link = link;
+        this.nativeResultSet = nativeResultSet;
+        this.singleCrossing = singleCrossing;
     }
 
     /**
@@ -26,10 +26,10 @@ JNIEXPORT jlong JNICALL Java_com_tsurugidb_tsubakuro_channel_ipc_IpcLink_openNat
 /*
  * Class:     com_tsurugidb_tsubakuro_channel_ipc_IpcLink
  * Method:    sendNative
- * Signature: (JI[B)V
+ * Signature: (JILjava/nio/ByteBuffer;I)V
  */
 JNIEXPORT void JNICALL Java_com_tsurugidb_tsubakuro_channel_ipc_IpcLink_sendNative
-  (JNIEnv *, jclass, jlong, jint, jbyteArray);
+  (JNIEnv *, jclass, jlong, jint, jobject, jint);
 
 /*
  * Class:     com_tsurugidb_tsubakuro_channel_ipc_IpcLink
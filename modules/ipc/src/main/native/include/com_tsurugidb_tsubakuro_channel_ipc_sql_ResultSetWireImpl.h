@@ -31,6 +31,22 @@ JNIEXPORT jobject JNICALL Java_com_tsurugidb_tsubakuro_channel_ipc_sql_ResultSet
 JNIEXPORT void JNICALL Java_com_tsurugidb_tsubakuro_channel_ipc_sql_ResultSetWireImpl_disposeUsedDataNative
   (JNIEnv *, jclass, jlong, jlong);
 
+/*
+ * Class:     com_tsurugidb_tsubakuro_channel_ipc_sql_ResultSetWireImpl
+ * Method:    nextChunkNative
+ * Signature: (JZ)Ljava/nio/ByteBuffer;
+ */
+JNIEXPORT jobject JNICALL Java_com_tsurugidb_tsubakuro_channel_ipc_sql_ResultSetWireImpl_nextChunkNative
+  (JNIEnv *, jclass, jlong, jboolean);
+
+/*
+ * Class:     com_tsurugidb_tsubakuro_channel_ipc_sql_ResultSetWireImpl
+ * Method:    discardRemainingNative
+ * Signature: (JZ)V
+ */
+JNIEXPORT void JNICALL Java_com_tsurugidb_tsubakuro_channel_ipc_sql_ResultSetWireImpl_discardRemainingNative
+  (JNIEnv *, jclass, jlong, jboolean);
+
 /*
  * Class:     com_tsurugidb_tsubakuro_channel_ipc_sql_ResultSetWireImpl
  * Method:    isEndOfRecordNative
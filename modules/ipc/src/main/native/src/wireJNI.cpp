@@ -51,17 +51,24 @@ JNIEXPORT jlong JNICALL Java_com_tsurugidb_tsubakuro_channel_ipc_IpcLink_openNat
 /*
  * Class:     com_tsurugidb_tsubakuro_channel_ipc_IpcLink
  * Method:    sendNative
- * Signature: (JI[B)V
+ * Signature: (JILjava/nio/ByteBuffer;I)V
  */
 JNIEXPORT void JNICALL Java_com_tsurugidb_tsubakuro_channel_ipc_IpcLink_sendNative
-  (JNIEnv *env, jclass, jlong handle, jint slot, jbyteArray message) {
+  (JNIEnv *env, jclass, jlong handle, jint slot, jobject message, jint length) {
     session_wire_container* swc = reinterpret_cast<session_wire_container*>(static_cast<std::uintptr_t>(handle));
 
-    auto m_address = env->GetByteArrayElements(message, nullptr);
+    // the message is a direct buffer, so that it can be written to the wire without copying into the native heap
+    auto m_address = static_cast<signed char*>(env->GetDirectBufferAddress(message));
+    if (m_address == nullptr) {
+        jclass classj = env->FindClass("Ljava/io/IOException;");
+        if (classj == nullptr) { std::abort(); }
+        env->ThrowNew(classj, "message is not a direct buffer");
+        env->DeleteLocalRef(classj);
+        return;
+    }
 
     auto& request_wire = swc->get_request_wire();
-    request_wire.write(static_cast<signed char*>(m_address), env->GetArrayLength(message), slot);
-    env->ReleaseByteArrayElements(message, m_address, JNI_ABORT);
+    request_wire.write(m_address, length, slot);
 }
 
 /*
@@ -261,6 +268,50 @@ JNIEXPORT void JNICALL Java_com_tsurugidb_tsubakuro_channel_ipc_sql_ResultSetWir
     }
 }
 
+/*
+ * Class:     com_tsurugidb_tsubakuro_channel_ipc_sql_ResultSetWireImpl
+ * Method:    nextChunkNative
+ * Signature: (JZ)Ljava/nio/ByteBuffer;
+ */
+JNIEXPORT jobject JNICALL Java_com_tsurugidb_tsubakuro_channel_ipc_sql_ResultSetWireImpl_nextChunkNative
+(JNIEnv *env, jclass, jlong handle, jboolean dispose_used)
+{
+    session_wire_container::resultset_wires_container* rwc = reinterpret_cast<session_wire_container::resultset_wires_container*>(static_cast<std::uintptr_t>(handle));
+
+    if (dispose_used) {
+        rwc->dispose();
+    }
+    auto buf = rwc->get_chunk();
+    if(buf.data()) {
+        return env->NewDirectByteBuffer(static_cast<void*>(const_cast<char*>(buf.data())), buf.length());
+    }
+    return nullptr;
+}
+
+/*
+ * Class:     com_tsurugidb_tsubakuro_channel_ipc_sql_ResultSetWireImpl
+ * Method:    discardRemainingNative
+ * Signature: (JZ)V
+ */
+JNIEXPORT void JNICALL Java_com_tsurugidb_tsubakuro_channel_ipc_sql_ResultSetWireImpl_discardRemainingNative
+(JNIEnv *, jclass, jlong handle, jboolean dispose_used)
+{
+    session_wire_container::resultset_wires_container* rwc = reinterpret_cast<session_wire_container::resultset_wires_container*>(static_cast<std::uintptr_t>(handle));
+
+    if (dispose_used) {
+        rwc->dispose();
+    }
+    while (true) {
+        auto buf = rwc->get_chunk();
+        if (!buf.data()) {
+            break;
+        }
+        if (buf.length() > 0) {
+            rwc->dispose();
+        }
+    }
+}
+
 /*
  * Class:     com_tsurugidb_tsubakuro_channel_ipc_sql_ResultSetWireImpl
  * Method:    isEndOfRecordNative
@@ -0,0 +1,206 @@
+package com.tsurugidb.tsubakuro.channel.ipc.sql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.tsurugidb.tsubakuro.channel.common.connection.sql.ResultSetWire;
+
+/**
+ * Tests {@link ResultSetWireImpl} against a mocked native result set wire,
+ * which verifies how the chunks are retrieved and disposed of.
+ */
+class ResultSetWireImplTest {
+
+    private static final long SESSION_HANDLE = 100;
+
+    private static final long WIRE_HANDLE = 200;
+
+    /**
+     * A native result set wire which provides the given chunks and records the native calls.
+     */
+    static class MockNativeResultSet implements ResultSetWireImpl.NativeResultSet {
+
+        final List<String> calls = new ArrayList<>();
+
+        private final Deque<ByteBuffer> chunks = new ArrayDeque<>();
+
+        // the chunk which has been provided but not disposed yet
+        private ByteBuffer current;
+
+        MockNativeResultSet(int... sizes) {
+            for (int size : sizes) {
+                chunks.add(ByteBuffer.allocate(size));
+            }
+        }
+
+        @Override
+        public long create(long sessionWireHandle, String name) throws IOException {
+            assertEquals(SESSION_HANDLE, sessionWireHandle);
+            if (name.equals("missing")) {
+                throw new IOException("missing");
+            }
+            calls.add("create");
+            return WIRE_HANDLE;
+        }
+
+        @Override
+        public ByteBuffer getChunk(long handle) {
+            assertEquals(WIRE_HANDLE, handle);
+            calls.add("get");
+            return provide();
+        }
+
+        @Override
+        public void disposeUsedData(long handle, long length) {
+            assertEquals(WIRE_HANDLE, handle);
+            calls.add("dispose(" + length + ")");
+            dispose(length);
+        }
+
+        @Override
+        public ByteBuffer nextChunk(long handle, boolean disposeUsed) {
+            assertEquals(WIRE_HANDLE, handle);
+            calls.add("next(" + disposeUsed + ")");
+            if (disposeUsed) {
+                dispose(current.capacity());
+            }
+            return provide();
+        }
+
+        @Override
+        public void discardRemaining(long handle, boolean disposeUsed) {
+            assertEquals(WIRE_HANDLE, handle);
+            calls.add("discard(" + disposeUsed + ")");
+            if (disposeUsed) {
+                dispose(current.capacity());
+            }
+            chunks.clear();
+        }
+
+        @Override
+        public void close(long handle) {
+            assertEquals(WIRE_HANDLE, handle);
+            calls.add("close");
+        }
+
+        private ByteBuffer provide() {
+            assertNull(current, "previous chunk is not disposed");
+            current = chunks.poll();
+            return current;
+        }
+
+        private void dispose(long length) {
+            assertTrue(current != null, "no chunks to dispose");
+            assertEquals(current.capacity(), length);
+            current = null;
+        }
+    }
+
+    private static ResultSetWire.ByteBufferBackedInput open(MockNativeResultSet mock, boolean singleCrossing)
+            throws IOException {
+        var wire = new ResultSetWireImpl(SESSION_HANDLE, null, mock, singleCrossing);
+        return (ResultSetWire.ByteBufferBackedInput) wire.connect("rs").getByteBufferBackedInput();
+    }
+
+    private static int readAll(ResultSetWire.ByteBufferBackedInput input) {
+        var buffer = new byte[16];
+        int total = 0;
+        while (true) {
+            int n = input.read(buffer, 0, buffer.length);
+            if (n < 0) {
+                return total;
+            }
+            total += n;
+        }
+    }
+
+    @Test
+    void readToEnd() throws Exception {
+        var mock = new MockNativeResultSet(3, 20);
+        var input = open(mock, true);
+        assertEquals(23, readAll(input));
+        input.close();
+        assertEquals(List.of("create", "next(false)", "next(true)", "next(true)", "close"), mock.calls);
+    }
+
+    @Test
+    void closeAfterPartialRead() throws Exception {
+        var mock = new MockNativeResultSet(3, 20, 5);
+        var input = open(mock, true);
+        assertEquals(0, input.read());
+        input.close();
+        // the remaining chunks are discarded within a single native call
+        assertEquals(List.of("create", "next(false)", "discard(true)", "close"), mock.calls);
+    }
+
+    @Test
+    void closeBeforeRead() throws Exception {
+        var mock = new MockNativeResultSet(3, 20);
+        var input = open(mock, true);
+        input.close();
+        assertEquals(List.of("create", "discard(false)", "close"), mock.calls);
+    }
+
+    @Test
+    void closeAfterEnd() throws Exception {
+        var mock = new MockNativeResultSet(3);
+        var input = open(mock, true);
+        assertEquals(3, readAll(input));
+        input.close();
+        input.close();
+        assertEquals(List.of("create", "next(false)", "next(true)", "close"), mock.calls);
+    }
+
+    @Test
+    void nextChunk() throws Exception {
+        var mock = new MockNativeResultSet(3, 20);
+        var input = open(mock, true);
+        assertTrue(input.nextChunk());
+        assertEquals(3, input.currentChunk().remaining());
+        assertTrue(input.nextChunk());
+        assertEquals(20, input.currentChunk().remaining());
+        assertFalse(input.nextChunk());
+        assertNull(input.currentChunk());
+        input.close();
+        assertEquals(List.of("create", "next(false)", "next(true)", "next(true)", "close"), mock.calls);
+    }
+
+    @Test
+    void legacyReadToEnd() throws Exception {
+        var mock = new MockNativeResultSet(3, 20);
+        var input = open(mock, false);
+        assertEquals(23, readAll(input));
+        input.close();
+        assertEquals(List.of("create", "get", "dispose(3)", "get", "dispose(20)", "get", "close"), mock.calls);
+    }
+
+    @Test
+    void legacyCloseAfterPartialRead() throws Exception {
+        var mock = new MockNativeResultSet(3, 20);
+        var input = open(mock, false);
+        assertEquals(0, input.read());
+        input.close();
+        assertEquals(List.of("create", "get", "dispose(3)", "get", "dispose(20)", "get", "close"), mock.calls);
+    }
+
+    @Test
+    void connectFailure() throws Exception {
+        var mock = new MockNativeResultSet();
+        var wire = new ResultSetWireImpl(SESSION_HANDLE, null, mock, true);
+        assertThrows(IOException.class, () -> wire.connect(""));
+        assertThrows(IOException.class, () -> wire.connect("missing"));
+        assertEquals(List.of(), mock.calls);
+    }
+}
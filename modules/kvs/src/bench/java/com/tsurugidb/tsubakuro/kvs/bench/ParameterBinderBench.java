@@ -0,0 +1,183 @@
+package com.tsurugidb.tsubakuro.kvs.bench;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import com.tsurugidb.sql.proto.SqlCommon;
+import com.tsurugidb.sql.proto.SqlRequest;
+import com.tsurugidb.tsubakuro.sql.ParameterBinder;
+import com.tsurugidb.tsubakuro.sql.Parameters;
+import com.tsurugidb.tsubakuro.util.Messages;
+
+/**
+ * Request building benchmark of prepared statement executions, which compares {@link Parameters} and
+ * {@link ParameterBinder}.
+ * <p>
+ * This benchmark does not require a running server.
+ * Each iteration builds a serialized {@code ExecutePreparedStatement} request with {@code INT8}, {@code DECIMAL}
+ * and {@code CHARACTER} parameters, and reports the elapsed time and the allocated bytes per request.
+ * </p>
+ */
+final class ParameterBinderBench {
+
+    private static final SqlCommon.Transaction TRANSACTION = SqlCommon.Transaction.newBuilder()
+            .setHandle(1)
+            .build();
+
+    private static final SqlCommon.PreparedStatement STATEMENT = SqlCommon.PreparedStatement.newBuilder()
+            .setHandle(2)
+            .build();
+
+    private final int numColumns;
+    private final int warmupLoop;
+    private final int runningLoop;
+    private final List<String> names = new ArrayList<>();
+    private long blackhole;
+
+    private ParameterBinderBench(String[] args) {
+        this.numColumns = Integer.parseInt(args[0]);
+        this.warmupLoop = Integer.parseInt(args[1]);
+        this.runningLoop = Integer.parseInt(args[2]);
+        for (int i = 0; i < numColumns; i++) {
+            names.add("p" + i);
+        }
+        System.out.println("numColumns=" + numColumns + ", warmupLoop=" + warmupLoop
+                + ", runningLoop=" + runningLoop);
+    }
+
+    @FunctionalInterface
+    private interface Builder {
+        byte[] build(long value) throws IOException;
+    }
+
+    private static String stringOf(long value) {
+        return "value-" + value;
+    }
+
+    private byte[] buildByParameters(long value) throws IOException {
+        var request = SqlRequest.ExecutePreparedStatement.newBuilder()
+                .setTransactionHandle(TRANSACTION)
+                .setPreparedStatementHandle(STATEMENT);
+        for (int i = 0; i < numColumns; i++) {
+            var name = names.get(i);
+            switch (i % 3) {
+            case 0:
+                request.addParameters(Parameters.of(name, value + i));
+                break;
+            case 1:
+                request.addParameters(Parameters.of(name, BigDecimal.valueOf(value + i, 2)));
+                break;
+            default:
+                request.addParameters(Parameters.of(name, stringOf(value)));
+                break;
+            }
+        }
+        return Messages.toDelimitedByteArray(SqlRequest.Request.newBuilder()
+                .setExecutePreparedStatement(request)
+                .build());
+    }
+
+    private byte[] buildByBinder(ParameterBinder binder, SqlRequest.ExecutePreparedStatement header, long value)
+            throws IOException {
+        for (int i = 0; i < numColumns; i++) {
+            switch (i % 3) {
+            case 0:
+                binder.setLong(i, value + i);
+                break;
+            case 1:
+                binder.setDecimal(i, value + i, 2);
+                break;
+            default:
+                binder.setString(i, stringOf(value));
+                break;
+            }
+        }
+        // as same as SqlServiceStub
+        int requestField = SqlRequest.Request.EXECUTE_PREPARED_STATEMENT_FIELD_NUMBER;
+        int parametersField = SqlRequest.ExecutePreparedStatement.PARAMETERS_FIELD_NUMBER;
+        int bodySize = header.getSerializedSize() + binder.getSerializedSize(parametersField);
+        int size = CodedOutputStream.computeTagSize(requestField)
+                + CodedOutputStream.computeUInt32SizeNoTag(bodySize)
+                + bodySize;
+        var bytes = new byte[CodedOutputStream.computeUInt32SizeNoTag(size) + size];
+        var output = CodedOutputStream.newInstance(bytes);
+        output.writeUInt32NoTag(size);
+        output.writeTag(requestField, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+        output.writeUInt32NoTag(bodySize);
+        header.writeTo(output);
+        binder.writeTo(output, parametersField);
+        output.checkNoSpaceLeft();
+        return bytes;
+    }
+
+    private static long allocatedBytes() {
+        var bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    private void bench(String name, Builder builder, int nloop, boolean print) throws IOException {
+        long startBytes = allocatedBytes();
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < nloop; i++) {
+            blackhole += builder.build(i).length;
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        long allocated = allocatedBytes() - startBytes;
+        if (print) {
+            System.out.printf("%s,%.2f,%.1f", name, (double) elapsedNanos / nloop, (double) allocated / nloop);
+            System.out.println();
+        }
+    }
+
+    private void bench() throws IOException {
+        var binder = new ParameterBinder(names);
+        var header = SqlRequest.ExecutePreparedStatement.newBuilder()
+                .setTransactionHandle(TRANSACTION)
+                .setPreparedStatementHandle(STATEMENT)
+                .build();
+        Builder parameters = this::buildByParameters;
+        Builder binding = value -> buildByBinder(binder, header, value);
+
+        // both must build the same request
+        if (!Arrays.equals(parameters.build(12345), binding.build(12345))) {
+            throw new IllegalStateException("requests are not same");
+        }
+
+        System.out.println("# path, nsec/request, bytes allocated/request");
+        bench("parameters", parameters, warmupLoop, false);
+        bench("binder", binding, warmupLoop, false);
+        bench("parameters", parameters, runningLoop, true);
+        bench("binder", binding, runningLoop, true);
+        if (blackhole == Long.MIN_VALUE) {
+            System.out.println(blackhole);
+        }
+    }
+
+    /**
+     * main.
+     * @param args program arguments.
+     */
+    public static void main(String[] args) {
+        if (args.length < 3 || args[0].contains("help")) {
+            System.out.println("Usage: java ParameterBinderBench num_columns warmup_loop running_loop");
+            System.out.println("\tex: java ParameterBinderBench 6 1000000 5000000");
+            return;
+        }
+        ParameterBinderBench app = new ParameterBinderBench(args);
+        try {
+            app.bench();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+}
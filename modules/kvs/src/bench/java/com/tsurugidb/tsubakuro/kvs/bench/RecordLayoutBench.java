@@ -0,0 +1,167 @@
+package com.tsurugidb.tsubakuro.kvs.bench;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.tsurugidb.kvs.proto.KvsData;
+import com.tsurugidb.tsubakuro.kvs.Record;
+import com.tsurugidb.tsubakuro.kvs.RecordBuffer;
+import com.tsurugidb.tsubakuro.kvs.RecordLayout;
+
+/**
+ * Record encoding/decoding benchmark, which compares plain {@link RecordBuffer}/{@link Record}
+ * and the ones bound to {@link RecordLayout}.
+ * <p>
+ * This benchmark does not require a running server.
+ * Each {@code encode} iteration builds a record of {@code BIGINT} columns and serializes it,
+ * and each {@code decode} iteration parses the serialized record and reads all values by their names.
+ * This reports the elapsed time and the allocated bytes per record, and the serialized bytes per record
+ * with or without the entry names.
+ * </p>
+ */
+final class RecordLayoutBench {
+
+    private final List<Integer> numColumns;
+    private final int warmupLoop;
+    private final int runningLoop;
+    private long blackhole;
+
+    private RecordLayoutBench(String[] args) {
+        var nums = args[0].split(",");
+        this.numColumns = new ArrayList<Integer>(nums.length);
+        for (var s : nums) {
+            this.numColumns.add(Integer.parseInt(s));
+        }
+        this.warmupLoop = Integer.parseInt(args[1]);
+        this.runningLoop = Integer.parseInt(args[2]);
+        System.out.println("numColumns=" + args[0] + ", warmupLoop=" + warmupLoop
+                + ", runningLoop=" + runningLoop);
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        long run(long value) throws InvalidProtocolBufferException;
+    }
+
+    private static long allocatedBytes() {
+        var bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    private void bench(String name, int ncols, Operation operation, int nloop, boolean print)
+            throws InvalidProtocolBufferException {
+        long startBytes = allocatedBytes();
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < nloop; i++) {
+            blackhole += operation.run(i);
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        long allocated = allocatedBytes() - startBytes;
+        if (print) {
+            System.out.printf("%s,%d,%.2f,%.1f", name, ncols, (double) elapsedNanos / nloop, (double) allocated / nloop);
+            System.out.println();
+        }
+    }
+
+    private static List<String> names(int ncols) {
+        var results = new ArrayList<String>(ncols);
+        for (int i = 0; i < ncols; i++) {
+            results.add("column" + i);
+        }
+        return results;
+    }
+
+    private void bench(int ncols, int nloop, boolean print) throws InvalidProtocolBufferException {
+        var names = names(ncols);
+        var layout = RecordLayout.of(names);
+        var buffer = new RecordBuffer();
+        var bound = layout.newBuffer();
+        Operation plainEncode = value -> {
+            buffer.clear();
+            for (int i = 0; i < ncols; i++) {
+                buffer.add(names.get(i), value + i);
+            }
+            return buffer.toRecord().getEntity().toByteArray().length;
+        };
+        Operation layoutEncode = value -> {
+            for (int i = 0; i < ncols; i++) {
+                bound.set(i, value + i);
+            }
+            return bound.toRecord().getEntity().toByteArray().length;
+        };
+        var bytes = bound.toRecord().getEntity().toByteArray();
+        Operation plainDecode = value -> {
+            var record = new Record(KvsData.Record.parseFrom(bytes));
+            long sum = 0;
+            for (int i = 0; i < ncols; i++) {
+                sum += record.getLong(names.get(i));
+            }
+            return sum;
+        };
+        Operation layoutDecode = value -> {
+            var record = layout.wrap(KvsData.Record.parseFrom(bytes));
+            long sum = 0;
+            for (int i = 0; i < ncols; i++) {
+                sum += record.getLong(names.get(i));
+            }
+            return sum;
+        };
+        bench("encode-plain", ncols, plainEncode, nloop, print);
+        bench("encode-layout", ncols, layoutEncode, nloop, print);
+        bench("decode-plain", ncols, plainDecode, nloop, print);
+        bench("decode-layout", ncols, layoutDecode, nloop, print);
+    }
+
+    private void printSizes(int ncols) {
+        var layout = RecordLayout.of(names(ncols));
+        var buffer = layout.newBuffer();
+        for (int i = 0; i < ncols; i++) {
+            buffer.set(i, 1_000_000L + i);
+        }
+        var entity = buffer.toRecord().getEntity();
+        int withNames = entity.getSerializedSize();
+        int withoutNames = entity.toBuilder().clearNames().build().getSerializedSize();
+        System.out.printf("%d,%d,%d,%.1f%%", ncols, withNames, withoutNames,
+                100.0 * (withNames - withoutNames) / withNames);
+        System.out.println();
+    }
+
+    private void bench() throws InvalidProtocolBufferException {
+        System.out.println("# num_columns, serialized bytes/record, without names, names ratio");
+        for (var ncols : numColumns) {
+            printSizes(ncols);
+        }
+        System.out.println("# path, num_columns, nsec/record, bytes allocated/record");
+        for (var ncols : numColumns) {
+            bench(ncols, warmupLoop, false);
+            bench(ncols, runningLoop, true);
+        }
+        if (blackhole == Long.MIN_VALUE) {
+            System.out.println(blackhole);
+        }
+    }
+
+    /**
+     * main.
+     * @param args program arguments.
+     */
+    public static void main(String[] args) {
+        if (args.length < 3 || args[0].contains("help")) {
+            System.out.println("Usage: java RecordLayoutBench num_columns warmup_loop running_loop");
+            System.out.println("\tex: java RecordLayoutBench 2,10,100 100000 1000000");
+            return;
+        }
+        RecordLayoutBench app = new RecordLayoutBench(args);
+        try {
+            app.bench();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+}
@@ -0,0 +1,166 @@
+package com.tsurugidb.tsubakuro.kvs.bench;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.tsurugidb.kvs.proto.KvsData;
+import com.tsurugidb.tsubakuro.kvs.Record;
+import com.tsurugidb.tsubakuro.kvs.RecordBuffer;
+import com.tsurugidb.tsubakuro.kvs.RecordLayout;
+import com.tsurugidb.tsubakuro.kvs.RecordReader;
+import com.tsurugidb.tsubakuro.kvs.RecordWriter;
+
+/**
+ * Record encoding/decoding benchmark, which compares {@link RecordBuffer}/{@link Record}
+ * and {@link RecordWriter}/{@link RecordReader}.
+ * <p>
+ * This benchmark does not require a running server.
+ * Each {@code encode} iteration fills a record of {@code BIGINT} columns and serializes it,
+ * and each {@code decode} iteration reads all values of the serialized record.
+ * This reports the elapsed time and the allocated bytes per record.
+ * </p>
+ */
+final class RecordWriterBench {
+
+    private final List<Integer> numColumns;
+    private final int warmupLoop;
+    private final int runningLoop;
+    private long blackhole;
+
+    private RecordWriterBench(String[] args) {
+        var nums = args[0].split(",");
+        this.numColumns = new ArrayList<Integer>(nums.length);
+        for (var s : nums) {
+            this.numColumns.add(Integer.parseInt(s));
+        }
+        this.warmupLoop = Integer.parseInt(args[1]);
+        this.runningLoop = Integer.parseInt(args[2]);
+        System.out.println("numColumns=" + args[0] + ", warmupLoop=" + warmupLoop
+                + ", runningLoop=" + runningLoop);
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        long run(long value) throws InvalidProtocolBufferException;
+    }
+
+    private static long allocatedBytes() {
+        var bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    private void bench(String name, int ncols, Operation operation, int nloop, boolean print)
+            throws InvalidProtocolBufferException {
+        long startBytes = allocatedBytes();
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < nloop; i++) {
+            blackhole += operation.run(i);
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        long allocated = allocatedBytes() - startBytes;
+        if (print) {
+            System.out.printf("%s,%d,%.2f,%.1f", name, ncols, (double) elapsedNanos / nloop, (double) allocated / nloop);
+            System.out.println();
+        }
+    }
+
+    private static RecordLayout layout(int ncols) {
+        var names = new ArrayList<String>(ncols);
+        for (int i = 0; i < ncols; i++) {
+            names.add("column" + i);
+        }
+        return RecordLayout.of(names);
+    }
+
+    private static void verify(int ncols) {
+        var layout = layout(ncols);
+        var buffer = layout.newBuffer();
+        var writer = new RecordWriter(layout);
+        for (int i = 0; i < ncols; i++) {
+            buffer.set(i, 1_000_000L + i);
+            writer.setLong(i, 1_000_000L + i);
+        }
+        if (!Arrays.equals(buffer.toRecord().getEntity().toByteArray(), writer.toByteArray())) {
+            throw new IllegalStateException("serialized records are different: num_columns=" + ncols);
+        }
+    }
+
+    private void bench(int ncols, int nloop, boolean print) throws InvalidProtocolBufferException {
+        var layout = layout(ncols);
+        var buffer = layout.newBuffer();
+        var writer = new RecordWriter(layout);
+        Operation bufferEncode = value -> {
+            for (int i = 0; i < ncols; i++) {
+                buffer.set(i, value + i);
+            }
+            return buffer.toRecord().getEntity().toByteArray().length;
+        };
+        Operation writerEncode = value -> {
+            for (int i = 0; i < ncols; i++) {
+                writer.setLong(i, value + i);
+            }
+            return writer.toByteArray().length;
+        };
+        var bytes = writer.toByteArray();
+        Operation recordDecode = value -> {
+            var record = layout.wrap(KvsData.Record.parseFrom(bytes));
+            long sum = 0;
+            for (int i = 0; i < ncols; i++) {
+                sum += record.getLong(layout.getName(i));
+            }
+            return sum;
+        };
+        var reader = new RecordReader();
+        Operation readerDecode = value -> {
+            reader.reset(bytes);
+            long sum = 0;
+            for (int i = 0; i < ncols; i++) {
+                sum += reader.getLong(i);
+            }
+            return sum;
+        };
+        bench("encode-buffer", ncols, bufferEncode, nloop, print);
+        bench("encode-writer", ncols, writerEncode, nloop, print);
+        bench("decode-record", ncols, recordDecode, nloop, print);
+        bench("decode-reader", ncols, readerDecode, nloop, print);
+    }
+
+    private void bench() throws InvalidProtocolBufferException {
+        for (var ncols : numColumns) {
+            verify(ncols);
+        }
+        System.out.println("# path, num_columns, nsec/record, bytes allocated/record");
+        for (var ncols : numColumns) {
+            bench(ncols, warmupLoop, false);
+            bench(ncols, runningLoop, true);
+        }
+        if (blackhole == Long.MIN_VALUE) {
+            System.out.println(blackhole);
+        }
+    }
+
+    /**
+     * main.
+     * @param args program arguments.
+     */
+    public static void main(String[] args) {
+        if (args.length < 3 || args[0].contains("help")) {
+            System.out.println("Usage: java RecordWriterBench num_columns warmup_loop running_loop");
+            System.out.println("\tex: java RecordWriterBench 10,100 100000 1000000");
+            return;
+        }
+        RecordWriterBench app = new RecordWriterBench(args);
+        try {
+            app.bench();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+}
@@ -0,0 +1,114 @@
+package com.tsurugidb.tsubakuro.kvs.bench;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.tsurugidb.kvs.proto.KvsRequest;
+import com.tsurugidb.kvs.proto.KvsTransaction;
+import com.tsurugidb.tsubakuro.channel.common.connection.NullCredential;
+import com.tsurugidb.tsubakuro.channel.common.connection.wire.Wire;
+import com.tsurugidb.tsubakuro.common.SessionBuilder;
+import com.tsurugidb.tsubakuro.kvs.RecordBuffer;
+import com.tsurugidb.tsubakuro.kvs.impl.KvsServiceStub;
+import com.tsurugidb.tsubakuro.util.Messages;
+
+/**
+ * Request framing benchmark, which measures heap bytes allocated and elapsed time per request
+ * while a PUT request is serialized and sent through the session wire.
+ * <p>
+ * This benchmark requires a running server.
+ * Each iteration serializes the request as the service stubs do, and passes it to
+ * {@link Wire#send(int, byte[])}, which frames the request and writes it to the link
+ * (e.g. {@code IpcLink} for {@code ipc:} endpoints).
+ * Only the sending part is measured; the responses are received outside of the measurement.
+ * Note that the requests refer to a transaction which does not exist, so that the server
+ * returns an error response without modifying any tables.
+ * </p>
+ */
+final class RequestFramingBench {
+
+    private final URI endpoint;
+    private final List<Integer> valueSizes;
+    private final int warmupLoop;
+    private final int runningLoop;
+    private final com.sun.management.ThreadMXBean threadBean;
+
+    private RequestFramingBench(String[] args) {
+        this.endpoint = URI.create(args[0]);
+        var sizes = args[1].split(",");
+        this.valueSizes = new ArrayList<Integer>(sizes.length);
+        for (var s : sizes) {
+            this.valueSizes.add(Integer.parseInt(s));
+        }
+        this.warmupLoop = Integer.parseInt(args[2]);
+        this.runningLoop = Integer.parseInt(args[3]);
+        this.threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        System.out.println("endpoint=" + endpoint + ", valueSizes=" + args[1] + ", warmupLoop=" + warmupLoop
+                + ", runningLoop=" + runningLoop);
+    }
+
+    private static KvsRequest.Request request(int valueSize) {
+        var record = new RecordBuffer()
+                .add("key", 1L)
+                .add("value", new byte[valueSize]);
+        return KvsRequest.Request.newBuilder()
+                .setPut(KvsRequest.Put.newBuilder()
+                        .setTransactionHandle(KvsTransaction.Handle.newBuilder().setSystemId(Long.MAX_VALUE))
+                        .setIndex(KvsRequest.Index.newBuilder().setTableName("TABLE1"))
+                        .addRecords(record.toRecord().getEntity()))
+                .build();
+    }
+
+    private void bench(Wire wire, int valueSize, int nloop, boolean print) throws Exception {
+        var request = request(valueSize);
+        long threadId = Thread.currentThread().getId();
+        long allocatedBytes = 0;
+        long elapsedNanos = 0;
+        for (int i = 0; i < nloop; i++) {
+            long startBytes = threadBean.getThreadAllocatedBytes(threadId);
+            long startNanos = System.nanoTime();
+            var future = wire.send(KvsServiceStub.SERVICE_ID, Messages.toDelimitedByteArray(request));
+            elapsedNanos += System.nanoTime() - startNanos;
+            allocatedBytes += threadBean.getThreadAllocatedBytes(threadId) - startBytes;
+            try (var response = future.get()) {
+                response.waitForMainResponse();
+            }
+        }
+        if (print) {
+            System.out.printf("%d,%.1f,%.1f", valueSize, (double) allocatedBytes / nloop, (double) elapsedNanos / nloop);
+            System.out.println();
+        }
+    }
+
+    private void bench() throws Exception {
+        try (var session = SessionBuilder.connect(endpoint).withCredential(NullCredential.INSTANCE).create()) {
+            var wire = session.getWire();
+            System.out.println("# value_size, bytes/request, nsec/request");
+            for (int valueSize : valueSizes) {
+                bench(wire, valueSize, warmupLoop, false);
+                bench(wire, valueSize, runningLoop, true);
+            }
+        }
+    }
+
+    /**
+     * main.
+     * @param args program arguments.
+     */
+    public static void main(String[] args) {
+        if (args.length < 4 || args[0].contains("help")) {
+            System.out.println("Usage: java RequestFramingBench endpoint value_size(s) warmup_loop running_loop");
+            System.out.println("\tex: java RequestFramingBench ipc:tsurugi 8,128,1024,16384 10000 100000");
+            return;
+        }
+        RequestFramingBench app = new RequestFramingBench(args);
+        try {
+            app.bench();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+}
@@ -0,0 +1,99 @@
+package com.tsurugidb.tsubakuro.kvs.bench;
+
+import java.net.URI;
+
+import com.tsurugidb.tsubakuro.channel.common.connection.NullCredential;
+import com.tsurugidb.tsubakuro.channel.ipc.sql.ResultSetWireImpl;
+import com.tsurugidb.tsubakuro.common.SessionBuilder;
+import com.tsurugidb.tsubakuro.kvs.ycsb.Constants;
+import com.tsurugidb.tsubakuro.sql.SqlClient;
+import com.tsurugidb.tsubakuro.sql.Transaction;
+
+/**
+ * Result set fetch benchmark, which measures the time to read whole records of the YCSB-like table.
+ * <p>
+ * Create the table by {@code runYCSBlikeBenchCreateDB} before running this benchmark.
+ * Run this twice, with the system property {@link ResultSetWireImpl#KEY_PROPERTY_SINGLE_CROSSING}
+ * {@code true} and {@code false}, to compare the number of native calls per chunk on IPC connections.
+ * </p>
+ */
+final class ResultSetFetchBench {
+
+    private final URI endpoint;
+    private final int warmupLoop;
+    private final int runningLoop;
+    private final String sql;
+    private long blackhole;
+
+    private ResultSetFetchBench(String[] args) {
+        this.endpoint = URI.create(args[0]);
+        this.warmupLoop = Integer.parseInt(args[1]);
+        this.runningLoop = Integer.parseInt(args[2]);
+        this.sql = String.format("SELECT %s, %s FROM %s", Constants.KEY_NAME, Constants.VALUE_NAME,
+                Constants.TABLE_NAME);
+        System.out.println("endpoint=" + endpoint + ", warmupLoop=" + warmupLoop + ", runningLoop=" + runningLoop
+                + ", " + ResultSetWireImpl.KEY_PROPERTY_SINGLE_CROSSING + "="
+                + System.getProperty(ResultSetWireImpl.KEY_PROPERTY_SINGLE_CROSSING, "true"));
+    }
+
+    private long scan(Transaction tx) throws Exception {
+        long rows = 0;
+        try (var rs = tx.executeQuery(sql).await()) {
+            while (rs.nextRow()) {
+                while (rs.nextColumn()) {
+                    blackhole += rs.fetchInt8Value();
+                }
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    private void bench(SqlClient client, int nloop, boolean print) throws Exception {
+        long rows = 0;
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < nloop; i++) {
+            try (var tx = client.createTransaction().await()) {
+                rows += scan(tx);
+                tx.commit().await();
+            }
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        if (print) {
+            System.out.printf("%d,%d,%.1f,%.1f", nloop, rows, (double) elapsedNanos / 1_000_000 / nloop,
+                    (double) elapsedNanos / Math.max(rows, 1));
+            System.out.println();
+        }
+    }
+
+    private void bench() throws Exception {
+        try (var session = SessionBuilder.connect(endpoint).withCredential(NullCredential.INSTANCE).create();
+            var client = SqlClient.attach(session)) {
+            bench(client, warmupLoop, false);
+            System.out.println("# scans, rows, msec/scan, nsec/row");
+            bench(client, runningLoop, true);
+        }
+        if (blackhole == Long.MIN_VALUE) {
+            System.out.println(blackhole);
+        }
+    }
+
+    /**
+     * main.
+     * @param args program arguments.
+     */
+    public static void main(String[] args) {
+        if (args.length < 3 || args[0].contains("help")) {
+            System.out.println("Usage: java ResultSetFetchBench endpoint warmup_loop running_loop");
+            System.out.println("\tex: java ResultSetFetchBench ipc:tsurugi 10 100");
+            return;
+        }
+        ResultSetFetchBench app = new ResultSetFetchBench(args);
+        try {
+            app.bench();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+}
@@ -0,0 +1,177 @@
+package com.tsurugidb.tsubakuro.kvs.bench;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.tsurugidb.tsubakuro.channel.common.connection.sql.ResultSetWire.ByteBufferBackedInput;
+import com.tsurugidb.tsubakuro.sql.io.ByteBufferBackedValueInput;
+import com.tsurugidb.tsubakuro.sql.io.EntryType;
+import com.tsurugidb.tsubakuro.sql.io.StreamBackedValueInput;
+import com.tsurugidb.tsubakuro.sql.io.StreamBackedValueOutput;
+import com.tsurugidb.tsubakuro.sql.io.ValueInput;
+
+/**
+ * Relation decoding benchmark, which compares {@link StreamBackedValueInput} and
+ * {@link ByteBufferBackedValueInput} on int-, string- and decimal-heavy relations.
+ * <p>
+ * This benchmark does not require a running server.
+ * Each relation is encoded once, split into chunks like the result set wires, and then decoded repeatedly.
+ * </p>
+ */
+final class ValueInputBench {
+
+    private static final int NUM_COLUMNS = 8;
+
+    private final int numRows;
+    private final int chunkSize;
+    private final int warmupLoop;
+    private final int runningLoop;
+    private long blackhole;
+
+    private ValueInputBench(String[] args) {
+        this.numRows = Integer.parseInt(args[0]);
+        this.chunkSize = Integer.parseInt(args[1]);
+        this.warmupLoop = Integer.parseInt(args[2]);
+        this.runningLoop = Integer.parseInt(args[3]);
+        System.out.println("numRows=" + numRows + ", chunkSize=" + chunkSize + ", warmupLoop=" + warmupLoop
+                + ", runningLoop=" + runningLoop);
+    }
+
+    private enum Relation {
+        INT,
+        STRING,
+        DECIMAL,
+    }
+
+    @FunctionalInterface
+    private interface Decoder {
+        ValueInput open(List<ByteBuffer> chunks);
+    }
+
+    private static final class ChunkInput extends ByteBufferBackedInput {
+
+        private final List<ByteBuffer> chunks;
+
+        private int index;
+
+        ChunkInput(List<ByteBuffer> chunks) {
+            super(chunks.get(0).duplicate());
+            this.chunks = chunks;
+        }
+
+        @Override
+        protected boolean next() {
+            if (++index >= chunks.size()) {
+                return false;
+            }
+            source = chunks.get(index).duplicate();
+            return true;
+        }
+    }
+
+    private List<ByteBuffer> encode(Relation relation) throws IOException {
+        var buffer = new ByteArrayOutputStream();
+        try (var output = new StreamBackedValueOutput(buffer)) {
+            for (int row = 0; row < numRows; row++) {
+                output.writeRowBegin(NUM_COLUMNS);
+                for (int column = 0; column < NUM_COLUMNS; column++) {
+                    long value = (long) row * NUM_COLUMNS + column;
+                    switch (relation) {
+                    case INT:
+                        output.writeInt(value * 1_000_003L);
+                        break;
+                    case STRING:
+                        output.writeCharacter("value-" + value);
+                        break;
+                    case DECIMAL:
+                        output.writeDecimal(BigDecimal.valueOf(value, 2));
+                        break;
+                    default:
+                        throw new AssertionError(relation);
+                    }
+                }
+            }
+            output.writeEndOfContents();
+        }
+        byte[] bytes = buffer.toByteArray();
+        var chunks = new ArrayList<ByteBuffer>();
+        for (int offset = 0; offset < bytes.length; offset += chunkSize) {
+            chunks.add(ByteBuffer.wrap(bytes, offset, Math.min(chunkSize, bytes.length - offset)).slice());
+        }
+        return chunks;
+    }
+
+    private void decode(ValueInput input, Relation relation) throws IOException, InterruptedException {
+        while (input.peekType() != EntryType.END_OF_CONTENTS) {
+            int columns = input.readRowBegin();
+            for (int column = 0; column < columns; column++) {
+                switch (relation) {
+                case INT:
+                    blackhole += input.readInt();
+                    break;
+                case STRING:
+                    blackhole += input.readCharacter().length();
+                    break;
+                case DECIMAL:
+                    blackhole += input.readDecimal().scale();
+                    break;
+                default:
+                    throw new AssertionError(relation);
+                }
+            }
+        }
+    }
+
+    private void bench(String name, Decoder decoder, Relation relation, List<ByteBuffer> chunks, int nloop,
+            boolean print) throws IOException, InterruptedException {
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < nloop; i++) {
+            var input = decoder.open(chunks);
+            decode(input, relation);
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        if (print) {
+            System.out.printf("%s,%s,%.2f", name, relation, (double) elapsedNanos / ((long) nloop * numRows));
+            System.out.println();
+        }
+    }
+
+    private void bench() throws IOException, InterruptedException {
+        Decoder stream = chunks -> new StreamBackedValueInput(new ChunkInput(chunks));
+        Decoder buffer = chunks -> new ByteBufferBackedValueInput(new ChunkInput(chunks));
+        System.out.println("# input, relation, nsec/row");
+        for (var relation : Relation.values()) {
+            var chunks = encode(relation);
+            bench("stream", stream, relation, chunks, warmupLoop, false);
+            bench("buffer", buffer, relation, chunks, warmupLoop, false);
+            bench("stream", stream, relation, chunks, runningLoop, true);
+            bench("buffer", buffer, relation, chunks, runningLoop, true);
+        }
+        if (blackhole == Long.MIN_VALUE) {
+            System.out.println(blackhole);
+        }
+    }
+
+    /**
+     * main.
+     * @param args program arguments.
+     */
+    public static void main(String[] args) {
+        if (args.length < 4 || args[0].contains("help")) {
+            System.out.println("Usage: java ValueInputBench num_rows chunk_size warmup_loop running_loop");
+            System.out.println("\tex: java ValueInputBench 100000 65536 20 100");
+            return;
+        }
+        ValueInputBench app = new ValueInputBench(args);
+        try {
+            app.bench();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+}
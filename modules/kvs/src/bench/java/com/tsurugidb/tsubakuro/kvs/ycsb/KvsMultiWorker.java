@@ -0,0 +1,67 @@
+package com.tsurugidb.tsubakuro.kvs.ycsb;
+
+import java.net.URI;
+import java.util.ArrayList;
+
+import com.tsurugidb.tsubakuro.channel.common.connection.NullCredential;
+import com.tsurugidb.tsubakuro.common.SessionBuilder;
+import com.tsurugidb.tsubakuro.kvs.KvsClient;
+import com.tsurugidb.tsubakuro.kvs.PutType;
+import com.tsurugidb.tsubakuro.kvs.RecordBuffer;
+import com.tsurugidb.tsubakuro.kvs.util.RunManager;
+
+/**
+ * benchmark worker using multi-key operations of KvsClient.
+ * Each transaction executes {@code batchSize} operations,
+ * GET operations by a single multiGet and PUT operations by a single multiPut.
+ */
+public class KvsMultiWorker extends Worker {
+
+    private final int batchSize;
+
+    KvsMultiWorker(RunManager mgr, URI endpoint, int numClient, int clientId, int rratio, int batchSize)
+            throws Exception {
+        super(mgr, endpoint, numClient, clientId, rratio);
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public Long benchmark() throws Exception {
+        long numTx = 0;
+        var getKeys = new ArrayList<RecordBuffer>(batchSize);
+        var putRecords = new ArrayList<RecordBuffer>(batchSize);
+        try (var session = SessionBuilder.connect(endpoint).withCredential(NullCredential.INSTANCE).create();
+            var kvs = KvsClient.attach(session)) {
+            mgr.addReadyWorker();
+            mgr.waitUntilWorkerStartTime();
+            int optId = 0;
+            while (!mgr.isQuit()) {
+                getKeys.clear();
+                putRecords.clear();
+                for (int i = 0; i < batchSize; i++, optId++) {
+                    var op = operations.get(optId % operations.size());
+                    RecordBuffer buffer = new RecordBuffer();
+                    buffer.add(Constants.KEY_NAME, Long.valueOf(op.key()));
+                    if (op.isGet()) {
+                        getKeys.add(buffer);
+                    } else {
+                        buffer.add(Constants.VALUE_NAME, Long.valueOf(100L * i));
+                        putRecords.add(buffer);
+                    }
+                }
+                try (var tx = kvs.beginTransaction().await()) {
+                    if (!getKeys.isEmpty()) {
+                        kvs.multiGet(tx, tableName, getKeys).await();
+                    }
+                    if (!putRecords.isEmpty()) {
+                        kvs.multiPut(tx, tableName, putRecords, PutType.IF_PRESENT).await();
+                    }
+                    kvs.commit(tx).await();
+                }
+                numTx++;
+            }
+        }
+        return Long.valueOf(numTx);
+    }
+
+}
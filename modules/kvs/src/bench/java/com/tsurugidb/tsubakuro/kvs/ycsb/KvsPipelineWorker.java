@@ -0,0 +1,118 @@
+package com.tsurugidb.tsubakuro.kvs.ycsb;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+
+import com.tsurugidb.tsubakuro.channel.common.connection.NullCredential;
+import com.tsurugidb.tsubakuro.common.SessionBuilder;
+import com.tsurugidb.tsubakuro.kvs.BatchScript;
+import com.tsurugidb.tsubakuro.kvs.KvsClient;
+import com.tsurugidb.tsubakuro.kvs.PutType;
+import com.tsurugidb.tsubakuro.kvs.RecordBuffer;
+import com.tsurugidb.tsubakuro.kvs.util.RunManager;
+import com.tsurugidb.tsubakuro.util.FutureResponse;
+
+/**
+ * benchmark worker using pipelined transactions of KvsClient.
+ * Each transaction issues BEGIN, {@code OPS_PER_TX} operations and COMMIT without waiting for the intermediate
+ * responses, and at most {@code pipelineDepth} transactions are in flight.
+ * If {@code useBatch} is set, each transaction is sent as a single {@link BatchScript} which starts a
+ * {@link BatchScript#newTransaction() new transaction} and commits it, instead of the
+ * {@link KvsClient#createPipelinedTransaction() pipelined transaction} which sends the individual requests.
+ */
+public class KvsPipelineWorker extends Worker {
+
+    private final int pipelineDepth;
+
+    private final boolean useBatch;
+
+    @FunctionalInterface
+    private interface InFlight {
+        void await() throws Exception;
+    }
+
+    KvsPipelineWorker(RunManager mgr, URI endpoint, int numClient, int clientId, int rratio, int pipelineDepth,
+            boolean useBatch) throws Exception {
+        super(mgr, endpoint, numClient, clientId, rratio);
+        this.pipelineDepth = pipelineDepth;
+        this.useBatch = useBatch;
+    }
+
+    @Override
+    public Long benchmark() throws Exception {
+        long numTx = 0;
+        var inFlight = new ArrayDeque<InFlight>(pipelineDepth);
+        try (var session = SessionBuilder.connect(endpoint).withCredential(NullCredential.INSTANCE).create();
+            var kvs = KvsClient.attach(session)) {
+            mgr.addReadyWorker();
+            mgr.waitUntilWorkerStartTime();
+            int optId = 0;
+            while (!mgr.isQuit()) {
+                if (inFlight.size() >= pipelineDepth) {
+                    inFlight.poll().await();
+                    numTx++;
+                }
+                if (useBatch) {
+                    inFlight.add(sendBatch(kvs, optId));
+                } else {
+                    inFlight.add(sendPipelined(kvs, optId));
+                }
+                optId += Constants.OPS_PER_TX;
+            }
+            while (!inFlight.isEmpty()) {
+                inFlight.poll().await();
+                numTx++;
+            }
+        }
+        return Long.valueOf(numTx);
+    }
+
+    private InFlight sendPipelined(KvsClient kvs, int optId) throws Exception {
+        var tx = kvs.createPipelinedTransaction();
+        var responses = new ArrayList<FutureResponse<?>>(Constants.OPS_PER_TX);
+        for (int i = 0; i < Constants.OPS_PER_TX; i++) {
+            var op = operations.get((optId + i) % operations.size());
+            RecordBuffer buffer = new RecordBuffer();
+            buffer.add(Constants.KEY_NAME, Long.valueOf(op.key()));
+            if (op.isGet()) {
+                responses.add(tx.get(tableName, buffer));
+            } else {
+                buffer.add(Constants.VALUE_NAME, Long.valueOf(100L * i));
+                responses.add(tx.put(tableName, buffer, PutType.IF_PRESENT));
+            }
+        }
+        var commit = tx.commit();
+        return () -> {
+            try (tx) {
+                for (var response : responses) {
+                    response.await();
+                }
+                commit.await();
+            }
+        };
+    }
+
+    private InFlight sendBatch(KvsClient kvs, int optId) throws Exception {
+        var script = new BatchScript();
+        // BEGIN and COMMIT are included in the same request
+        script.newTransaction();
+        for (int i = 0; i < Constants.OPS_PER_TX; i++) {
+            var op = operations.get((optId + i) % operations.size());
+            RecordBuffer buffer = new RecordBuffer();
+            buffer.add(Constants.KEY_NAME, Long.valueOf(op.key()));
+            if (op.isGet()) {
+                script.addGet(tableName, buffer);
+            } else {
+                buffer.add(Constants.VALUE_NAME, Long.valueOf(100L * i));
+                script.addPut(tableName, buffer, PutType.IF_PRESENT);
+            }
+        }
+        var response = kvs.batch(script);
+        return () -> {
+            try (response) {
+                response.await();
+            }
+        };
+    }
+}
@@ -22,6 +22,9 @@ public class YCSBlikeBenchmark {
     private final long benchMsec;
     private final boolean createDB;
     private final boolean useKvsClient;
+    private final String[] batchSizes;
+    private final String[] pipelineDepths;
+    private final boolean pipelineBatch;
 
     YCSBlikeBenchmark(String[] args) {
         this.endpoint = URI.create(args[0]);
@@ -37,6 +40,11 @@ public class YCSBlikeBenchmark {
             this.benchMsec = 1000 * Long.parseLong(args[4]);
         }
         this.useKvsClient = !System.getProperty("useSqlClient", "false").equals("true");
+        var batch = System.getProperty("batchSizes", "");
+        this.batchSizes = batch.isEmpty() ? null : batch.split(",");
+        var depth = System.getProperty("pipelineDepths", "");
+        this.pipelineDepths = depth.isEmpty() ? null : depth.split(",");
+        this.pipelineBatch = System.getProperty("pipelineBatch", "false").equals("true");
     }
 
     private void createTables() throws Exception {
@@ -64,6 +72,16 @@ public class YCSBlikeBenchmark {
         System.out.println("# record/table, " + Constants.NUM_RECORDS);
         System.out.println("# clientType, " + (useKvsClient ? "KvsClient" : "SqlClient"));
         System.out.println("# useSameTable, " + Constants.USE_SAME_TABLE);
+        if (batchSizes != null) {
+            System.out.println("# multi-key operations, true");
+            System.out.println("# num_client, read_ratio, sec, num_tx, tx/sec, usec/tx, batch_size, ops/sec");
+            return;
+        }
+        if (pipelineDepths != null) {
+            System.out.println("# pipelined transactions, " + (pipelineBatch ? "batch" : "true"));
+            System.out.println("# num_client, read_ratio, sec, num_tx, tx/sec, usec/tx, pipeline_depth");
+            return;
+        }
         System.out.println("# num_client, read_ratio, sec, num_tx, tx/sec, usec/tx");
     }
 
@@ -73,7 +91,38 @@ public class YCSBlikeBenchmark {
         System.out.println();
     }
 
-    private Worker newWorker(RunManager mgr, int numClient, int clientId, int rratio) throws Exception {
+    private static void result(int numClient, int rratio, long elapseMsec, long numTx, int batchSize) {
+        if (batchSize <= 0) {
+            result(numClient, rratio, elapseMsec, numTx);
+            return;
+        }
+        double sec = elapseMsec / 1000.0;
+        System.out.printf("%d,%d,%.1f,%d,%.1f,%.2f,%d,%.1f", numClient, rratio, sec, numTx, numTx / sec,
+                1e+6 * sec / numTx, batchSize, numTx * batchSize / sec);
+        System.out.println();
+    }
+
+    private static void result(int numClient, int rratio, long elapseMsec, long numTx, int batchSize,
+            int pipelineDepth) {
+        if (pipelineDepth <= 0) {
+            result(numClient, rratio, elapseMsec, numTx, batchSize);
+            return;
+        }
+        double sec = elapseMsec / 1000.0;
+        System.out.printf("%d,%d,%.1f,%d,%.1f,%.2f,%d", numClient, rratio, sec, numTx, numTx / sec,
+                1e+6 * sec / numTx, pipelineDepth);
+        System.out.println();
+    }
+
+    private Worker newWorker(RunManager mgr, int numClient, int clientId, int rratio, int batchSize,
+            int pipelineDepth) throws Exception {
+        if (batchSize > 0) {
+            return new KvsMultiWorker(mgr, endpoint, numClient, clientId, rratio, batchSize);
+        }
+        if (pipelineDepth > 0) {
+            return new KvsPipelineWorker(mgr, endpoint, numClient, clientId, rratio, pipelineDepth,
+                    pipelineBatch);
+        }
         return useKvsClient ? new KvsWorker(mgr, endpoint, numClient, clientId, rratio)
                 : new SqlWorker(mgr, endpoint, numClient, clientId, rratio);
     }
@@ -81,8 +130,10 @@ public class YCSBlikeBenchmark {
     private void warmup() throws Exception {
         final int numClient = 1;
         final int rratio = Integer.parseInt(rratios[0]);
+        final int batchSize = batchSizes != null ? Integer.parseInt(batchSizes[0]) : 0;
+        final int pipelineDepth = pipelineDepths != null ? Integer.parseInt(pipelineDepths[0]) : 0;
         var mgr = new RunManager(numClient);
-        Worker worker = newWorker(mgr, numClient, 0, rratio);
+        Worker worker = newWorker(mgr, numClient, 0, rratio, batchSize, pipelineDepth);
         ExecutorService executor = Executors.newFixedThreadPool(numClient);
         try {
             var future = executor.submit(worker);
@@ -92,7 +143,7 @@ public class YCSBlikeBenchmark {
             mgr.setQuit();
             long end = System.currentTimeMillis();
             var numTx = future.get();
-            result(numClient, rratio, end - start, numTx);
+            result(numClient, rratio, end - start, numTx, batchSize, pipelineDepth);
         } catch (Exception e) {
             e.printStackTrace();
         } finally {
@@ -100,7 +151,7 @@ public class YCSBlikeBenchmark {
         }
     }
 
-    private void bench(int numClient, int rratio) {
+    private void bench(int numClient, int rratio, int batchSize, int pipelineDepth) {
         var clients = new ArrayList<Future<Long>>(numClient);
         ExecutorService executor = Executors.newFixedThreadPool(numClient);
         // System.err.println(numClient + " threads start");
@@ -108,7 +159,7 @@ public class YCSBlikeBenchmark {
         var mgr = new RunManager(numClient);
         try {
             for (int i = 0; i < numClient; i++) {
-                var worker = newWorker(mgr, numClient, i, rratio);
+                var worker = newWorker(mgr, numClient, i, rratio, batchSize, pipelineDepth);
                 clients.add(executor.submit(worker));
             }
             if (!createDB) {
@@ -119,7 +170,7 @@ public class YCSBlikeBenchmark {
             for (var future : clients) {
                 sumTx += future.get();
             }
-            result(numClient, rratio, benchMsec, sumTx);
+            result(numClient, rratio, benchMsec, sumTx, batchSize, pipelineDepth);
         } catch (Exception e) {
             e.printStackTrace();
         } finally {
@@ -131,7 +182,19 @@ public class YCSBlikeBenchmark {
         showCvsHeader();
         for (var n : numClients) {
             for (var r : rratios) {
-                bench(Integer.parseInt(n), Integer.parseInt(r));
+                if (batchSizes != null) {
+                    for (var b : batchSizes) {
+                        bench(Integer.parseInt(n), Integer.parseInt(r), Integer.parseInt(b), 0);
+                    }
+                    continue;
+                }
+                if (pipelineDepths != null) {
+                    for (var d : pipelineDepths) {
+                        bench(Integer.parseInt(n), Integer.parseInt(r), 0, Integer.parseInt(d));
+                    }
+                    continue;
+                }
+                bench(Integer.parseInt(n), Integer.parseInt(r), 0, 0);
             }
         }
     }
@@ -147,6 +210,9 @@ public class YCSBlikeBenchmark {
             System.err.println("Usage: java YCSBlikeBenchmark endpoint num_client(s) rratio(s) warmupSec benchSec");
             System.err.println("\tex\\tjava YCSBlikeBenchmark ipc:tsurugi 1 50 10 30");
             System.err.println("\tex\\tjava YCSBlikeBenchmark ipc:tsurugi 1,2,4,8 50,95 10 30");
+            System.err.println("\tex\\tjava -DbatchSizes=1,10,100,1000 YCSBlikeBenchmark ipc:tsurugi 1 50 10 30");
+            System.err.println("\tex\\tjava -DpipelineDepths=1,2,4,8 YCSBlikeBenchmark ipc:tsurugi 1 50 10 30");
+            System.err.println("\tex\\tjava -DpipelineDepths=1,2,4,8 -DpipelineBatch=true YCSBlikeBenchmark ipc:tsurugi 1 50 10 30");
             return;
         }
         YCSBlikeBenchmark app = new YCSBlikeBenchmark(args);
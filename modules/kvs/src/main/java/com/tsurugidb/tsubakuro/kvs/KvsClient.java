@@ -1,6 +1,8 @@
 package com.tsurugidb.tsubakuro.kvs;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
 
 import javax.annotation.Nonnull;
@@ -8,7 +10,11 @@ import javax.annotation.Nullable;
 
 import com.tsurugidb.tsubakuro.common.Session;
 import com.tsurugidb.tsubakuro.exception.ServerException;
+import com.tsurugidb.tsubakuro.kvs.impl.CompositeFutureResponse;
 import com.tsurugidb.tsubakuro.kvs.impl.KvsClientImpl;
+import com.tsurugidb.tsubakuro.kvs.impl.PipelinedTransactionImpl;
+import com.tsurugidb.tsubakuro.kvs.impl.PutResultImpl;
+import com.tsurugidb.tsubakuro.kvs.impl.RemoveResultImpl;
 import com.tsurugidb.tsubakuro.util.FutureResponse;
 import com.tsurugidb.tsubakuro.util.ServerResource;
 
@@ -49,6 +55,40 @@ public interface KvsClient extends ServerResource {
      */
     FutureResponse<TransactionHandle> beginTransaction(@Nonnull TransactionOption option) throws IOException;
 
+    /**
+     * Starts a new transaction with default transaction options, without waiting for its start.
+     * @return the transaction object
+     * @throws IOException if I/O error was occurred while sending request
+     * @see #createPipelinedTransaction(TransactionOption)
+     */
+    default PipelinedTransaction createPipelinedTransaction() throws IOException {
+        return createPipelinedTransaction(new TransactionOption());
+    }
+
+    /**
+     * Starts a new transaction without waiting for its start.
+     * <p>
+     * The operations to the returned transaction are queued until the transaction has been started, and then
+     * they are sent back-to-back without waiting for the individual responses.
+     * This is suitable for short transactions, like {@code BEGIN}, some operations and then {@code COMMIT}.
+     * </p>
+     * <p>
+     * If all operations and their inputs are known before the transaction starts, {@link #batch(BatchScript)}
+     * with {@link BatchScript#newTransaction()} sends {@code BEGIN}, the operations and {@code COMMIT}
+     * in a single request instead.
+     * The pipelined transaction is for the cases that the operations are decided one by one,
+     * or the individual results must be consumed before the commit.
+     * </p>
+     * @param option the transaction option
+     * @return the transaction object
+     * @throws IOException if I/O error was occurred while sending request
+     * @see #batch(BatchScript)
+     */
+    default PipelinedTransaction createPipelinedTransaction(@Nonnull TransactionOption option) throws IOException {
+        Objects.requireNonNull(option);
+        return new PipelinedTransactionImpl(this, beginTransaction(option));
+    }
+
     /**
      * Commits the transaction.
      * <p>
@@ -110,6 +150,37 @@ public interface KvsClient extends ServerResource {
             @Nonnull TransactionHandle transaction,
             @Nonnull String table, @Nonnull RecordBuffer key) throws IOException;
 
+    /**
+     * Requests {@code GET} operation, which retrieves a record on the table into the reader.
+     * <p>
+     * This is the same as {@link #get(TransactionHandle, String, RecordBuffer)}, but the reader is reset with
+     * the serialized record in the response, without decoding the record into {@link Record}.
+     * The reader is not modified if there is no such the record for the key.
+     * Please don't use the reader until the returned future is completed.
+     * </p>
+     * @param transaction the context transaction handle
+     * @param table the source table
+     * @param key the index key of the target table
+     * @param reader the reader to be reset with the retrieved record
+     * @return a future response of this action,
+     *      which returns {@code true} if the record was found, or {@code false} otherwise
+     * @throws IllegalArgumentException if the transaction handle is not supported
+     * @throws IOException if I/O error was occurred while sending request
+     */
+    default FutureResponse<Boolean> get(
+            @Nonnull TransactionHandle transaction,
+            @Nonnull String table, @Nonnull RecordBuffer key, @Nonnull RecordReader reader) throws IOException {
+        Objects.requireNonNull(reader);
+        return new CompositeFutureResponse<GetResult, Boolean>(List.of(get(transaction, table, key)), results -> {
+            var result = results.get(0);
+            if (result.isEmpty()) {
+                return false;
+            }
+            reader.reset(result.asRecord());
+            return true;
+        });
+    }
+
     /**
      * Requests {@code PUT} operation, which creates or updates a row on the table.
      * <p>
@@ -156,6 +227,48 @@ public interface KvsClient extends ServerResource {
             @Nonnull TransactionHandle transaction,
             @Nonnull String table, @Nonnull RecordBuffer record, @Nonnull PutType behavior) throws IOException;
 
+    /**
+     * Requests {@code PUT} operation, which creates or updates a row on the table.
+     * <p>
+     * This is equivalent to {@link #put(TransactionHandle, String, RecordWriter, PutType)
+     * put(transaction, table, record, PutType.DEFAULT_BEHAVIOR)}.
+     * </p>
+     * @param transaction the context transaction handle
+     * @param table the target table
+     * @param record the row data to put to the target table
+     * @return a future response of this action.
+     * @throws IllegalArgumentException if the transaction handle is not supported
+     * @throws IOException if I/O error was occurred while sending request
+     * @see PutType#DEFAULT_BEHAVIOR
+     * @see #put(TransactionHandle, String, RecordWriter, PutType)
+     */
+    default FutureResponse<PutResult> put(
+            @Nonnull TransactionHandle transaction,
+            @Nonnull String table, @Nonnull RecordWriter record) throws IOException {
+        return put(transaction, table, record, PutType.DEFAULT_BEHAVIOR);
+    }
+
+    /**
+     * Requests {@code PUT} operation, which creates or updates a row on the table.
+     * <p>
+     * This is the same as {@link #put(TransactionHandle, String, RecordBuffer, PutType)}, but the record is
+     * serialized directly from the {@link RecordWriter}, so that the writer can be reused after this method returns.
+     * </p>
+     * @param transaction the context transaction handle
+     * @param table the target table
+     * @param record the row data to put to the target table
+     * @param behavior the operation behavior
+     * @return a future response of this action.
+     * @throws IllegalArgumentException if the transaction handle is not supported
+     * @throws IOException if I/O error was occurred while sending request
+     */
+    default FutureResponse<PutResult> put(
+            @Nonnull TransactionHandle transaction,
+            @Nonnull String table, @Nonnull RecordWriter record, @Nonnull PutType behavior) throws IOException {
+        Objects.requireNonNull(record);
+        return put(transaction, table, record.toRecordBuffer(), behavior);
+    }
+
     /**
      * Requests {@code REMOVE} operation, which deletes a row on the table.
      * <p>
@@ -205,6 +318,139 @@ public interface KvsClient extends ServerResource {
             @Nonnull TransactionHandle transaction,
             @Nonnull String table, @Nonnull RecordBuffer key, @Nonnull RemoveType behavior) throws IOException;
 
+    /**
+     * Requests {@code GET} operation for multiple keys, which retrieves records on the table.
+     * <p>
+     * The retrieved records are mapped back to the individual keys, so that the returned list has
+     * the same number of elements as the keys, in the same order.
+     * Each element is empty if there is no such the record for the corresponding key.
+     * </p>
+     * <p>
+     * This will take a copy of each {@link RecordBuffer}.
+     * By default, this sends {@code GET} request for each key, and implementations may send all keys
+     * in a single request instead.
+     * </p>
+     * @param transaction the context transaction handle
+     * @param table the source table
+     * @param keys the index keys of the target table
+     * @return a future response of this action.
+     * @throws IllegalArgumentException if the transaction handle is not supported,
+     *      or the keys contain duplicates
+     * @throws IOException if I/O error was occurred while sending request
+     * @see #get(TransactionHandle, String, RecordBuffer)
+     */
+    default FutureResponse<List<GetResult>> multiGet(
+            @Nonnull TransactionHandle transaction,
+            @Nonnull String table, @Nonnull Collection<? extends RecordBuffer> keys) throws IOException {
+        Objects.requireNonNull(transaction);
+        Objects.requireNonNull(table);
+        Objects.requireNonNull(keys);
+        return CompositeFutureResponse.submitAll(keys, key -> get(transaction, table, key), List::copyOf);
+    }
+
+    /**
+     * Requests {@code PUT} operation for multiple records, which creates or updates rows on the table.
+     * <p>
+     * This is equivalent to {@link #multiPut(TransactionHandle, String, Collection, PutType)
+     * multiPut(transaction, table, records, PutType.DEFAULT_BEHAVIOR)}.
+     * </p>
+     * @param transaction the context transaction handle
+     * @param table the target table
+     * @param records the row data to put to the target table
+     * @return a future response of this action, which has the total number of written records.
+     * @throws IllegalArgumentException if the transaction handle is not supported
+     * @throws IOException if I/O error was occurred while sending request
+     * @see #multiPut(TransactionHandle, String, Collection, PutType)
+     * @see PutType#DEFAULT_BEHAVIOR
+     */
+    default FutureResponse<PutResult> multiPut(
+            @Nonnull TransactionHandle transaction,
+            @Nonnull String table, @Nonnull Collection<? extends RecordBuffer> records) throws IOException {
+        return multiPut(transaction, table, records, PutType.DEFAULT_BEHAVIOR);
+    }
+
+    /**
+     * Requests {@code PUT} operation for multiple records, which creates or updates rows on the table.
+     * <p>
+     * This will take a copy of each {@link RecordBuffer}.
+     * By default, this sends {@code PUT} request for each record, and implementations may send all records
+     * in a single request instead.
+     * </p>
+     * @param transaction the context transaction handle
+     * @param table the target table
+     * @param records the row data to put to the target table
+     * @param behavior the operation behavior
+     * @return a future response of this action, which has the total number of written records.
+     * @throws IllegalArgumentException if the transaction handle is not supported
+     * @throws IOException if I/O error was occurred while sending request
+     * @see #put(TransactionHandle, String, RecordBuffer, PutType)
+     */
+    default FutureResponse<PutResult> multiPut(
+            @Nonnull TransactionHandle transaction,
+            @Nonnull String table, @Nonnull Collection<? extends RecordBuffer> records,
+            @Nonnull PutType behavior) throws IOException {
+        Objects.requireNonNull(transaction);
+        Objects.requireNonNull(table);
+        Objects.requireNonNull(records);
+        Objects.requireNonNull(behavior);
+        return CompositeFutureResponse.submitAll(
+                records,
+                record -> put(transaction, table, record, behavior),
+                results -> new PutResultImpl(results.stream().mapToInt(PutResult::size).sum()));
+    }
+
+    /**
+     * Requests {@code REMOVE} operation for multiple keys, which deletes rows on the table.
+     * <p>
+     * This is equivalent to {@link #multiRemove(TransactionHandle, String, Collection, RemoveType)
+     * multiRemove(transaction, table, keys, RemoveType.DEFAULT_BEHAVIOR)}.
+     * </p>
+     * @param transaction the context transaction handle
+     * @param table the target table
+     * @param keys the index keys of the target table
+     * @return a future response of this action, which has the total number of removed records.
+     * @throws IllegalArgumentException if the transaction handle is not supported
+     * @throws IOException if I/O error was occurred while sending request
+     * @see #multiRemove(TransactionHandle, String, Collection, RemoveType)
+     * @see RemoveType#DEFAULT_BEHAVIOR
+     */
+    default FutureResponse<RemoveResult> multiRemove(
+            @Nonnull TransactionHandle transaction,
+            @Nonnull String table, @Nonnull Collection<? extends RecordBuffer> keys) throws IOException {
+        return multiRemove(transaction, table, keys, RemoveType.DEFAULT_BEHAVIOR);
+    }
+
+    /**
+     * Requests {@code REMOVE} operation for multiple keys, which deletes rows on the table.
+     * <p>
+     * This will take a copy of each {@link RecordBuffer}.
+     * By default, this sends {@code REMOVE} request for each key, and implementations may send all keys
+     * in a single request instead.
+     * </p>
+     * @param transaction the context transaction handle
+     * @param table the target table
+     * @param keys the index keys of the target table
+     * @param behavior the operation behavior
+     * @return a future response of this action, which has the total number of removed records
+     *      only if you set {@link RemoveType#COUNTING}.
+     * @throws IllegalArgumentException if the transaction handle is not supported
+     * @throws IOException if I/O error was occurred while sending request
+     * @see #remove(TransactionHandle, String, RecordBuffer, RemoveType)
+     */
+    default FutureResponse<RemoveResult> multiRemove(
+            @Nonnull TransactionHandle transaction,
+            @Nonnull String table, @Nonnull Collection<? extends RecordBuffer> keys,
+            @Nonnull RemoveType behavior) throws IOException {
+        Objects.requireNonNull(transaction);
+        Objects.requireNonNull(table);
+        Objects.requireNonNull(keys);
+        Objects.requireNonNull(behavior);
+        return CompositeFutureResponse.submitAll(
+                keys,
+                key -> remove(transaction, table, key, behavior),
+                results -> new RemoveResultImpl(results.stream().mapToInt(RemoveResult::size).sum()));
+    }
+
     /**
      * Requests {@code SCAN} operation, which collects all records contained between two keys on the table.
      * <p>
@@ -0,0 +1,151 @@
+package com.tsurugidb.tsubakuro.kvs;
+
+import java.io.IOException;
+
+import javax.annotation.Nonnull;
+
+import com.tsurugidb.tsubakuro.exception.ServerException;
+import com.tsurugidb.tsubakuro.util.FutureResponse;
+import com.tsurugidb.tsubakuro.util.ServerResource;
+
+/**
+ * A KVS transaction which accepts operations before the transaction has been started.
+ * <p>
+ * Like {@link BatchScript#newTransaction()} and {@link BatchScript#addCommit()}, this can issue
+ * {@code BEGIN}, the individual operations and {@code COMMIT} without waiting for the intermediate responses.
+ * The operations are queued until the {@code BEGIN} response arrives, and then sent back-to-back in the
+ * order of their submission.
+ * Each method returns a future response immediately, which waits for the transaction start and then for the
+ * actual response.
+ * After the transaction has been started, the operations are sent directly.
+ * </p>
+ * <p>
+ * If the transaction could not be started, the all operations fail with the same error.
+ * Implementations must be thread-safe.
+ * </p>
+ * <pre>
+ * try (var tx = client.createPipelinedTransaction()) {
+ *     var got = tx.get("T", key);
+ *     tx.put("T", record);
+ *     tx.commit().await();
+ *     var result = got.await();
+ * }
+ * </pre>
+ * @see KvsClient#createPipelinedTransaction(TransactionOption)
+ */
+public interface PipelinedTransaction extends ServerResource {
+
+    /**
+     * Retrieves a record on the target table.
+     * <p>
+     * This will take a copy of {@link RecordBuffer}.
+     * </p>
+     * @param table the source table name
+     * @param key the key
+     * @return a future response of the retrieved record
+     * @throws IOException if I/O error was occurred while sending request, or this transaction was already closed
+     * @see KvsClient#get(TransactionHandle, String, RecordBuffer)
+     */
+    FutureResponse<GetResult> get(@Nonnull String table, @Nonnull RecordBuffer key) throws IOException;
+
+    /**
+     * Puts a record into the target table.
+     * <p>
+     * This is equivalent to {@link #put(String, RecordBuffer, PutType) put(table, record, PutType.DEFAULT_BEHAVIOR)}.
+     * </p>
+     * @param table the destination table name
+     * @param record the record to put
+     * @return a future response of the operation result
+     * @throws IOException if I/O error was occurred while sending request, or this transaction was already closed
+     * @see KvsClient#put(TransactionHandle, String, RecordBuffer)
+     */
+    default FutureResponse<PutResult> put(@Nonnull String table, @Nonnull RecordBuffer record) throws IOException {
+        return put(table, record, PutType.DEFAULT_BEHAVIOR);
+    }
+
+    /**
+     * Puts a record into the target table.
+     * <p>
+     * This will take a copy of {@link RecordBuffer}.
+     * </p>
+     * @param table the destination table name
+     * @param record the record to put
+     * @param behavior the operation behavior
+     * @return a future response of the operation result
+     * @throws IOException if I/O error was occurred while sending request, or this transaction was already closed
+     * @see KvsClient#put(TransactionHandle, String, RecordBuffer, PutType)
+     */
+    FutureResponse<PutResult> put(
+            @Nonnull String table,
+            @Nonnull RecordBuffer record,
+            @Nonnull PutType behavior) throws IOException;
+
+    /**
+     * Removes a record on the target table.
+     * <p>
+     * This is equivalent to
+     * {@link #remove(String, RecordBuffer, RemoveType) remove(table, key, RemoveType.DEFAULT_BEHAVIOR)}.
+     * </p>
+     * @param table the target table name
+     * @param key the key
+     * @return a future response of the operation result
+     * @throws IOException if I/O error was occurred while sending request, or this transaction was already closed
+     * @see KvsClient#remove(TransactionHandle, String, RecordBuffer)
+     */
+    default FutureResponse<RemoveResult> remove(@Nonnull String table, @Nonnull RecordBuffer key) throws IOException {
+        return remove(table, key, RemoveType.DEFAULT_BEHAVIOR);
+    }
+
+    /**
+     * Removes a record on the target table.
+     * <p>
+     * This will take a copy of {@link RecordBuffer}.
+     * </p>
+     * @param table the target table name
+     * @param key the key
+     * @param behavior the operation behavior
+     * @return a future response of the operation result
+     * @throws IOException if I/O error was occurred while sending request, or this transaction was already closed
+     * @see KvsClient#remove(TransactionHandle, String, RecordBuffer, RemoveType)
+     */
+    FutureResponse<RemoveResult> remove(
+            @Nonnull String table,
+            @Nonnull RecordBuffer key,
+            @Nonnull RemoveType behavior) throws IOException;
+
+    /**
+     * Commits this transaction.
+     * <p>
+     * This is equivalent to {@link #commit(CommitType) commit(CommitType.DEFAULT_BEHAVIOR)}.
+     * </p>
+     * @return a future response of the operation
+     * @throws IOException if I/O error was occurred while sending request, or this transaction was already closed
+     * @see KvsClient#commit(TransactionHandle)
+     */
+    default FutureResponse<Void> commit() throws IOException {
+        return commit(CommitType.DEFAULT_BEHAVIOR);
+    }
+
+    /**
+     * Commits this transaction.
+     * @param behavior the operation behavior
+     * @return a future response of the operation
+     * @throws IOException if I/O error was occurred while sending request, or this transaction was already closed
+     * @see KvsClient#commit(TransactionHandle, CommitType)
+     */
+    FutureResponse<Void> commit(@Nonnull CommitType behavior) throws IOException;
+
+    /**
+     * Rollbacks this transaction.
+     * @return a future response of the operation
+     * @throws IOException if I/O error was occurred while sending request, or this transaction was already closed
+     * @see KvsClient#rollback(TransactionHandle)
+     */
+    FutureResponse<Void> rollback() throws IOException;
+
+    /**
+     * Sends the queued operations, and then closes the started transaction.
+     */
+    @Override
+    void close() throws IOException, ServerException, InterruptedException;
+}
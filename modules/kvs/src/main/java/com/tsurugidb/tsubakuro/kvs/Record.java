@@ -7,7 +7,7 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.OffsetDateTime;
 import java.time.OffsetTime;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Objects;
 
 import javax.annotation.Nonnull;
@@ -21,8 +21,19 @@ import com.tsurugidb.kvs.proto.KvsData.Value.ValueCase;
  */
 public class Record {
 
-    private final KvsData.Record entity;
-    private final HashMap<String, Integer> name2posMap = new HashMap<>();
+    /**
+     * The wrapped entity, or {@code null} if it is not yet built from the layout and values.
+     * This is built lazily for records which share their entry names with the layout.
+     */
+    private KvsData.Record entity;
+
+    private final List<KvsData.Value> values;
+
+    /**
+     * The layout which provides name to position table, or {@code null} if it is not yet resolved.
+     * This is built lazily, because many records are only accessed by their positions.
+     */
+    private RecordLayout layout;
 
     /**
      * Creates a new empty instance.
@@ -44,9 +55,54 @@ public class Record {
                             entity.getValuesCount()));
         }
         this.entity = entity;
-        for (int position = 0; position < entity.getNamesCount(); position++) {
-            name2posMap.put(entity.getNames(position), position);
+        this.values = entity.getValuesList();
+    }
+
+    /**
+     * Creates a new instance.
+     * <p>
+     * If the entity matches the given layout, this shares the name to position table of the layout.
+     * </p>
+     * @param layout the expected layout of the entity
+     * @param entity the wrapped entity
+     * @throws IllegalArgumentException if record names and values are mismatch
+     * @see RecordLayout#wrap(KvsData.Record)
+     */
+    Record(@Nonnull RecordLayout layout, @Nonnull KvsData.Record entity) {
+        this(entity);
+        Objects.requireNonNull(layout);
+        if (layout.matches(entity)) {
+            this.layout = layout;
+        }
+    }
+
+    /**
+     * Creates a new instance, which takes its entry names from the given layout.
+     * @param layout the layout of the record
+     * @param values the entry values
+     * @throws IllegalArgumentException if the layout and values are mismatch
+     * @see RecordLayout#wrap(List)
+     */
+    Record(@Nonnull RecordLayout layout, @Nonnull List<KvsData.Value> values) {
+        Objects.requireNonNull(layout);
+        Objects.requireNonNull(values);
+        if (layout.size() != values.size()) {
+            throw new IllegalArgumentException(
+                    MessageFormat.format("record entry count mismatch: names={0}, values={1}", layout.size(),
+                            values.size()));
         }
+        this.layout = layout;
+        this.values = values;
+    }
+
+    private RecordLayout layout() {
+        var result = layout;
+        if (result == null) {
+            // RecordLayout is immutable, so that it is safe even if it is built in parallel
+            result = RecordLayout.of(getEntity());
+            layout = result;
+        }
+        return result;
     }
 
     /**
@@ -54,7 +110,7 @@ public class Record {
      * @return the number of entries
      */
     public int size() {
-        return entity.getValuesCount();
+        return values.size();
     }
 
     /**
@@ -65,7 +121,7 @@ public class Record {
      * @see #size()
      */
     private @Nonnull KvsData.Value getKvsDataValue(int position) {
-        return entity.getValues(position);
+        return values.get(position);
     }
 
     /**
@@ -88,11 +144,7 @@ public class Record {
      */
     private @Nonnull KvsData.Value getKvsDataValue(@Nonnull String name) {
         Objects.requireNonNull(name);
-        Integer index = name2posMap.get(name);
-        if (index != null) {
-            return getKvsDataValue(index);
-        }
-        throw new IllegalArgumentException(MessageFormat.format("unknown cloumn name: {0}", name));
+        return getKvsDataValue(layout().getPosition(name));
     }
 
     /**
@@ -104,11 +156,7 @@ public class Record {
      */
     public @Nullable Object getValue(@Nonnull String name) {
         Objects.requireNonNull(name);
-        Integer index = name2posMap.get(name);
-        if (index != null) {
-            return getValue(index);
-        }
-        throw new IllegalArgumentException(MessageFormat.format("unknown cloumn name: {0}", name));
+        return getValue(layout().getPosition(name));
     }
 
     /**
@@ -122,7 +170,7 @@ public class Record {
         return value.getValueCase() == ValueCase.VALUE_NOT_SET;
     }
 
-    private static String valueCase2name(KvsData.Value.ValueCase vc) {
+    static String valueCase2name(KvsData.Value.ValueCase vc) {
         switch (vc) {
         case BOOLEAN_VALUE:
             return "BOOL";
@@ -417,7 +465,23 @@ public class Record {
      * @see #size()
      */
     public @Nonnull String getName(int position) {
-        return entity.getNames(position);
+        var result = entity;
+        if (result == null) {
+            return layout.getName(position);
+        }
+        return result.getNames(position);
+    }
+
+    /**
+     * Returns the layout of this record.
+     * <p>
+     * If this record was created from a {@link RecordLayout} and has the same entry names,
+     * this returns the original layout.
+     * </p>
+     * @return the layout
+     */
+    public @Nonnull RecordLayout getLayout() {
+        return layout();
     }
 
     /**
@@ -425,7 +489,16 @@ public class Record {
      * @return the entity
      */
     public @Nonnull KvsData.Record getEntity() {
-        return entity;
+        var result = entity;
+        if (result == null) {
+            // the built entity is immutable, so that it is safe even if it is built in parallel
+            result = KvsData.Record.newBuilder()
+                    .addAllNames(layout.getNames())
+                    .addAllValues(values)
+                    .build();
+            entity = result;
+        }
+        return result;
     }
 
     @Override
@@ -434,16 +507,16 @@ public class Record {
             return false;
         }
         var other = (Record) o;
-        return this.entity.equals(other.entity);
+        return this.getEntity().equals(other.getEntity());
     }
 
     @Override
     public int hashCode() {
-        return entity.hashCode();
+        return getEntity().hashCode();
     }
 
     @Override
     public String toString() {
-        return String.valueOf(entity);
+        return String.valueOf(getEntity());
     }
 }
@@ -10,6 +10,7 @@ import java.util.List;
 import java.util.Objects;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import com.google.protobuf.ByteString;
 import com.tsurugidb.kvs.proto.KvsData;
@@ -21,11 +22,30 @@ public class RecordBuffer {
 
     private final KvsData.Record.Builder entity;
 
+    private final RecordLayout layout;
+
     /**
      * Creates a new instance.
      */
     public RecordBuffer() {
         this.entity = KvsData.Record.newBuilder();
+        this.layout = null;
+    }
+
+    /**
+     * Creates a new instance bound to the layout.
+     * <p>
+     * The created buffer has all entries of the layout, and their values are initially {@code NULL}.
+     * Use {@code set(...)} methods to set the individual values by their positions.
+     * </p>
+     * @param layout the record layout
+     * @see RecordLayout#newBuffer()
+     */
+    public RecordBuffer(@Nonnull RecordLayout layout) {
+        Objects.requireNonNull(layout);
+        this.entity = KvsData.Record.newBuilder();
+        this.layout = layout;
+        fill(layout);
     }
 
     /**
@@ -35,6 +55,15 @@ public class RecordBuffer {
     public RecordBuffer(@Nonnull Record prototype) {
         Objects.requireNonNull(prototype);
         this.entity = KvsData.Record.newBuilder(prototype.getEntity());
+        this.layout = null;
+    }
+
+    private void fill(RecordLayout source) {
+        entity.addAllNames(source.getNames());
+        var nullValue = KvsData.Value.getDefaultInstance();
+        for (int i = 0, n = source.size(); i < n; i++) {
+            entity.addValues(nullValue);
+        }
     }
 
     /**
@@ -47,13 +76,167 @@ public class RecordBuffer {
 
     /**
      * Clears the added entries.
+     * <p>
+     * If this buffer is bound to a layout, this keeps the entries of the layout and resets their values
+     * to {@code NULL}.
+     * </p>
      * @return this
      */
     public RecordBuffer clear() {
         entity.clear();
+        if (layout != null) {
+            fill(layout);
+        }
+        return this;
+    }
+
+    /**
+     * Returns the layout which this buffer is bound to.
+     * @return the layout, or {@code null} if this buffer is not bound to any layouts
+     */
+    public @Nullable RecordLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * Sets the value of the existing entry.
+     *
+     * @param position the entry position (0-origin)
+     * @param value the entry value
+     * @return this
+     * @throws IndexOutOfBoundsException if the position is out of bounds
+     */
+    public RecordBuffer set(int position, @Nonnull KvsData.Value value) {
+        Objects.requireNonNull(value);
+        entity.setValues(position, value);
         return this;
     }
 
+    /**
+     * Sets the value of the existing entry.
+     *
+     * @param name the entry name
+     * @param value the entry value
+     * @return this
+     * @throws IllegalStateException if this buffer is not bound to any layouts
+     * @throws IllegalArgumentException if the layout does not have the entry
+     */
+    public RecordBuffer set(@Nonnull String name, @Nonnull KvsData.Value value) {
+        Objects.requireNonNull(name);
+        Objects.requireNonNull(value);
+        if (layout == null) {
+            throw new IllegalStateException("record buffer is not bound to any layouts");
+        }
+        return set(layout.getPosition(name), value);
+    }
+
+    /**
+     * Sets {@code NULL} to the existing entry.
+     *
+     * @param position the entry position (0-origin)
+     * @return this
+     * @throws IndexOutOfBoundsException if the position is out of bounds
+     */
+    public RecordBuffer setNull(int position) {
+        return set(position, KvsData.Value.getDefaultInstance());
+    }
+
+    /**
+     * Sets {@code BOOL} value to the existing entry.
+     *
+     * @param position the entry position (0-origin)
+     * @param value the entry value
+     * @return this
+     * @throws IndexOutOfBoundsException if the position is out of bounds
+     */
+    public RecordBuffer set(int position, boolean value) {
+        return set(position, Values.of(value));
+    }
+
+    /**
+     * Sets {@code INT} value to the existing entry.
+     *
+     * @param position the entry position (0-origin)
+     * @param value the entry value
+     * @return this
+     * @throws IndexOutOfBoundsException if the position is out of bounds
+     */
+    public RecordBuffer set(int position, int value) {
+        return set(position, Values.of(value));
+    }
+
+    /**
+     * Sets {@code BIGINT} value to the existing entry.
+     *
+     * @param position the entry position (0-origin)
+     * @param value the entry value
+     * @return this
+     * @throws IndexOutOfBoundsException if the position is out of bounds
+     */
+    public RecordBuffer set(int position, long value) {
+        return set(position, Values.of(value));
+    }
+
+    /**
+     * Sets {@code FLOAT} value to the existing entry.
+     *
+     * @param position the entry position (0-origin)
+     * @param value the entry value
+     * @return this
+     * @throws IndexOutOfBoundsException if the position is out of bounds
+     */
+    public RecordBuffer set(int position, float value) {
+        return set(position, Values.of(value));
+    }
+
+    /**
+     * Sets {@code DOUBLE} value to the existing entry.
+     *
+     * @param position the entry position (0-origin)
+     * @param value the entry value
+     * @return this
+     * @throws IndexOutOfBoundsException if the position is out of bounds
+     */
+    public RecordBuffer set(int position, double value) {
+        return set(position, Values.of(value));
+    }
+
+    /**
+     * Sets {@code DECIMAL} value to the existing entry.
+     *
+     * @param position the entry position (0-origin)
+     * @param value the entry value
+     * @return this
+     * @throws IndexOutOfBoundsException if the position is out of bounds
+     */
+    public RecordBuffer set(int position, @Nonnull BigDecimal value) {
+        return set(position, Values.of(value));
+    }
+
+    /**
+     * Sets {@code CHAR, VARCHAR} value to the existing entry.
+     *
+     * @param position the entry position (0-origin)
+     * @param value the entry value
+     * @return this
+     * @throws IndexOutOfBoundsException if the position is out of bounds
+     */
+    public RecordBuffer set(int position, @Nonnull String value) {
+        return set(position, Values.of(value));
+    }
+
+    /**
+     * Sets {@code BINARY, VARBINARY} value to the existing entry.
+     *
+     * @param position the entry position (0-origin)
+     * @param value the entry value
+     * @return this
+     * @throws IndexOutOfBoundsException if the position is out of bounds
+     */
+    public RecordBuffer set(int position, @Nonnull byte[] value) {
+        return set(position, Values.of(value));
+    }
+
     /**
      * Adds a new entry to this buffer with {@code NULL} value.
      *
@@ -252,6 +435,9 @@ public class RecordBuffer {
      * @return the built record
      */
     public Record toRecord() {
+        if (layout != null) {
+            return new Record(layout, entity.build());
+        }
         return new Record(entity.build());
     }
 
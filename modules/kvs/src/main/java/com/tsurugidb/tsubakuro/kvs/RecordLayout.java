@@ -0,0 +1,218 @@
+package com.tsurugidb.tsubakuro.kvs;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+import com.tsurugidb.kvs.proto.KvsData;
+
+/**
+ * An immutable layout of records, which consists of ordered entry names.
+ * <p>
+ * A layout can be shared between many records of the same table, to avoid building name to position tables
+ * for the individual records. Use {@link #newBuffer()} to build records bound to this layout, and
+ * {@link #wrap(KvsData.Record)} to wrap the received records.
+ * </p>
+ * <pre>
+ * var layout = RecordLayout.of("key", "value");
+ * var record = layout.newBuffer()
+ *         .set(0, 100L)
+ *         .set(1, "hello")
+ *         .toRecord();
+ * </pre>
+ */
+@Immutable
+public final class RecordLayout {
+
+    private final List<String> names;
+
+    private final Map<String, Integer> positions;
+
+    private RecordLayout(List<String> names, Map<String, Integer> positions) {
+        this.names = names;
+        this.positions = positions;
+    }
+
+    /**
+     * Returns a new layout.
+     * @param names the entry names
+     * @return the created layout
+     */
+    public static RecordLayout of(@Nonnull String... names) {
+        Objects.requireNonNull(names);
+        return of(List.of(names));
+    }
+
+    /**
+     * Returns a new layout.
+     * <p>
+     * If the names contain duplicates, the last one is used to resolve the position by its name.
+     * </p>
+     * @param names the entry names
+     * @return the created layout
+     */
+    public static RecordLayout of(@Nonnull List<String> names) {
+        Objects.requireNonNull(names);
+        var copy = new ArrayList<String>(names.size());
+        var positions = new HashMap<String, Integer>(names.size() * 2);
+        for (var name : names) {
+            Objects.requireNonNull(name);
+            positions.put(name, copy.size());
+            copy.add(name);
+        }
+        return new RecordLayout(Collections.unmodifiableList(copy), Collections.unmodifiableMap(positions));
+    }
+
+    /**
+     * Returns a new layout which has the same entry names with the given record.
+     * @param record the prototype record
+     * @return the created layout
+     */
+    public static RecordLayout of(@Nonnull KvsData.Record record) {
+        Objects.requireNonNull(record);
+        return of(record.getNamesList());
+    }
+
+    /**
+     * Returns the number of entries in this layout.
+     * @return the number of entries
+     */
+    public int size() {
+        return names.size();
+    }
+
+    /**
+     * Returns the entry names.
+     * @return the entry names
+     */
+    public List<String> getNames() {
+        return names;
+    }
+
+    /**
+     * Returns the entry name at the position.
+     * @param position the entry position (0-origin)
+     * @return the entry name
+     * @throws IndexOutOfBoundsException if the position is out of bounds
+     */
+    public String getName(int position) {
+        return names.get(position);
+    }
+
+    /**
+     * Returns the position of the entry.
+     * @param name the entry name
+     * @return the entry position (0-origin), or {@code -1} if there is no such the entry
+     */
+    public int indexOf(@Nonnull String name) {
+        Objects.requireNonNull(name);
+        Integer position = positions.get(name);
+        if (position == null) {
+            return -1;
+        }
+        return position;
+    }
+
+    /**
+     * Returns the position of the entry.
+     * @param name the entry name
+     * @return the entry position (0-origin)
+     * @throws IllegalArgumentException if there is no such the entry
+     */
+    int getPosition(@Nonnull String name) {
+        int position = indexOf(name);
+        if (position < 0) {
+            throw new IllegalArgumentException(MessageFormat.format("unknown cloumn name: {0}", name));
+        }
+        return position;
+    }
+
+    /**
+     * Returns whether or not the given record has the same entry names with this layout.
+     * @param record the target record
+     * @return {@code true} if the record matches this layout, otherwise {@code false}
+     */
+    public boolean matches(@Nonnull KvsData.Record record) {
+        Objects.requireNonNull(record);
+        int size = names.size();
+        if (record.getNamesCount() != size) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (!names.get(i).equals(record.getNames(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Creates a new {@link RecordBuffer} bound to this layout.
+     * <p>
+     * All entries of the created buffer are initially {@code NULL}.
+     * </p>
+     * @return the created buffer
+     * @see RecordBuffer#set(int, KvsData.Value)
+     */
+    public RecordBuffer newBuffer() {
+        return new RecordBuffer(this);
+    }
+
+    /**
+     * Wraps the given record.
+     * <p>
+     * If the record matches this layout, the returned record shares the name to position table of this layout.
+     * </p>
+     * @param record the record entity
+     * @return the wrapped record
+     * @throws IllegalArgumentException if record names and values are mismatch
+     */
+    public Record wrap(@Nonnull KvsData.Record record) {
+        Objects.requireNonNull(record);
+        return new Record(this, record);
+    }
+
+    /**
+     * Wraps the given values as a record of this layout.
+     * <p>
+     * The returned record shares the entry names and the name to position table of this layout,
+     * so that the individual records need not to hold their own copy of the entry names.
+     * </p>
+     * @param values the entry values, must not be modified after this operation
+     * @return the wrapped record
+     * @throws IllegalArgumentException if the number of values is different from the size of this layout
+     */
+    public Record wrap(@Nonnull List<KvsData.Value> values) {
+        Objects.requireNonNull(values);
+        return new Record(this, values);
+    }
+
+    @Override
+    public int hashCode() {
+        return names.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof RecordLayout)) {
+            return false;
+        }
+        var other = (RecordLayout) obj;
+        return names.equals(other.names);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RecordLayout(names=%s)", names); //$NON-NLS-1$
+    }
+}
@@ -0,0 +1,489 @@
+package com.tsurugidb.tsubakuro.kvs;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Objects;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.google.protobuf.WireFormat;
+import com.tsurugidb.kvs.proto.KvsData;
+
+/**
+ * A reusable reader of serialized {@link com.tsurugidb.kvs.proto.KvsData.Record KvsData.Record}.
+ * <p>
+ * This only scans the positions of individual entries in {@link #reset(byte[], int, int)}, and decodes each value
+ * directly from the serialized bytes when it is requested. Unlike {@link Record}, this never builds
+ * {@link com.tsurugidb.kvs.proto.KvsData.Value KvsData.Value} objects, and the primitive accessors don't allocate
+ * any objects.
+ * </p>
+ * <p>
+ * The entries can be only accessed by their index, please use {@link RecordLayout#indexOf(String)} to resolve
+ * them from their names.
+ * </p>
+ * <p>
+ * {@link KvsClient#get(TransactionHandle, String, RecordBuffer, RecordReader)} resets this reader with the record
+ * in the {@code GET} response, without decoding the response into {@link Record}.
+ * </p>
+ * @see RecordWriter#toByteArray()
+ */
+@NotThreadSafe
+public class RecordReader {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private static final int TAG_BOOLEAN = makeTag(
+            KvsData.Value.BOOLEAN_VALUE_FIELD_NUMBER, WireFormat.WIRETYPE_VARINT);
+
+    private static final int TAG_INT4 = makeTag(
+            KvsData.Value.INT4_VALUE_FIELD_NUMBER, WireFormat.WIRETYPE_VARINT);
+
+    private static final int TAG_INT8 = makeTag(
+            KvsData.Value.INT8_VALUE_FIELD_NUMBER, WireFormat.WIRETYPE_VARINT);
+
+    private static final int TAG_FLOAT4 = makeTag(
+            KvsData.Value.FLOAT4_VALUE_FIELD_NUMBER, WireFormat.WIRETYPE_FIXED32);
+
+    private static final int TAG_FLOAT8 = makeTag(
+            KvsData.Value.FLOAT8_VALUE_FIELD_NUMBER, WireFormat.WIRETYPE_FIXED64);
+
+    private static final int TAG_DECIMAL = makeTag(
+            KvsData.Value.DECIMAL_VALUE_FIELD_NUMBER, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+
+    private static final int TAG_CHARACTER = makeTag(
+            KvsData.Value.CHARACTER_VALUE_FIELD_NUMBER, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+
+    private static final int TAG_OCTET = makeTag(
+            KvsData.Value.OCTET_VALUE_FIELD_NUMBER, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+
+    private static final int TAG_DATE = makeTag(
+            KvsData.Value.DATE_VALUE_FIELD_NUMBER, WireFormat.WIRETYPE_VARINT);
+
+    private static final int TAG_TIME_OF_DAY = makeTag(
+            KvsData.Value.TIME_OF_DAY_VALUE_FIELD_NUMBER, WireFormat.WIRETYPE_VARINT);
+
+    private static int makeTag(int fieldNumber, int wireType) {
+        return (fieldNumber << 3) | wireType;
+    }
+
+    private byte[] buffer = new byte[0];
+
+    private int size;
+
+    private int[] nameOffsets = new int[INITIAL_CAPACITY];
+
+    private int[] nameLengths = new int[INITIAL_CAPACITY];
+
+    private int numberOfNames;
+
+    private int[] valueOffsets = new int[INITIAL_CAPACITY];
+
+    private int[] valueLengths = new int[INITIAL_CAPACITY];
+
+    private int numberOfValues;
+
+    // the current read position
+    private int position;
+
+    /**
+     * Resets this reader with the serialized record.
+     * <p>
+     * This does not copy the array, please don't modify it while reading the record.
+     * </p>
+     * @param bytes the serialized {@link com.tsurugidb.kvs.proto.KvsData.Record KvsData.Record}
+     * @return this
+     * @throws IllegalArgumentException if the record is malformed
+     */
+    public RecordReader reset(@Nonnull byte[] bytes) {
+        Objects.requireNonNull(bytes);
+        return reset(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Resets this reader with the serialized record.
+     * <p>
+     * This does not copy the array, please don't modify it while reading the record.
+     * </p>
+     * @param bytes the byte array which contains the serialized
+     *      {@link com.tsurugidb.kvs.proto.KvsData.Record KvsData.Record}
+     * @param offset the offset of the record in the array
+     * @param length the byte length of the record
+     * @return this
+     * @throws IllegalArgumentException if the record is malformed
+     */
+    public RecordReader reset(@Nonnull byte[] bytes, int offset, int length) {
+        Objects.requireNonNull(bytes);
+        Objects.checkFromIndexSize(offset, length, bytes.length);
+        this.buffer = bytes;
+        this.size = 0;
+        this.numberOfNames = 0;
+        this.numberOfValues = 0;
+        this.position = offset;
+        int end = offset + length;
+        while (position < end) {
+            int tag = (int) readVarint(end);
+            switch (tag) {
+            case (KvsData.Record.NAMES_FIELD_NUMBER << 3) | WireFormat.WIRETYPE_LENGTH_DELIMITED: {
+                int len = readLength(end);
+                addName(position, len);
+                position += len;
+                break;
+            }
+            case (KvsData.Record.VALUES_FIELD_NUMBER << 3) | WireFormat.WIRETYPE_LENGTH_DELIMITED: {
+                int len = readLength(end);
+                addValue(position, len);
+                position += len;
+                break;
+            }
+            default:
+                skipField(tag, end);
+                break;
+            }
+        }
+        if (numberOfNames != numberOfValues) {
+            throw new IllegalArgumentException(MessageFormat.format(
+                    "record entry count mismatch: names={0}, values={1}",
+                    numberOfNames,
+                    numberOfValues));
+        }
+        this.size = numberOfValues;
+        return this;
+    }
+
+    /**
+     * Resets this reader with the record.
+     * <p>
+     * This serializes the record, please use {@link #reset(byte[])} if the serialized record is available.
+     * </p>
+     * @param record the record
+     * @return this
+     */
+    public RecordReader reset(@Nonnull Record record) {
+        Objects.requireNonNull(record);
+        return reset(record.getEntity().toByteArray());
+    }
+
+    private void addName(int offset, int length) {
+        if (numberOfNames == nameOffsets.length) {
+            nameOffsets = Arrays.copyOf(nameOffsets, numberOfNames * 2);
+            nameLengths = Arrays.copyOf(nameLengths, numberOfNames * 2);
+        }
+        nameOffsets[numberOfNames] = offset;
+        nameLengths[numberOfNames] = length;
+        numberOfNames++;
+    }
+
+    private void addValue(int offset, int length) {
+        if (numberOfValues == valueOffsets.length) {
+            valueOffsets = Arrays.copyOf(valueOffsets, numberOfValues * 2);
+            valueLengths = Arrays.copyOf(valueLengths, numberOfValues * 2);
+        }
+        valueOffsets[numberOfValues] = offset;
+        valueLengths[numberOfValues] = length;
+        numberOfValues++;
+    }
+
+    /**
+     * Returns the number of entries in the current record.
+     * @return the number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the name of the entry.
+     * @param index the entry index (0-origin)
+     * @return the entry name
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public String getName(int index) {
+        Objects.checkIndex(index, size);
+        return new String(buffer, nameOffsets[index], nameLengths[index], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns whether or not the entry is {@code NULL}.
+     * @param index the entry index (0-origin)
+     * @return {@code true} if the entry is {@code NULL}, otherwise {@code false}
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public boolean isNull(int index) {
+        Objects.checkIndex(index, size);
+        return valueLengths[index] == 0;
+    }
+
+    /**
+     * Returns the {@code BOOL} value of the entry.
+     * @param index the entry index (0-origin)
+     * @return the value
+     * @throws IndexOutOfBoundsException if the index is out of range
+     * @throws IllegalArgumentException if the value is {@code NULL}, or its type is not {@code BOOL}
+     */
+    public boolean getBoolean(int index) {
+        int end = seek(index, TAG_BOOLEAN, "BOOL");
+        return readVarint(end) != 0;
+    }
+
+    /**
+     * Returns the {@code INT} value of the entry.
+     * @param index the entry index (0-origin)
+     * @return the value
+     * @throws IndexOutOfBoundsException if the index is out of range
+     * @throws IllegalArgumentException if the value is {@code NULL}, or its type is not {@code INT}
+     */
+    public int getInt(int index) {
+        int end = seek(index, TAG_INT4, "INT");
+        int value = (int) readVarint(end);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Returns the {@code BIGINT} value of the entry.
+     * @param index the entry index (0-origin)
+     * @return the value
+     * @throws IndexOutOfBoundsException if the index is out of range
+     * @throws IllegalArgumentException if the value is {@code NULL}, or its type is not {@code BIGINT}
+     */
+    public long getLong(int index) {
+        int end = seek(index, TAG_INT8, "BIGINT");
+        return decodeZigZag(readVarint(end));
+    }
+
+    /**
+     * Returns the {@code FLOAT} value of the entry.
+     * @param index the entry index (0-origin)
+     * @return the value
+     * @throws IndexOutOfBoundsException if the index is out of range
+     * @throws IllegalArgumentException if the value is {@code NULL}, or its type is not {@code FLOAT}
+     */
+    public float getFloat(int index) {
+        int end = seek(index, TAG_FLOAT4, "FLOAT");
+        return Float.intBitsToFloat((int) readFixed(Integer.BYTES, end));
+    }
+
+    /**
+     * Returns the {@code DOUBLE} value of the entry.
+     * @param index the entry index (0-origin)
+     * @return the value
+     * @throws IndexOutOfBoundsException if the index is out of range
+     * @throws IllegalArgumentException if the value is {@code NULL}, or its type is not {@code DOUBLE}
+     */
+    public double getDouble(int index) {
+        int end = seek(index, TAG_FLOAT8, "DOUBLE");
+        return Double.longBitsToDouble(readFixed(Long.BYTES, end));
+    }
+
+    /**
+     * Returns the {@code DECIMAL} value of the entry.
+     * @param index the entry index (0-origin)
+     * @return the value
+     * @throws IndexOutOfBoundsException if the index is out of range
+     * @throws IllegalArgumentException if the value is {@code NULL}, or its type is not {@code DECIMAL}
+     */
+    public BigDecimal getDecimal(int index) {
+        int end = seek(index, TAG_DECIMAL, "DECIMAL");
+        int decimalEnd = position + readLength(end);
+        int unscaledOffset = position;
+        int unscaledLength = 0;
+        int exponent = 0;
+        while (position < decimalEnd) {
+            int tag = (int) readVarint(decimalEnd);
+            switch (tag) {
+            case (KvsData.Decimal.UNSCALED_VALUE_FIELD_NUMBER << 3) | WireFormat.WIRETYPE_LENGTH_DELIMITED:
+                unscaledLength = readLength(decimalEnd);
+                unscaledOffset = position;
+                position += unscaledLength;
+                break;
+            case (KvsData.Decimal.EXPONENT_FIELD_NUMBER << 3) | WireFormat.WIRETYPE_VARINT:
+                exponent = (int) readVarint(decimalEnd);
+                break;
+            default:
+                skipField(tag, decimalEnd);
+                break;
+            }
+        }
+        if (unscaledLength == 0) {
+            return BigDecimal.valueOf(0, -exponent);
+        }
+        if (unscaledLength <= Long.BYTES) {
+            // sign extended big endian
+            long unscaled = buffer[unscaledOffset];
+            for (int i = 1; i < unscaledLength; i++) {
+                unscaled = (unscaled << Byte.SIZE) | (buffer[unscaledOffset + i] & 0xff);
+            }
+            return BigDecimal.valueOf(unscaled, -exponent);
+        }
+        return new BigDecimal(new BigInteger(buffer, unscaledOffset, unscaledLength), -exponent);
+    }
+
+    /**
+     * Returns the {@code CHAR, VARCHAR} value of the entry.
+     * @param index the entry index (0-origin)
+     * @return the value
+     * @throws IndexOutOfBoundsException if the index is out of range
+     * @throws IllegalArgumentException if the value is {@code NULL}, or its type is not {@code CHAR, VARCHAR}
+     */
+    public String getCharacter(int index) {
+        int end = seek(index, TAG_CHARACTER, "CHAR/VARCHAR");
+        int length = readLength(end);
+        return new String(buffer, position, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the {@code BINARY, VARBINARY} value of the entry.
+     * @param index the entry index (0-origin)
+     * @return the value
+     * @throws IndexOutOfBoundsException if the index is out of range
+     * @throws IllegalArgumentException if the value is {@code NULL}, or its type is not {@code BINARY, VARBINARY}
+     */
+    public byte[] getOctet(int index) {
+        int end = seek(index, TAG_OCTET, "BINARY/VARBINARY");
+        int length = readLength(end);
+        return Arrays.copyOfRange(buffer, position, position + length);
+    }
+
+    /**
+     * Returns the {@code DATE} value of the entry, as the number of days offset of epoch 1970-01-01.
+     * @param index the entry index (0-origin)
+     * @return the value
+     * @throws IndexOutOfBoundsException if the index is out of range
+     * @throws IllegalArgumentException if the value is {@code NULL}, or its type is not {@code DATE}
+     * @see #getDate(int)
+     */
+    public long getEpochDay(int index) {
+        int end = seek(index, TAG_DATE, "DATE");
+        return decodeZigZag(readVarint(end));
+    }
+
+    /**
+     * Returns the {@code DATE} value of the entry.
+     * @param index the entry index (0-origin)
+     * @return the value
+     * @throws IndexOutOfBoundsException if the index is out of range
+     * @throws IllegalArgumentException if the value is {@code NULL}, or its type is not {@code DATE}
+     */
+    public LocalDate getDate(int index) {
+        return LocalDate.ofEpochDay(getEpochDay(index));
+    }
+
+    /**
+     * Returns the {@code TIME} value of the entry, as the nano-seconds since 00:00:00.
+     * @param index the entry index (0-origin)
+     * @return the value
+     * @throws IndexOutOfBoundsException if the index is out of range
+     * @throws IllegalArgumentException if the value is {@code NULL}, or its type is not {@code TIME}
+     * @see #getTimeOfDay(int)
+     */
+    public long getNanoOfDay(int index) {
+        int end = seek(index, TAG_TIME_OF_DAY, "TIME");
+        return readVarint(end);
+    }
+
+    /**
+     * Returns the {@code TIME} value of the entry.
+     * @param index the entry index (0-origin)
+     * @return the value
+     * @throws IndexOutOfBoundsException if the index is out of range
+     * @throws IllegalArgumentException if the value is {@code NULL}, or its type is not {@code TIME}
+     */
+    public LocalTime getTimeOfDay(int index) {
+        return LocalTime.ofNanoOfDay(getNanoOfDay(index));
+    }
+
+    /**
+     * Moves the read position to the payload of the entry value.
+     * @param index the entry index
+     * @param expectedTag the expected field tag in the value
+     * @param typeName the expected type name, for error messages
+     * @return the end offset of the value
+     */
+    private int seek(int index, int expectedTag, String typeName) {
+        Objects.checkIndex(index, size);
+        position = valueOffsets[index];
+        int end = position + valueLengths[index];
+        int tag = position < end ? (int) readVarint(end) : 0;
+        if (tag != expectedTag) {
+            var actual = KvsData.Value.ValueCase.forNumber(WireFormat.getTagFieldNumber(tag));
+            // NOTE <''> uses for showing <'> in MessageFormat
+            throw new IllegalArgumentException(MessageFormat.format(
+                    "{0} doesn''t have {1} value, it has {2}",
+                    getName(index),
+                    typeName,
+                    actual == null ? String.valueOf(tag) : Record.valueCase2name(actual)));
+        }
+        return end;
+    }
+
+    private long readVarint(int end) {
+        long result = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            if (position >= end) {
+                break;
+            }
+            byte b = buffer[position++];
+            result |= (long) (b & 0x7f) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("malformed record: invalid varint");
+    }
+
+    private int readLength(int end) {
+        long length = readVarint(end);
+        if (length < 0 || length > end - position) {
+            throw new IllegalArgumentException("malformed record: invalid length");
+        }
+        return (int) length;
+    }
+
+    private long readFixed(int bytes, int end) {
+        if (end - position < bytes) {
+            throw new IllegalArgumentException("malformed record: truncated value");
+        }
+        long result = 0;
+        for (int i = 0; i < bytes; i++) {
+            result |= (long) (buffer[position++] & 0xff) << (i * Byte.SIZE);
+        }
+        return result;
+    }
+
+    private void skipField(int tag, int end) {
+        switch (WireFormat.getTagWireType(tag)) {
+        case WireFormat.WIRETYPE_VARINT:
+            readVarint(end);
+            break;
+        case WireFormat.WIRETYPE_FIXED32:
+            readFixed(Integer.BYTES, end);
+            break;
+        case WireFormat.WIRETYPE_FIXED64:
+            readFixed(Long.BYTES, end);
+            break;
+        case WireFormat.WIRETYPE_LENGTH_DELIMITED:
+            position += readLength(end);
+            break;
+        default:
+            throw new IllegalArgumentException(MessageFormat.format(
+                    "malformed record: unsupported wire type ({0})",
+                    WireFormat.getTagWireType(tag)));
+        }
+    }
+
+    private static long decodeZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "RecordReader(size=%d)", //$NON-NLS-1$
+                size);
+    }
+}
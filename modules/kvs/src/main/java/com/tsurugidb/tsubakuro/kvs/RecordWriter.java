@@ -0,0 +1,422 @@
+package com.tsurugidb.tsubakuro.kvs;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Objects;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import com.tsurugidb.kvs.proto.KvsData;
+import com.tsurugidb.tsubakuro.util.PrimitiveValueBuffer;
+
+/**
+ * A reusable record builder which keeps the values in primitive arrays.
+ * <p>
+ * Unlike {@link RecordBuffer}, this never builds {@link com.tsurugidb.kvs.proto.KvsData.Value KvsData.Value}
+ * objects, and serializes the values directly into the {@link com.tsurugidb.kvs.proto.KvsData.Record KvsData.Record}
+ * form. The entry names are taken from the {@link RecordLayout}, and they are encoded only once.
+ * The same object can be reused for the individual operations by overwriting the values.
+ * </p>
+ * <p>
+ * All entries are initially {@code NULL}.
+ * </p>
+ * @see KvsClient#put(TransactionHandle, String, RecordWriter, PutType)
+ */
+@NotThreadSafe
+public class RecordWriter {
+
+    private static final PrimitiveValueBuffer.FieldNumbers FIELD_NUMBERS = new PrimitiveValueBuffer.FieldNumbers(
+            KvsData.Value.BOOLEAN_VALUE_FIELD_NUMBER,
+            KvsData.Value.INT4_VALUE_FIELD_NUMBER,
+            KvsData.Value.INT8_VALUE_FIELD_NUMBER,
+            KvsData.Value.FLOAT4_VALUE_FIELD_NUMBER,
+            KvsData.Value.FLOAT8_VALUE_FIELD_NUMBER,
+            KvsData.Value.DECIMAL_VALUE_FIELD_NUMBER,
+            KvsData.Value.CHARACTER_VALUE_FIELD_NUMBER,
+            KvsData.Value.OCTET_VALUE_FIELD_NUMBER,
+            KvsData.Value.DATE_VALUE_FIELD_NUMBER,
+            KvsData.Value.TIME_OF_DAY_VALUE_FIELD_NUMBER);
+
+    private final RecordLayout layout;
+
+    // the serialized "names" field
+    private final byte[] encodedNames;
+
+    private final PrimitiveValueBuffer values;
+
+    /**
+     * Creates a new instance.
+     * @param layout the record layout
+     */
+    public RecordWriter(@Nonnull RecordLayout layout) {
+        Objects.requireNonNull(layout);
+        this.layout = layout;
+        this.encodedNames = encodeNames(layout);
+        this.values = new PrimitiveValueBuffer(layout.size(), FIELD_NUMBERS);
+        values.reset(PrimitiveValueBuffer.NULL);
+    }
+
+    private static byte[] encodeNames(RecordLayout layout) {
+        var names = new byte[layout.size()][];
+        int size = 0;
+        for (int i = 0; i < names.length; i++) {
+            names[i] = layout.getName(i).getBytes(StandardCharsets.UTF_8);
+            size += CodedOutputStream.computeByteArraySize(KvsData.Record.NAMES_FIELD_NUMBER, names[i]);
+        }
+        var results = new byte[size];
+        var output = CodedOutputStream.newInstance(results);
+        try {
+            for (var name : names) {
+                output.writeByteArray(KvsData.Record.NAMES_FIELD_NUMBER, name);
+            }
+            output.checkNoSpaceLeft();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return results;
+    }
+
+    /**
+     * Returns the layout of this record.
+     * @return the layout
+     */
+    public RecordLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * Returns the number of entries in this record.
+     * @return the number of entries
+     */
+    public int size() {
+        return values.size();
+    }
+
+    /**
+     * Resets all entries to {@code NULL}.
+     * @return this
+     */
+    public RecordWriter clear() {
+        values.reset(PrimitiveValueBuffer.NULL);
+        return this;
+    }
+
+    /**
+     * Sets {@code NULL} to the entry.
+     * @param index the entry index (0-origin)
+     * @return this
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public RecordWriter setNull(int index) {
+        values.setNull(index);
+        return this;
+    }
+
+    /**
+     * Sets a {@code BOOL} value to the entry.
+     * @param index the entry index (0-origin)
+     * @param value the value
+     * @return this
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public RecordWriter setBoolean(int index, boolean value) {
+        values.setBoolean(index, value);
+        return this;
+    }
+
+    /**
+     * Sets an {@code INT} value to the entry.
+     * @param index the entry index (0-origin)
+     * @param value the value
+     * @return this
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public RecordWriter setInt(int index, int value) {
+        values.setInt(index, value);
+        return this;
+    }
+
+    /**
+     * Sets a {@code BIGINT} value to the entry.
+     * @param index the entry index (0-origin)
+     * @param value the value
+     * @return this
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public RecordWriter setLong(int index, long value) {
+        values.setLong(index, value);
+        return this;
+    }
+
+    /**
+     * Sets a {@code FLOAT} value to the entry.
+     * @param index the entry index (0-origin)
+     * @param value the value
+     * @return this
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public RecordWriter setFloat(int index, float value) {
+        values.setFloat(index, value);
+        return this;
+    }
+
+    /**
+     * Sets a {@code DOUBLE} value to the entry.
+     * @param index the entry index (0-origin)
+     * @param value the value
+     * @return this
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public RecordWriter setDouble(int index, double value) {
+        values.setDouble(index, value);
+        return this;
+    }
+
+    /**
+     * Sets a {@code DECIMAL} value to the entry.
+     * @param index the entry index (0-origin)
+     * @param unscaledValue the unscaled value
+     * @param scale the scale of the value ({@code value = unscaledValue * 10^-scale})
+     * @return this
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public RecordWriter setDecimal(int index, long unscaledValue, int scale) {
+        values.setDecimal(index, unscaledValue, scale);
+        return this;
+    }
+
+    /**
+     * Sets a {@code DECIMAL} value to the entry.
+     * @param index the entry index (0-origin)
+     * @param value the value
+     * @return this
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public RecordWriter setDecimal(int index, @Nonnull BigDecimal value) {
+        Objects.requireNonNull(value);
+        values.setDecimal(index, value);
+        return this;
+    }
+
+    /**
+     * Sets a {@code CHAR, VARCHAR} value to the entry.
+     * @param index the entry index (0-origin)
+     * @param value the value
+     * @return this
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public RecordWriter setCharacter(int index, @Nonnull String value) {
+        Objects.requireNonNull(value);
+        values.setCharacter(index, value);
+        return this;
+    }
+
+    /**
+     * Sets a {@code BINARY, VARBINARY} value to the entry.
+     * <p>
+     * This does not copy the array, please don't modify it until the record is serialized.
+     * </p>
+     * @param index the entry index (0-origin)
+     * @param value the value
+     * @return this
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public RecordWriter setOctet(int index, @Nonnull byte[] value) {
+        Objects.requireNonNull(value);
+        values.setOctet(index, value);
+        return this;
+    }
+
+    /**
+     * Sets a {@code DATE} value to the entry.
+     * @param index the entry index (0-origin)
+     * @param epochDay the number of days offset of epoch 1970-01-01
+     * @return this
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public RecordWriter setDate(int index, long epochDay) {
+        values.setDate(index, epochDay);
+        return this;
+    }
+
+    /**
+     * Sets a {@code DATE} value to the entry.
+     * @param index the entry index (0-origin)
+     * @param value the value
+     * @return this
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public RecordWriter setDate(int index, @Nonnull LocalDate value) {
+        Objects.requireNonNull(value);
+        return setDate(index, value.toEpochDay());
+    }
+
+    /**
+     * Sets a {@code TIME} value to the entry.
+     * @param index the entry index (0-origin)
+     * @param nanoOfDay the nano-seconds since 00:00:00
+     * @return this
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public RecordWriter setTimeOfDay(int index, long nanoOfDay) {
+        values.setTimeOfDay(index, nanoOfDay);
+        return this;
+    }
+
+    /**
+     * Sets a {@code TIME} value to the entry.
+     * @param index the entry index (0-origin)
+     * @param value the value
+     * @return this
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public RecordWriter setTimeOfDay(int index, @Nonnull LocalTime value) {
+        Objects.requireNonNull(value);
+        return setTimeOfDay(index, value.toNanoOfDay());
+    }
+
+    /**
+     * Returns the serialized size of this record, as a {@link com.tsurugidb.kvs.proto.KvsData.Record KvsData.Record}
+     * message body.
+     * @return the serialized size in bytes
+     */
+    public int getSerializedSize() {
+        int tagSize = CodedOutputStream.computeTagSize(KvsData.Record.VALUES_FIELD_NUMBER);
+        int total = encodedNames.length;
+        for (int i = 0; i < values.size(); i++) {
+            int size = values.computeValueSize(i);
+            total += tagSize + CodedOutputStream.computeUInt32SizeNoTag(size) + size;
+        }
+        return total;
+    }
+
+    /**
+     * Writes this record as a {@link com.tsurugidb.kvs.proto.KvsData.Record KvsData.Record} message body.
+     * @param output the destination
+     * @throws IOException if I/O error was occurred while writing the record
+     */
+    public void writeTo(@Nonnull CodedOutputStream output) throws IOException {
+        Objects.requireNonNull(output);
+        output.writeRawBytes(encodedNames);
+        for (int i = 0; i < values.size(); i++) {
+            output.writeTag(KvsData.Record.VALUES_FIELD_NUMBER, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            output.writeUInt32NoTag(values.computeValueSize(i));
+            values.writeValue(output, i);
+        }
+    }
+
+    /**
+     * Returns the serialized size of this record, as a field of the enclosing message.
+     * @param fieldNumber the field number of the record in the enclosing message
+     * @return the serialized size in bytes
+     */
+    public int getSerializedSize(int fieldNumber) {
+        int size = getSerializedSize();
+        return CodedOutputStream.computeTagSize(fieldNumber)
+                + CodedOutputStream.computeUInt32SizeNoTag(size)
+                + size;
+    }
+
+    /**
+     * Writes this record as a field of the enclosing message.
+     * @param output the destination
+     * @param fieldNumber the field number of the record in the enclosing message
+     * @throws IOException if I/O error was occurred while writing the record
+     */
+    public void writeTo(@Nonnull CodedOutputStream output, int fieldNumber) throws IOException {
+        Objects.requireNonNull(output);
+        output.writeTag(fieldNumber, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+        output.writeUInt32NoTag(getSerializedSize());
+        writeTo(output);
+    }
+
+    /**
+     * Returns the serialized form of this record.
+     * @return the serialized {@link com.tsurugidb.kvs.proto.KvsData.Record KvsData.Record}
+     */
+    public byte[] toByteArray() {
+        var results = new byte[getSerializedSize()];
+        var output = CodedOutputStream.newInstance(results);
+        try {
+            writeTo(output);
+            output.checkNoSpaceLeft();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return results;
+    }
+
+    /**
+     * Returns a {@link RecordBuffer} which has the same entries with this.
+     * @return the created buffer
+     */
+    public RecordBuffer toRecordBuffer() {
+        var buffer = layout.newBuffer();
+        for (int i = 0; i < values.size(); i++) {
+            buffer.set(i, toValue(i));
+        }
+        return buffer;
+    }
+
+    /**
+     * Returns a {@link Record} which has the same entries with this.
+     * @return the created record
+     */
+    public Record toRecord() {
+        return toRecordBuffer().toRecord();
+    }
+
+    private KvsData.Value toValue(int index) {
+        long value = values.getLong(index);
+        byte kind = values.getKind(index);
+        switch (kind) {
+        case PrimitiveValueBuffer.NULL:
+            return Values.ofNull();
+        case PrimitiveValueBuffer.BOOLEAN:
+            return Values.of(value != 0);
+        case PrimitiveValueBuffer.INT4:
+            return Values.of((int) value);
+        case PrimitiveValueBuffer.INT8:
+            return Values.of(value);
+        case PrimitiveValueBuffer.FLOAT4:
+            return Values.of(Float.intBitsToFloat((int) value));
+        case PrimitiveValueBuffer.FLOAT8:
+            return Values.of(Double.longBitsToDouble(value));
+        case PrimitiveValueBuffer.DECIMAL_COMPACT:
+        case PrimitiveValueBuffer.DECIMAL:
+            return KvsData.Value.newBuilder()
+                    .setDecimalValue(KvsData.Decimal.newBuilder()
+                            .setUnscaledValue(ByteString.copyFrom(values.getUnscaledValue(index)))
+                            .setExponent(values.getExponent(index)))
+                    .build();
+        case PrimitiveValueBuffer.CHARACTER:
+            return Values.of((String) values.getObject(index));
+        case PrimitiveValueBuffer.OCTET:
+            return Values.of((byte[]) values.getObject(index));
+        case PrimitiveValueBuffer.DATE:
+            return KvsData.Value.newBuilder()
+                    .setDateValue(value)
+                    .build();
+        case PrimitiveValueBuffer.TIME_OF_DAY:
+            return KvsData.Value.newBuilder()
+                    .setTimeOfDayValue(value)
+                    .build();
+        default:
+            throw new AssertionError(kind);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "RecordWriter(names=%s)", //$NON-NLS-1$
+                layout.getNames());
+    }
+}
@@ -0,0 +1,63 @@
+package com.tsurugidb.tsubakuro.kvs.impl;
+
+import java.text.MessageFormat;
+import java.util.List;
+import java.util.Objects;
+
+import javax.annotation.Nonnull;
+
+import com.tsurugidb.tsubakuro.kvs.BatchResult;
+import com.tsurugidb.tsubakuro.kvs.BatchScript;
+import com.tsurugidb.tsubakuro.kvs.GetResult;
+import com.tsurugidb.tsubakuro.kvs.PutResult;
+import com.tsurugidb.tsubakuro.kvs.RemoveResult;
+
+/**
+ * An implementation of {@link BatchResult}.
+ */
+public class BatchResultImpl implements BatchResult {
+
+    private final List<?> results;
+
+    /**
+     * Creates a new instance.
+     * @param results the results of individual operations, in order of the script elements
+     */
+    public BatchResultImpl(@Nonnull List<?> results) {
+        Objects.requireNonNull(results);
+        this.results = List.copyOf(results);
+    }
+
+    @Override
+    public <T> T get(@Nonnull BatchScript.Ref<T> reference) {
+        Objects.requireNonNull(reference);
+        return get(reference.getIndex(), reference.getResultType());
+    }
+
+    @Override
+    public GetResult getGetResult(int position) {
+        return get(position, GetResult.class);
+    }
+
+    @Override
+    public PutResult getPutResult(int position) {
+        return get(position, PutResult.class);
+    }
+
+    @Override
+    public RemoveResult getRemoveResult(int position) {
+        return get(position, RemoveResult.class);
+    }
+
+    private <T> T get(int position, Class<T> type) {
+        var result = results.get(position);
+        if (!type.isInstance(result)) {
+            throw new IllegalStateException(MessageFormat.format(
+                    "result at {0} is not a {1}: {2}",
+                    position,
+                    type.getSimpleName(),
+                    result));
+        }
+        return type.cast(result);
+    }
+}
@@ -0,0 +1,163 @@
+package com.tsurugidb.tsubakuro.kvs.impl;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import javax.annotation.Nonnull;
+
+import com.tsurugidb.tsubakuro.exception.ServerException;
+import com.tsurugidb.tsubakuro.util.FutureResponse;
+import com.tsurugidb.tsubakuro.util.Lang;
+
+/**
+ * Combines the results of individual {@link FutureResponse}s into a single value.
+ * @param <T> the element type
+ * @param <V> the result type
+ */
+public final class CompositeFutureResponse<T, V> implements FutureResponse<V> {
+
+    /**
+     * Submits a request for each element.
+     * @param <E> the element type
+     * @param <T> the response type
+     */
+    @FunctionalInterface
+    public interface Submitter<E, T> {
+
+        /**
+         * Submits a request for the element.
+         * @param element the element
+         * @return the future response of the request
+         * @throws IOException if I/O error was occurred while sending request
+         */
+        FutureResponse<T> submit(@Nonnull E element) throws IOException;
+    }
+
+    private final List<FutureResponse<? extends T>> elements;
+
+    private final Function<? super List<T>, ? extends V> combiner;
+
+    private final AtomicReference<V> result = new AtomicReference<>();
+
+    /**
+     * Creates a new instance.
+     * @param elements the individual responses
+     * @param combiner combines the individual results in order
+     */
+    public CompositeFutureResponse(
+            @Nonnull List<? extends FutureResponse<? extends T>> elements,
+            @Nonnull Function<? super List<T>, ? extends V> combiner) {
+        Objects.requireNonNull(elements);
+        Objects.requireNonNull(combiner);
+        this.elements = List.copyOf(elements);
+        this.combiner = combiner;
+    }
+
+    /**
+     * Submits a request for each element, and then returns a future response which combines their results.
+     * <p>
+     * If submitting a request was failed, this closes the all previously submitted responses.
+     * </p>
+     * @param <E> the element type
+     * @param <T> the response type
+     * @param <V> the result type
+     * @param elements the elements
+     * @param submitter submits a request for each element
+     * @param combiner combines the individual results in order
+     * @return the combined future response
+     * @throws IOException if I/O error was occurred while sending request
+     */
+    public static <E, T, V> FutureResponse<V> submitAll(
+            @Nonnull Collection<? extends E> elements,
+            @Nonnull Submitter<? super E, ? extends T> submitter,
+            @Nonnull Function<? super List<T>, ? extends V> combiner) throws IOException {
+        Objects.requireNonNull(elements);
+        Objects.requireNonNull(submitter);
+        Objects.requireNonNull(combiner);
+        var responses = new ArrayList<FutureResponse<? extends T>>(elements.size());
+        try {
+            for (var element : elements) {
+                responses.add(submitter.submit(element));
+            }
+        } catch (IOException | RuntimeException e) {
+            for (var response : responses) {
+                Lang.suppress(e, response::close);
+            }
+            throw e;
+        }
+        return new CompositeFutureResponse<>(responses, combiner);
+    }
+
+    @Override
+    public boolean isDone() {
+        if (result.get() != null) {
+            return true;
+        }
+        for (var element : elements) {
+            if (!element.isDone()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public V get() throws IOException, ServerException, InterruptedException {
+        var combined = result.get();
+        if (combined != null) {
+            return combined;
+        }
+        var values = new ArrayList<T>(elements.size());
+        for (var element : elements) {
+            values.add(element.get());
+        }
+        return combine(values);
+    }
+
+    @Override
+    public V get(long timeout, TimeUnit unit)
+            throws IOException, ServerException, InterruptedException, TimeoutException {
+        var combined = result.get();
+        if (combined != null) {
+            return combined;
+        }
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        var values = new ArrayList<T>(elements.size());
+        for (var element : elements) {
+            values.add(element.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS));
+        }
+        return combine(values);
+    }
+
+    private V combine(List<T> values) {
+        result.compareAndSet(null, combiner.apply(values));
+        return result.get();
+    }
+
+    @Override
+    public void close() throws IOException, ServerException, InterruptedException {
+        int index = 0;
+        try {
+            for (; index < elements.size(); index++) {
+                elements.get(index).close();
+            }
+        } catch (IOException | ServerException | InterruptedException | RuntimeException e) {
+            for (index++; index < elements.size(); index++) {
+                Lang.suppress(e, elements.get(index)::close);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(elements);
+    }
+}
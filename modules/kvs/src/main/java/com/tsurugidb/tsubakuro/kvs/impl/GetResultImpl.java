@@ -11,6 +11,7 @@ import javax.annotation.Nonnull;
 import com.tsurugidb.kvs.proto.KvsData;
 import com.tsurugidb.tsubakuro.kvs.GetResult;
 import com.tsurugidb.tsubakuro.kvs.Record;
+import com.tsurugidb.tsubakuro.kvs.RecordLayout;
 
 /**
  * An implementation of {@link GetResult}.
@@ -36,11 +37,34 @@ public class GetResultImpl implements GetResult {
     public GetResultImpl(@Nonnull List<KvsData.Record> records) {
         Objects.requireNonNull(records);
         this.records = new ArrayList<Record>(records.size());
+        if (records.size() <= 1) {
+            for (var r : records) {
+                this.records.add(new Record(r));
+            }
+            return;
+        }
+        // records from the same table usually have the same names, so that they can share the layout
+        RecordLayout layout = null;
         for (var r : records) {
-            this.records.add(new Record(r));
+            if (layout == null || !layout.matches(r)) {
+                layout = RecordLayout.of(r);
+            }
+            this.records.add(layout.wrap(r));
         }
     }
 
+    /**
+     * Creates a new instance from the already decoded records.
+     * @param records list of retrieved records
+     * @return the created instance
+     */
+    static GetResultImpl of(@Nonnull List<? extends Record> records) {
+        Objects.requireNonNull(records);
+        var result = new GetResultImpl(List.of());
+        result.records.addAll(records);
+        return result;
+    }
+
     @Override
     public int size() {
         return records.size();
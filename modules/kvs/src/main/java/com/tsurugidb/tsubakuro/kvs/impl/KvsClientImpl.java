@@ -1,12 +1,16 @@
 package com.tsurugidb.tsubakuro.kvs.impl;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import com.tsurugidb.kvs.proto.KvsData;
 import com.tsurugidb.kvs.proto.KvsRequest;
 import com.tsurugidb.tsubakuro.common.Session;
 import com.tsurugidb.tsubakuro.exception.ServerException;
@@ -19,6 +23,8 @@ import com.tsurugidb.tsubakuro.kvs.PutResult;
 import com.tsurugidb.tsubakuro.kvs.PutType;
 import com.tsurugidb.tsubakuro.kvs.RecordBuffer;
 import com.tsurugidb.tsubakuro.kvs.RecordCursor;
+import com.tsurugidb.tsubakuro.kvs.RecordReader;
+import com.tsurugidb.tsubakuro.kvs.RecordWriter;
 import com.tsurugidb.tsubakuro.kvs.RemoveResult;
 import com.tsurugidb.tsubakuro.kvs.RemoveType;
 import com.tsurugidb.tsubakuro.kvs.ScanBound;
@@ -101,6 +107,23 @@ public class KvsClientImpl implements KvsClient {
         return service.send(builder.build());
     }
 
+    @Override
+    public FutureResponse<Boolean> get(
+            @Nonnull TransactionHandle transaction,
+            @Nonnull String table, @Nonnull RecordBuffer key, @Nonnull RecordReader reader) throws IOException {
+        Objects.requireNonNull(transaction);
+        Objects.requireNonNull(table);
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(reader);
+        var handle = service.extract(transaction);
+        var builder = KvsRequest.Get.newBuilder()
+                .setTransactionHandle(handle)
+                .setIndex(KvsRequest.Index.newBuilder()
+                        .setTableName(table))
+                .addKeys(key.toRecord().getEntity());
+        return service.send(builder.build(), reader);
+    }
+
     @Override
     public FutureResponse<PutResult> put(
             @Nonnull TransactionHandle transaction,
@@ -119,6 +142,23 @@ public class KvsClientImpl implements KvsClient {
         return service.send(builder.build());
     }
 
+    @Override
+    public FutureResponse<PutResult> put(
+            @Nonnull TransactionHandle transaction,
+            @Nonnull String table, @Nonnull RecordWriter record, @Nonnull PutType behavior) throws IOException {
+        Objects.requireNonNull(transaction);
+        Objects.requireNonNull(table);
+        Objects.requireNonNull(record);
+        Objects.requireNonNull(behavior);
+        var handle = service.extract(transaction);
+        var builder = KvsRequest.Put.newBuilder()
+                .setTransactionHandle(handle)
+                .setIndex(KvsRequest.Index.newBuilder()
+                        .setTableName(table))
+                .setType(convert(behavior));
+        return service.send(builder.build(), record);
+    }
+
     private static KvsRequest.Put.Type convert(PutType behavior) {
         assert behavior != null;
         switch (behavior) {
@@ -161,6 +201,83 @@ public class KvsClientImpl implements KvsClient {
         throw new IllegalArgumentException(String.valueOf(behavior));
     }
 
+    @Override
+    public FutureResponse<List<GetResult>> multiGet(
+            @Nonnull TransactionHandle transaction,
+            @Nonnull String table, @Nonnull Collection<? extends RecordBuffer> keys) throws IOException {
+        Objects.requireNonNull(transaction);
+        Objects.requireNonNull(table);
+        Objects.requireNonNull(keys);
+        var entities = toEntities(keys);
+        if (entities.isEmpty()) {
+            return FutureResponse.returns(List.of());
+        }
+        // rejects duplicate keys before sending the request
+        var normalized = MultiGetResponse.normalize(entities);
+        var handle = service.extract(transaction);
+        var builder = KvsRequest.Get.newBuilder()
+                .setTransactionHandle(handle)
+                .setIndex(KvsRequest.Index.newBuilder()
+                        .setTableName(table))
+                .addAllKeys(entities);
+        return new MultiGetResponse(normalized, service.send(builder.build()));
+    }
+
+    @Override
+    public FutureResponse<PutResult> multiPut(
+            @Nonnull TransactionHandle transaction,
+            @Nonnull String table, @Nonnull Collection<? extends RecordBuffer> records,
+            @Nonnull PutType behavior) throws IOException {
+        Objects.requireNonNull(transaction);
+        Objects.requireNonNull(table);
+        Objects.requireNonNull(records);
+        Objects.requireNonNull(behavior);
+        var entities = toEntities(records);
+        if (entities.isEmpty()) {
+            return FutureResponse.returns(new PutResultImpl(0));
+        }
+        var handle = service.extract(transaction);
+        var builder = KvsRequest.Put.newBuilder()
+                .setTransactionHandle(handle)
+                .setIndex(KvsRequest.Index.newBuilder()
+                        .setTableName(table))
+                .addAllRecords(entities)
+                .setType(convert(behavior));
+        return service.send(builder.build());
+    }
+
+    @Override
+    public FutureResponse<RemoveResult> multiRemove(
+            @Nonnull TransactionHandle transaction,
+            @Nonnull String table, @Nonnull Collection<? extends RecordBuffer> keys,
+            @Nonnull RemoveType behavior) throws IOException {
+        Objects.requireNonNull(transaction);
+        Objects.requireNonNull(table);
+        Objects.requireNonNull(keys);
+        Objects.requireNonNull(behavior);
+        var entities = toEntities(keys);
+        if (entities.isEmpty()) {
+            return FutureResponse.returns(new RemoveResultImpl(0));
+        }
+        var handle = service.extract(transaction);
+        var builder = KvsRequest.Remove.newBuilder()
+                .setTransactionHandle(handle)
+                .setIndex(KvsRequest.Index.newBuilder()
+                        .setTableName(table))
+                .addAllKeys(entities)
+                .setType(convert(behavior));
+        return service.send(builder.build());
+    }
+
+    private static List<KvsData.Record> toEntities(Collection<? extends RecordBuffer> buffers) {
+        var results = new ArrayList<KvsData.Record>(buffers.size());
+        for (var buffer : buffers) {
+            Objects.requireNonNull(buffer);
+            results.add(buffer.toRecord().getEntity());
+        }
+        return results;
+    }
+
     @Override
     public FutureResponse<RecordCursor> scan(
             @Nonnull TransactionHandle transaction,
@@ -1,6 +1,8 @@
 package com.tsurugidb.tsubakuro.kvs.impl;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
 
 import javax.annotation.Nonnull;
 
@@ -12,6 +14,8 @@ import com.tsurugidb.tsubakuro.kvs.GetResult;
 import com.tsurugidb.tsubakuro.kvs.KvsServiceException;
 import com.tsurugidb.tsubakuro.kvs.PutResult;
 import com.tsurugidb.tsubakuro.kvs.RecordCursor;
+import com.tsurugidb.tsubakuro.kvs.RecordReader;
+import com.tsurugidb.tsubakuro.kvs.RecordWriter;
 import com.tsurugidb.tsubakuro.kvs.RemoveResult;
 import com.tsurugidb.tsubakuro.kvs.TransactionHandle;
 import com.tsurugidb.tsubakuro.util.FutureResponse;
@@ -90,6 +94,29 @@ public interface KvsService extends ServerResource {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Requests {@code Get} to KVS service, and then resets the reader with the retrieved record.
+     * @param request the request, which has just one key
+     * @param reader the reader to be reset with the retrieved record
+     * @return the future response of the request,
+     *      which may raise error if the request was failed.
+     *      If the request was succeeded, future will returns whether or not the record was found
+     * @throws IOException if I/O error was occurred while sending the request
+     */
+    default FutureResponse<Boolean> send(
+            @Nonnull KvsRequest.Get request,
+            @Nonnull RecordReader reader) throws IOException {
+        Objects.requireNonNull(reader);
+        return new CompositeFutureResponse<GetResult, Boolean>(List.of(send(request)), results -> {
+            var result = results.get(0);
+            if (result.isEmpty()) {
+                return false;
+            }
+            reader.reset(result.asRecord());
+            return true;
+        });
+    }
+
     /**
      * Requests {@code Put} to KVS service.
      * @param request the request
@@ -102,6 +129,23 @@ public interface KvsService extends ServerResource {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Requests {@code Put} to KVS service.
+     * @param request the request without records
+     * @param record the record, which is serialized into the request
+     * @return the future response of the request,
+     *      which may raise error if the request was failed.
+     *      If the request was succeeded, future will returns an operation result object
+     * @throws IOException if I/O error was occurred while sending the request
+     */
+    default FutureResponse<PutResult> send(
+            @Nonnull KvsRequest.Put request,
+            @Nonnull RecordWriter record) throws IOException {
+        return send(request.toBuilder()
+                .addRecords(record.toRecord().getEntity())
+                .build());
+    }
+
     /**
      * Requests {@code Remove} to KVS service.
      * @param request the request
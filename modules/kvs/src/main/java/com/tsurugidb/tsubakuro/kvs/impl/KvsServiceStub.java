@@ -1,9 +1,9 @@
 package com.tsurugidb.tsubakuro.kvs.impl;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -12,11 +12,16 @@ import javax.annotation.Nonnull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.protobuf.CodedInputStream;
 import com.google.protobuf.Message;
+import com.google.protobuf.MessageLite;
+import com.google.protobuf.WireFormat;
 import com.tsurugidb.kvs.proto.KvsRequest;
 import com.tsurugidb.kvs.proto.KvsResponse;
 import com.tsurugidb.kvs.proto.KvsTransaction;
 import com.tsurugidb.tsubakuro.channel.common.connection.wire.MainResponseProcessor;
+import com.tsurugidb.tsubakuro.channel.common.connection.wire.Response;
+import com.tsurugidb.tsubakuro.channel.common.connection.wire.ResponseProcessor;
 import com.tsurugidb.tsubakuro.common.Session;
 import com.tsurugidb.tsubakuro.exception.BrokenResponseException;
 import com.tsurugidb.tsubakuro.exception.ServerException;
@@ -26,10 +31,15 @@ import com.tsurugidb.tsubakuro.kvs.KvsServiceCode;
 import com.tsurugidb.tsubakuro.kvs.KvsServiceException;
 import com.tsurugidb.tsubakuro.kvs.PutResult;
 import com.tsurugidb.tsubakuro.kvs.RecordCursor;
+import com.tsurugidb.tsubakuro.kvs.RecordReader;
+import com.tsurugidb.tsubakuro.kvs.RecordWriter;
 import com.tsurugidb.tsubakuro.kvs.RemoveResult;
 import com.tsurugidb.tsubakuro.kvs.TransactionHandle;
+import com.tsurugidb.tsubakuro.sql.impl.AbstractResultSetProcessor;
 import com.tsurugidb.tsubakuro.util.ByteBufferInputStream;
 import com.tsurugidb.tsubakuro.util.FutureResponse;
+import com.tsurugidb.tsubakuro.util.Lang;
+import com.tsurugidb.tsubakuro.util.Messages;
 import com.tsurugidb.tsubakuro.util.ServerResourceHolder;
 
 /**
@@ -71,10 +81,20 @@ public class KvsServiceStub implements KvsService {
     }
 
     private static byte[] toDelimitedByteArray(KvsRequest.Request request) throws IOException {
-        try (var buffer = new ByteArrayOutputStream()) {
-            request.writeDelimitedTo(buffer);
-            return buffer.toByteArray();
-        }
+        return Messages.toDelimitedByteArray(request);
+    }
+
+    // builds a delimited Request, whose only field is the given request followed by the record
+    private static byte[] toDelimitedByteArray(
+            int requestField,
+            @Nonnull MessageLite request,
+            int recordField,
+            @Nonnull RecordWriter record) throws IOException {
+        return Messages.toDelimitedByteArray(
+                requestField,
+                request,
+                record.getSerializedSize(recordField),
+                output -> record.writeTo(output, recordField));
     }
 
     @Override
@@ -218,6 +238,10 @@ public class KvsServiceStub implements KvsService {
         public GetResult process(ByteBuffer payload) throws IOException, ServerException, InterruptedException {
             var message = KvsResponse.Response.parseDelimitedFrom(new ByteBufferInputStream(payload)).getGet();
             LOG.trace("receive: {}", message); //$NON-NLS-1$
+            return toResult(message);
+        }
+
+        static GetResult toResult(KvsResponse.Get message) throws IOException, ServerException {
             switch (message.getResultCase()) {
             case SUCCESS:
                 var records = message.getSuccess().getRecordsList();
@@ -240,11 +264,89 @@ public class KvsServiceStub implements KvsService {
                 new GetProcessor().asResponseProcessor());
     }
 
+    // resets the reader with the record in GET response, without decoding the response into Record objects
+    static class GetRecordProcessor implements MainResponseProcessor<Boolean> {
+
+        private final RecordReader reader;
+
+        GetRecordProcessor(@Nonnull RecordReader reader) {
+            Objects.requireNonNull(reader);
+            this.reader = reader;
+        }
+
+        @Override
+        public Boolean process(ByteBuffer payload) throws IOException, ServerException, InterruptedException {
+            var original = payload.duplicate();
+            // the reader refers the bytes after the payload was released
+            var bytes = new byte[payload.remaining()];
+            payload.get(bytes);
+            var input = CodedInputStream.newInstance(bytes);
+            input.pushLimit(input.readRawVarint32());
+            if (enter(input, KvsResponse.Response.GET_FIELD_NUMBER) >= 0
+                    && enter(input, KvsResponse.Get.SUCCESS_FIELD_NUMBER) >= 0) {
+                int outer = enter(input, KvsResponse.Get.Success.RECORDS_FIELD_NUMBER);
+                if (outer < 0) {
+                    LOG.trace("receive: GET (not found)"); //$NON-NLS-1$
+                    return false;
+                }
+                int offset = input.getTotalBytesRead();
+                int length = input.getBytesUntilLimit();
+                input.skipRawBytes(length);
+                input.popLimit(outer);
+                if (enter(input, KvsResponse.Get.Success.RECORDS_FIELD_NUMBER) >= 0) {
+                    throw new BrokenResponseException("GET response has two or more records");
+                }
+                LOG.trace("receive: GET (record: {} bytes)", length); //$NON-NLS-1$
+                try {
+                    reader.reset(bytes, offset, length);
+                } catch (IllegalArgumentException e) {
+                    throw new BrokenResponseException(e.getMessage(), e);
+                }
+                return true;
+            }
+            // error was occurred
+            var message = KvsResponse.Response.parseDelimitedFrom(new ByteBufferInputStream(original)).getGet();
+            LOG.trace("receive: {}", message); //$NON-NLS-1$
+            GetProcessor.toResult(message);
+            throw new AssertionError(); // may not occur
+        }
+
+        // moves into the length delimited field, and returns the previous limit, or -1 if it is absent
+        private static int enter(CodedInputStream input, int fieldNumber) throws IOException {
+            int expected = (fieldNumber << 3) | WireFormat.WIRETYPE_LENGTH_DELIMITED;
+            while (true) {
+                int tag = input.readTag();
+                if (tag == 0) {
+                    return -1;
+                }
+                if (tag == expected) {
+                    return input.pushLimit(input.readRawVarint32());
+                }
+                input.skipField(tag);
+            }
+        }
+    }
+
+    @Override
+    public FutureResponse<Boolean> send(
+            @Nonnull KvsRequest.Get request,
+            @Nonnull RecordReader reader) throws IOException {
+        Objects.requireNonNull(request);
+        Objects.requireNonNull(reader);
+        LOG.trace("send (get): {}", request); //$NON-NLS-1$
+        return session.send(SERVICE_ID, toDelimitedByteArray(KvsRequest.Request.newBuilder().setGet(request).build()),
+                new GetRecordProcessor(reader).asResponseProcessor());
+    }
+
     static class PutProcessor implements MainResponseProcessor<PutResult> {
         @Override
         public PutResult process(ByteBuffer payload) throws IOException, ServerException, InterruptedException {
             var message = KvsResponse.Response.parseDelimitedFrom(new ByteBufferInputStream(payload)).getPut();
             LOG.trace("receive: {}", message); //$NON-NLS-1$
+            return toResult(message);
+        }
+
+        static PutResult toResult(KvsResponse.Put message) throws IOException, ServerException {
             switch (message.getResultCase()) {
             case SUCCESS:
                 return new PutResultImpl(message.getSuccess().getWritten());
@@ -266,11 +368,32 @@ public class KvsServiceStub implements KvsService {
                 new PutProcessor().asResponseProcessor());
     }
 
+    @Override
+    public FutureResponse<PutResult> send(
+            @Nonnull KvsRequest.Put request,
+            @Nonnull RecordWriter record) throws IOException {
+        Objects.requireNonNull(request);
+        Objects.requireNonNull(record);
+        LOG.trace("send (put): {}, {}", request, record); //$NON-NLS-1$
+        return session.send(
+                SERVICE_ID,
+                toDelimitedByteArray(
+                        KvsRequest.Request.PUT_FIELD_NUMBER,
+                        request,
+                        KvsRequest.Put.RECORDS_FIELD_NUMBER,
+                        record),
+                new PutProcessor().asResponseProcessor());
+    }
+
     static class RemoveProcessor implements MainResponseProcessor<RemoveResult> {
         @Override
         public RemoveResult process(ByteBuffer payload) throws IOException, ServerException, InterruptedException {
             var message = KvsResponse.Response.parseDelimitedFrom(new ByteBufferInputStream(payload)).getRemove();
             LOG.trace("receive: {}", message); //$NON-NLS-1$
+            return toResult(message);
+        }
+
+        static RemoveResult toResult(KvsResponse.Remove message) throws IOException, ServerException {
             switch (message.getResultCase()) {
             case SUCCESS:
                 return new RemoveResultImpl(message.getSuccess().getRemoved());
@@ -292,16 +415,124 @@ public class KvsServiceStub implements KvsService {
                 new RemoveProcessor().asResponseProcessor());
     }
 
+    class ScanResultSetProcessor extends AbstractResultSetProcessor<KvsResponse.Scan> {
+
+        ScanResultSetProcessor(@Nonnull KvsRequest.Scan request) {
+            super(resources, request);
+        }
+
+        @Override
+        protected KvsResponse.Scan parse(@Nonnull ByteBuffer payload) throws IOException {
+            var response = KvsResponse.Response.parseDelimitedFrom(new ByteBufferInputStream(payload));
+            if (response.getCommandCase() != KvsResponse.Response.CommandCase.SCAN) {
+                throw newResultNotSet(response.getClass(), "scan"); //$NON-NLS-1$
+            }
+            var message = response.getScan();
+            LOG.trace("receive: {}", message); //$NON-NLS-1$
+            return message;
+        }
+
+        @Override
+        protected void doTest(@Nonnull KvsResponse.Scan message) {
+            // Scan response has no body, and the records are sent via the result set channel:
+            // the missing result set is reported by the caller
+            return;
+        }
+
+        @Override
+        public boolean isMainResponseRequired() {
+            return false;
+        }
+    }
+
+    class ScanProcessor implements ResponseProcessor<RecordCursor> {
+
+        private final ScanResultSetProcessor resultSetProcessor;
+
+        ScanProcessor(@Nonnull KvsRequest.Scan request) {
+            assert request != null;
+            this.resultSetProcessor = new ScanResultSetProcessor(request);
+        }
+
+        @Override
+        public boolean isMainResponseRequired() {
+            return false;
+        }
+
+        @Override
+        public RecordCursor process(@Nonnull Response response)
+                throws IOException, ServerException, InterruptedException {
+            Objects.requireNonNull(response);
+            var resultSet = resultSetProcessor.process(response);
+            try {
+                return new RecordCursorImpl(resultSet);
+            } catch (IOException | ServerException | InterruptedException | RuntimeException e) {
+                Lang.suppress(e, resultSet::close);
+                throw e;
+            }
+        }
+    }
+
     @Override
     public FutureResponse<RecordCursor> send(@Nonnull KvsRequest.Scan request) throws IOException {
-        // TODO
-        throw new UnsupportedOperationException();
+        LOG.trace("send: {}", request); //$NON-NLS-1$
+        return session.send(SERVICE_ID, toDelimitedByteArray(KvsRequest.Request.newBuilder().setScan(request).build()),
+                new ScanProcessor(request));
+    }
+
+    static class BatchProcessor implements MainResponseProcessor<BatchResult> {
+        @Override
+        public BatchResult process(ByteBuffer payload) throws IOException, ServerException, InterruptedException {
+            var message = KvsResponse.Response.parseDelimitedFrom(new ByteBufferInputStream(payload)).getBatch();
+            LOG.trace("receive: {}", message); //$NON-NLS-1$
+            switch (message.getResultCase()) {
+            case SUCCESS:
+                var opresults = message.getSuccess().getResultsList();
+                var results = new ArrayList<Object>(opresults.size());
+                for (var opresult : opresults) {
+                    switch (opresult.getOpresultCase()) {
+                    case BEGIN:
+                        if (opresult.getBegin().getResultCase() == KvsResponse.Begin.ResultCase.ERROR) {
+                            throw newError(opresult.getBegin().getError());
+                        }
+                        break;
+                    case COMMIT:
+                        if (opresult.getCommit().getResultCase() == KvsResponse.Commit.ResultCase.ERROR) {
+                            throw newError(opresult.getCommit().getError());
+                        }
+                        break;
+                    case GET:
+                        results.add(GetProcessor.toResult(opresult.getGet()));
+                        break;
+                    case PUT:
+                        results.add(PutProcessor.toResult(opresult.getPut()));
+                        break;
+                    case REMOVE:
+                        results.add(RemoveProcessor.toResult(opresult.getRemove()));
+                        break;
+                    case OPRESULT_NOT_SET:
+                        throw newResultNotSet(opresult.getClass(), "opresult"); //$NON-NLS-1$
+                    default:
+                        throw new AssertionError(); // may not occur
+                    }
+                }
+                return new BatchResultImpl(results);
+
+            case ERROR:
+                throw newError(message.getError());
+
+            case RESULT_NOT_SET:
+                throw newResultNotSet(message.getClass(), "result"); //$NON-NLS-1$
+            }
+            throw new AssertionError(); // may not occur
+        }
     }
 
     @Override
     public FutureResponse<BatchResult> send(@Nonnull KvsRequest.Batch request) throws IOException {
-        // TODO
-        throw new UnsupportedOperationException();
+        LOG.trace("send: {}", request); //$NON-NLS-1$
+        return session.send(SERVICE_ID, toDelimitedByteArray(KvsRequest.Request.newBuilder().setBatch(request).build()),
+                new BatchProcessor().asResponseProcessor());
     }
 
     @Override
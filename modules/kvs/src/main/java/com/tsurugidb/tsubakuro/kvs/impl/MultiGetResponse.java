@@ -0,0 +1,242 @@
+package com.tsurugidb.tsubakuro.kvs.impl;
+
+import java.io.IOException;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.Nonnull;
+
+import com.tsurugidb.kvs.proto.KvsData;
+import com.tsurugidb.tsubakuro.exception.ServerException;
+import com.tsurugidb.tsubakuro.kvs.GetResult;
+import com.tsurugidb.tsubakuro.kvs.Record;
+import com.tsurugidb.tsubakuro.kvs.Values;
+import com.tsurugidb.tsubakuro.util.FutureResponse;
+
+/**
+ * A future response of multi-key {@code GET}, which maps the retrieved records back to the individual keys.
+ * <p>
+ * A record is mapped to a key if all entries of the key are equivalent to the entries of the record
+ * with the same names. Values are compared after normalized: integers are compared regardless of their width,
+ * decimals regardless of their scale, and floating point numbers regardless of the sign of zero.
+ * Character strings are compared as is, because {@code "a"} and {@code "a "} are distinct in {@code VARCHAR} columns.
+ * Only if a key matches none of the records, its character strings may match the ones padded with spaces,
+ * as {@code CHAR} columns return.
+ * The records are expected to be in the same order as the keys, but this also accepts records in other orders.
+ * The keys must be distinct, so that each record is mapped to just one key.
+ * </p>
+ */
+final class MultiGetResponse implements FutureResponse<List<GetResult>> {
+
+    private static final GetResult EMPTY = new GetResultImpl(List.of());
+
+    private final List<Map<String, Object>> keys;
+
+    private final FutureResponse<GetResult> delegate;
+
+    private final AtomicReference<List<GetResult>> result = new AtomicReference<>();
+
+    /**
+     * Creates a new instance.
+     * @param keys the normalized keys
+     * @param delegate the response of the request
+     * @see #normalize(List)
+     */
+    MultiGetResponse(@Nonnull List<Map<String, Object>> keys, @Nonnull FutureResponse<GetResult> delegate) {
+        Objects.requireNonNull(keys);
+        Objects.requireNonNull(delegate);
+        this.keys = keys;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public boolean isDone() {
+        return result.get() != null || delegate.isDone();
+    }
+
+    @Override
+    public List<GetResult> get() throws IOException, ServerException, InterruptedException {
+        var mapped = result.get();
+        if (mapped != null) {
+            return mapped;
+        }
+        result.compareAndSet(null, map(keys, delegate.get().asList()));
+        return result.get();
+    }
+
+    @Override
+    public List<GetResult> get(long timeout, TimeUnit unit)
+            throws IOException, ServerException, InterruptedException, TimeoutException {
+        var mapped = result.get();
+        if (mapped != null) {
+            return mapped;
+        }
+        result.compareAndSet(null, map(keys, delegate.get(timeout, unit).asList()));
+        return result.get();
+    }
+
+    @Override
+    public void close() throws IOException, ServerException, InterruptedException {
+        delegate.close();
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(delegate);
+    }
+
+    /**
+     * Returns the normalized form of the individual keys, which are used to map the retrieved records.
+     * @param keys the requested keys
+     * @return the normalized keys
+     * @throws IllegalArgumentException if the keys contain duplicates
+     */
+    static List<Map<String, Object>> normalize(@Nonnull List<KvsData.Record> keys) {
+        var results = new ArrayList<Map<String, Object>>(keys.size());
+        var saw = new HashSet<Map<String, Object>>();
+        for (var key : keys) {
+            var normalized = new HashMap<String, Object>();
+            for (int i = 0, n = key.getNamesCount(); i < n; i++) {
+                normalized.put(key.getNames(i), normalize(key.getValues(i)));
+            }
+            if (!saw.add(normalized)) {
+                throw new IllegalArgumentException(MessageFormat.format(
+                        "duplicate key in multi-key GET: {0}",
+                        normalized));
+            }
+            results.add(normalized);
+        }
+        return results;
+    }
+
+    static List<GetResult> map(@Nonnull List<Map<String, Object>> keys, @Nonnull List<? extends Record> records) {
+        var found = new int[keys.size()];
+        var assigned = new boolean[records.size()];
+        // exact matches first, so that a padded match never takes the record of another key
+        assign(keys, records, found, assigned, false);
+        assign(keys, records, found, assigned, true);
+        var results = new ArrayList<GetResult>(keys.size());
+        for (int index : found) {
+            if (index < 0) {
+                results.add(EMPTY);
+            } else {
+                results.add(GetResultImpl.of(List.of(records.get(index))));
+            }
+        }
+        return results;
+    }
+
+    private static void assign(
+            List<Map<String, Object>> keys, List<? extends Record> records,
+            int[] found, boolean[] assigned, boolean padded) {
+        int next = 0;
+        for (int k = 0; k < keys.size(); k++) {
+            if (padded && found[k] >= 0) {
+                next = found[k] + 1;
+                continue;
+            }
+            var key = keys.get(k);
+            found[k] = -1;
+            // fast path: records are in the same order as the keys, except for the missing ones
+            if (next < records.size() && !assigned[next] && matches(key, records.get(next), padded)) {
+                found[k] = next;
+            } else {
+                for (int i = 0; i < records.size(); i++) {
+                    if (!assigned[i] && matches(key, records.get(i), padded)) {
+                        found[k] = i;
+                        break;
+                    }
+                }
+            }
+            if (found[k] >= 0) {
+                // the keys are distinct, so that each record matches at most one key
+                assigned[found[k]] = true;
+                next = found[k] + 1;
+            }
+        }
+    }
+
+    private static boolean matches(Map<String, Object> key, Record record, boolean padded) {
+        var entity = record.getEntity();
+        int hint = 0;
+        for (var entry : key.entrySet()) {
+            int position = indexOf(entity, entry.getKey(), hint);
+            if (position < 0 || !matches(entry.getValue(), normalize(entity.getValues(position)), padded)) {
+                return false;
+            }
+            hint = position + 1;
+        }
+        return true;
+    }
+
+    private static boolean matches(Object key, Object value, boolean padded) {
+        if (padded && key instanceof String && value instanceof String) {
+            return isPadded((String) value, (String) key);
+        }
+        return key.equals(value);
+    }
+
+    private static int indexOf(KvsData.Record record, String name, int hint) {
+        // key columns are often placed at the head of records
+        if (hint < record.getNamesCount() && record.getNames(hint).equals(name)) {
+            return hint;
+        }
+        for (int i = 0, n = record.getNamesCount(); i < n; i++) {
+            if (record.getNames(i).equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // normalizes the value, so that the equivalent keys on the server are also equal in the client
+    private static Object normalize(KvsData.Value value) {
+        switch (value.getValueCase()) {
+        case INT4_VALUE:
+            // keys may be specified in wider integer type than the column
+            return (long) value.getInt4Value();
+        case INT8_VALUE:
+            return value.getInt8Value();
+        case FLOAT4_VALUE:
+            return normalize((double) value.getFloat4Value());
+        case FLOAT8_VALUE:
+            return normalize(value.getFloat8Value());
+        case DECIMAL_VALUE:
+            // the scale depends on the column type
+            return Values.toObject(value.getDecimalValue()).stripTrailingZeros();
+        case CHARACTER_VALUE:
+            return value.getCharacterValue();
+        default:
+            return value;
+        }
+    }
+
+    private static Double normalize(double value) {
+        // treats -0.0 as same as 0.0
+        if (value == 0.0) {
+            return 0.0;
+        }
+        return value;
+    }
+
+    // CHAR columns are padded with spaces
+    private static boolean isPadded(String value, String key) {
+        if (!value.startsWith(key)) {
+            return false;
+        }
+        for (int i = key.length(); i < value.length(); i++) {
+            if (value.charAt(i) != ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
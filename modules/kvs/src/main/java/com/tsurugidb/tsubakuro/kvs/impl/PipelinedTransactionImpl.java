@@ -0,0 +1,112 @@
+package com.tsurugidb.tsubakuro.kvs.impl;
+
+import java.io.IOException;
+import java.util.Objects;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.tsurugidb.tsubakuro.exception.ServerException;
+import com.tsurugidb.tsubakuro.kvs.CommitType;
+import com.tsurugidb.tsubakuro.kvs.GetResult;
+import com.tsurugidb.tsubakuro.kvs.KvsClient;
+import com.tsurugidb.tsubakuro.kvs.PipelinedTransaction;
+import com.tsurugidb.tsubakuro.kvs.PutResult;
+import com.tsurugidb.tsubakuro.kvs.PutType;
+import com.tsurugidb.tsubakuro.kvs.RecordBuffer;
+import com.tsurugidb.tsubakuro.kvs.RemoveResult;
+import com.tsurugidb.tsubakuro.kvs.RemoveType;
+import com.tsurugidb.tsubakuro.kvs.TransactionHandle;
+import com.tsurugidb.tsubakuro.util.FutureResponse;
+import com.tsurugidb.tsubakuro.util.PipelinedRequestQueue;
+
+/**
+ * An implementation of {@link PipelinedTransaction}, which sends the individual operations via {@link KvsClient}.
+ * <p>
+ * The operations are queued in {@link PipelinedRequestQueue} until the transaction has been started.
+ * Each operation takes a snapshot of the given {@link RecordBuffer}, so that the callers can reuse the buffer
+ * even if the operation is still queued.
+ * </p>
+ */
+@ThreadSafe
+public class PipelinedTransactionImpl implements PipelinedTransaction {
+
+    private final KvsClient client;
+
+    private final PipelinedRequestQueue<TransactionHandle> queue;
+
+    /**
+     * Creates a new instance.
+     * @param client the KVS client which sends the individual operations
+     * @param begin the future response of the transaction handle, which is obtained from {@code BEGIN} request
+     */
+    public PipelinedTransactionImpl(@Nonnull KvsClient client, @Nonnull FutureResponse<TransactionHandle> begin) {
+        Objects.requireNonNull(client);
+        Objects.requireNonNull(begin);
+        this.client = client;
+        this.queue = new PipelinedRequestQueue<>(begin);
+    }
+
+    @Override
+    public FutureResponse<GetResult> get(@Nonnull String table, @Nonnull RecordBuffer key) throws IOException {
+        Objects.requireNonNull(table);
+        Objects.requireNonNull(key);
+        var direct = queue.direct();
+        if (direct != null) {
+            return client.get(direct, table, key);
+        }
+        var snapshot = key.toRecord();
+        return queue.submit(t -> client.get(t, table, new RecordBuffer(snapshot)));
+    }
+
+    @Override
+    public FutureResponse<PutResult> put(
+            @Nonnull String table,
+            @Nonnull RecordBuffer record,
+            @Nonnull PutType behavior) throws IOException {
+        Objects.requireNonNull(table);
+        Objects.requireNonNull(record);
+        Objects.requireNonNull(behavior);
+        var direct = queue.direct();
+        if (direct != null) {
+            return client.put(direct, table, record, behavior);
+        }
+        var snapshot = record.toRecord();
+        return queue.submit(t -> client.put(t, table, new RecordBuffer(snapshot), behavior));
+    }
+
+    @Override
+    public FutureResponse<RemoveResult> remove(
+            @Nonnull String table,
+            @Nonnull RecordBuffer key,
+            @Nonnull RemoveType behavior) throws IOException {
+        Objects.requireNonNull(table);
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(behavior);
+        var direct = queue.direct();
+        if (direct != null) {
+            return client.remove(direct, table, key, behavior);
+        }
+        var snapshot = key.toRecord();
+        return queue.submit(t -> client.remove(t, table, new RecordBuffer(snapshot), behavior));
+    }
+
+    @Override
+    public FutureResponse<Void> commit(@Nonnull CommitType behavior) throws IOException {
+        Objects.requireNonNull(behavior);
+        return queue.submit(t -> client.commit(t, behavior));
+    }
+
+    @Override
+    public FutureResponse<Void> rollback() throws IOException {
+        return queue.submit(client::rollback);
+    }
+
+    @Override
+    public void close() throws IOException, ServerException, InterruptedException {
+        var started = queue.shutdown(0, null);
+        if (started != null) {
+            started.close();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.tsurugidb.tsubakuro.kvs.impl;
+
+import java.io.IOException;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.tsurugidb.kvs.proto.KvsData;
+import com.tsurugidb.sql.proto.SqlCommon;
+import com.tsurugidb.tsubakuro.exception.ServerException;
+import com.tsurugidb.tsubakuro.kvs.Record;
+import com.tsurugidb.tsubakuro.kvs.RecordCursor;
+import com.tsurugidb.tsubakuro.kvs.RecordLayout;
+import com.tsurugidb.tsubakuro.kvs.Values;
+import com.tsurugidb.tsubakuro.sql.ResultSet;
+import com.tsurugidb.tsubakuro.sql.io.BrokenRelationException;
+
+/**
+ * An implementation of {@link RecordCursor}, which retrieves records from the result set channel.
+ * <p>
+ * The records are decoded one by one while {@link #next()}, so that the underlying result set channel
+ * only keeps the chunks which are not consumed yet.
+ * The individual records only hold their values, and share the column names and their name to position table
+ * through the {@link RecordLayout}.
+ * </p>
+ */
+@NotThreadSafe
+public class RecordCursorImpl implements RecordCursor {
+
+    private final ResultSet resultSet;
+
+    private final List<SqlCommon.AtomType> types;
+
+    private final RecordLayout layout;
+
+    private Record current;
+
+    /**
+     * Creates a new instance.
+     * @param resultSet the result set which provides the records
+     * @throws IOException if I/O error was occurred while retrieving metadata,
+     *      or the result set contains unsupported column types
+     * @throws ServerException if server error was occurred while retrieving metadata
+     * @throws InterruptedException if interrupted while retrieving metadata
+     */
+    public RecordCursorImpl(@Nonnull ResultSet resultSet) throws IOException, ServerException, InterruptedException {
+        Objects.requireNonNull(resultSet);
+        this.resultSet = resultSet;
+        var columns = resultSet.getMetadata().getColumns();
+        var typeList = new ArrayList<SqlCommon.AtomType>(columns.size());
+        var nameList = new ArrayList<String>(columns.size());
+        for (var column : columns) {
+            if (column.getTypeInfoCase() != SqlCommon.Column.TypeInfoCase.ATOM_TYPE || column.getDimension() != 0) {
+                throw new IOException(MessageFormat.format(
+                        "unsupported column type in scan result: {0}",
+                        column));
+            }
+            typeList.add(column.getAtomType());
+            nameList.add(column.getName());
+        }
+        this.types = typeList;
+        this.layout = RecordLayout.of(nameList);
+    }
+
+    @Override
+    public boolean next() throws IOException, ServerException, InterruptedException {
+        current = null;
+        if (!resultSet.nextRow()) {
+            return false;
+        }
+        var values = new ArrayList<KvsData.Value>(types.size());
+        for (var type : types) {
+            if (!resultSet.nextColumn()) {
+                throw BrokenRelationException.sawUnexpectedEndOfContents();
+            }
+            values.add(fetch(type));
+        }
+        current = layout.wrap(values);
+        return true;
+    }
+
+    private KvsData.Value fetch(SqlCommon.AtomType type) throws IOException, ServerException, InterruptedException {
+        if (resultSet.isNull()) {
+            return Values.ofNull();
+        }
+        switch (type) {
+        case BOOLEAN:
+            return Values.of(resultSet.fetchBooleanValue());
+        case INT4:
+            return Values.of(resultSet.fetchInt4Value());
+        case INT8:
+            return Values.of(resultSet.fetchInt8Value());
+        case FLOAT4:
+            return Values.of(resultSet.fetchFloat4Value());
+        case FLOAT8:
+            return Values.of(resultSet.fetchFloat8Value());
+        case DECIMAL:
+            return Values.of(resultSet.fetchDecimalValue());
+        case CHARACTER:
+            return Values.of(resultSet.fetchCharacterValue());
+        case OCTET:
+            return Values.of(resultSet.fetchOctetValue());
+        case DATE:
+            return Values.of(resultSet.fetchDateValue());
+        case TIME_OF_DAY:
+            return Values.of(resultSet.fetchTimeOfDayValue());
+        case TIME_POINT:
+            return Values.of(resultSet.fetchTimePointValue());
+        case TIME_OF_DAY_WITH_TIME_ZONE:
+            return Values.of(resultSet.fetchTimeOfDayWithTimeZoneValue());
+        case TIME_POINT_WITH_TIME_ZONE:
+            return Values.of(resultSet.fetchTimePointWithTimeZoneValue());
+        default:
+            throw new IOException(MessageFormat.format(
+                    "unsupported column type in scan result: {0}",
+                    type));
+        }
+    }
+
+    @Override
+    public Record getRecord() {
+        if (current == null) {
+            throw new IllegalStateException("cursor does not point any records");
+        }
+        return current;
+    }
+
+    @Override
+    public void close() throws ServerException, IOException, InterruptedException {
+        current = null;
+        resultSet.close();
+    }
+}
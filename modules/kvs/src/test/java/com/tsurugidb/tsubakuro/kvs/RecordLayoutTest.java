@@ -0,0 +1,99 @@
+package com.tsurugidb.tsubakuro.kvs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class RecordLayoutTest {
+
+    private static final String KEY1 = "key1";
+    private static final String KEY2 = "key2";
+    private static final String KEY3 = "key3";
+
+    @Test
+    void simple() throws Exception {
+        var layout = RecordLayout.of(KEY1, KEY2);
+        assertEquals(2, layout.size());
+        assertEquals(List.of(KEY1, KEY2), layout.getNames());
+        assertEquals(KEY2, layout.getName(1));
+        assertEquals(0, layout.indexOf(KEY1));
+        assertEquals(1, layout.indexOf(KEY2));
+        assertEquals(-1, layout.indexOf(KEY3));
+        assertEquals(RecordLayout.of(List.of(KEY1, KEY2)), layout);
+        assertThrows(UnsupportedOperationException.class, () -> layout.getNames().add(KEY3));
+    }
+
+    @Test
+    void newBuffer() throws Exception {
+        var layout = RecordLayout.of(KEY1, KEY2, KEY3);
+        var buffer = layout.newBuffer();
+        assertSame(layout, buffer.getLayout());
+        assertEquals(3, buffer.size());
+
+        buffer.set(0, 100L)
+                .set(KEY3, Values.of(new BigDecimal("1.5")));
+        var record = buffer.toRecord();
+        assertSame(layout, record.getLayout());
+        assertEquals(100L, record.getLong(KEY1));
+        assertTrue(record.isNull(KEY2));
+        assertEquals(new BigDecimal("1.5"), record.getDecimal(KEY3));
+        assertEquals(new RecordBuffer()
+                .add(KEY1, 100L)
+                .addNull(KEY2)
+                .add(KEY3, new BigDecimal("1.5"))
+                .toRecord(), record);
+
+        buffer.clear();
+        assertEquals(3, buffer.size());
+        assertNull(buffer.toRecord().getValue(KEY1));
+
+        assertThrows(IndexOutOfBoundsException.class, () -> buffer.set(3, 1));
+        assertThrows(IllegalArgumentException.class, () -> buffer.set("unknown", Values.of(1)));
+        assertThrows(IllegalStateException.class, () -> new RecordBuffer().set(KEY1, Values.of(1)));
+    }
+
+    @Test
+    void wrap() throws Exception {
+        var layout = RecordLayout.of(KEY1, KEY2);
+        var matched = layout.wrap(new RecordBuffer().add(KEY1, 1).add(KEY2, "a").toRecord().getEntity());
+        assertSame(layout, matched.getLayout());
+        assertEquals(1, matched.getInt(KEY1));
+        assertEquals("a", matched.getCharacter(KEY2));
+
+        var unmatched = layout.wrap(new RecordBuffer().add(KEY2, "a").add(KEY1, 1).toRecord().getEntity());
+        assertNotSame(layout, unmatched.getLayout());
+        assertEquals(1, unmatched.getInt(KEY1));
+        assertEquals("a", unmatched.getCharacter(KEY2));
+        assertFalse(layout.matches(unmatched.getEntity()));
+    }
+
+    @Test
+    void wrapValues() throws Exception {
+        var layout = RecordLayout.of(KEY1, KEY2);
+        var record = layout.wrap(List.of(Values.of(1), Values.of("a")));
+        assertSame(layout, record.getLayout());
+        assertEquals(2, record.size());
+        assertEquals(KEY2, record.getName(1));
+        assertEquals(1, record.getInt(KEY1));
+        assertEquals("a", record.getCharacter(KEY2));
+        assertEquals(new RecordBuffer().add(KEY1, 1).add(KEY2, "a").toRecord(), record);
+        assertEquals(List.of(KEY1, KEY2), record.getEntity().getNamesList());
+
+        assertThrows(IllegalArgumentException.class, () -> layout.wrap(List.of(Values.of(1))));
+    }
+
+    @Test
+    void duplicateNames() throws Exception {
+        var layout = RecordLayout.of(KEY1, KEY1);
+        assertEquals(1, layout.indexOf(KEY1));
+    }
+}
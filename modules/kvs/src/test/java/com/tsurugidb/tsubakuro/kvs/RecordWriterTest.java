@@ -0,0 +1,210 @@
+package com.tsurugidb.tsubakuro.kvs;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.protobuf.CodedOutputStream;
+import com.tsurugidb.kvs.proto.KvsData;
+import com.tsurugidb.kvs.proto.KvsRequest;
+
+class RecordWriterTest {
+
+    private static final RecordLayout LAYOUT = RecordLayout.of(
+            "n", "b", "i4", "i8", "f4", "f8", "d", "c", "o", "date", "time");
+
+    private static final BigDecimal DECIMAL_LARGE = new BigDecimal("-12345678901234567890123.456");
+
+    private static RecordWriter fill(RecordWriter writer, int seed) {
+        return writer
+                .setNull(0)
+                .setBoolean(1, seed % 2 == 0)
+                .setInt(2, -seed)
+                .setLong(3, 1_000_000_000_000L * seed)
+                .setFloat(4, seed / 4f)
+                .setDouble(5, -seed / 8d)
+                .setDecimal(6, BigDecimal.valueOf(seed, 2))
+                .setCharacter(7, "v" + seed)
+                .setOctet(8, new byte[] { (byte) seed, 2, 3 })
+                .setDate(9, LocalDate.ofEpochDay(seed))
+                .setTimeOfDay(10, LocalTime.ofSecondOfDay(seed));
+    }
+
+    private static RecordBuffer fill(RecordBuffer buffer, int seed) {
+        return buffer
+                .setNull(0)
+                .set(1, seed % 2 == 0)
+                .set(2, -seed)
+                .set(3, 1_000_000_000_000L * seed)
+                .set(4, seed / 4f)
+                .set(5, -seed / 8d)
+                .set(6, BigDecimal.valueOf(seed, 2))
+                .set(7, "v" + seed)
+                .set(8, new byte[] { (byte) seed, 2, 3 })
+                .set(9, Values.of(LocalDate.ofEpochDay(seed)))
+                .set(10, Values.of(LocalTime.ofSecondOfDay(seed)));
+    }
+
+    private static byte[] toByteArray(RecordBuffer buffer) {
+        return buffer.toRecord().getEntity().toByteArray();
+    }
+
+    @Test
+    void simple() throws Exception {
+        var writer = fill(new RecordWriter(LAYOUT), 7);
+        assertEquals(LAYOUT.size(), writer.size());
+        var bytes = writer.toByteArray();
+        assertArrayEquals(toByteArray(fill(LAYOUT.newBuffer(), 7)), bytes);
+        assertEquals(bytes.length, writer.getSerializedSize());
+        assertEquals(fill(LAYOUT.newBuffer(), 7).toRecord(), writer.toRecord());
+    }
+
+    @Test
+    void reuse() throws Exception {
+        var writer = new RecordWriter(LAYOUT);
+        for (int seed = -3; seed <= 3; seed++) {
+            assertArrayEquals(toByteArray(fill(LAYOUT.newBuffer(), seed)), fill(writer, seed).toByteArray());
+        }
+        writer.clear();
+        assertArrayEquals(toByteArray(LAYOUT.newBuffer()), writer.toByteArray());
+    }
+
+    @Test
+    void decimal() throws Exception {
+        var layout = RecordLayout.of("d");
+        var writer = new RecordWriter(layout);
+        var values = new BigDecimal[] {
+            BigDecimal.ZERO,
+            new BigDecimal("1.00"),
+            new BigDecimal("-1"),
+            new BigDecimal("1E+3"),
+            BigDecimal.valueOf(Long.MAX_VALUE),
+            BigDecimal.valueOf(Long.MIN_VALUE, 5),
+            DECIMAL_LARGE,
+        };
+        var reader = new RecordReader();
+        for (var value : values) {
+            var expected = layout.newBuffer().set(0, value);
+            assertArrayEquals(toByteArray(expected), writer.setDecimal(0, value).toByteArray(), value.toString());
+            assertEquals(expected.toRecord(), writer.toRecord(), value.toString());
+            assertEquals(value, reader.reset(writer.toByteArray()).getDecimal(0));
+        }
+        var expected = layout.newBuffer().set(0, new BigDecimal("-12.34"));
+        writer.setDecimal(0, -1234, 2);
+        assertArrayEquals(toByteArray(expected), writer.toByteArray());
+        assertEquals(expected.toRecord(), writer.toRecord());
+        assertEquals(new BigDecimal("-12.34"), reader.reset(writer.toByteArray()).getDecimal(0));
+    }
+
+    @Test
+    void writeToField() throws Exception {
+        var writer = fill(new RecordWriter(LAYOUT), 3);
+        var output = new ByteArrayOutputStream();
+        var coded = CodedOutputStream.newInstance(output);
+        writer.writeTo(coded, KvsRequest.Put.RECORDS_FIELD_NUMBER);
+        coded.flush();
+        assertEquals(output.size(), writer.getSerializedSize(KvsRequest.Put.RECORDS_FIELD_NUMBER));
+
+        var put = KvsRequest.Put.parseFrom(output.toByteArray());
+        assertEquals(1, put.getRecordsCount());
+        assertEquals(fill(LAYOUT.newBuffer(), 3).toRecord().getEntity(), put.getRecords(0));
+    }
+
+    @Test
+    void reader() throws Exception {
+        var reader = new RecordReader();
+        reader.reset(fill(new RecordWriter(LAYOUT), 6).toByteArray());
+        assertEquals(LAYOUT.size(), reader.size());
+        for (int i = 0; i < LAYOUT.size(); i++) {
+            assertEquals(LAYOUT.getName(i), reader.getName(i));
+        }
+        assertTrue(reader.isNull(0));
+        assertFalse(reader.isNull(1));
+        assertEquals(true, reader.getBoolean(1));
+        assertEquals(-6, reader.getInt(2));
+        assertEquals(6_000_000_000_000L, reader.getLong(3));
+        assertEquals(1.5f, reader.getFloat(4));
+        assertEquals(-0.75d, reader.getDouble(5));
+        assertEquals(new BigDecimal("0.06"), reader.getDecimal(6));
+        assertEquals("v6", reader.getCharacter(7));
+        assertArrayEquals(new byte[] { 6, 2, 3 }, reader.getOctet(8));
+        assertEquals(6L, reader.getEpochDay(9));
+        assertEquals(LocalDate.ofEpochDay(6), reader.getDate(9));
+        assertEquals(6_000_000_000L, reader.getNanoOfDay(10));
+        assertEquals(LocalTime.ofSecondOfDay(6), reader.getTimeOfDay(10));
+
+        // reuse
+        reader.reset(fill(new RecordWriter(LAYOUT), 1).toByteArray());
+        assertEquals(false, reader.getBoolean(1));
+        assertEquals(-1, reader.getInt(2));
+    }
+
+    @Test
+    void readerFromRecord() throws Exception {
+        var record = new RecordBuffer()
+                .add("a", Long.MIN_VALUE)
+                .add("b", Integer.MIN_VALUE)
+                .add("c", DECIMAL_LARGE)
+                .addNull("d")
+                .toRecord();
+        var reader = new RecordReader().reset(record.getEntity().toByteArray());
+        assertEquals(4, reader.size());
+        assertEquals(Long.MIN_VALUE, reader.getLong(0));
+        assertEquals(Integer.MIN_VALUE, reader.getInt(1));
+        assertEquals(DECIMAL_LARGE, reader.getDecimal(2));
+        assertTrue(reader.isNull(3));
+    }
+
+    @Test
+    void readerFromLayoutRecord() throws Exception {
+        var record = fill(LAYOUT.newBuffer(), 2).toRecord();
+        var reader = new RecordReader().reset(record);
+        assertEquals(LAYOUT.size(), reader.size());
+        assertEquals(-2, reader.getInt(2));
+        assertEquals("v2", reader.getCharacter(7));
+    }
+
+    @Test
+    void readerEmpty() throws Exception {
+        var reader = new RecordReader().reset(KvsData.Record.getDefaultInstance().toByteArray());
+        assertEquals(0, reader.size());
+        assertThrows(IndexOutOfBoundsException.class, () -> reader.isNull(0));
+    }
+
+    @Test
+    void readerTypeMismatch() throws Exception {
+        var reader = new RecordReader().reset(fill(new RecordWriter(LAYOUT), 1).toByteArray());
+        assertThrows(IllegalArgumentException.class, () -> reader.getLong(0));
+        assertThrows(IllegalArgumentException.class, () -> reader.getLong(2));
+        assertThrows(IllegalArgumentException.class, () -> reader.getCharacter(8));
+        assertThrows(IndexOutOfBoundsException.class, () -> reader.getLong(LAYOUT.size()));
+    }
+
+    @Test
+    void readerMalformed() throws Exception {
+        var bytes = KvsData.Record.newBuilder()
+                .addNames("a")
+                .build()
+                .toByteArray();
+        var reader = new RecordReader();
+        assertThrows(IllegalArgumentException.class, () -> reader.reset(bytes));
+        assertEquals(0, reader.size());
+        assertThrows(IllegalArgumentException.class, () -> reader.reset(new byte[] { 0x12, 0x05 }));
+    }
+
+    @Test
+    void outOfRange() throws Exception {
+        var writer = new RecordWriter(LAYOUT);
+        assertThrows(IndexOutOfBoundsException.class, () -> writer.setLong(LAYOUT.size(), 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> writer.setNull(-1));
+    }
+}
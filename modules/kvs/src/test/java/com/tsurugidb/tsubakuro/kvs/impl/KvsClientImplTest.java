@@ -1,10 +1,15 @@
 package com.tsurugidb.tsubakuro.kvs.impl;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.annotation.Nonnull;
 
@@ -13,12 +18,22 @@ import org.junit.jupiter.api.Test;
 import com.tsurugidb.kvs.proto.KvsData;
 import com.tsurugidb.kvs.proto.KvsRequest;
 import com.tsurugidb.kvs.proto.KvsTransaction;
+import com.tsurugidb.tsubakuro.kvs.BatchResult;
+import com.tsurugidb.tsubakuro.kvs.BatchScript;
+import com.tsurugidb.tsubakuro.kvs.CommitType;
 import com.tsurugidb.tsubakuro.kvs.GetResult;
 import com.tsurugidb.tsubakuro.kvs.KvsClient;
 import com.tsurugidb.tsubakuro.kvs.PutResult;
+import com.tsurugidb.tsubakuro.kvs.PutType;
 import com.tsurugidb.tsubakuro.kvs.RecordBuffer;
+import com.tsurugidb.tsubakuro.kvs.RecordCursor;
+import com.tsurugidb.tsubakuro.kvs.RecordReader;
 import com.tsurugidb.tsubakuro.kvs.RemoveResult;
+import com.tsurugidb.tsubakuro.kvs.RemoveType;
+import com.tsurugidb.tsubakuro.kvs.ScanBound;
+import com.tsurugidb.tsubakuro.kvs.ScanType;
 import com.tsurugidb.tsubakuro.kvs.TransactionHandle;
+import com.tsurugidb.tsubakuro.kvs.TransactionOption;
 import com.tsurugidb.tsubakuro.util.FutureResponse;
 
 class KvsClientImplTest {
@@ -114,6 +129,35 @@ class KvsClientImplTest {
         }
     }
 
+    @Test
+    void getWithReader() throws Exception {
+        var buffer = new RecordBuffer();
+        buffer.add("key", 100);
+        buffer.add("foo", "Hello");
+        var found = new AtomicBoolean(true);
+        KvsClient client = new KvsClientImpl(new KvsServiceWithExtract() {
+            @Override
+            public FutureResponse<GetResult> send(KvsRequest.Get request) throws IOException {
+                assertEquals(1, request.getKeysCount());
+                if (!found.get()) {
+                    return FutureResponse.returns(new GetResultImpl(List.of()));
+                }
+                return FutureResponse.returns(new GetResultImpl(List.of(buffer.toRecord().getEntity())));
+            }
+        });
+        TransactionHandle handle = new TransactionHandleImpl(123);
+        var reader = new RecordReader();
+        assertTrue(client.get(handle, "TABLE", buffer, reader).await());
+        assertEquals(2, reader.size());
+        assertEquals(100, reader.getInt(0));
+        assertEquals("Hello", reader.getCharacter(1));
+
+        // the reader is not modified if the record is absent
+        found.set(false);
+        assertFalse(client.get(handle, "TABLE", buffer, reader).await());
+        assertEquals(2, reader.size());
+    }
+
     @Test
     void remove() throws Exception {
         var buffer = new RecordBuffer();
@@ -131,5 +175,229 @@ class KvsClientImplTest {
         var result = client.remove(handle, "TABLE", buffer).await();
         assertEquals(1, result.size());
     }
-}
 
+    private static RecordBuffer record(long key, String value) {
+        var buffer = new RecordBuffer();
+        buffer.add("key", key);
+        if (value != null) {
+            buffer.add("value", value);
+        }
+        return buffer;
+    }
+
+    @Test
+    void multiGet() throws Exception {
+        KvsClient client = new KvsClientImpl(new KvsServiceWithExtract() {
+            @Override
+            public FutureResponse<GetResult> send(KvsRequest.Get request) throws IOException {
+                assertEquals(4, request.getKeysCount());
+                // keys 2 and 4 are missing, and the others are out of order
+                var records = new ArrayList<KvsData.Record>();
+                records.add(record(3, "c").toRecord().getEntity());
+                records.add(record(1, "a").toRecord().getEntity());
+                return FutureResponse.returns(new GetResultImpl(records));
+            }
+        });
+        TransactionHandle handle = new TransactionHandleImpl(123);
+        var keys = List.of(record(1, null), record(2, null), record(3, null), record(4, null));
+        var results = client.multiGet(handle, "TABLE", keys).await();
+        assertEquals(4, results.size());
+        assertEquals("a", results.get(0).asRecord().getCharacter("value"));
+        assertTrue(results.get(1).isEmpty());
+        assertEquals("c", results.get(2).asRecord().getCharacter("value"));
+        assertTrue(results.get(3).isEmpty());
+    }
+
+    @Test
+    void multiGet_widerKey() throws Exception {
+        KvsClient client = new KvsClientImpl(new KvsServiceWithExtract() {
+            @Override
+            public FutureResponse<GetResult> send(KvsRequest.Get request) throws IOException {
+                var records = new ArrayList<KvsData.Record>();
+                records.add(new RecordBuffer().add("key", 1).add("value", "a").toRecord().getEntity());
+                return FutureResponse.returns(new GetResultImpl(records));
+            }
+        });
+        TransactionHandle handle = new TransactionHandleImpl(123);
+        var results = client.multiGet(handle, "TABLE", List.of(record(1, null))).await();
+        assertEquals("a", results.get(0).asRecord().getCharacter("value"));
+    }
+
+    @Test
+    void multiGet_normalized() throws Exception {
+        KvsClient client = new KvsClientImpl(new KvsServiceWithExtract() {
+            @Override
+            public FutureResponse<GetResult> send(KvsRequest.Get request) throws IOException {
+                // the server returns values in the column types
+                var records = new ArrayList<KvsData.Record>();
+                records.add(new RecordBuffer().add("key", new BigDecimal("1.00")).add("value", "a")
+                        .toRecord().getEntity());
+                records.add(new RecordBuffer().add("key", "b  ").add("value", "b")
+                        .toRecord().getEntity());
+                records.add(new RecordBuffer().add("key", 0.0).add("value", "c")
+                        .toRecord().getEntity());
+                return FutureResponse.returns(new GetResultImpl(records));
+            }
+        });
+        TransactionHandle handle = new TransactionHandleImpl(123);
+        var keys = List.of(
+                new RecordBuffer().add("key", -0.0),
+                new RecordBuffer().add("key", "b"),
+                new RecordBuffer().add("key", new BigDecimal("1")));
+        var results = client.multiGet(handle, "TABLE", keys).await();
+        assertEquals("c", results.get(0).asRecord().getCharacter("value"));
+        assertEquals("b", results.get(1).asRecord().getCharacter("value"));
+        assertEquals("a", results.get(2).asRecord().getCharacter("value"));
+    }
+
+    @Test
+    void multiGet_trailingSpaces() throws Exception {
+        KvsClient client = new KvsClientImpl(new KvsServiceWithExtract() {
+            @Override
+            public FutureResponse<GetResult> send(KvsRequest.Get request) throws IOException {
+                // only "a " exists in the VARCHAR column
+                var records = new ArrayList<KvsData.Record>();
+                records.add(new RecordBuffer().add("key", "a ").add("value", "x").toRecord().getEntity());
+                return FutureResponse.returns(new GetResultImpl(records));
+            }
+        });
+        TransactionHandle handle = new TransactionHandleImpl(123);
+        var keys = List.of(
+                new RecordBuffer().add("key", "a"),
+                new RecordBuffer().add("key", "a "));
+        var results = client.multiGet(handle, "TABLE", keys).await();
+        assertTrue(results.get(0).isEmpty());
+        assertEquals("x", results.get(1).asRecord().getCharacter("value"));
+    }
+
+    @Test
+    void multiGet_duplicateKeys() throws Exception {
+        KvsClient client = new KvsClientImpl(new KvsServiceWithExtract());
+        TransactionHandle handle = new TransactionHandleImpl(123);
+        var keys = List.of(
+                new RecordBuffer().add("key", 1).add("sub", new BigDecimal("1.0")),
+                new RecordBuffer().add("sub", new BigDecimal("1")).add("key", 1L));
+        assertThrows(IllegalArgumentException.class, () -> client.multiGet(handle, "TABLE", keys));
+    }
+
+    @Test
+    void multiGet_empty() throws Exception {
+        KvsClient client = new KvsClientImpl(new KvsServiceWithExtract());
+        TransactionHandle handle = new TransactionHandleImpl(123);
+        assertEquals(0, client.multiGet(handle, "TABLE", List.of()).await().size());
+    }
+
+    @Test
+    void multiPut() throws Exception {
+        KvsClient client = new KvsClientImpl(new KvsServiceWithExtract() {
+            @Override
+            public FutureResponse<PutResult> send(KvsRequest.Put request) throws IOException {
+                assertEquals(KvsRequest.Put.Type.IF_ABSENT, request.getType());
+                assertEquals(3, request.getRecordsCount());
+                assertEquals(record(2, "b").toRecord().getEntity(), request.getRecords(1));
+                return FutureResponse.returns(new PutResultImpl(request.getRecordsCount()));
+            }
+        });
+        TransactionHandle handle = new TransactionHandleImpl(123);
+        var records = List.of(record(1, "a"), record(2, "b"), record(3, "c"));
+        var result = client.multiPut(handle, "TABLE", records, PutType.IF_ABSENT).await();
+        assertEquals(3, result.size());
+    }
+
+    @Test
+    void multiRemove() throws Exception {
+        KvsClient client = new KvsClientImpl(new KvsServiceWithExtract() {
+            @Override
+            public FutureResponse<RemoveResult> send(KvsRequest.Remove request) throws IOException {
+                assertEquals(KvsRequest.Remove.Type.COUNTING, request.getType());
+                assertEquals(2, request.getKeysCount());
+                return FutureResponse.returns(new RemoveResultImpl(1));
+            }
+        });
+        TransactionHandle handle = new TransactionHandleImpl(123);
+        var result = client.multiRemove(handle, "TABLE", List.of(record(1, null), record(2, null))).await();
+        assertEquals(1, result.size());
+    }
+
+    /**
+     * A client which only supports single-key operations.
+     */
+    private static class SingleKeyClient implements KvsClient {
+
+        final List<String> requests = new ArrayList<>();
+
+        @Override
+        public FutureResponse<TransactionHandle> beginTransaction(TransactionOption option) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public FutureResponse<Void> commit(TransactionHandle transaction, CommitType behavior) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public FutureResponse<Void> rollback(TransactionHandle transaction) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public FutureResponse<GetResult> get(TransactionHandle transaction, String table, RecordBuffer key) {
+            var value = key.toRecord().getLong("key");
+            requests.add("GET:" + value);
+            if (value % 2 == 0) {
+                return FutureResponse.returns(new GetResultImpl(List.of()));
+            }
+            var found = record(value, "v" + value).toRecord().getEntity();
+            return FutureResponse.returns(new GetResultImpl(List.of(found)));
+        }
+
+        @Override
+        public FutureResponse<PutResult> put(
+                TransactionHandle transaction, String table, RecordBuffer record, PutType behavior) {
+            requests.add("PUT:" + record.toRecord().getLong("key"));
+            return FutureResponse.returns(new PutResultImpl(1));
+        }
+
+        @Override
+        public FutureResponse<RemoveResult> remove(
+                TransactionHandle transaction, String table, RecordBuffer key, RemoveType behavior) {
+            requests.add("REMOVE:" + key.toRecord().getLong("key"));
+            return FutureResponse.returns(new RemoveResultImpl(1));
+        }
+
+        @Override
+        public FutureResponse<RecordCursor> scan(
+                TransactionHandle transaction, String table,
+                RecordBuffer lowerKey, ScanBound lowerBound,
+                RecordBuffer upperKey, ScanBound upperBound,
+                ScanType behavior) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public FutureResponse<BatchResult> batch(TransactionHandle transaction, BatchScript script) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+            return;
+        }
+    }
+
+    @Test
+    void multi_singleKeyFallback() throws Exception {
+        var client = new SingleKeyClient();
+        TransactionHandle handle = new TransactionHandleImpl(123);
+
+        var results = client.multiGet(handle, "TABLE", List.of(record(1, null), record(2, null))).await();
+        assertEquals(2, results.size());
+        assertEquals("v1", results.get(0).asRecord().getCharacter("value"));
+        assertTrue(results.get(1).isEmpty());
+
+        assertEquals(2, client.multiPut(handle, "TABLE", List.of(record(3, "c"), record(4, "d"))).await().size());
+        assertEquals(1, client.multiRemove(handle, "TABLE", List.of(record(5, null))).await().size());
+        assertEquals(List.of("GET:1", "GET:2", "PUT:3", "PUT:4", "REMOVE:5"), client.requests);
+    }
+}
@@ -0,0 +1,165 @@
+package com.tsurugidb.tsubakuro.kvs.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.tsurugidb.kvs.proto.KvsData;
+import com.tsurugidb.kvs.proto.KvsRequest;
+import com.tsurugidb.kvs.proto.KvsResponse;
+import com.tsurugidb.tsubakuro.channel.common.connection.wire.Response;
+import com.tsurugidb.tsubakuro.common.impl.SessionImpl;
+import com.tsurugidb.tsubakuro.exception.BrokenResponseException;
+import com.tsurugidb.tsubakuro.kvs.KvsServiceCode;
+import com.tsurugidb.tsubakuro.kvs.KvsServiceException;
+import com.tsurugidb.tsubakuro.kvs.RecordBuffer;
+import com.tsurugidb.tsubakuro.kvs.RecordReader;
+
+class KvsServiceStubTest {
+
+    // the main response only, without any result sets
+    private static class MainResponseOnly implements Response {
+
+        private final ByteBuffer main;
+
+        boolean closed = false;
+
+        MainResponseOnly(KvsResponse.Response message) throws IOException {
+            try (var buffer = new ByteArrayOutputStream()) {
+                message.writeDelimitedTo(buffer);
+                this.main = ByteBuffer.wrap(buffer.toByteArray());
+            }
+        }
+
+        @Override
+        public boolean isMainResponseReady() {
+            return true;
+        }
+
+        @Override
+        public ByteBuffer waitForMainResponse() {
+            return main.duplicate();
+        }
+
+        @Override
+        public ByteBuffer waitForMainResponse(long timeout, TimeUnit unit) {
+            return waitForMainResponse();
+        }
+
+        @Override
+        public InputStream openSubResponse(String id) {
+            return null;
+        }
+
+        @Override
+        public InputStream openSubResponse(String id, long timeout, TimeUnit unit) {
+            return null;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    @Test
+    void scanWithoutResultSet() throws Exception {
+        try (var session = new SessionImpl()) {
+            var service = new KvsServiceStub(session);
+            var response = new MainResponseOnly(KvsResponse.Response.newBuilder()
+                    .setScan(KvsResponse.Scan.getDefaultInstance())
+                    .build());
+            var processor = service.new ScanProcessor(KvsRequest.Scan.getDefaultInstance());
+            assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+                assertThrows(BrokenResponseException.class, () -> processor.process(response));
+            });
+            assertTrue(response.closed);
+        }
+    }
+
+    @Test
+    void scanInconsistentResponse() throws Exception {
+        try (var session = new SessionImpl()) {
+            var service = new KvsServiceStub(session);
+            var response = new MainResponseOnly(KvsResponse.Response.newBuilder()
+                    .setBegin(KvsResponse.Begin.getDefaultInstance())
+                    .build());
+            var processor = service.new ScanProcessor(KvsRequest.Scan.getDefaultInstance());
+            assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+                assertThrows(BrokenResponseException.class, () -> processor.process(response));
+            });
+            assertTrue(response.closed);
+        }
+    }
+
+    private static KvsResponse.Response getSuccess(KvsData.Record... records) {
+        var success = KvsResponse.Get.Success.newBuilder();
+        for (var record : records) {
+            success.addRecords(record);
+        }
+        return KvsResponse.Response.newBuilder()
+                .setMessageVersion(1)
+                .setGet(KvsResponse.Get.newBuilder().setSuccess(success))
+                .build();
+    }
+
+    @Test
+    void getRecord() throws Exception {
+        var record = new RecordBuffer()
+                .add("k", 1L)
+                .add("v", "hello")
+                .addNull("n")
+                .toRecord()
+                .getEntity();
+        var response = new MainResponseOnly(getSuccess(record));
+        var reader = new RecordReader();
+        var processor = new KvsServiceStub.GetRecordProcessor(reader).asResponseProcessor();
+        assertTrue(processor.process(response));
+        assertEquals(3, reader.size());
+        assertEquals("k", reader.getName(0));
+        assertEquals(1L, reader.getLong(0));
+        assertEquals("hello", reader.getCharacter(1));
+        assertTrue(reader.isNull(2));
+    }
+
+    @Test
+    void getRecordNotFound() throws Exception {
+        var response = new MainResponseOnly(getSuccess());
+        var reader = new RecordReader();
+        var processor = new KvsServiceStub.GetRecordProcessor(reader).asResponseProcessor();
+        assertFalse(processor.process(response));
+        assertEquals(0, reader.size());
+    }
+
+    @Test
+    void getRecordMultiple() throws Exception {
+        var record = new RecordBuffer().add("k", 1L).toRecord().getEntity();
+        var response = new MainResponseOnly(getSuccess(record, record));
+        var processor = new KvsServiceStub.GetRecordProcessor(new RecordReader()).asResponseProcessor();
+        assertThrows(BrokenResponseException.class, () -> processor.process(response));
+    }
+
+    @Test
+    void getRecordError() throws Exception {
+        var response = new MainResponseOnly(KvsResponse.Response.newBuilder()
+                .setGet(KvsResponse.Get.newBuilder()
+                        .setError(KvsResponse.Error.newBuilder()
+                                .setCode(KvsServiceCode.NOT_FOUND.getCodeNumber())
+                                .setDetail("intentional")))
+                .build());
+        var processor = new KvsServiceStub.GetRecordProcessor(new RecordReader()).asResponseProcessor();
+        var e = assertThrows(KvsServiceException.class, () -> processor.process(response));
+        assertEquals(KvsServiceCode.NOT_FOUND, e.getDiagnosticCode());
+    }
+}
@@ -0,0 +1,235 @@
+package com.tsurugidb.tsubakuro.kvs.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.Test;
+
+import com.tsurugidb.tsubakuro.exception.ServerException;
+import com.tsurugidb.tsubakuro.kvs.BatchResult;
+import com.tsurugidb.tsubakuro.kvs.BatchScript;
+import com.tsurugidb.tsubakuro.kvs.CommitType;
+import com.tsurugidb.tsubakuro.kvs.GetResult;
+import com.tsurugidb.tsubakuro.kvs.KvsClient;
+import com.tsurugidb.tsubakuro.kvs.KvsServiceCode;
+import com.tsurugidb.tsubakuro.kvs.KvsServiceException;
+import com.tsurugidb.tsubakuro.kvs.PutResult;
+import com.tsurugidb.tsubakuro.kvs.PutType;
+import com.tsurugidb.tsubakuro.kvs.RecordBuffer;
+import com.tsurugidb.tsubakuro.kvs.RecordCursor;
+import com.tsurugidb.tsubakuro.kvs.RemoveResult;
+import com.tsurugidb.tsubakuro.kvs.RemoveType;
+import com.tsurugidb.tsubakuro.kvs.ScanBound;
+import com.tsurugidb.tsubakuro.kvs.ScanType;
+import com.tsurugidb.tsubakuro.kvs.TransactionHandle;
+import com.tsurugidb.tsubakuro.kvs.TransactionOption;
+import com.tsurugidb.tsubakuro.util.FutureResponse;
+
+class PipelinedTransactionImplTest {
+
+    private static class MockBegin implements FutureResponse<TransactionHandle> {
+
+        final CompletableFuture<TransactionHandle> future = new CompletableFuture<>();
+
+        @Override
+        public boolean isDone() {
+            return future.isDone();
+        }
+
+        @Override
+        public TransactionHandle get() throws IOException, ServerException, InterruptedException {
+            try {
+                return future.get();
+            } catch (ExecutionException e) {
+                throw (ServerException) e.getCause();
+            }
+        }
+
+        @Override
+        public TransactionHandle get(long timeout, TimeUnit unit)
+                throws IOException, ServerException, InterruptedException, TimeoutException {
+            try {
+                return future.get(timeout, unit);
+            } catch (ExecutionException e) {
+                throw (ServerException) e.getCause();
+            }
+        }
+
+        @Override
+        public void close() {
+            return;
+        }
+    }
+
+    private static class MockClient implements KvsClient {
+
+        final MockBegin begin = new MockBegin();
+
+        final List<String> requests = new ArrayList<>();
+
+        final List<RecordBuffer> buffers = new ArrayList<>();
+
+        final TransactionHandle handle = new TransactionHandle() {
+            @Override
+            public void close() {
+                synchronized (MockClient.this) {
+                    requests.add("CLOSE");
+                }
+            }
+        };
+
+        synchronized List<String> requests() {
+            return List.copyOf(requests);
+        }
+
+        private synchronized void add(TransactionHandle transaction, String request, RecordBuffer buffer) {
+            assertSame(handle, transaction);
+            requests.add(request);
+            if (buffer != null) {
+                buffers.add(buffer);
+            }
+        }
+
+        @Override
+        public FutureResponse<TransactionHandle> beginTransaction(TransactionOption option) {
+            return begin;
+        }
+
+        @Override
+        public FutureResponse<Void> commit(TransactionHandle transaction, CommitType behavior) {
+            add(transaction, "COMMIT:" + behavior, null);
+            return FutureResponse.returns(null);
+        }
+
+        @Override
+        public FutureResponse<Void> rollback(TransactionHandle transaction) {
+            add(transaction, "ROLLBACK", null);
+            return FutureResponse.returns(null);
+        }
+
+        @Override
+        public FutureResponse<GetResult> get(TransactionHandle transaction, String table, RecordBuffer key) {
+            add(transaction, "GET:" + table + ":" + key.toRecord().getValue(0), key);
+            return FutureResponse.returns(null);
+        }
+
+        @Override
+        public FutureResponse<PutResult> put(
+                TransactionHandle transaction, String table, RecordBuffer record, PutType behavior) {
+            add(transaction, "PUT:" + behavior + ":" + record.toRecord().getValue(0), record);
+            return FutureResponse.returns(null);
+        }
+
+        @Override
+        public FutureResponse<RemoveResult> remove(
+                TransactionHandle transaction, String table, RecordBuffer key, RemoveType behavior) {
+            add(transaction, "REMOVE:" + behavior + ":" + key.toRecord().getValue(0), key);
+            return FutureResponse.returns(null);
+        }
+
+        @Override
+        public FutureResponse<RecordCursor> scan(
+                TransactionHandle transaction, String table,
+                RecordBuffer lowerKey, ScanBound lowerBound,
+                RecordBuffer upperKey, ScanBound upperBound,
+                ScanType behavior) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public FutureResponse<BatchResult> batch(TransactionHandle transaction, BatchScript script) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    @Test
+    void queuedBuffersAreCopied() throws Exception {
+        var client = new MockClient();
+        var buffer = new RecordBuffer().add("k", 1);
+        try (var transaction = client.createPipelinedTransaction()) {
+            var r1 = transaction.get("T", buffer);
+            // the queued operations must not be affected by reusing the buffer
+            buffer.clear().add("k", 2);
+            var r2 = transaction.put("T", buffer);
+            buffer.clear().add("k", 3);
+            var r3 = transaction.remove("T", buffer);
+            var r4 = transaction.commit();
+            assertEquals(List.of(), client.requests());
+
+            client.begin.future.complete(client.handle);
+            r4.get();
+            r1.get();
+            r2.get();
+            r3.get();
+        }
+        assertEquals(List.of(
+                "GET:T:1",
+                "PUT:" + PutType.DEFAULT_BEHAVIOR + ":2",
+                "REMOVE:" + RemoveType.DEFAULT_BEHAVIOR + ":3",
+                "COMMIT:" + CommitType.DEFAULT_BEHAVIOR,
+                "CLOSE"), client.requests());
+        for (var sent : client.buffers) {
+            assertNotSame(buffer, sent);
+        }
+    }
+
+    @Test
+    void directBuffersAreNotCopied() throws Exception {
+        var client = new MockClient();
+        client.begin.future.complete(client.handle);
+        try (var transaction = new PipelinedTransactionImpl(client, client.begin)) {
+            var key = new RecordBuffer().add("k", 1);
+            var record = new RecordBuffer().add("k", 2);
+            transaction.get("T", key).get();
+            transaction.put("T", record, PutType.IF_ABSENT).get();
+            transaction.remove("T", key, RemoveType.INSTANT).get();
+            // the buffers are sent as is, because the transaction has been already started
+            assertSame(key, client.buffers.get(0));
+            assertSame(record, client.buffers.get(1));
+            assertSame(key, client.buffers.get(2));
+        }
+        assertEquals(List.of(
+                "GET:T:1",
+                "PUT:" + PutType.IF_ABSENT + ":2",
+                "REMOVE:" + RemoveType.INSTANT + ":1",
+                "CLOSE"), client.requests());
+    }
+
+    @Test
+    void closeWithQueued() throws Exception {
+        var client = new MockClient();
+        var transaction = new PipelinedTransactionImpl(client, client.begin);
+        transaction.put("T", new RecordBuffer().add("k", 1));
+        new Thread(() -> client.begin.future.complete(client.handle)).start();
+        transaction.close();
+        assertEquals(List.of("PUT:" + PutType.DEFAULT_BEHAVIOR + ":1", "CLOSE"), client.requests());
+        assertThrows(IOException.class, () -> transaction.get("T", new RecordBuffer().add("k", 1)));
+    }
+
+    @Test
+    void beginFailure() throws Exception {
+        var client = new MockClient();
+        var exception = new KvsServiceException(KvsServiceCode.UNKNOWN, "intentional");
+        try (var transaction = new PipelinedTransactionImpl(client, client.begin)) {
+            var r1 = transaction.put("T", new RecordBuffer().add("k", 1));
+            client.begin.future.completeExceptionally(exception);
+            var e1 = assertThrows(ServerException.class, () -> r1.get());
+            assertSame(exception, e1);
+            var r2 = transaction.commit();
+            var e2 = assertThrows(ServerException.class, () -> r2.get());
+            assertSame(exception, e2);
+        }
+        // the handle is not available, so that it is never closed
+        assertEquals(List.of(), client.requests());
+    }
+}
@@ -0,0 +1,73 @@
+package com.tsurugidb.tsubakuro.kvs.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+
+import com.tsurugidb.sql.proto.SqlResponse;
+import com.tsurugidb.tsubakuro.sql.Types;
+import com.tsurugidb.tsubakuro.sql.impl.ResultSetMetadataAdapter;
+import com.tsurugidb.tsubakuro.sql.impl.testing.Relation;
+
+class RecordCursorImplTest {
+
+    private static final ResultSetMetadataAdapter METADATA = new ResultSetMetadataAdapter(
+            SqlResponse.ResultSetMetadata.newBuilder()
+                    .addColumns(Types.column("k", Types.of(long.class)))
+                    .addColumns(Types.column("v", Types.of(String.class)))
+                    .addColumns(Types.column("d", Types.of(BigDecimal.class)))
+                    .build());
+
+    @Test
+    void simple() throws Exception {
+        var rs = Relation.of(new Object[][] {
+            { 1L, "a", new BigDecimal("3.14") },
+            { 2L, null, BigDecimal.ONE },
+        }).getResultSet(METADATA);
+        try (var cursor = new RecordCursorImpl(rs)) {
+            assertThrows(IllegalStateException.class, () -> cursor.getRecord());
+
+            assertTrue(cursor.next());
+            var r1 = cursor.getRecord();
+            assertEquals(3, r1.size());
+            assertEquals(1L, r1.getLong("k"));
+            assertEquals("a", r1.getCharacter("v"));
+            assertEquals(new BigDecimal("3.14"), r1.getDecimal("d"));
+
+            assertTrue(cursor.next());
+            var r2 = cursor.getRecord();
+            assertEquals(2L, r2.getLong("k"));
+            assertTrue(r2.isNull("v"));
+            assertEquals(BigDecimal.ONE, r2.getDecimal("d"));
+            assertEquals(r1.getEntity().getNamesList(), r2.getEntity().getNamesList());
+
+            assertFalse(cursor.next());
+            assertThrows(IllegalStateException.class, () -> cursor.getRecord());
+        }
+    }
+
+    @Test
+    void empty() throws Exception {
+        var rs = Relation.of(new Object[][] {}).getResultSet(METADATA);
+        try (var cursor = new RecordCursorImpl(rs)) {
+            assertFalse(cursor.next());
+        }
+    }
+
+    @Test
+    void unsupported_column() throws Exception {
+        var metadata = new ResultSetMetadataAdapter(SqlResponse.ResultSetMetadata.newBuilder()
+                .addColumns(Types.column("a", Types.row(Types.column(long.class))))
+                .build());
+        var rs = Relation.of(new Object[][] {
+            { Relation.row(1L) },
+        }).getResultSet(metadata);
+        assertThrows(IOException.class, () -> new RecordCursorImpl(rs));
+    }
+}
@@ -2,12 +2,18 @@ package com.tsurugidb.tsubakuro.common;
 
 import java.io.IOException;
 import java.net.URI;
+import java.text.MessageFormat;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.tsurugidb.tsubakuro.channel.common.connection.Connector;
 import com.tsurugidb.tsubakuro.channel.common.connection.Credential;
@@ -26,10 +32,14 @@ import com.tsurugidb.tsubakuro.diagnostic.common.SessionInfo;
  */
 public final class SessionBuilder {
 
+    static final Logger LOG = LoggerFactory.getLogger(SessionBuilder.class);
+
     private final Connector connector;
 
     private Credential connectionCredential = NullCredential.INSTANCE;
 
+    private ThreadFactory receiverThreadFactory = null;
+
     private final SessionInfo sessionInfo;
 
     private SessionBuilder(Connector connector) {
@@ -81,6 +91,46 @@ public final class SessionBuilder {
         return this;
     }
 
+    /**
+     * Sets the thread factory of the dedicated receiver thread.
+     * <p>
+     * If this is set, a thread created by the factory receives all response messages of the session,
+     * and wakes up only the thread waiting for each response.
+     * Otherwise, the threads waiting for responses receive messages by turns (default).
+     * </p>
+     * @param threadFactory the thread factory, or {@code null} to disable the receiver thread
+     * @return this
+     */
+    public SessionBuilder withReceiverThread(@Nullable ThreadFactory threadFactory) {
+        this.receiverThreadFactory = threadFactory;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of requests which can be sent without waiting for their responses.
+     * <p>
+     * The number is advertised to the server when the connection is established, and the server may answer
+     * a smaller number. The requests beyond it wait until any of the preceding requests is completed.
+     * This configures the connector, and is ignored by the connectors which don't support it,
+     * like IPC whose number of requests in flight is decided by the server.
+     * </p>
+     * @param n the maximum number of requests in flight
+     * @return this
+     * @throws IllegalArgumentException if the number is out of range
+     * @see Connector#setMaxInFlightRequests(int)
+     */
+    public SessionBuilder withMaxInFlightRequests(int n) {
+        if (n <= 0) {
+            throw new IllegalArgumentException(MessageFormat.format(
+                    "the number of requests in flight must be positive: {0}",
+                    n));
+        }
+        if (!connector.setMaxInFlightRequests(n)) {
+            LOG.debug("requests in flight is not configurable for the connector: {}", connector); //$NON-NLS-1$
+        }
+        return this;
+    }
+
     /**
      * Establishes a connection to the Tsurugi server.
      * This operation will block until the connection was established,
@@ -149,6 +199,9 @@ public final class SessionBuilder {
         var session = new SessionImpl();
         boolean green = false;
         try {
+            if (receiverThreadFactory != null && !wire.startReceiver(receiverThreadFactory)) {
+                LOG.debug("receiver thread is not available for the wire: {}", wire); //$NON-NLS-1$
+            }
             session.connect(wire);
             sessionInfo.addSession(session);
             green = true;
@@ -1,6 +1,5 @@
 package com.tsurugidb.tsubakuro.datastore.impl;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.file.Path;
@@ -36,6 +35,7 @@ import com.tsurugidb.tsubakuro.exception.BrokenResponseException;
 import com.tsurugidb.tsubakuro.exception.ServerException;
 import com.tsurugidb.tsubakuro.util.ByteBufferInputStream;
 import com.tsurugidb.tsubakuro.util.FutureResponse;
+import com.tsurugidb.tsubakuro.util.Messages;
 import com.tsurugidb.tsubakuro.util.ServerResourceHolder;
 
 /**
@@ -397,9 +397,6 @@ public class DatastoreServiceStub implements DatastoreService {
 
 // FIXME should process at transport layer
     private byte[] toDelimitedByteArray(DatastoreRequest.Request request) throws IOException {
-        try (var buffer = new ByteArrayOutputStream()) {
-            request.writeDelimitedTo(buffer);
-            return buffer.toByteArray();
-        }
+        return Messages.toDelimitedByteArray(request);
     }
 }
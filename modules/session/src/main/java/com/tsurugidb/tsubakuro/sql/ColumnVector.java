@@ -0,0 +1,463 @@
+package com.tsurugidb.tsubakuro.sql;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.util.Arrays;
+import java.util.Objects;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.tsurugidb.tsubakuro.sql.io.BrokenRelationException;
+import com.tsurugidb.tsubakuro.sql.io.EntryType;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * Values of a column in {@link RelationBatch}.
+ * <p>
+ * The values are stored by their {@link #getType() entry type}:
+ * </p>
+ * <ul>
+ * <li> {@link EntryType#INT} - in {@link #getLongValues()} </li>
+ * <li> {@link EntryType#FLOAT4} and {@link EntryType#FLOAT8} - in {@link #getDoubleValues()} </li>
+ * <li> {@link EntryType#CHARACTER} (as UTF-8) and {@link EntryType#OCTET} - in {@link #getBytes()},
+ *      from {@link #getOffset(int)} to {@link #getOffset(int) getOffset(row + 1)} of each row </li>
+ * <li> otherwise - as objects in {@link #getObject(int)} </li>
+ * </ul>
+ * <p>
+ * The arrays returned from this object are reused by the subsequent batches,
+ * and their elements on {@link #isNull(int) null} rows are undefined.
+ * </p>
+ * @see RelationBatch
+ */
+@NotThreadSafe
+public final class ColumnVector {
+
+    private static final long[] EMPTY_LONGS = new long[0];
+
+    private static final double[] EMPTY_DOUBLES = new double[0];
+
+    private static final byte[] EMPTY_BYTES = new byte[0];
+
+    private static final Object[] EMPTY_OBJECTS = new Object[0];
+
+    private EntryType type;
+
+    private int size;
+
+    private long[] nulls = EMPTY_LONGS;
+
+    private long[] longValues = EMPTY_LONGS;
+
+    private double[] doubleValues = EMPTY_DOUBLES;
+
+    private byte[] bytes = EMPTY_BYTES;
+
+    private int[] offsets = new int[1];
+
+    private Object[] objects = EMPTY_OBJECTS;
+
+    /**
+     * Creates a new instance.
+     */
+    public ColumnVector() {
+        super();
+    }
+
+    /**
+     * Returns the entry type of the values in this column.
+     * @return the entry type, or {@code null} if this column has no non-null values
+     */
+    public @Nullable EntryType getType() {
+        return type;
+    }
+
+    /**
+     * Returns the number of rows in this column.
+     * @return the number of rows
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns whether or not the value on the row is null.
+     * @param row the row index
+     * @return {@code true} if the value is null, otherwise {@code false}
+     * @throws IndexOutOfBoundsException if the row index is out of range
+     */
+    public boolean isNull(int row) {
+        Objects.checkIndex(row, size);
+        return (nulls[row >>> 6] & (1L << row)) != 0;
+    }
+
+    /**
+     * Returns whether or not this column contains any null values.
+     * @return {@code true} if this contains null values, otherwise {@code false}
+     */
+    public boolean hasNull() {
+        for (int i = 0, n = (size + Long.SIZE - 1) >>> 6; i < n; i++) {
+            if (nulls[i] != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the null bitmap of this column.
+     * The bit {@code (row % 64)} of the element {@code (row / 64)} is set if the value on the row is null.
+     * @return the null bitmap
+     */
+    @SuppressFBWarnings(
+            value = "EI_EXPOSE_REP",
+            justification = "don't take copies for optimization")
+    public long[] getNullBitmap() {
+        return nulls;
+    }
+
+    /**
+     * Returns the {@link EntryType#INT} value on the row.
+     * @param row the row index
+     * @return the value
+     * @throws IndexOutOfBoundsException if the row index is out of range
+     * @throws IllegalStateException if this column is not an {@code INT} column
+     */
+    public long getLong(int row) {
+        Objects.checkIndex(row, size);
+        return getLongValues()[row];
+    }
+
+    /**
+     * Returns the {@link EntryType#INT} values.
+     * @return the values, only the first {@link #size()} elements are valid
+     * @throws IllegalStateException if this column is not an {@code INT} column
+     */
+    @SuppressFBWarnings(
+            value = "EI_EXPOSE_REP",
+            justification = "don't take copies for optimization")
+    public long[] getLongValues() {
+        requireType(EntryType.INT);
+        if (longValues.length < size) {
+            // only null values
+            longValues = Arrays.copyOf(longValues, size);
+        }
+        return longValues;
+    }
+
+    /**
+     * Returns the {@link EntryType#FLOAT4} or {@link EntryType#FLOAT8} value on the row.
+     * @param row the row index
+     * @return the value
+     * @throws IndexOutOfBoundsException if the row index is out of range
+     * @throws IllegalStateException if this column is not a floating point number column
+     */
+    public double getDouble(int row) {
+        Objects.checkIndex(row, size);
+        return getDoubleValues()[row];
+    }
+
+    /**
+     * Returns the {@link EntryType#FLOAT4} or {@link EntryType#FLOAT8} values.
+     * @return the values, only the first {@link #size()} elements are valid
+     * @throws IllegalStateException if this column is not a floating point number column
+     */
+    @SuppressFBWarnings(
+            value = "EI_EXPOSE_REP",
+            justification = "don't take copies for optimization")
+    public double[] getDoubleValues() {
+        requireFloat();
+        if (doubleValues.length < size) {
+            // only null values
+            doubleValues = Arrays.copyOf(doubleValues, size);
+        }
+        return doubleValues;
+    }
+
+    /**
+     * Returns the contents of {@link EntryType#CHARACTER} or {@link EntryType#OCTET} values.
+     * @return the contents of all rows
+     * @throws IllegalStateException if this column is neither {@code CHARACTER} nor {@code OCTET} column
+     * @see #getOffset(int)
+     */
+    @SuppressFBWarnings(
+            value = "EI_EXPOSE_REP",
+            justification = "don't take copies for optimization")
+    public byte[] getBytes() {
+        requireBytes();
+        return bytes;
+    }
+
+    /**
+     * Returns the start offset of the value on the row in {@link #getBytes()}.
+     * @param row the row index, or {@link #size()} to obtain the end offset of the last row
+     * @return the start offset
+     * @throws IndexOutOfBoundsException if the row index is out of range
+     * @throws IllegalStateException if this column is neither {@code CHARACTER} nor {@code OCTET} column
+     */
+    public int getOffset(int row) {
+        Objects.checkIndex(row, size + 1);
+        requireBytes();
+        return offsets[row];
+    }
+
+    /**
+     * Returns the length of the value on the row in {@link #getBytes()}.
+     * @param row the row index
+     * @return the length in bytes
+     * @throws IndexOutOfBoundsException if the row index is out of range
+     * @throws IllegalStateException if this column is neither {@code CHARACTER} nor {@code OCTET} column
+     */
+    public int getLength(int row) {
+        Objects.checkIndex(row, size);
+        requireBytes();
+        return offsets[row + 1] - offsets[row];
+    }
+
+    /**
+     * Returns the {@link EntryType#CHARACTER} value on the row as {@link String}.
+     * <p>
+     * This creates a new string, please use {@link #getBytes()} to avoid it.
+     * </p>
+     * @param row the row index
+     * @return the value, or {@code null} if it is null
+     * @throws IndexOutOfBoundsException if the row index is out of range
+     * @throws IllegalStateException if this column is not a {@code CHARACTER} column
+     */
+    public @Nullable String getString(int row) {
+        if (isNull(row)) {
+            return null;
+        }
+        requireType(EntryType.CHARACTER);
+        return new String(bytes, offsets[row], offsets[row + 1] - offsets[row], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the value on the row as an object.
+     * <p>
+     * This boxes primitive values, please use the type specific methods to avoid it.
+     * </p>
+     * @param row the row index
+     * @return the value, or {@code null} if it is null
+     * @throws IndexOutOfBoundsException if the row index is out of range
+     */
+    public @Nullable Object getObject(int row) {
+        if (isNull(row)) {
+            return null;
+        }
+        switch (type) {
+        case INT:
+            return longValues[row];
+        case FLOAT4:
+            return (float) doubleValues[row];
+        case FLOAT8:
+            return doubleValues[row];
+        case CHARACTER:
+            return getString(row);
+        case OCTET:
+            return Arrays.copyOfRange(bytes, offsets[row], offsets[row + 1]);
+        default:
+            return objects[row];
+        }
+    }
+
+    /**
+     * Removes all values in this column, and reserves the space for the given number of rows.
+     * @param capacity the number of rows to reserve
+     */
+    public void clear(int capacity) {
+        type = null;
+        size = 0;
+        int words = (capacity + Long.SIZE - 1) >>> 6;
+        if (nulls.length < words) {
+            nulls = new long[words];
+        } else {
+            Arrays.fill(nulls, 0L);
+        }
+        offsets[0] = 0;
+        if (objects.length > 0) {
+            Arrays.fill(objects, null);
+        }
+    }
+
+    /**
+     * Adds a null value.
+     */
+    public void addNull() {
+        int row = prepare();
+        nulls[row >>> 6] |= 1L << row;
+        offsets[row + 1] = offsets[row];
+        size++;
+    }
+
+    /**
+     * Adds an {@link EntryType#INT} value.
+     * If this column already has {@link EntryType#DECIMAL} values, the value is added as a decimal.
+     * @param value the value
+     * @throws BrokenRelationException if the value type is inconsistent with the column
+     */
+    public void addInt(long value) throws BrokenRelationException {
+        if (type == EntryType.DECIMAL) {
+            addObject(EntryType.DECIMAL, BigDecimal.valueOf(value));
+            return;
+        }
+        int row = prepare();
+        acceptType(EntryType.INT);
+        if (longValues.length <= row) {
+            longValues = Arrays.copyOf(longValues, grow(longValues.length, row));
+        }
+        longValues[row] = value;
+        size++;
+    }
+
+    /**
+     * Adds a {@link EntryType#FLOAT4} value.
+     * @param value the value
+     * @throws BrokenRelationException if the value type is inconsistent with the column
+     */
+    public void addFloat4(float value) throws BrokenRelationException {
+        addDouble(EntryType.FLOAT4, value);
+    }
+
+    /**
+     * Adds a {@link EntryType#FLOAT8} value.
+     * @param value the value
+     * @throws BrokenRelationException if the value type is inconsistent with the column
+     */
+    public void addFloat8(double value) throws BrokenRelationException {
+        addDouble(EntryType.FLOAT8, value);
+    }
+
+    private void addDouble(EntryType valueType, double value) throws BrokenRelationException {
+        int row = prepare();
+        acceptType(valueType);
+        if (doubleValues.length <= row) {
+            doubleValues = Arrays.copyOf(doubleValues, grow(doubleValues.length, row));
+        }
+        doubleValues[row] = value;
+        size++;
+    }
+
+    /**
+     * Adds a {@link EntryType#CHARACTER} or {@link EntryType#OCTET} value.
+     * @param valueType the value type
+     * @param contents the value contents, UTF-8 encoded for {@code CHARACTER}
+     * @param offset the offset in the contents
+     * @param length the length of the value
+     * @throws BrokenRelationException if the value type is inconsistent with the column
+     * @throws IllegalArgumentException if the value type is neither {@code CHARACTER} nor {@code OCTET}
+     */
+    public void addBytes(
+            @Nonnull EntryType valueType,
+            @Nonnull byte[] contents, int offset, int length) throws BrokenRelationException {
+        Objects.requireNonNull(valueType);
+        Objects.requireNonNull(contents);
+        Objects.checkFromIndexSize(offset, length, contents.length);
+        if (valueType != EntryType.CHARACTER && valueType != EntryType.OCTET) {
+            throw new IllegalArgumentException(String.valueOf(valueType));
+        }
+        int row = prepare();
+        acceptType(valueType);
+        int start = offsets[row];
+        if (bytes.length < start + length) {
+            bytes = Arrays.copyOf(bytes, Math.max(start + length, bytes.length * 2));
+        }
+        System.arraycopy(contents, offset, bytes, start, length);
+        offsets[row + 1] = start + length;
+        size++;
+    }
+
+    /**
+     * Adds a value which is not stored in primitive arrays, like {@link EntryType#DECIMAL} or {@link EntryType#DATE}.
+     * If this column already has {@link EntryType#INT} values and a {@link EntryType#DECIMAL} value is added,
+     * the existing values are converted to decimals.
+     * @param valueType the value type
+     * @param value the value
+     * @throws BrokenRelationException if the value type is inconsistent with the column
+     */
+    public void addObject(@Nonnull EntryType valueType, @Nonnull Object value) throws BrokenRelationException {
+        Objects.requireNonNull(valueType);
+        Objects.requireNonNull(value);
+        int row = prepare();
+        if (type == EntryType.INT && valueType == EntryType.DECIMAL) {
+            promoteToDecimal();
+        }
+        acceptType(valueType);
+        if (objects.length <= row) {
+            objects = Arrays.copyOf(objects, grow(objects.length, row));
+        }
+        objects[row] = value;
+        size++;
+    }
+
+    private void promoteToDecimal() {
+        if (objects.length < size) {
+            objects = Arrays.copyOf(objects, grow(objects.length, size - 1));
+        }
+        for (int i = 0; i < size; i++) {
+            if ((nulls[i >>> 6] & (1L << i)) == 0) {
+                objects[i] = BigDecimal.valueOf(longValues[i]);
+            }
+        }
+        type = EntryType.DECIMAL;
+    }
+
+    private int prepare() {
+        int row = size;
+        if (nulls.length <= (row >>> 6)) {
+            nulls = Arrays.copyOf(nulls, Math.max(nulls.length * 2, (row >>> 6) + 1));
+        }
+        if (offsets.length <= row + 1) {
+            offsets = Arrays.copyOf(offsets, grow(offsets.length, row + 1));
+        }
+        return row;
+    }
+
+    private static int grow(int length, int index) {
+        return Math.max(Math.max(length * 2, index + 1), 16);
+    }
+
+    private void acceptType(EntryType valueType) throws BrokenRelationException {
+        if (type == null) {
+            type = valueType;
+        } else if (type != valueType) {
+            throw BrokenRelationException.sawUnexpectedValueType(valueType, type);
+        }
+    }
+
+    private void requireType(EntryType expected) {
+        if (type != null && type != expected) {
+            throw new IllegalStateException(MessageFormat.format(
+                    "column type is ''{0}'', but ''{1}'' was requested",
+                    type,
+                    expected));
+        }
+    }
+
+    private void requireFloat() {
+        if (type != null && type != EntryType.FLOAT4 && type != EntryType.FLOAT8) {
+            throw new IllegalStateException(MessageFormat.format(
+                    "column type is ''{0}'', but floating point number was requested",
+                    type));
+        }
+    }
+
+    private void requireBytes() {
+        if (type != null && type != EntryType.CHARACTER && type != EntryType.OCTET) {
+            throw new IllegalStateException(MessageFormat.format(
+                    "column type is ''{0}'', but character or octet was requested",
+                    type));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "ColumnVector(type=%s, size=%d)", //$NON-NLS-1$
+                type,
+                size);
+    }
+}
@@ -0,0 +1,535 @@
+package com.tsurugidb.tsubakuro.sql;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import com.tsurugidb.sql.proto.SqlCommon;
+import com.tsurugidb.sql.proto.SqlRequest;
+import com.tsurugidb.tsubakuro.util.PrimitiveValueBuffer;
+
+/**
+ * A reusable set of parameters for the place-holders of a prepared statement.
+ * <p>
+ * Unlike {@link Parameters}, this keeps the values in primitive arrays, and serializes them directly into the
+ * request message without building {@link com.tsurugidb.sql.proto.SqlRequest.Parameter Parameter} objects.
+ * The same object can be reused for the individual executions by overwriting the values.
+ * </p>
+ * <p>
+ * Every place-holder must be bound before execution, please use {@link #setNull(int)} to pass {@code NULL}.
+ * </p>
+ * <p>
+ * {@link #addBatch()} serializes the current values as a row of {@code Batch} request, and then the rows can be
+ * executed at once by {@link Transaction#batch(PreparedStatement, ParameterBinder)}.
+ * </p>
+ * @see Transaction#executeStatement(PreparedStatement, ParameterBinder)
+ * @see Transaction#executeQuery(PreparedStatement, ParameterBinder)
+ * @see Transaction#batch(PreparedStatement, ParameterBinder)
+ */
+@NotThreadSafe
+public class ParameterBinder {
+
+    private static final PrimitiveValueBuffer.FieldNumbers FIELD_NUMBERS = new PrimitiveValueBuffer.FieldNumbers(
+            SqlRequest.Parameter.BOOLEAN_VALUE_FIELD_NUMBER,
+            SqlRequest.Parameter.INT4_VALUE_FIELD_NUMBER,
+            SqlRequest.Parameter.INT8_VALUE_FIELD_NUMBER,
+            SqlRequest.Parameter.FLOAT4_VALUE_FIELD_NUMBER,
+            SqlRequest.Parameter.FLOAT8_VALUE_FIELD_NUMBER,
+            SqlRequest.Parameter.DECIMAL_VALUE_FIELD_NUMBER,
+            SqlRequest.Parameter.CHARACTER_VALUE_FIELD_NUMBER,
+            SqlRequest.Parameter.OCTET_VALUE_FIELD_NUMBER,
+            SqlRequest.Parameter.DATE_VALUE_FIELD_NUMBER,
+            SqlRequest.Parameter.TIME_OF_DAY_VALUE_FIELD_NUMBER);
+
+    private final String[] names;
+
+    private final byte[][] encodedNames;
+
+    private final PrimitiveValueBuffer values;
+
+    // serialized ParameterSet bodies of the batched rows
+    private byte[] batchBuffer = new byte[0];
+
+    // the end offset of each batched row in batchBuffer
+    private int[] batchEnds = new int[0];
+
+    private int batchCount = 0;
+
+    /**
+     * Creates a new instance.
+     * @param names the place-holder names, in order of their index
+     */
+    public ParameterBinder(@Nonnull List<String> names) {
+        Objects.requireNonNull(names);
+        int size = names.size();
+        this.names = new String[size];
+        this.encodedNames = new byte[size][];
+        for (int i = 0; i < size; i++) {
+            var name = Objects.requireNonNull(names.get(i));
+            this.names[i] = name;
+            this.encodedNames[i] = name.getBytes(StandardCharsets.UTF_8);
+        }
+        this.values = new PrimitiveValueBuffer(size, FIELD_NUMBERS);
+    }
+
+    /**
+     * Creates a new instance for the place-holders.
+     * @param placeholders the place-holders of the prepared statement
+     * @return the created instance
+     * @see SqlClient#prepare(String, Collection)
+     */
+    public static ParameterBinder of(@Nonnull Collection<? extends SqlRequest.Placeholder> placeholders) {
+        Objects.requireNonNull(placeholders);
+        var names = new ArrayList<String>(placeholders.size());
+        for (var placeholder : placeholders) {
+            names.add(placeholder.getName());
+        }
+        return new ParameterBinder(names);
+    }
+
+    /**
+     * Returns the number of place-holders.
+     * @return the number of place-holders
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * Returns the place-holder name.
+     * @param index the place-holder index (0-origin)
+     * @return the place-holder name
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public String getName(int index) {
+        return names[Objects.checkIndex(index, names.length)];
+    }
+
+    /**
+     * Returns the index of the place-holder.
+     * @param name the place-holder name
+     * @return the place-holder index (0-origin), or {@code -1} if there is no such the place-holder
+     */
+    public int indexOf(@Nonnull String name) {
+        Objects.requireNonNull(name);
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Unbinds all place-holders.
+     * @return this
+     */
+    public ParameterBinder clear() {
+        values.reset(PrimitiveValueBuffer.UNBOUND);
+        return this;
+    }
+
+    /**
+     * Sets {@code NULL} to the place-holder.
+     * @param index the place-holder index (0-origin)
+     * @return this
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public ParameterBinder setNull(int index) {
+        values.setNull(index);
+        return this;
+    }
+
+    /**
+     * Sets a {@code BOOLEAN} value to the place-holder.
+     * @param index the place-holder index (0-origin)
+     * @param value the value
+     * @return this
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public ParameterBinder setBoolean(int index, boolean value) {
+        values.setBoolean(index, value);
+        return this;
+    }
+
+    /**
+     * Sets an {@code INT4} value to the place-holder.
+     * @param index the place-holder index (0-origin)
+     * @param value the value
+     * @return this
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public ParameterBinder setInt(int index, int value) {
+        values.setInt(index, value);
+        return this;
+    }
+
+    /**
+     * Sets an {@code INT8} value to the place-holder.
+     * @param index the place-holder index (0-origin)
+     * @param value the value
+     * @return this
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public ParameterBinder setLong(int index, long value) {
+        values.setLong(index, value);
+        return this;
+    }
+
+    /**
+     * Sets a {@code FLOAT4} value to the place-holder.
+     * @param index the place-holder index (0-origin)
+     * @param value the value
+     * @return this
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public ParameterBinder setFloat(int index, float value) {
+        values.setFloat(index, value);
+        return this;
+    }
+
+    /**
+     * Sets a {@code FLOAT8} value to the place-holder.
+     * @param index the place-holder index (0-origin)
+     * @param value the value
+     * @return this
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public ParameterBinder setDouble(int index, double value) {
+        values.setDouble(index, value);
+        return this;
+    }
+
+    /**
+     * Sets a {@code DECIMAL} value to the place-holder.
+     * @param index the place-holder index (0-origin)
+     * @param unscaledValue the unscaled value
+     * @param scale the scale of the value ({@code value = unscaledValue * 10^-scale})
+     * @return this
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public ParameterBinder setDecimal(int index, long unscaledValue, int scale) {
+        values.setDecimal(index, unscaledValue, scale);
+        return this;
+    }
+
+    /**
+     * Sets a {@code DECIMAL} value to the place-holder.
+     * @param index the place-holder index (0-origin)
+     * @param value the value
+     * @return this
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public ParameterBinder setDecimal(int index, @Nonnull BigDecimal value) {
+        Objects.requireNonNull(value);
+        values.setDecimal(index, value);
+        return this;
+    }
+
+    /**
+     * Sets a {@code CHARACTER} value to the place-holder.
+     * @param index the place-holder index (0-origin)
+     * @param value the value
+     * @return this
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public ParameterBinder setString(int index, @Nonnull String value) {
+        Objects.requireNonNull(value);
+        values.setCharacter(index, value);
+        return this;
+    }
+
+    /**
+     * Sets an {@code OCTET} value to the place-holder.
+     * <p>
+     * This does not copy the array, please don't modify it until the request is sent.
+     * </p>
+     * @param index the place-holder index (0-origin)
+     * @param value the value
+     * @return this
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public ParameterBinder setBytes(int index, @Nonnull byte[] value) {
+        Objects.requireNonNull(value);
+        values.setOctet(index, value);
+        return this;
+    }
+
+    /**
+     * Sets a {@code DATE} value to the place-holder.
+     * @param index the place-holder index (0-origin)
+     * @param epochDay the number of days offset of epoch 1970-01-01
+     * @return this
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public ParameterBinder setDate(int index, long epochDay) {
+        values.setDate(index, epochDay);
+        return this;
+    }
+
+    /**
+     * Sets a {@code DATE} value to the place-holder.
+     * @param index the place-holder index (0-origin)
+     * @param value the value
+     * @return this
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public ParameterBinder setDate(int index, @Nonnull LocalDate value) {
+        Objects.requireNonNull(value);
+        return setDate(index, value.toEpochDay());
+    }
+
+    /**
+     * Sets a {@code TIME_OF_DAY} value to the place-holder.
+     * @param index the place-holder index (0-origin)
+     * @param nanoOfDay the nano-seconds since 00:00:00
+     * @return this
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public ParameterBinder setTimeOfDay(int index, long nanoOfDay) {
+        values.setTimeOfDay(index, nanoOfDay);
+        return this;
+    }
+
+    /**
+     * Sets a {@code TIME_OF_DAY} value to the place-holder.
+     * @param index the place-holder index (0-origin)
+     * @param value the value
+     * @return this
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public ParameterBinder setTimeOfDay(int index, @Nonnull LocalTime value) {
+        Objects.requireNonNull(value);
+        return setTimeOfDay(index, value.toNanoOfDay());
+    }
+
+    /**
+     * Adds the current values as a row of the batch.
+     * <p>
+     * The values are serialized immediately, so that they can be overwritten for the next row.
+     * </p>
+     * @return this
+     * @throws IllegalStateException if some place-holders are not bound
+     * @see Transaction#batch(PreparedStatement, ParameterBinder)
+     */
+    public ParameterBinder addBatch() {
+        int size = getSerializedSize(SqlRequest.ParameterSet.ELEMENTS_FIELD_NUMBER);
+        int offset = batchCount == 0 ? 0 : batchEnds[batchCount - 1];
+        if (batchBuffer.length - offset < size) {
+            batchBuffer = Arrays.copyOf(batchBuffer, Math.max(batchBuffer.length * 2, offset + size));
+        }
+        if (batchEnds.length == batchCount) {
+            batchEnds = Arrays.copyOf(batchEnds, Math.max(batchEnds.length * 2, 8));
+        }
+        var output = CodedOutputStream.newInstance(batchBuffer, offset, size);
+        try {
+            writeTo(output, SqlRequest.ParameterSet.ELEMENTS_FIELD_NUMBER);
+        } catch (IOException e) {
+            // never occur for arrays
+            throw new IllegalStateException(e);
+        }
+        output.checkNoSpaceLeft();
+        batchEnds[batchCount++] = offset + size;
+        return this;
+    }
+
+    /**
+     * Removes all rows of the batch.
+     * This does not unbind the current values.
+     * @return this
+     */
+    public ParameterBinder clearBatch() {
+        batchCount = 0;
+        return this;
+    }
+
+    /**
+     * Returns the number of rows in the batch.
+     * @return the number of batched rows
+     */
+    public int getBatchCount() {
+        return batchCount;
+    }
+
+    /**
+     * Returns the serialized size of the batched rows, as a repeated field of the request message.
+     * @param fieldNumber the field number of the parameter sets in the request message
+     * @return the serialized size in bytes
+     */
+    public int getBatchSerializedSize(int fieldNumber) {
+        int tagSize = CodedOutputStream.computeTagSize(fieldNumber);
+        int total = 0;
+        int begin = 0;
+        for (int i = 0; i < batchCount; i++) {
+            int size = batchEnds[i] - begin;
+            total += tagSize + CodedOutputStream.computeUInt32SizeNoTag(size) + size;
+            begin = batchEnds[i];
+        }
+        return total;
+    }
+
+    /**
+     * Writes the batched rows as a repeated field of the request message.
+     * @param output the destination
+     * @param fieldNumber the field number of the parameter sets in the request message
+     * @throws IOException if I/O error was occurred while writing the rows
+     */
+    public void writeBatchTo(@Nonnull CodedOutputStream output, int fieldNumber) throws IOException {
+        Objects.requireNonNull(output);
+        int begin = 0;
+        for (int i = 0; i < batchCount; i++) {
+            int size = batchEnds[i] - begin;
+            output.writeTag(fieldNumber, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            output.writeUInt32NoTag(size);
+            output.writeRawBytes(batchBuffer, begin, size);
+            begin = batchEnds[i];
+        }
+    }
+
+    /**
+     * Returns the batched rows as {@link com.tsurugidb.sql.proto.SqlRequest.ParameterSet ParameterSet} objects.
+     * @return the batched rows
+     */
+    public List<SqlRequest.ParameterSet> toParameterSets() {
+        var results = new ArrayList<SqlRequest.ParameterSet>(batchCount);
+        int begin = 0;
+        for (int i = 0; i < batchCount; i++) {
+            try {
+                results.add(SqlRequest.ParameterSet.parseFrom(
+                        CodedInputStream.newInstance(batchBuffer, begin, batchEnds[i] - begin)));
+            } catch (IOException e) {
+                // never occur for the serialized rows
+                throw new IllegalStateException(e);
+            }
+            begin = batchEnds[i];
+        }
+        return results;
+    }
+
+    /**
+     * Returns the serialized size of the parameters, as a repeated field of the request message.
+     * @param fieldNumber the field number of the parameters in the request message
+     * @return the serialized size in bytes
+     * @throws IllegalStateException if some place-holders are not bound
+     */
+    public int getSerializedSize(int fieldNumber) {
+        int tagSize = CodedOutputStream.computeTagSize(fieldNumber);
+        int total = 0;
+        for (int i = 0; i < names.length; i++) {
+            int size = computeParameterSize(i);
+            total += tagSize + CodedOutputStream.computeUInt32SizeNoTag(size) + size;
+        }
+        return total;
+    }
+
+    /**
+     * Writes the parameters as a repeated field of the request message.
+     * @param output the destination
+     * @param fieldNumber the field number of the parameters in the request message
+     * @throws IOException if I/O error was occurred while writing the parameters
+     * @throws IllegalStateException if some place-holders are not bound
+     */
+    public void writeTo(@Nonnull CodedOutputStream output, int fieldNumber) throws IOException {
+        Objects.requireNonNull(output);
+        for (int i = 0; i < names.length; i++) {
+            output.writeTag(fieldNumber, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            output.writeUInt32NoTag(computeParameterSize(i));
+            output.writeByteArray(SqlRequest.Parameter.NAME_FIELD_NUMBER, encodedNames[i]);
+            values.writeValue(output, i);
+        }
+    }
+
+    /**
+     * Returns the parameters as {@link com.tsurugidb.sql.proto.SqlRequest.Parameter Parameter} objects.
+     * @return the parameters
+     * @throws IllegalStateException if some place-holders are not bound
+     */
+    public List<SqlRequest.Parameter> toParameters() {
+        var results = new ArrayList<SqlRequest.Parameter>(names.length);
+        for (int i = 0; i < names.length; i++) {
+            var builder = SqlRequest.Parameter.newBuilder().setName(names[i]);
+            long value = values.getLong(i);
+            byte kind = checkBound(i);
+            switch (kind) {
+            case PrimitiveValueBuffer.NULL:
+                break;
+            case PrimitiveValueBuffer.BOOLEAN:
+                builder.setBooleanValue(value != 0);
+                break;
+            case PrimitiveValueBuffer.INT4:
+                builder.setInt4Value((int) value);
+                break;
+            case PrimitiveValueBuffer.INT8:
+                builder.setInt8Value(value);
+                break;
+            case PrimitiveValueBuffer.FLOAT4:
+                builder.setFloat4Value(Float.intBitsToFloat((int) value));
+                break;
+            case PrimitiveValueBuffer.FLOAT8:
+                builder.setFloat8Value(Double.longBitsToDouble(value));
+                break;
+            case PrimitiveValueBuffer.DECIMAL_COMPACT:
+            case PrimitiveValueBuffer.DECIMAL:
+                builder.setDecimalValue(SqlCommon.Decimal.newBuilder()
+                        .setUnscaledValue(ByteString.copyFrom(values.getUnscaledValue(i)))
+                        .setExponent(values.getExponent(i)));
+                break;
+            case PrimitiveValueBuffer.CHARACTER:
+                builder.setCharacterValue((String) values.getObject(i));
+                break;
+            case PrimitiveValueBuffer.OCTET:
+                builder.setOctetValue(ByteString.copyFrom((byte[]) values.getObject(i)));
+                break;
+            case PrimitiveValueBuffer.DATE:
+                builder.setDateValue(value);
+                break;
+            case PrimitiveValueBuffer.TIME_OF_DAY:
+                builder.setTimeOfDayValue(value);
+                break;
+            default:
+                throw new AssertionError(kind);
+            }
+            results.add(builder.build());
+        }
+        return results;
+    }
+
+    private byte checkBound(int index) {
+        byte kind = values.getKind(index);
+        if (kind == PrimitiveValueBuffer.UNBOUND) {
+            throw new IllegalStateException(MessageFormat.format(
+                    "place-holder is not bound: {0}",
+                    names[index]));
+        }
+        return kind;
+    }
+
+    private int computeParameterSize(int index) {
+        checkBound(index);
+        return CodedOutputStream.computeByteArraySize(SqlRequest.Parameter.NAME_FIELD_NUMBER, encodedNames[index])
+                + values.computeValueSize(index);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "ParameterBinder(names=%s, batchCount=%s)", //$NON-NLS-1$
+                List.of(names),
+                batchCount);
+    }
+}
@@ -0,0 +1,110 @@
+package com.tsurugidb.tsubakuro.sql;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.tsurugidb.tsubakuro.sql.io.BrokenRelationException;
+
+/**
+ * A batch of rows in relations, which keeps the values column by column.
+ * <p>
+ * This object is filled by {@link RelationCursor#nextBatch(RelationBatch, int)}, and can be reused for
+ * the subsequent batches to avoid allocating the column buffers every time.
+ * </p>
+ * @see ColumnVector
+ */
+@NotThreadSafe
+public final class RelationBatch {
+
+    private final List<ColumnVector> columns = new ArrayList<>();
+
+    private int columnCount;
+
+    private int rowCount;
+
+    /**
+     * Creates a new instance.
+     */
+    public RelationBatch() {
+        super();
+    }
+
+    /**
+     * Returns the number of rows in this batch.
+     * @return the number of rows
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Returns the number of columns in this batch.
+     * @return the number of columns, or {@code 0} if this batch is empty
+     */
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    /**
+     * Returns the column values.
+     * @param index the column index
+     * @return the column values
+     * @throws IndexOutOfBoundsException if the column index is out of range
+     */
+    public ColumnVector getColumn(int index) {
+        Objects.checkIndex(index, columnCount);
+        return columns.get(index);
+    }
+
+    /**
+     * Removes all rows in this batch.
+     */
+    public void clear() {
+        columnCount = 0;
+        rowCount = 0;
+    }
+
+    /**
+     * Starts a new row.
+     * After this, add the values of individual columns to {@link #getColumn(int)}, and then invoke {@link #endRow()}.
+     * @param numberOfColumns the number of columns in the row
+     * @param capacity the number of rows to reserve, only used for the first row
+     * @throws BrokenRelationException if the number of columns is inconsistent with the previous rows
+     */
+    public void beginRow(int numberOfColumns, int capacity) throws BrokenRelationException {
+        if (rowCount == 0) {
+            while (columns.size() < numberOfColumns) {
+                columns.add(new ColumnVector());
+            }
+            for (int i = 0; i < numberOfColumns; i++) {
+                columns.get(i).clear(capacity);
+            }
+            columnCount = numberOfColumns;
+        } else if (numberOfColumns != columnCount) {
+            throw new BrokenRelationException(BrokenRelationException.Status.UNEXPECTED_VALUE_TYPE,
+                    MessageFormat.format(
+                            "inconsistent number of columns: found {0} but expected {1}",
+                            numberOfColumns,
+                            columnCount));
+        }
+    }
+
+    /**
+     * Finishes the current row.
+     */
+    public void endRow() {
+        rowCount++;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "RelationBatch(rows=%d, columns=%d)", //$NON-NLS-1$
+                rowCount,
+                columnCount);
+    }
+}
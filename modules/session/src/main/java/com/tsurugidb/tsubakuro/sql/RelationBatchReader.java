@@ -0,0 +1,56 @@
+package com.tsurugidb.tsubakuro.sql;
+
+import java.io.IOException;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.tsurugidb.tsubakuro.exception.ServerException;
+
+/**
+ * Retrieves rows in relations batch by batch.
+ * <p>
+ * This may decode the batches on the other threads, but the individual batches must be retrieved from
+ * a single thread.
+ * Closing this object does not close the original relation, please close it after using this object.
+ * </p>
+ * @see RelationCursor#openBatchReader(java.util.concurrent.Executor, int, RelationBatchReader.Order)
+ */
+@NotThreadSafe
+@FunctionalInterface
+public interface RelationBatchReader extends AutoCloseable {
+
+    /**
+     * The order of retrieving batches.
+     */
+    enum Order {
+
+        /**
+         * Retrieves batches in the same order as the relation.
+         */
+        RELATION,
+
+        /**
+         * Retrieves batches as soon as they have been decoded, which may be different from the relation order.
+         */
+        ARRIVAL,
+    }
+
+    /**
+     * Retrieves the next batch.
+     * <p>
+     * The returned batch is never reused by this object, and it always contains at least one row.
+     * </p>
+     * @return the next batch, or {@code null} if there are no more rows in this relation
+     * @throws IOException if I/O error was occurred while retrieving the rows
+     * @throws ServerException if server error was occurred while retrieving this relation
+     * @throws InterruptedException if interrupted while retrieving the rows
+     */
+    @Nullable
+    RelationBatch next() throws IOException, ServerException, InterruptedException;
+
+    @Override
+    default void close() throws IOException, InterruptedException {
+        // do nothing
+    }
+}
@@ -2,15 +2,22 @@ package com.tsurugidb.tsubakuro.sql;
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.LocalDateTime;
 import java.time.OffsetTime;
 import java.time.OffsetDateTime;
+import java.util.Objects;
+import java.util.concurrent.Executor;
 
+import javax.annotation.Nonnull;
 import javax.annotation.concurrent.NotThreadSafe;
 
 import com.tsurugidb.tsubakuro.exception.ServerException;
+import com.tsurugidb.tsubakuro.sql.io.ByteBuilder;
 import com.tsurugidb.tsubakuro.sql.io.DateTimeInterval;
 import com.tsurugidb.tsubakuro.util.ServerResource;
 
@@ -20,6 +27,12 @@ import com.tsurugidb.tsubakuro.util.ServerResource;
 @NotThreadSafe
 public interface RelationCursor extends ServerResource {
 
+    /**
+     * The number of rows in each batch of {@link #openBatchReader(Executor, int, RelationBatchReader.Order)},
+     * if the relation is not split into segments.
+     */
+    int DEFAULT_BATCH_ROWS = 1024;
+
     /**
      * Advances the cursor to the head of the next row.
      * <p>
@@ -183,6 +196,98 @@ public interface RelationCursor extends ServerResource {
      */
     byte[] fetchOctetValue() throws IOException, ServerException, InterruptedException;
 
+    /**
+     * Retrieves the UTF-8 encoded contents of a {@code CHARACTER} value on the column of the cursor position.
+     * <p>
+     * You can only take once to retrieve the value on the column.
+     * The returned buffer is a read-only view which may be shared with the cursor,
+     * and it is only available until the next operation of this cursor.
+     * </p>
+     * @return the read-only view of the UTF-8 encoded contents
+     * @throws IllegalStateException if the value has been already fetched
+     * @throws IllegalStateException if this cursor does not point to any columns
+     * @throws IOException if I/O error was occurred while extracting the column data
+     * @throws IOException if the value type is not matched
+     * @throws ServerException if server error was occurred while retrieving this relation
+     * @throws InterruptedException if interrupted while extracting the column data
+     * @see #fetchCharacterValue()
+     */
+    default ByteBuffer fetchCharacterBytes() throws IOException, ServerException, InterruptedException {
+        return ByteBuffer.wrap(fetchCharacterValue().getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer();
+    }
+
+    /**
+     * Retrieves the UTF-8 encoded contents of a {@code CHARACTER} value on the column of the cursor position,
+     * and puts them into the given buffer.
+     * <p>
+     * You can only take once to retrieve the value on the column.
+     * The previous contents of the buffer are discarded.
+     * </p>
+     * @param buffer the destination buffer
+     * @return the passed buffer
+     * @throws IllegalStateException if the value has been already fetched
+     * @throws IllegalStateException if this cursor does not point to any columns
+     * @throws IOException if I/O error was occurred while extracting the column data
+     * @throws IOException if the value type is not matched
+     * @throws ServerException if server error was occurred while retrieving this relation
+     * @throws InterruptedException if interrupted while extracting the column data
+     * @see #fetchCharacterValue()
+     */
+    default ByteBuilder fetchCharacterBytes(@Nonnull ByteBuilder buffer)
+            throws IOException, ServerException, InterruptedException {
+        Objects.requireNonNull(buffer);
+        return copyTo(fetchCharacterBytes(), buffer);
+    }
+
+    /**
+     * Retrieves the contents of a {@code OCTET} value on the column of the cursor position.
+     * <p>
+     * You can only take once to retrieve the value on the column.
+     * The returned buffer is a read-only view which may be shared with the cursor,
+     * and it is only available until the next operation of this cursor.
+     * </p>
+     * @return the read-only view of the contents
+     * @throws IllegalStateException if the value has been already fetched
+     * @throws IllegalStateException if this cursor does not point to any columns
+     * @throws IOException if I/O error was occurred while extracting the column data
+     * @throws IOException if the value type is not matched
+     * @throws ServerException if server error was occurred while retrieving this relation
+     * @throws InterruptedException if interrupted while extracting the column data
+     * @see #fetchOctetValue()
+     */
+    default ByteBuffer fetchOctetBytes() throws IOException, ServerException, InterruptedException {
+        return ByteBuffer.wrap(fetchOctetValue()).asReadOnlyBuffer();
+    }
+
+    /**
+     * Retrieves the contents of a {@code OCTET} value on the column of the cursor position,
+     * and puts them into the given buffer.
+     * <p>
+     * You can only take once to retrieve the value on the column.
+     * The previous contents of the buffer are discarded.
+     * </p>
+     * @param buffer the destination buffer
+     * @return the passed buffer
+     * @throws IllegalStateException if the value has been already fetched
+     * @throws IllegalStateException if this cursor does not point to any columns
+     * @throws IOException if I/O error was occurred while extracting the column data
+     * @throws IOException if the value type is not matched
+     * @throws ServerException if server error was occurred while retrieving this relation
+     * @throws InterruptedException if interrupted while extracting the column data
+     * @see #fetchOctetValue()
+     */
+    default ByteBuilder fetchOctetBytes(@Nonnull ByteBuilder buffer)
+            throws IOException, ServerException, InterruptedException {
+        Objects.requireNonNull(buffer);
+        return copyTo(fetchOctetBytes(), buffer);
+    }
+
+    private static ByteBuilder copyTo(ByteBuffer source, ByteBuilder destination) {
+        destination.setSize(source.remaining(), false);
+        source.get(destination.getData(), 0, destination.getSize());
+        return destination;
+    }
+
     /**
      * Retrieves a {@code BIT} value on the column of the cursor position.
      * <p>
@@ -374,6 +479,75 @@ public interface RelationCursor extends ServerResource {
      */
     void endRowValue() throws IOException, ServerException, InterruptedException;
 
+    /**
+     * Retrieves the following rows into the batch, column by column.
+     * <p>
+     * The previous contents of the batch are discarded. If the cursor points to the middle of a row,
+     * the rest of the row is skipped before this operation. After this operation, the cursor points
+     * to no rows, and you can continue with either this method or {@link #nextRow()}.
+     * </p>
+     * <p>
+     * Scalar values are decoded into the primitive arrays of {@link ColumnVector}, without creating
+     * objects for individual values. Note that {@code ROW} and {@code ARRAY} values are not supported.
+     * </p>
+     * @param batch the destination batch, which may be reused over the calls
+     * @param maxRows the maximum number of rows to retrieve
+     * @return the number of retrieved rows, or {@code 0} if there are no more rows in this relation
+     * @throws IllegalArgumentException if maxRows is not positive
+     * @throws UnsupportedOperationException if this cursor does not support batches,
+     *      or the relation contains {@code ROW} or {@code ARRAY} values
+     * @throws IOException if I/O error was occurred while retrieving the rows
+     * @throws ServerException if server error was occurred while retrieving this relation
+     * @throws InterruptedException if interrupted while retrieving the rows
+     * @see RelationBatch
+     */
+    default int nextBatch(@Nonnull RelationBatch batch, int maxRows)
+            throws IOException, ServerException, InterruptedException {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Opens a reader which retrieves the rest rows of this relation batch by batch.
+     * <p>
+     * If the relation data is split into segments of whole rows, the reader decodes the individual segments
+     * on the given executor, up to {@code parallelism} segments at once.
+     * Otherwise, the reader just retrieves the batches on the calling thread via
+     * {@link #nextBatch(RelationBatch, int)}.
+     * </p>
+     * <p>
+     * This must be invoked before retrieving any rows from this cursor, and this cursor must not be used
+     * after this operation except for {@link #close()}.
+     * </p>
+     * @param executor the executor to decode the batches
+     * @param parallelism the maximum number of batches to decode at once
+     * @param order the order of retrieving batches
+     * @return the opened reader
+     * @throws IllegalArgumentException if parallelism is not positive
+     * @throws IllegalStateException if rows have been already retrieved from this cursor
+     * @throws IOException if I/O error was occurred while opening the reader
+     * @throws ServerException if server error was occurred while retrieving this relation
+     * @throws InterruptedException if interrupted while opening the reader
+     * @see RelationBatchReader
+     */
+    default RelationBatchReader openBatchReader(
+            @Nonnull Executor executor, int parallelism, @Nonnull RelationBatchReader.Order order)
+            throws IOException, ServerException, InterruptedException {
+        Objects.requireNonNull(executor);
+        Objects.requireNonNull(order);
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException(MessageFormat.format(
+                    "parallelism must be positive: {0}",
+                    parallelism));
+        }
+        return () -> {
+            var batch = new RelationBatch();
+            if (nextBatch(batch, DEFAULT_BATCH_ROWS) == 0) {
+                return null;
+            }
+            return batch;
+        };
+    }
+
     // FIXME impl clob, blob
 
 
@@ -11,6 +11,7 @@ import javax.annotation.Nonnull;
 import com.tsurugidb.sql.proto.SqlRequest;
 import com.tsurugidb.tsubakuro.common.Session;
 import com.tsurugidb.tsubakuro.exception.ServerException;
+import com.tsurugidb.tsubakuro.sql.impl.PipelinedTransaction;
 import com.tsurugidb.tsubakuro.sql.impl.SqlClientImpl;
 import com.tsurugidb.tsubakuro.util.FutureResponse;
 import com.tsurugidb.tsubakuro.util.ServerResource;
@@ -54,6 +55,24 @@ public interface SqlClient extends ServerResource {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Starts a new transaction without waiting for its start.
+     * <p>
+     * The requests to the returned transaction are queued until the transaction has been started, and then
+     * they are sent back-to-back without waiting for the individual responses.
+     * This is suitable for short transactions, like {@code begin}, some statements and then {@code commit}.
+     * </p>
+     * @param option the transaction option
+     * @return the transaction object
+     * @throws IOException if I/O error was occurred while sending request
+     * @see PipelinedTransaction
+     */
+    default Transaction createPipelinedTransaction(
+            @Nonnull SqlRequest.TransactionOption option) throws IOException {
+        Objects.requireNonNull(option);
+        return new PipelinedTransaction(createTransaction(option));
+    }
+
     /**
      * Prepares a SQL statement.
      * @param source the SQL statement text (may includes place-holders)
@@ -110,6 +110,22 @@ public interface SqlService extends ServerResource {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Requests {@code ExecutePreparedStatement} to SQL service.
+     * @param request the request without parameters
+     * @param parameters the parameters, which are serialized into the request
+     * @return the future response of the request,
+     *      which may raise error if the request was failed.
+     * @throws IOException if I/O error was occurred while sending the request
+     */
+    default FutureResponse<Void> send(
+            @Nonnull SqlRequest.ExecutePreparedStatement request,
+            @Nonnull ParameterBinder parameters) throws IOException {
+        return send(request.toBuilder()
+                .addAllParameters(parameters.toParameters())
+                .build());
+    }
+
     /**
      * Requests {@code Query} to SQL service.
      * @param request the request
@@ -125,6 +141,23 @@ public interface SqlService extends ServerResource {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Requests {@code ExecutePreparedQuery} to SQL service.
+     * @param request the request without parameters
+     * @param parameters the parameters, which are serialized into the request
+     * @return the future response of the request,
+     *      which may raise error if the request was failed.
+     *      If the request was succeeded, future will returns a result set object which includes query results.
+     * @throws IOException if I/O error was occurred while sending the request
+     */
+    default FutureResponse<ResultSet> send(
+            @Nonnull SqlRequest.ExecutePreparedQuery request,
+            @Nonnull ParameterBinder parameters) throws IOException {
+        return send(request.toBuilder()
+                .addAllParameters(parameters.toParameters())
+                .build());
+    }
+
     /**
      * Requests {@code Batch} to SQL service.
      * @param request the request
@@ -136,6 +169,23 @@ public interface SqlService extends ServerResource {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Requests {@code Batch} to SQL service.
+     * @param request the request without parameter sets
+     * @param parameters the binder whose batched rows are serialized into the request
+     * @return the future response of the request,
+     *      which may raise error if the request was failed.
+     * @throws IOException if I/O error was occurred while sending the request
+     * @see ParameterBinder#addBatch()
+     */
+    default FutureResponse<Void> send(
+            @Nonnull SqlRequest.Batch request,
+            @Nonnull ParameterBinder parameters) throws IOException {
+        return send(request.toBuilder()
+                .addAllParameterSets(parameters.toParameterSets())
+                .build());
+    }
+
     /**
      * Requests {@code ExecuteQuery} to SQL service.
      * @param request the request
@@ -203,6 +253,19 @@ public interface SqlService extends ServerResource {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Takes over the response of a disposal request, like {@code DisposeTransaction}.
+     * <p>
+     * If this returns {@code true}, this service completes and closes the response until this service is closed,
+     * and the requester need not wait for it. Otherwise, the requester must wait for the response by itself.
+     * </p>
+     * @param response the response of the disposal request
+     * @return {@code true} if this service took over the response, otherwise {@code false}
+     */
+    default boolean deferDisposal(@Nonnull FutureResponse<Void> response) {
+        return false;
+    }
+
     @Override
     default void close() throws ServerException, IOException, InterruptedException {
         // do nothing
@@ -2,8 +2,10 @@ package com.tsurugidb.tsubakuro.sql;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
 
 import javax.annotation.Nonnull;
@@ -103,6 +105,49 @@ public interface Transaction extends ServerResourceNeedingDisposal {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Executes a SQL statement.
+     * If the return value, describing future response of the action, is not gotten before the transaction close,
+     * the outcome of the invocation will be indefinite.
+     * <p>
+     * The parameters are serialized while sending the request, so that the binder can be modified after this
+     * method returns.
+     * </p>
+     * @param statement the prepared statement to execute
+     * @param parameters the parameters for place-holders in the prepared statement
+     * @return a future response of the action
+     * @throws IOException if I/O error was occurred while sending request
+     * @throws IllegalStateException if some place-holders are not bound
+     */
+    default FutureResponse<Void> executeStatement(
+            @Nonnull PreparedStatement statement,
+            @Nonnull ParameterBinder parameters) throws IOException {
+        Objects.requireNonNull(statement);
+        Objects.requireNonNull(parameters);
+        return executeStatement(statement, parameters.toParameters());
+    }
+
+    /**
+     * Executes a SQL statement and retrieve its result.
+     * No valid data can be obtained from a ResultSet that is gotton after the transaction close.
+     * <p>
+     * The parameters are serialized while sending the request, so that the binder can be modified after this
+     * method returns.
+     * </p>
+     * @param statement the prepared statement to execute
+     * @param parameters the parameters for place-holders in the prepared statement
+     * @return a future response of the result set
+     * @throws IOException if I/O error was occurred while sending request
+     * @throws IllegalStateException if some place-holders are not bound
+     */
+    default FutureResponse<ResultSet> executeQuery(
+            @Nonnull PreparedStatement statement,
+            @Nonnull ParameterBinder parameters) throws IOException {
+        Objects.requireNonNull(statement);
+        Objects.requireNonNull(parameters);
+        return executeQuery(statement, parameters.toParameters());
+    }
+
     /**
      * Executes a dump action.
      * <p>
@@ -143,6 +188,30 @@ public interface Transaction extends ServerResourceNeedingDisposal {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Executes a SQL statement for each row added by {@link ParameterBinder#addBatch()}.
+     * <p>
+     * The rows are serialized while sending the request, so that the batch can be cleared after this
+     * method returns.
+     * </p>
+     * @param statement the prepared statement to execute for each row
+     * @param parameters the binder which holds the batched rows
+     * @return a future response of the action
+     * @throws IOException if I/O error was occurred while sending request, or the batch is too large
+     * @see #batch(PreparedStatement, Collection)
+     */
+    default FutureResponse<Void> batch(
+            @Nonnull PreparedStatement statement,
+            @Nonnull ParameterBinder parameters) throws IOException {
+        Objects.requireNonNull(statement);
+        Objects.requireNonNull(parameters);
+        var table = new ArrayList<List<SqlRequest.Parameter>>(parameters.getBatchCount());
+        for (var row : parameters.toParameterSets()) {
+            table.add(row.getElementsList());
+        }
+        return batch(statement, table);
+    }
+
     /**
      * Executes a dump action.
      * <p>
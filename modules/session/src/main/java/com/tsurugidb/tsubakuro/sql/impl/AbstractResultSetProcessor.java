@@ -1,8 +1,9 @@
 package com.tsurugidb.tsubakuro.sql.impl;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.ByteBuffer;
-//import java.text.MessageFormat;
+import java.text.MessageFormat;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -10,31 +11,72 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.google.protobuf.Message;
+import com.tsurugidb.sql.proto.SqlResponse;
+import com.tsurugidb.tsubakuro.channel.common.connection.sql.ResultSetWire.ByteBufferBackedInput;
 import com.tsurugidb.tsubakuro.channel.common.connection.wire.Response;
 import com.tsurugidb.tsubakuro.channel.common.connection.wire.ResponseProcessor;
+import com.tsurugidb.tsubakuro.channel.common.connection.wire.impl.ChannelResponse;
+import com.tsurugidb.tsubakuro.exception.BrokenResponseException;
+import com.tsurugidb.tsubakuro.exception.ResponseTimeoutException;
 import com.tsurugidb.tsubakuro.exception.ServerException;
 import com.tsurugidb.tsubakuro.sql.ResultSet;
+import com.tsurugidb.tsubakuro.sql.io.ByteBufferBackedValueInput;
+import com.tsurugidb.tsubakuro.sql.io.StreamBackedValueInput;
+import com.tsurugidb.tsubakuro.sql.io.ValueInput;
+import com.tsurugidb.tsubakuro.util.Owner;
 import com.tsurugidb.tsubakuro.util.Timeout;
 import com.tsurugidb.tsubakuro.util.ServerResourceHolder;
 
 /**
  * Abstract implementation of {@link ResponseProcessor} for providing {@link ResultSet}.
+ * <p>
+ * This receives the result set metadata and relation data from the sub-responses, and tests the main response
+ * only if the result set is not available. Services which return result sets share this implementation.
+ * </p>
  * @param <T> the response message type
  */
-abstract class AbstractResultSetProcessor<T extends Message>
+public abstract class AbstractResultSetProcessor<T extends Message>
         implements ResponseProcessor<ResultSet>, ResultSetImpl.ResponseTester {
 
+    static final Logger LOG = LoggerFactory.getLogger(AbstractResultSetProcessor.class);
+
     private final ServerResourceHolder resources;
 
+    private final Message request;
+
     protected final AtomicReference<T> cache = new AtomicReference<>();
 
     private final AtomicBoolean passed = new AtomicBoolean();
 
-    AbstractResultSetProcessor(@Nonnull ServerResourceHolder resources) {
+    /**
+     * Creates a new instance.
+     * @param resources the resource holder which the result sets are registered to
+     * @param request the original request, which is only used for diagnostics
+     */
+    protected AbstractResultSetProcessor(@Nonnull ServerResourceHolder resources, @Nullable Message request) {
         Objects.requireNonNull(resources);
         this.resources = resources;
+        this.request = request;
+    }
+
+    /**
+     * Returns a {@link ValueInput} which decodes the relation data.
+     * @param dataInput the relation data
+     * @return the created value input
+     */
+    public static ValueInput createValueInput(@Nonnull InputStream dataInput) {
+        Objects.requireNonNull(dataInput);
+        if (dataInput instanceof ByteBufferBackedInput) {
+            // decodes the received chunks directly
+            return new ByteBufferBackedValueInput((ByteBufferBackedInput) dataInput);
+        }
+        return new StreamBackedValueInput(dataInput);
     }
 
 //    private void validateMetadata(
@@ -96,12 +138,105 @@ abstract class AbstractResultSetProcessor<T extends Message>
         passed.set(true);
     }
 
-    abstract T parse(@Nonnull ByteBuffer payload) throws IOException;
+    /**
+     * Parses the main response.
+     * @param payload the main response payload
+     * @return the parsed message
+     * @throws IOException if the main response is broken
+     */
+    protected abstract T parse(@Nonnull ByteBuffer payload) throws IOException;
 
-    abstract void doTest(@Nonnull T response) throws IOException, ServerException, InterruptedException;
+    /**
+     * Tests if the main response is valid.
+     * @param response the parsed main response
+     * @throws IOException if I/O error was occurred while processing the request
+     * @throws ServerException if server error was occurred while processing the request
+     * @throws InterruptedException if interrupted while testing the response
+     */
+    protected abstract void doTest(@Nonnull T response) throws IOException, ServerException, InterruptedException;
+
+    /**
+     * Returns the timeout of waiting for the result set, and closing it.
+     * @return the timeout, or {@code null} if it is not specified
+     */
+    protected @Nullable Timeout getCloseTimeout() {
+        return null;
+    }
+
+    /**
+     * Registers the created result set to the resource holder.
+     * @param resultSet the created result set
+     * @return the registered result set
+     * @throws IOException if the result set cannot be registered
+     * @throws ServerException if server error was occurred while closing the result set
+     * @throws InterruptedException if interrupted while closing the result set
+     */
+    protected ResultSet register(@Nonnull ResultSetImpl resultSet)
+            throws IOException, ServerException, InterruptedException {
+        synchronized (resources) {
+            return resources.register(resultSet);
+        }
+    }
 
     @Override
     public ResultSet process(Response response) throws IOException, ServerException, InterruptedException {
         return process(response, Timeout.DISABLED);
     }
+
+    @Override
+    public ResultSet process(@Nonnull Response response, @Nonnull Timeout timeout)
+            throws IOException, ServerException, InterruptedException {
+        Objects.requireNonNull(response);
+        Objects.requireNonNull(timeout);
+        var closeTimeout = getCloseTimeout();
+        try (var owner = Owner.of(response)) {
+            var metadata = receiveMetadata(response, timeout, closeTimeout);
+            var dataInput = response.openSubResponse(ChannelResponse.RELATION_CHANNEL_ID);
+            LOG.trace("result set metadata: {}", metadata); //$NON-NLS-1$
+            var cursor = new ValueInputBackedRelationCursor(createValueInput(dataInput));
+            String resultSetName = ""; //$NON-NLS-1$
+            if (response instanceof ChannelResponse) {
+                resultSetName = ((ChannelResponse) response).resultSetName();
+            }
+            var resultSet = new ResultSetImpl(resources, metadata, cursor, owner.release(), this, resultSetName, request);
+            resultSet.setCloseTimeout(closeTimeout);
+            return register(resultSet);
+        }
+    }
+
+    private ResultSetMetadataAdapter receiveMetadata(Response response, Timeout timeout, Timeout closeTimeout)
+            throws IOException, ServerException, InterruptedException {
+        Timeout wait = null;
+        if (timeout.value() > 0) {
+            wait = timeout;
+        } else if (closeTimeout != null && closeTimeout.value() > 0) {
+            wait = closeTimeout;
+        }
+        while (true) {
+            InputStream metadataInput;
+            if (wait != null) {
+                try {
+                    metadataInput = response.openSubResponse(ChannelResponse.METADATA_CHANNEL_ID,
+                            wait.value(), wait.unit());
+                } catch (TimeoutException e) {
+                    throw new ResponseTimeoutException(e);
+                }
+            } else {
+                metadataInput = response.openSubResponse(ChannelResponse.METADATA_CHANNEL_ID);
+            }
+            if (metadataInput != null) {
+                try (metadataInput) {
+                    return new ResultSetMetadataAdapter(SqlResponse.ResultSetMetadata.parseFrom(metadataInput));
+                }
+            }
+            if (response.isMainResponseReady()) {
+                // the main response may report an error instead of the result set
+                test(response);
+                // or else, the result set never arrives after the main response
+                throw new BrokenResponseException(MessageFormat.format(
+                        "missing result set metadata in the response: ''{0}''",
+                        ChannelResponse.METADATA_CHANNEL_ID));
+            }
+        }
+    }
 }
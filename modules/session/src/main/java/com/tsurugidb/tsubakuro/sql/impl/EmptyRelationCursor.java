@@ -6,7 +6,11 @@ import java.time.LocalTime;
 import java.time.LocalDateTime;
 import java.time.OffsetTime;
 import java.time.OffsetDateTime;
+import java.util.Objects;
 
+import javax.annotation.Nonnull;
+
+import com.tsurugidb.tsubakuro.sql.RelationBatch;
 import com.tsurugidb.tsubakuro.sql.RelationCursor;
 import com.tsurugidb.tsubakuro.sql.io.DateTimeInterval;
 import com.tsurugidb.tsubakuro.sql.io.ValueInput;
@@ -26,6 +30,13 @@ public class EmptyRelationCursor implements RelationCursor {
         return false;
     }
 
+    @Override
+    public int nextBatch(@Nonnull RelationBatch batch, int maxRows) {
+        Objects.requireNonNull(batch);
+        batch.clear();
+        return 0;
+    }
+
     @Override
     public boolean nextColumn() {
         throw new UnsupportedOperationException();
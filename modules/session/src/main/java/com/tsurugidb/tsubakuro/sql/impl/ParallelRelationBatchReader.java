@@ -0,0 +1,225 @@
+package com.tsurugidb.tsubakuro.sql.impl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.tsurugidb.tsubakuro.channel.common.connection.sql.ResultSetWire.ByteBufferBackedInput;
+import com.tsurugidb.tsubakuro.sql.RelationBatch;
+import com.tsurugidb.tsubakuro.sql.RelationBatchReader;
+import com.tsurugidb.tsubakuro.sql.io.ByteBufferBackedValueInput;
+
+/**
+ * An implementation of {@link RelationBatchReader}, which decodes the segments of relation data in parallel.
+ * <p>
+ * The segments are received on the thread which calls {@link #next()}, and then decoded on the executor.
+ * Each segment becomes a batch.
+ * </p>
+ * @see ByteBufferBackedInput#nextSegment()
+ */
+@NotThreadSafe
+final class ParallelRelationBatchReader implements RelationBatchReader {
+
+    static final Logger LOG = LoggerFactory.getLogger(ParallelRelationBatchReader.class);
+
+    private final ByteBufferBackedInput source;
+
+    private final Executor executor;
+
+    private final int parallelism;
+
+    private final Order order;
+
+    // decoding batches in the relation order
+    private final ArrayDeque<CompletableFuture<RelationBatch>> running = new ArrayDeque<>();
+
+    // decoded batches in the arrival order
+    private final BlockingQueue<CompletableFuture<RelationBatch>> completed = new LinkedBlockingQueue<>();
+
+    private int inflight = 0;
+
+    private boolean sawEnd = false;
+
+    private boolean closed = false;
+
+    /**
+     * Creates a new instance.
+     * @param source the segmented source
+     * @param executor the executor to decode the segments
+     * @param parallelism the maximum number of segments to decode at once
+     * @param order the order of retrieving batches
+     */
+    ParallelRelationBatchReader(
+            @Nonnull ByteBufferBackedInput source,
+            @Nonnull Executor executor,
+            int parallelism,
+            @Nonnull Order order) {
+        Objects.requireNonNull(source);
+        Objects.requireNonNull(executor);
+        Objects.requireNonNull(order);
+        assert parallelism > 0;
+        this.source = source;
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.order = order;
+    }
+
+    @Override
+    public RelationBatch next() throws IOException, InterruptedException {
+        if (closed) {
+            throw new IllegalStateException("batch reader is already closed");
+        }
+        while (true) {
+            fill();
+            if (inflight == 0) {
+                return null;
+            }
+            CompletableFuture<RelationBatch> future;
+            if (order == Order.RELATION) {
+                future = running.poll();
+            } else {
+                future = completed.take();
+            }
+            inflight--;
+            var batch = get(future);
+            if (batch.getRowCount() > 0) {
+                return batch;
+            }
+        }
+    }
+
+    private void fill() throws IOException {
+        while (!sawEnd && inflight < parallelism) {
+            var segment = source.nextSegment();
+            if (segment == null) {
+                sawEnd = true;
+                break;
+            }
+            if (!segment.isEmpty()) {
+                submit(segment);
+            }
+        }
+    }
+
+    private void submit(List<ByteBuffer> segment) {
+        var future = new CompletableFuture<RelationBatch>();
+        if (order == Order.RELATION) {
+            running.add(future);
+        } else {
+            future.whenComplete((r, e) -> completed.add(future));
+        }
+        inflight++;
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(decode(segment));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RuntimeException e) {
+            segment.forEach(source::releaseChunk);
+            future.completeExceptionally(e);
+        }
+    }
+
+    private RelationBatch decode(List<ByteBuffer> segment) throws IOException, InterruptedException {
+        var batch = new RelationBatch();
+        try (var input = new ByteBufferBackedValueInput(new SegmentInput(source, segment))) {
+            var cursor = new ValueInputBackedRelationCursor(input);
+            cursor.nextBatch(batch, Integer.MAX_VALUE);
+        }
+        return batch;
+    }
+
+    private static RelationBatch get(CompletableFuture<RelationBatch> future)
+            throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            var cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            if (cause instanceof InterruptedException) {
+                throw (InterruptedException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        // the running tasks release their own chunks
+        LOG.trace("closing batch reader with {} pending batches", inflight); //$NON-NLS-1$
+        running.clear();
+        completed.clear();
+        inflight = 0;
+    }
+
+    /**
+     * Provides the chunks of a segment, and releases them after consumed.
+     */
+    private static final class SegmentInput extends ByteBufferBackedInput {
+
+        private final ByteBufferBackedInput owner;
+
+        private final Iterator<ByteBuffer> rest;
+
+        private boolean released = false;
+
+        SegmentInput(ByteBufferBackedInput owner, List<ByteBuffer> segment) {
+            super(segment.get(0));
+            this.owner = owner;
+            this.rest = segment.listIterator(1);
+        }
+
+        @Override
+        protected boolean next() {
+            if (!rest.hasNext()) {
+                return false;
+            }
+            owner.releaseChunk(source);
+            source = rest.next();
+            return true;
+        }
+
+        @Override
+        public void close() {
+            if (released) {
+                return;
+            }
+            released = true;
+            owner.releaseChunk(source);
+            rest.forEachRemaining(owner::releaseChunk);
+        }
+    }
+}
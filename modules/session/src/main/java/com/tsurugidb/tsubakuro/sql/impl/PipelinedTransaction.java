@@ -0,0 +1,228 @@
+package com.tsurugidb.tsubakuro.sql.impl;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.tsurugidb.sql.proto.SqlRequest;
+import com.tsurugidb.tsubakuro.exception.ServerException;
+import com.tsurugidb.tsubakuro.sql.ParameterBinder;
+import com.tsurugidb.tsubakuro.sql.PreparedStatement;
+import com.tsurugidb.tsubakuro.sql.ResultSet;
+import com.tsurugidb.tsubakuro.sql.SqlServiceException;
+import com.tsurugidb.tsubakuro.sql.Transaction;
+import com.tsurugidb.tsubakuro.util.FutureResponse;
+import com.tsurugidb.tsubakuro.util.PipelinedRequestQueue;
+
+/**
+ * A {@link Transaction} which accepts requests before the transaction has been started.
+ * <p>
+ * The requests are queued until the {@code Begin} response arrives, and then sent back-to-back in the
+ * order of their submission, without waiting for the individual responses.
+ * Each method returns a future response immediately, which waits for the transaction start and then for the
+ * actual response.
+ * After the transaction has been started, the requests are sent directly.
+ * </p>
+ * <p>
+ * If the transaction could not be started, the all requests fail with the same error.
+ * </p>
+ * @see com.tsurugidb.tsubakuro.sql.SqlClient#createPipelinedTransaction(com.tsurugidb.sql.proto.SqlRequest.TransactionOption)
+ */
+@ThreadSafe
+public class PipelinedTransaction implements Transaction {
+
+    private final PipelinedRequestQueue<Transaction> queue;
+
+    private long timeout = 0;
+
+    private TimeUnit unit;
+
+    /**
+     * Creates a new instance.
+     * @param begin the future response of the transaction, which is obtained from {@code Begin} request
+     */
+    public PipelinedTransaction(@Nonnull FutureResponse<Transaction> begin) {
+        Objects.requireNonNull(begin);
+        this.queue = new PipelinedRequestQueue<>(begin);
+    }
+
+    @Override
+    public FutureResponse<Void> executeStatement(@Nonnull String source) throws IOException {
+        Objects.requireNonNull(source);
+        return queue.submit(t -> t.executeStatement(source));
+    }
+
+    @Override
+    public FutureResponse<ResultSet> executeQuery(@Nonnull String source) throws IOException {
+        Objects.requireNonNull(source);
+        return queue.submit(t -> t.executeQuery(source));
+    }
+
+    @Override
+    public FutureResponse<Void> executeStatement(
+            @Nonnull PreparedStatement statement,
+            @Nonnull Collection<? extends SqlRequest.Parameter> parameters) throws IOException {
+        Objects.requireNonNull(statement);
+        Objects.requireNonNull(parameters);
+        return queue.submit(t -> t.executeStatement(statement, parameters));
+    }
+
+    @Override
+    public FutureResponse<ResultSet> executeQuery(
+            @Nonnull PreparedStatement statement,
+            @Nonnull Collection<? extends SqlRequest.Parameter> parameters) throws IOException {
+        Objects.requireNonNull(statement);
+        Objects.requireNonNull(parameters);
+        return queue.submit(t -> t.executeQuery(statement, parameters));
+    }
+
+    @Override
+    public FutureResponse<Void> executeStatement(
+            @Nonnull PreparedStatement statement,
+            @Nonnull ParameterBinder parameters) throws IOException {
+        Objects.requireNonNull(statement);
+        Objects.requireNonNull(parameters);
+        var direct = queue.direct();
+        if (direct != null) {
+            return direct.executeStatement(statement, parameters);
+        }
+        // the binder may be modified after this method returns
+        List<SqlRequest.Parameter> snapshot = parameters.toParameters();
+        return queue.submit(t -> t.executeStatement(statement, snapshot));
+    }
+
+    @Override
+    public FutureResponse<ResultSet> executeQuery(
+            @Nonnull PreparedStatement statement,
+            @Nonnull ParameterBinder parameters) throws IOException {
+        Objects.requireNonNull(statement);
+        Objects.requireNonNull(parameters);
+        var direct = queue.direct();
+        if (direct != null) {
+            return direct.executeQuery(statement, parameters);
+        }
+        // the binder may be modified after this method returns
+        List<SqlRequest.Parameter> snapshot = parameters.toParameters();
+        return queue.submit(t -> t.executeQuery(statement, snapshot));
+    }
+
+    @Override
+    public FutureResponse<ResultSet> executeDump(@Nonnull String source, @Nonnull Path directory) throws IOException {
+        Objects.requireNonNull(source);
+        Objects.requireNonNull(directory);
+        return queue.submit(t -> t.executeDump(source, directory));
+    }
+
+    @Override
+    public FutureResponse<Void> batch(
+            @Nonnull PreparedStatement statement,
+            @Nonnull Collection<? extends Collection<? extends SqlRequest.Parameter>> parameterTable)
+                    throws IOException {
+        Objects.requireNonNull(statement);
+        Objects.requireNonNull(parameterTable);
+        return queue.submit(t -> t.batch(statement, parameterTable));
+    }
+
+    @Override
+    public FutureResponse<Void> batch(
+            @Nonnull PreparedStatement statement,
+            @Nonnull ParameterBinder parameters) throws IOException {
+        Objects.requireNonNull(statement);
+        Objects.requireNonNull(parameters);
+        var direct = queue.direct();
+        if (direct != null) {
+            return direct.batch(statement, parameters);
+        }
+        // the batch may be cleared after this method returns
+        var snapshot = new ArrayList<List<SqlRequest.Parameter>>(parameters.getBatchCount());
+        for (var row : parameters.toParameterSets()) {
+            snapshot.add(row.getElementsList());
+        }
+        return queue.submit(t -> t.batch(statement, snapshot));
+    }
+
+    @Override
+    public FutureResponse<ResultSet> executeDump(
+            @Nonnull PreparedStatement statement,
+            @Nonnull Collection<? extends SqlRequest.Parameter> parameters,
+            @Nonnull Path directory,
+            @Nonnull SqlRequest.DumpOption option) throws IOException {
+        Objects.requireNonNull(statement);
+        Objects.requireNonNull(parameters);
+        Objects.requireNonNull(directory);
+        Objects.requireNonNull(option);
+        return queue.submit(t -> t.executeDump(statement, parameters, directory, option));
+    }
+
+    @Override
+    public FutureResponse<Void> executeLoad(
+            @Nonnull PreparedStatement statement,
+            @Nonnull Collection<? extends SqlRequest.Parameter> parameters,
+            @Nonnull Collection<? extends Path> files) throws IOException {
+        Objects.requireNonNull(statement);
+        Objects.requireNonNull(parameters);
+        Objects.requireNonNull(files);
+        return queue.submit(t -> t.executeLoad(statement, parameters, files));
+    }
+
+    @Override
+    public FutureResponse<Void> commit(@Nonnull SqlRequest.CommitStatus status) throws IOException {
+        Objects.requireNonNull(status);
+        return queue.submit(t -> t.commit(status));
+    }
+
+    @Override
+    public FutureResponse<Void> rollback() throws IOException {
+        return queue.submit(Transaction::rollback);
+    }
+
+    @Override
+    public FutureResponse<SqlServiceException> getSqlServiceException() throws IOException {
+        return queue.submit(Transaction::getSqlServiceException);
+    }
+
+    /**
+     * Returns the transaction ID.
+     * <p>
+     * This waits for the transaction start.
+     * </p>
+     * @throws IllegalStateException if the transaction could not be started
+     */
+    @Override
+    public String getTransactionId() {
+        try {
+            return queue.getTransaction(0, null).getTransactionId();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while starting transaction", e);
+        } catch (IOException | ServerException | TimeoutException e) {
+            throw new IllegalStateException("transaction is not available", e);
+        }
+    }
+
+    @Override
+    public void setCloseTimeout(long t, TimeUnit u) {
+        timeout = t;
+        unit = u;
+    }
+
+    /**
+     * Sends the queued requests, and then closes the started transaction.
+     */
+    @Override
+    public void close() throws IOException, ServerException, InterruptedException {
+        var started = queue.shutdown(timeout, timeout == 0 ? null : unit);
+        if (started != null) {
+            started.setCloseTimeout(timeout, unit);
+            started.close();
+        }
+    }
+}
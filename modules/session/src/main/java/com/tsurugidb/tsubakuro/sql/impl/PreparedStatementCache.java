@@ -0,0 +1,463 @@
+package com.tsurugidb.tsubakuro.sql.impl;
+
+import java.io.IOException;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.tsurugidb.sql.proto.SqlRequest;
+import com.tsurugidb.tsubakuro.exception.ServerException;
+import com.tsurugidb.tsubakuro.sql.PreparedStatement;
+import com.tsurugidb.tsubakuro.sql.SqlService;
+import com.tsurugidb.tsubakuro.util.FutureResponse;
+import com.tsurugidb.tsubakuro.util.Lang;
+import com.tsurugidb.tsubakuro.util.ServerResource;
+
+/**
+ * A cache of prepared statements, which are keyed by the SQL text and the placeholders.
+ * <p>
+ * {@link #prepare(SqlService, SqlRequest.Prepare)} returns a handle of the cached statement if it is available,
+ * or prepares a new statement otherwise.
+ * The handles must be closed as well as the ordinary prepared statements, but closing them never disposes
+ * the statement on the server. Each cached statement is disposed after it was evicted from the cache and
+ * all of its handles have been closed.
+ * </p>
+ * <p>
+ * Entries are also keyed by the {@link SqlService}, so that this cache can be shared between sessions.
+ * If the cache is full, the least recently used entry is evicted.
+ * </p>
+ */
+@ThreadSafe
+public class PreparedStatementCache implements ServerResource {
+
+    static final Logger LOG = LoggerFactory.getLogger(PreparedStatementCache.class);
+
+    /**
+     * The default maximum number of cached statements.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 256;
+
+    private final int maxEntries;
+
+    // in access order, guarded by this
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private boolean closed = false;
+
+    /**
+     * Creates a new instance with the default capacity.
+     * @see #DEFAULT_MAX_ENTRIES
+     */
+    public PreparedStatementCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Creates a new instance.
+     * @param maxEntries the maximum number of cached statements
+     * @throws IllegalArgumentException if maxEntries is not positive
+     */
+    public PreparedStatementCache(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException(MessageFormat.format(
+                    "maxEntries must be positive: {0}",
+                    maxEntries));
+        }
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Returns the number of cached statements.
+     * @return the number of cached statements
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns a handle of the prepared statement for the request.
+     * <p>
+     * If the statement is not in this cache, this sends the request to the service.
+     * </p>
+     * @param service the SQL service
+     * @param request the prepare request
+     * @return a future response of the prepared statement handle
+     * @throws IOException if I/O error was occurred while sending request
+     * @throws IOException if this cache is already closed
+     */
+    public FutureResponse<PreparedStatement> prepare(
+            @Nonnull SqlService service,
+            @Nonnull SqlRequest.Prepare request) throws IOException {
+        Objects.requireNonNull(service);
+        Objects.requireNonNull(request);
+        var key = new Key(service, request);
+        Entry entry;
+        boolean hit;
+        List<Entry> garbage;
+        synchronized (this) {
+            if (closed) {
+                throw new IOException("prepared statement cache is already closed");
+            }
+            entry = entries.get(key);
+            hit = entry != null;
+            if (!hit) {
+                entry = new Entry(key);
+                entries.put(key, entry);
+            }
+            entry.references++;
+            garbage = evictOverflow();
+        }
+        dispose(garbage);
+        if (!hit) {
+            LOG.trace("prepared statement cache miss: {}", request.getSql()); //$NON-NLS-1$
+            try {
+                entry.start(service.send(request));
+            } catch (IOException | RuntimeException e) {
+                entry.fail(e);
+                discard(entry);
+                release(entry);
+                throw e;
+            }
+        }
+        return new Lease(entry);
+    }
+
+    /**
+     * Evicts the cached statements of the given service.
+     * <p>
+     * This is typically invoked before the service is closed.
+     * </p>
+     * @param service the SQL service
+     */
+    public void invalidate(@Nonnull SqlService service) {
+        Objects.requireNonNull(service);
+        var garbage = new ArrayList<Entry>();
+        synchronized (this) {
+            for (var iter = entries.values().iterator(); iter.hasNext();) {
+                var entry = iter.next();
+                if (entry.key.service == service) {
+                    iter.remove();
+                    evict(entry, garbage);
+                }
+            }
+        }
+        dispose(garbage);
+    }
+
+    /**
+     * Evicts all cached statements.
+     * The statements in use are disposed after their handles are closed.
+     */
+    @Override
+    public void close() {
+        var garbage = new ArrayList<Entry>();
+        synchronized (this) {
+            closed = true;
+            for (var entry : entries.values()) {
+                evict(entry, garbage);
+            }
+            entries.clear();
+        }
+        dispose(garbage);
+    }
+
+    // must be guarded by this
+    private List<Entry> evictOverflow() {
+        var garbage = new ArrayList<Entry>();
+        for (var iter = entries.values().iterator(); entries.size() > maxEntries && iter.hasNext();) {
+            var entry = iter.next();
+            iter.remove();
+            evict(entry, garbage);
+        }
+        return garbage;
+    }
+
+    // must be guarded by this
+    private static void evict(Entry entry, List<Entry> garbage) {
+        entry.evicted = true;
+        if (entry.references == 0) {
+            garbage.add(entry);
+        }
+    }
+
+    private void release(Entry entry) {
+        boolean dispose;
+        synchronized (this) {
+            entry.references--;
+            assert entry.references >= 0;
+            dispose = entry.references == 0 && entry.evicted;
+        }
+        if (dispose) {
+            entry.dispose();
+        }
+    }
+
+    private void discard(Entry entry) {
+        synchronized (this) {
+            if (entries.get(entry.key) == entry) {
+                entries.remove(entry.key);
+                entry.evicted = true;
+            }
+        }
+    }
+
+    private static void dispose(List<Entry> garbage) {
+        for (var entry : garbage) {
+            entry.dispose();
+        }
+    }
+
+    private static final class Key {
+
+        final SqlService service;
+
+        final SqlRequest.Prepare request;
+
+        Key(SqlService service, SqlRequest.Prepare request) {
+            this.service = service;
+            this.request = request;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(service) * 31 + request.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            var other = (Key) obj;
+            return service == other.service && request.equals(other.request);
+        }
+    }
+
+    /**
+     * A cached statement.
+     */
+    private final class Entry {
+
+        final Key key;
+
+        // guarded by the cache
+        int references = 0;
+
+        // guarded by the cache
+        boolean evicted = false;
+
+        // guarded by this
+        private FutureResponse<PreparedStatement> response;
+
+        // guarded by this
+        private PreparedStatementImpl statement;
+
+        // guarded by this
+        private Exception failure;
+
+        // guarded by this
+        private boolean resolving = false;
+
+        // guarded by this
+        private boolean disposed = false;
+
+        Entry(Key key) {
+            this.key = key;
+        }
+
+        synchronized void start(FutureResponse<PreparedStatement> r) {
+            this.response = r;
+            notifyAll();
+        }
+
+        synchronized void fail(Exception e) {
+            this.failure = e;
+            notifyAll();
+        }
+
+        synchronized boolean isDone() {
+            return statement != null || failure != null || (response != null && response.isDone());
+        }
+
+        PreparedStatementImpl get(long timeout, TimeUnit unit)
+                throws IOException, ServerException, InterruptedException, TimeoutException {
+            long deadline = unit == null ? 0 : System.nanoTime() + unit.toNanos(timeout);
+            FutureResponse<PreparedStatement> r;
+            synchronized (this) {
+                while (true) {
+                    if (statement != null || failure != null) {
+                        return result();
+                    }
+                    if (response != null && !resolving) {
+                        // this thread resolves the response, and the others wait for it
+                        resolving = true;
+                        r = response;
+                        break;
+                    }
+                    if (unit == null) {
+                        wait();
+                    } else {
+                        long rest = deadline - System.nanoTime();
+                        if (rest <= 0) {
+                            throw new TimeoutException("timeout while waiting for the prepared statement");
+                        }
+                        TimeUnit.NANOSECONDS.timedWait(this, rest);
+                    }
+                }
+            }
+            // resolves the response outside of the monitor, so that the other threads can time out
+            PreparedStatementImpl resolved = null;
+            Exception error = null;
+            try {
+                var s = unit == null ? r.get() : r.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+                resolved = (PreparedStatementImpl) s;
+            } catch (IOException | ServerException | RuntimeException e) {
+                error = e;
+            } finally {
+                boolean orphan;
+                synchronized (this) {
+                    resolving = false;
+                    if (resolved != null) {
+                        statement = resolved;
+                    } else if (error != null) {
+                        failure = error;
+                    }
+                    orphan = disposed && resolved != null;
+                    notifyAll();
+                }
+                if (orphan) {
+                    // already disposed while resolving
+                    close(resolved);
+                }
+            }
+            if (error != null) {
+                // prepare again in the next time
+                discard(this);
+            }
+            synchronized (this) {
+                return result();
+            }
+        }
+
+        // must be guarded by this
+        private PreparedStatementImpl result() throws IOException, ServerException {
+            if (failure != null) {
+                if (failure instanceof IOException) {
+                    throw (IOException) failure;
+                }
+                if (failure instanceof ServerException) {
+                    throw (ServerException) failure;
+                }
+                throw (RuntimeException) failure;
+            }
+            return statement;
+        }
+
+        void dispose() {
+            FutureResponse<PreparedStatement> r;
+            PreparedStatementImpl s;
+            synchronized (this) {
+                if (disposed) {
+                    return;
+                }
+                disposed = true;
+                r = response;
+                s = statement;
+            }
+            LOG.trace("disposing cached prepared statement: {}", key.request.getSql()); //$NON-NLS-1$
+            if (s != null) {
+                close(s);
+            } else if (r != null) {
+                Lang.suppress(
+                        e -> LOG.warn("error occurred while disposing cached prepared statement", e),
+                        r::close);
+            }
+        }
+
+        private void close(PreparedStatementImpl s) {
+            Lang.suppress(
+                    e -> LOG.warn("error occurred while disposing cached prepared statement", e),
+                    s::close);
+        }
+    }
+
+    /**
+     * A handle of the cached statement.
+     */
+    private final class Lease implements FutureResponse<PreparedStatement> {
+
+        private final Entry entry;
+
+        private final AtomicReference<PreparedStatementImpl> result = new AtomicReference<>();
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        Lease(Entry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public boolean isDone() {
+            return result.get() != null || entry.isDone();
+        }
+
+        @Override
+        public PreparedStatement get() throws IOException, ServerException, InterruptedException {
+            try {
+                return get(0, null);
+            } catch (TimeoutException e) {
+                throw new AssertionError(e);
+            }
+        }
+
+        @Override
+        public PreparedStatement get(long timeout, TimeUnit unit)
+                throws IOException, ServerException, InterruptedException, TimeoutException {
+            var leased = result.get();
+            if (leased != null) {
+                return leased;
+            }
+            PreparedStatementImpl statement;
+            try {
+                statement = entry.get(timeout, unit);
+            } catch (IOException | ServerException | RuntimeException e) {
+                release();
+                throw e;
+            }
+            result.compareAndSet(null, new PreparedStatementImpl(
+                    statement.handle,
+                    null,
+                    resource -> release(),
+                    entry.key.request));
+            return result.get();
+        }
+
+        @Override
+        public void close() {
+            if (result.get() == null) {
+                release();
+            }
+        }
+
+        private void release() {
+            if (!released.getAndSet(true)) {
+                PreparedStatementCache.this.release(entry);
+            }
+        }
+    }
+}
@@ -71,14 +71,18 @@ public class PreparedStatementImpl implements PreparedStatement {
     @Override
     public void close() throws IOException, ServerException, InterruptedException {
         if (!closed.getAndSet(true) && service != null) {
-            try (var futureResponse = service.send(SqlRequest.DisposePreparedStatement.newBuilder().setPreparedStatementHandle(handle).build())) {
-                if (timeout == 0) {
-                    futureResponse.get();
-                } else {
-                    futureResponse.get(timeout, unit);
+            var futureResponse = service.send(SqlRequest.DisposePreparedStatement.newBuilder().setPreparedStatementHandle(handle).build());
+            // the service waits for the disposal on behalf of this if possible
+            if (!service.deferDisposal(futureResponse)) {
+                try (futureResponse) {
+                    if (timeout == 0) {
+                        futureResponse.get();
+                    } else {
+                        futureResponse.get(timeout, unit);
+                    }
+                } catch (TimeoutException e) {
+                    LOG.warn("closing resource is timeout", e);
                 }
-            } catch (TimeoutException e) {
-                LOG.warn("closing resource is timeout", e);
             }
         }
         if (closeHandler != null) {
@@ -100,6 +104,11 @@ public class PreparedStatementImpl implements PreparedStatement {
         return handle;
     }
 
+    // the request origin of this statement, or null if it is not known
+    SqlRequest.Prepare getRequest() {
+        return request;
+    }
+
     // for diagnostic
     String diagnosticInfo() {
         if (!closed.get()) {
@@ -0,0 +1,563 @@
+package com.tsurugidb.tsubakuro.sql.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.text.MessageFormat;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.tsurugidb.sql.proto.SqlCommon;
+import com.tsurugidb.sql.proto.SqlRequest;
+import com.tsurugidb.tsubakuro.exception.ServerException;
+import com.tsurugidb.tsubakuro.sql.PreparedStatement;
+import com.tsurugidb.tsubakuro.sql.RelationCursor;
+import com.tsurugidb.tsubakuro.sql.ResultSet;
+import com.tsurugidb.tsubakuro.sql.ResultSetMetadata;
+import com.tsurugidb.tsubakuro.sql.Transaction;
+import com.tsurugidb.tsubakuro.sql.io.BrokenRelationException;
+import com.tsurugidb.tsubakuro.sql.io.ByteBufferBackedValueInput;
+import com.tsurugidb.tsubakuro.sql.io.StreamBackedValueOutput;
+import com.tsurugidb.tsubakuro.sql.io.ValueOutput;
+import com.tsurugidb.tsubakuro.util.FutureResponse;
+
+/**
+ * An opt-in cache of query results, which are keyed by the SQL text and its parameters.
+ * <p>
+ * {@link #executeQuery(Transaction, String)} and its variants return a replay of the cached result set
+ * if it is available, or execute the query on the given transaction otherwise.
+ * The fresh result set is read fully while {@link FutureResponse#get()}, and then it is stored into this cache
+ * as the encoded relation bytes.
+ * </p>
+ * <p>
+ * This cache never observes updates on the database, so that it is only suitable for read-only queries
+ * over rarely changed tables, like reference data or configurations.
+ * Entries are expired after the time-to-live has passed, and you can also evict them explicitly
+ * by {@link #invalidate(String)}, {@link #invalidate(PreparedStatement)} or {@link #invalidateAll()}.
+ * If the total size of cached relation data exceeds the limit, the least recently used entries are evicted.
+ * </p>
+ * <p>
+ * Results of prepared statements are keyed by their SQL text and place-holders rather than the statement handles,
+ * because the server may reuse the handles after the statements are disposed.
+ * Prepared statements whose SQL text is not known are keyed by their handles, so that you must invalidate
+ * their results by {@link #invalidate(PreparedStatement)} before they are closed.
+ * Result sets which contain arrays, rows or user defined types are never cached.
+ * </p>
+ */
+@ThreadSafe
+public class QueryResultCache {
+
+    static final Logger LOG = LoggerFactory.getLogger(QueryResultCache.class);
+
+    /**
+     * The default maximum total size of cached relation data in bytes.
+     */
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    /**
+     * The default time-to-live of cached entries in milliseconds.
+     */
+    public static final long DEFAULT_TIME_TO_LIVE_MILLIS = 60_000L;
+
+    private final long maxBytes;
+
+    private final long timeToLiveNanos;
+
+    // in access order, guarded by this
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    // guarded by this
+    private long totalBytes = 0;
+
+    // incremented on each invalidation, guarded by this
+    private long generation = 0;
+
+    /**
+     * Creates a new instance with the default capacity and time-to-live.
+     * @see #DEFAULT_MAX_BYTES
+     * @see #DEFAULT_TIME_TO_LIVE_MILLIS
+     */
+    public QueryResultCache() {
+        this(DEFAULT_MAX_BYTES, DEFAULT_TIME_TO_LIVE_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Creates a new instance.
+     * @param maxBytes the maximum total size of cached relation data in bytes
+     * @param timeToLive the time-to-live of cached entries
+     * @param unit the time unit of {@code timeToLive}
+     * @throws IllegalArgumentException if maxBytes or timeToLive is not positive
+     */
+    public QueryResultCache(long maxBytes, long timeToLive, @Nonnull TimeUnit unit) {
+        Objects.requireNonNull(unit);
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException(MessageFormat.format(
+                    "maxBytes must be positive: {0}",
+                    maxBytes));
+        }
+        if (timeToLive <= 0) {
+            throw new IllegalArgumentException(MessageFormat.format(
+                    "timeToLive must be positive: {0}",
+                    timeToLive));
+        }
+        this.maxBytes = maxBytes;
+        this.timeToLiveNanos = unit.toNanos(timeToLive);
+    }
+
+    /**
+     * Returns the number of cached result sets.
+     * @return the number of cached result sets
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the total size of cached relation data.
+     * @return the total size in bytes
+     */
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * Executes a SQL statement and retrieve its result, or returns the cached one.
+     * @param transaction the transaction to execute the statement if the result is not cached
+     * @param source the SQL statement text
+     * @return a future response of the result set
+     * @throws IOException if I/O error was occurred while sending request
+     * @see Transaction#executeQuery(String)
+     */
+    public FutureResponse<ResultSet> executeQuery(
+            @Nonnull Transaction transaction,
+            @Nonnull String source) throws IOException {
+        Objects.requireNonNull(transaction);
+        Objects.requireNonNull(source);
+        var key = new Key(source, List.of());
+        var cached = find(key);
+        if (cached != null) {
+            return cached;
+        }
+        return load(key, () -> transaction.executeQuery(source));
+    }
+
+    /**
+     * Executes a prepared statement and retrieve its result, or returns the cached one.
+     * @param transaction the transaction to execute the statement if the result is not cached
+     * @param statement the prepared statement to execute
+     * @param parameters parameter list for place-holders in the prepared statement
+     * @return a future response of the result set
+     * @throws IOException if I/O error was occurred while sending request
+     * @see Transaction#executeQuery(PreparedStatement, SqlRequest.Parameter...)
+     */
+    public FutureResponse<ResultSet> executeQuery(
+            @Nonnull Transaction transaction,
+            @Nonnull PreparedStatement statement,
+            @Nonnull SqlRequest.Parameter... parameters) throws IOException {
+        Objects.requireNonNull(parameters);
+        return executeQuery(transaction, statement, Arrays.asList(parameters));
+    }
+
+    /**
+     * Executes a prepared statement and retrieve its result, or returns the cached one.
+     * @param transaction the transaction to execute the statement if the result is not cached
+     * @param statement the prepared statement to execute
+     * @param parameters parameter list for place-holders in the prepared statement
+     * @return a future response of the result set
+     * @throws IOException if I/O error was occurred while sending request
+     * @see Transaction#executeQuery(PreparedStatement, Collection)
+     */
+    public FutureResponse<ResultSet> executeQuery(
+            @Nonnull Transaction transaction,
+            @Nonnull PreparedStatement statement,
+            @Nonnull Collection<? extends SqlRequest.Parameter> parameters) throws IOException {
+        Objects.requireNonNull(transaction);
+        Objects.requireNonNull(statement);
+        Objects.requireNonNull(parameters);
+        var key = new Key(keyOf(statement), List.copyOf(parameters));
+        var cached = find(key);
+        if (cached != null) {
+            return cached;
+        }
+        return load(key, () -> transaction.executeQuery(statement, key.parameters));
+    }
+
+    /**
+     * Evicts the cached results of the given SQL statement text, including the prepared statements of the text.
+     * @param source the SQL statement text
+     */
+    public void invalidate(@Nonnull String source) {
+        Objects.requireNonNull(source);
+        invalidateStatement(statement -> statement.equals(source)
+                || statement instanceof SqlRequest.Prepare && ((SqlRequest.Prepare) statement).getSql().equals(source));
+    }
+
+    /**
+     * Evicts the cached results of the given prepared statement.
+     * <p>
+     * This also evicts the results of the other prepared statements which have the same SQL text and place-holders.
+     * </p>
+     * @param statement the prepared statement
+     */
+    public void invalidate(@Nonnull PreparedStatement statement) {
+        Objects.requireNonNull(statement);
+        var key = keyOf(statement);
+        invalidateStatement(key::equals);
+    }
+
+    /**
+     * Evicts all cached results.
+     */
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+        totalBytes = 0;
+    }
+
+    private synchronized void invalidateStatement(Predicate<Object> matcher) {
+        generation++;
+        for (var iter = entries.values().iterator(); iter.hasNext();) {
+            var entry = iter.next();
+            if (matcher.test(entry.key.statement)) {
+                iter.remove();
+                totalBytes -= entry.data.length;
+            }
+        }
+    }
+
+    private static Object keyOf(PreparedStatement statement) {
+        if (statement instanceof PreparedStatementImpl) {
+            var impl = (PreparedStatementImpl) statement;
+            // the handle may be reused for another statement after it was disposed
+            var request = impl.getRequest();
+            if (request != null) {
+                return request;
+            }
+            return impl.handle;
+        }
+        return statement;
+    }
+
+    private FutureResponse<ResultSet> find(Key key) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (System.nanoTime() - entry.expiration >= 0) {
+                entries.remove(key);
+                totalBytes -= entry.data.length;
+                return null;
+            }
+        }
+        LOG.trace("query result cache hit: {}", key.statement); //$NON-NLS-1$
+        return FutureResponse.returns(entry.open());
+    }
+
+    @FunctionalInterface
+    private interface Query {
+        FutureResponse<ResultSet> execute() throws IOException;
+    }
+
+    private FutureResponse<ResultSet> load(Key key, Query query) throws IOException {
+        LOG.trace("query result cache miss: {}", key.statement); //$NON-NLS-1$
+        long startGeneration;
+        synchronized (this) {
+            startGeneration = generation;
+        }
+        return new Loading(key, startGeneration, query.execute());
+    }
+
+    private void store(Key key, long startGeneration, ResultSetMetadata metadata, byte[] data) {
+        if (data.length > maxBytes) {
+            LOG.trace("query result is too large to cache: {} bytes", data.length); //$NON-NLS-1$
+            return;
+        }
+        var entry = new Entry(key, metadata, data, System.nanoTime() + timeToLiveNanos);
+        synchronized (this) {
+            // the result may be stale if it was invalidated while loading
+            if (generation != startGeneration) {
+                return;
+            }
+            var old = entries.put(key, entry);
+            if (old != null) {
+                totalBytes -= old.data.length;
+            }
+            totalBytes += data.length;
+            for (var iter = entries.values().iterator(); totalBytes > maxBytes && iter.hasNext();) {
+                var victim = iter.next();
+                iter.remove();
+                totalBytes -= victim.data.length;
+            }
+        }
+    }
+
+    private static boolean isCacheable(ResultSetMetadata metadata) {
+        for (var column : metadata.getColumns()) {
+            if (column.getTypeInfoCase() != SqlCommon.Column.TypeInfoCase.ATOM_TYPE
+                    || column.getDimension() != 0) {
+                return false;
+            }
+            switch (column.getAtomType()) {
+            case BOOLEAN:
+            case INT4:
+            case INT8:
+            case FLOAT4:
+            case FLOAT8:
+            case DECIMAL:
+            case CHARACTER:
+            case OCTET:
+            case BIT:
+            case DATE:
+            case TIME_OF_DAY:
+            case TIME_POINT:
+            case DATETIME_INTERVAL:
+            case TIME_OF_DAY_WITH_TIME_ZONE:
+            case TIME_POINT_WITH_TIME_ZONE:
+                break;
+            default:
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static byte[] encode(ResultSetMetadata metadata, RelationCursor cursor)
+            throws IOException, ServerException, InterruptedException {
+        var columns = metadata.getColumns();
+        var buffer = new ByteArrayOutputStream();
+        try (var output = new StreamBackedValueOutput(buffer)) {
+            while (cursor.nextRow()) {
+                output.writeRowBegin(columns.size());
+                for (var column : columns) {
+                    if (!cursor.nextColumn()) {
+                        throw BrokenRelationException.sawUnexpectedEndOfContents();
+                    }
+                    copy(column.getAtomType(), cursor, output);
+                }
+            }
+            output.writeEndOfContents();
+        }
+        return buffer.toByteArray();
+    }
+
+    private static void copy(SqlCommon.AtomType type, RelationCursor cursor, ValueOutput output)
+            throws IOException, ServerException, InterruptedException {
+        if (cursor.isNull()) {
+            output.writeNull();
+            return;
+        }
+        switch (type) {
+        case BOOLEAN:
+            output.writeInt(cursor.fetchBooleanValue() ? 1 : 0);
+            break;
+        case INT4:
+            output.writeInt(cursor.fetchInt4Value());
+            break;
+        case INT8:
+            output.writeInt(cursor.fetchInt8Value());
+            break;
+        case FLOAT4:
+            output.writeFloat4(cursor.fetchFloat4Value());
+            break;
+        case FLOAT8:
+            output.writeFloat8(cursor.fetchFloat8Value());
+            break;
+        case DECIMAL:
+            output.writeDecimal(cursor.fetchDecimalValue());
+            break;
+        case CHARACTER:
+            output.writeCharacter(cursor.fetchCharacterValue());
+            break;
+        case OCTET:
+            output.writeOctet(cursor.fetchOctetValue());
+            break;
+        case BIT:
+            output.writeBit(cursor.fetchBitValue());
+            break;
+        case DATE:
+            output.writeDate(cursor.fetchDateValue());
+            break;
+        case TIME_OF_DAY:
+            output.writeTimeOfDay(cursor.fetchTimeOfDayValue());
+            break;
+        case TIME_POINT:
+            output.writeTimePoint(cursor.fetchTimePointValue());
+            break;
+        case DATETIME_INTERVAL:
+            output.writeDateTimeInterval(cursor.fetchDateTimeIntervalValue());
+            break;
+        case TIME_OF_DAY_WITH_TIME_ZONE:
+            output.writeTimeOfDayWithTimeZone(cursor.fetchTimeOfDayWithTimeZoneValue());
+            break;
+        case TIME_POINT_WITH_TIME_ZONE:
+            output.writeTimePointWithTimeZone(cursor.fetchTimePointWithTimeZoneValue());
+            break;
+        default:
+            throw new AssertionError(type);
+        }
+    }
+
+    private static final class Key {
+
+        // SQL text, Prepare request, handle of the prepared statement, or the prepared statement object
+        final Object statement;
+
+        final List<SqlRequest.Parameter> parameters;
+
+        Key(Object statement, List<SqlRequest.Parameter> parameters) {
+            this.statement = statement;
+            this.parameters = parameters;
+        }
+
+        @Override
+        public int hashCode() {
+            return statement.hashCode() * 31 + parameters.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            var other = (Key) obj;
+            return statement.equals(other.statement) && parameters.equals(other.parameters);
+        }
+    }
+
+    /**
+     * A cached result set.
+     */
+    private static final class Entry {
+
+        final Key key;
+
+        final ResultSetMetadata metadata;
+
+        final byte[] data;
+
+        final long expiration;
+
+        Entry(Key key, ResultSetMetadata metadata, byte[] data, long expiration) {
+            this.key = key;
+            this.metadata = metadata;
+            this.data = data;
+            this.expiration = expiration;
+        }
+
+        ResultSet open() {
+            return new Replay(metadata, data);
+        }
+    }
+
+    /**
+     * A result set which replays the cached relation data.
+     */
+    private static final class Replay extends ValueInputBackedRelationCursor implements ResultSet {
+
+        private final ResultSetMetadata metadata;
+
+        Replay(ResultSetMetadata metadata, byte[] data) {
+            super(new ByteBufferBackedValueInput(ByteBuffer.wrap(data).asReadOnlyBuffer()));
+            this.metadata = metadata;
+        }
+
+        @Override
+        public ResultSetMetadata getMetadata() {
+            return metadata;
+        }
+    }
+
+    /**
+     * A future response which stores the fresh result set into the cache.
+     */
+    private final class Loading implements FutureResponse<ResultSet> {
+
+        private final Key key;
+
+        private final long startGeneration;
+
+        private final FutureResponse<ResultSet> delegate;
+
+        private final AtomicReference<ResultSet> result = new AtomicReference<>();
+
+        Loading(Key key, long startGeneration, FutureResponse<ResultSet> delegate) {
+            this.key = key;
+            this.startGeneration = startGeneration;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public boolean isDone() {
+            return result.get() != null || delegate.isDone();
+        }
+
+        @Override
+        public ResultSet get() throws IOException, ServerException, InterruptedException {
+            var loaded = result.get();
+            if (loaded != null) {
+                return loaded;
+            }
+            return load(delegate.get());
+        }
+
+        @Override
+        public ResultSet get(long timeout, TimeUnit unit)
+                throws IOException, ServerException, InterruptedException, TimeoutException {
+            var loaded = result.get();
+            if (loaded != null) {
+                return loaded;
+            }
+            return load(delegate.get(timeout, unit));
+        }
+
+        private synchronized ResultSet load(ResultSet rs) throws IOException, ServerException, InterruptedException {
+            var loaded = result.get();
+            if (loaded != null) {
+                return loaded;
+            }
+            var metadata = rs.getMetadata();
+            if (!isCacheable(metadata)) {
+                result.set(rs);
+                return rs;
+            }
+            byte[] data;
+            try (rs) {
+                data = encode(metadata, rs);
+            }
+            store(key, startGeneration, metadata, data);
+            var replay = new Replay(metadata, data);
+            result.set(replay);
+            return replay;
+        }
+
+        @Override
+        public void close() throws IOException, ServerException, InterruptedException {
+            if (result.get() == null) {
+                delegate.close();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return String.valueOf(delegate);
+        }
+    }
+}
@@ -2,12 +2,14 @@ package com.tsurugidb.tsubakuro.sql.impl;
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.OffsetDateTime;
 import java.time.OffsetTime;
 import java.util.Objects;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -22,9 +24,12 @@ import com.google.protobuf.Message;
 import com.tsurugidb.tsubakuro.channel.common.connection.wire.Response;
 import com.tsurugidb.tsubakuro.exception.ResponseTimeoutException;
 import com.tsurugidb.tsubakuro.exception.ServerException;
+import com.tsurugidb.tsubakuro.sql.RelationBatch;
+import com.tsurugidb.tsubakuro.sql.RelationBatchReader;
 import com.tsurugidb.tsubakuro.sql.RelationCursor;
 import com.tsurugidb.tsubakuro.sql.ResultSet;
 import com.tsurugidb.tsubakuro.sql.ResultSetMetadata;
+import com.tsurugidb.tsubakuro.sql.io.ByteBuilder;
 import com.tsurugidb.tsubakuro.sql.io.DateTimeInterval;
 import com.tsurugidb.tsubakuro.util.Lang;
 import com.tsurugidb.tsubakuro.util.ServerResource;
@@ -147,6 +152,75 @@ public class ResultSetImpl implements ResultSet {
         }
     }
 
+    @Override
+    public synchronized int nextBatch(@Nonnull RelationBatch batch, int maxRows)
+            throws IOException, ServerException, InterruptedException {
+        checkResponse();
+        try {
+            int rows = cursor.nextBatch(batch, maxRows);
+            if (rows > 0) {
+                return rows;
+            }
+            // check main response whether to finish the request normally
+            if (tested.compareAndSet(false, true)) {
+                try {
+                    tester.test(response, timeout, unit);
+                } catch (TimeoutException e) {
+                    throw new ResponseTimeoutException(e);
+                }
+            }
+            return 0;
+        } catch (IOException | ServerException e) {
+            checkResponse(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public synchronized RelationBatchReader openBatchReader(
+            @Nonnull Executor executor, int parallelism, @Nonnull RelationBatchReader.Order order)
+            throws IOException, ServerException, InterruptedException {
+        checkResponse();
+        RelationBatchReader reader;
+        try {
+            reader = cursor.openBatchReader(executor, parallelism, order);
+        } catch (IOException | ServerException e) {
+            checkResponse(e);
+            throw e;
+        }
+        return new RelationBatchReader() {
+            @Override
+            public RelationBatch next() throws IOException, ServerException, InterruptedException {
+                synchronized (ResultSetImpl.this) {
+                    checkResponse();
+                    try {
+                        var batch = reader.next();
+                        if (batch != null) {
+                            return batch;
+                        }
+                        // check main response whether to finish the request normally
+                        if (tested.compareAndSet(false, true)) {
+                            try {
+                                tester.test(response, timeout, unit);
+                            } catch (TimeoutException e) {
+                                throw new ResponseTimeoutException(e);
+                            }
+                        }
+                        return null;
+                    } catch (IOException | ServerException e) {
+                        checkResponse(e);
+                        throw e;
+                    }
+                }
+            }
+
+            @Override
+            public void close() throws IOException, InterruptedException {
+                reader.close();
+            }
+        };
+    }
+
     @Override
     public synchronized boolean nextColumn() throws IOException, ServerException, InterruptedException {
             checkResponse();
@@ -251,6 +325,52 @@ public class ResultSetImpl implements ResultSet {
         }
     }
 
+    @Override
+    public synchronized ByteBuffer fetchCharacterBytes() throws IOException, ServerException, InterruptedException {
+        checkResponse();
+        try {
+            return cursor.fetchCharacterBytes();
+        } catch (IOException | ServerException e) {
+            checkResponse(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public synchronized ByteBuilder fetchCharacterBytes(@Nonnull ByteBuilder buffer)
+            throws IOException, ServerException, InterruptedException {
+        checkResponse();
+        try {
+            return cursor.fetchCharacterBytes(buffer);
+        } catch (IOException | ServerException e) {
+            checkResponse(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public synchronized ByteBuffer fetchOctetBytes() throws IOException, ServerException, InterruptedException {
+        checkResponse();
+        try {
+            return cursor.fetchOctetBytes();
+        } catch (IOException | ServerException e) {
+            checkResponse(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public synchronized ByteBuilder fetchOctetBytes(@Nonnull ByteBuilder buffer)
+            throws IOException, ServerException, InterruptedException {
+        checkResponse();
+        try {
+            return cursor.fetchOctetBytes(buffer);
+        } catch (IOException | ServerException e) {
+            checkResponse(e);
+            throw e;
+        }
+    }
+
     @Override
     public synchronized boolean[] fetchBitValue() throws IOException, ServerException, InterruptedException {
         checkResponse();
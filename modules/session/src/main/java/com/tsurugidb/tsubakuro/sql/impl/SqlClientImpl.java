@@ -7,6 +7,7 @@ import java.util.Objects;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import com.tsurugidb.sql.proto.SqlRequest;
 import com.tsurugidb.tsubakuro.common.Session;
@@ -28,16 +29,29 @@ public class SqlClientImpl implements SqlClient {
 
     private final SqlService service;
 
+    private final PreparedStatementCache statementCache;
+
     /**
      * Attaches to the datastore service in the current session.
      * @param session the current session
      * @return the datastore service client
      */
     public static SqlClientImpl attach(@Nonnull Session session) {
+        return attach(session, null);
+    }
+
+    /**
+     * Attaches to the datastore service in the current session.
+     * @param session the current session
+     * @param statementCache the prepared statement cache, or {@code null} to disable caching
+     * @return the datastore service client
+     * @see PreparedStatementCache
+     */
+    public static SqlClientImpl attach(@Nonnull Session session, @Nullable PreparedStatementCache statementCache) {
         Objects.requireNonNull(session);
         var service = new SqlServiceStub(session);
         session.put(service);
-        return new SqlClientImpl(service);
+        return new SqlClientImpl(service, statementCache);
     }
 
     /**
@@ -45,8 +59,22 @@ public class SqlClientImpl implements SqlClient {
      * @param service the service stub
      */
     public SqlClientImpl(@Nonnull SqlService service) {
+        this(service, null);
+    }
+
+    /**
+     * Creates a new instance.
+     * <p>
+     * The statement cache may be shared with the other clients, and it is not closed by this client.
+     * Instead, this client evicts its own statements from the cache when it is closed.
+     * </p>
+     * @param service the service stub
+     * @param statementCache the prepared statement cache, or {@code null} to disable caching
+     */
+    public SqlClientImpl(@Nonnull SqlService service, @Nullable PreparedStatementCache statementCache) {
         Objects.requireNonNull(service);
         this.service = service;
+        this.statementCache = statementCache;
     }
 
     @Override
@@ -69,6 +97,9 @@ public class SqlClientImpl implements SqlClient {
                 .setSql(source)
                 .addAllPlaceholders(placeholders)
                 .build();
+        if (statementCache != null) {
+            return statementCache.prepare(service, resuest);
+        }
         return service.send(resuest);
     }
 
@@ -126,6 +157,9 @@ public class SqlClientImpl implements SqlClient {
     @Override
     public void close() throws ServerException, IOException, InterruptedException {
         // FIXME close underlying resources (e.g. ongoing transactions)
+        if (statementCache != null) {
+            statementCache.invalidate(service);
+        }
         if (service != null) {
             service.close();
         }
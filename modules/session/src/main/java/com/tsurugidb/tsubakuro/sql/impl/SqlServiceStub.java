@@ -1,13 +1,10 @@
 package com.tsurugidb.tsubakuro.sql.impl;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.text.MessageFormat;
 import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
@@ -18,16 +15,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.protobuf.Message;
+import com.google.protobuf.MessageLite;
 import com.tsurugidb.sql.proto.SqlRequest;
 import com.tsurugidb.sql.proto.SqlResponse;
 import com.tsurugidb.sql.proto.SqlError;
 import com.tsurugidb.tsubakuro.channel.common.connection.wire.MainResponseProcessor;
-import com.tsurugidb.tsubakuro.channel.common.connection.wire.Response;
-import com.tsurugidb.tsubakuro.channel.common.connection.wire.impl.ChannelResponse;
 import com.tsurugidb.tsubakuro.common.Session;
 import com.tsurugidb.tsubakuro.exception.BrokenResponseException;
-import com.tsurugidb.tsubakuro.exception.ResponseTimeoutException;
 import com.tsurugidb.tsubakuro.exception.ServerException;
+import com.tsurugidb.tsubakuro.sql.ParameterBinder;
 import com.tsurugidb.tsubakuro.sql.PreparedStatement;
 import com.tsurugidb.tsubakuro.sql.ResultSet;
 import com.tsurugidb.tsubakuro.sql.SearchPath;
@@ -38,10 +34,9 @@ import com.tsurugidb.tsubakuro.sql.StatementMetadata;
 import com.tsurugidb.tsubakuro.sql.TableList;
 import com.tsurugidb.tsubakuro.sql.TableMetadata;
 import com.tsurugidb.tsubakuro.sql.Transaction;
-import com.tsurugidb.tsubakuro.sql.io.StreamBackedValueInput;
 import com.tsurugidb.tsubakuro.util.ByteBufferInputStream;
 import com.tsurugidb.tsubakuro.util.FutureResponse;
-import com.tsurugidb.tsubakuro.util.Owner;
+import com.tsurugidb.tsubakuro.util.Messages;
 import com.tsurugidb.tsubakuro.util.ServerResource;
 import com.tsurugidb.tsubakuro.util.ServerResourceHolder;
 import com.tsurugidb.tsubakuro.util.Timeout;
@@ -79,6 +74,9 @@ public class SqlServiceStub implements SqlService {
         Objects.requireNonNull(session);
         this.session = session;
         this.closeTimeout = session.getCloseTimeout();
+        if (closeTimeout != null) {
+            resources.setCloseTimeout(closeTimeout);
+        }
     }
 
     // just avoid programming error
@@ -472,23 +470,39 @@ public class SqlServiceStub implements SqlService {
                 new ExecuteProcessor().asResponseProcessor());
     }
 
+    @Override
+    public FutureResponse<Void> send(
+            @Nonnull SqlRequest.ExecutePreparedStatement request,
+            @Nonnull ParameterBinder parameters) throws IOException {
+        Objects.requireNonNull(request);
+        Objects.requireNonNull(parameters);
+        LOG.trace("send (execute prepared statement): {}, {}", request, parameters); //$NON-NLS-1$
+        return session.send(
+                SERVICE_ID,
+                toDelimitedByteArray(
+                        SqlRequest.Request.EXECUTE_PREPARED_STATEMENT_FIELD_NUMBER,
+                        request,
+                        SqlRequest.ExecutePreparedStatement.PARAMETERS_FIELD_NUMBER,
+                        parameters),
+                new ExecuteProcessor().asResponseProcessor());
+    }
+
     class QueryProcessor extends AbstractResultSetProcessor<SqlResponse.Response> {
-        Message request;
 
         QueryProcessor(Message request) {
-            super(resources);
-            this.request = request;
+            super(resources, request);
         }
 
         @Override
-        SqlResponse.Response parse(@Nonnull ByteBuffer payload) throws IOException {
+        protected SqlResponse.Response parse(@Nonnull ByteBuffer payload) throws IOException {
             var message = SqlResponse.Response.parseDelimitedFrom(new ByteBufferInputStream(payload));
             LOG.trace("receive (execute query bodyhead): {}", message); //$NON-NLS-1$
             return message;
         }
 
         @Override
-        void doTest(@Nonnull SqlResponse.Response message) throws IOException, ServerException, InterruptedException {
+        protected void doTest(@Nonnull SqlResponse.Response message)
+                throws IOException, ServerException, InterruptedException {
             if (SqlResponse.Response.ResponseCase.RESULT_ONLY.equals(message.getResponseCase())) {
                 var detailResponse = message.getResultOnly();
                 if (SqlResponse.ResultOnly.ResultCase.ERROR.equals(detailResponse.getResultCase())) {
@@ -501,59 +515,19 @@ public class SqlServiceStub implements SqlService {
         }
 
         @Override
-        public ResultSet process(Response response, Timeout timeout) throws IOException, ServerException, InterruptedException {
-            Objects.requireNonNull(response);
-            try (
-                var owner = Owner.of(response);
-            ) {
-                InputStream metadataInput;
-                ResultSetMetadataAdapter metadata = null;
-                while (true) {
-                    Timeout timeoutHere = null;
-                    if (timeout.value() > 0) {
-                        timeoutHere = timeout;
-                    } else if (closeTimeout != null) {
-                        if (closeTimeout.value() > 0) {
-                            timeoutHere = closeTimeout;
-                        }
-                    }
-                    if (timeoutHere != null) {
-                        try {
-                            metadataInput = response.openSubResponse(ChannelResponse.METADATA_CHANNEL_ID, timeoutHere.value(), timeoutHere.unit());
-                        } catch (TimeoutException e) {
-                            throw new ResponseTimeoutException(e);
-                        }
-                    } else {
-                        metadataInput = response.openSubResponse(ChannelResponse.METADATA_CHANNEL_ID);
-                    }
-                    if (metadataInput != null) {
-                        try {
-                            metadata = new ResultSetMetadataAdapter(SqlResponse.ResultSetMetadata.parseFrom(metadataInput));
-                        } finally {
-                            metadataInput.close();
-                        }
-                        break;
-                    }
-                    if (response.isMainResponseReady()) {
-                        test(response);
-                    }
-                }
-                var dataInput = response.openSubResponse(ChannelResponse.RELATION_CHANNEL_ID);
-                SqlServiceStub.LOG.trace("result set metadata: {}", metadata); //$NON-NLS-1$
-                var cursor = new ValueInputBackedRelationCursor(new StreamBackedValueInput(dataInput));
-                String resultSetName = "";
-                if (response instanceof ChannelResponse) {
-                    resultSetName = ((ChannelResponse) response).resultSetName();
-                }
-                var resultSetImpl = new ResultSetImpl(resources, metadata, cursor, owner.release(), this, resultSetName, request);
-                resultSetImpl.setCloseTimeout(closeTimeout);
-                synchronized (resources) {
-                    if (resourcesClosed) {
-                        resultSetImpl.close();
-                        throw new IOException("session already closed");
-                    }
-                    return resources.register(resultSetImpl);
+        protected Timeout getCloseTimeout() {
+            return closeTimeout;
+        }
+
+        @Override
+        protected ResultSet register(@Nonnull ResultSetImpl resultSet)
+                throws IOException, ServerException, InterruptedException {
+            synchronized (resources) {
+                if (resourcesClosed) {
+                    resultSet.close();
+                    throw new IOException("session already closed");
                 }
+                return resources.register(resultSet);
             }
         }
 
@@ -596,6 +570,23 @@ public class SqlServiceStub implements SqlService {
 //                true);
     }
 
+    @Override
+    public FutureResponse<ResultSet> send(
+            @Nonnull SqlRequest.ExecutePreparedQuery request,
+            @Nonnull ParameterBinder parameters) throws IOException {
+        Objects.requireNonNull(request);
+        Objects.requireNonNull(parameters);
+        LOG.trace("send (execute prepared query): {}, {}", request, parameters); //$NON-NLS-1$
+        return session.send(
+                SERVICE_ID,
+                toDelimitedByteArray(
+                        SqlRequest.Request.EXECUTE_PREPARED_QUERY_FIELD_NUMBER,
+                        request,
+                        SqlRequest.ExecutePreparedQuery.PARAMETERS_FIELD_NUMBER,
+                        parameters),
+                new QueryProcessor(request));
+    }
+
     static class BatchProcessor implements MainResponseProcessor<Void> {
         private final AtomicReference<SqlResponse.Batch> detailResponseCache = new AtomicReference<>();
 
@@ -632,6 +623,24 @@ public class SqlServiceStub implements SqlService {
                 new BatchProcessor().asResponseProcessor());
     }
 
+    @Override
+    public FutureResponse<Void> send(
+            @Nonnull SqlRequest.Batch request,
+            @Nonnull ParameterBinder parameters) throws IOException {
+        Objects.requireNonNull(request);
+        Objects.requireNonNull(parameters);
+        LOG.trace("send (batch): {}, {}", request, parameters); //$NON-NLS-1$
+        int field = SqlRequest.Batch.PARAMETER_SETS_FIELD_NUMBER;
+        return session.send(
+                SERVICE_ID,
+                Messages.toDelimitedByteArray(
+                        SqlRequest.Request.BATCH_FIELD_NUMBER,
+                        request,
+                        parameters.getBatchSerializedSize(field),
+                        output -> parameters.writeBatchTo(output, field)),
+                new BatchProcessor().asResponseProcessor());
+    }
+
     @Override
     public FutureResponse<ResultSet> send(
             @Nonnull SqlRequest.ExecuteDump request) throws IOException {
@@ -866,6 +875,18 @@ public class SqlServiceStub implements SqlService {
         }
     }
 
+    @Override
+    public boolean deferDisposal(@Nonnull FutureResponse<Void> response) {
+        Objects.requireNonNull(response);
+        synchronized (resources) {
+            if (resourcesClosed) {
+                return false;
+            }
+            resources.addDisposal(response);
+            return true;
+        }
+    }
+
     @Override
     public void setCloseTimeout(Timeout timeout) {
         closeTimeout = timeout;
@@ -883,10 +904,20 @@ public class SqlServiceStub implements SqlService {
     }
 
     private byte[] toDelimitedByteArray(SqlRequest.Request request) throws IOException {
-        try (var buffer = new ByteArrayOutputStream()) {
-            request.writeDelimitedTo(buffer);
-            return buffer.toByteArray();
-        }
+        return Messages.toDelimitedByteArray(request);
+    }
+
+    // builds a delimited Request, whose only field is the given request followed by the parameters
+    private static byte[] toDelimitedByteArray(
+            int requestField,
+            @Nonnull MessageLite request,
+            int parametersField,
+            @Nonnull ParameterBinder parameters) throws IOException {
+        return Messages.toDelimitedByteArray(
+                requestField,
+                request,
+                parameters.getSerializedSize(parametersField),
+                output -> parameters.writeTo(output, parametersField));
     }
 
     // for diagnostic
@@ -20,6 +20,7 @@ import com.tsurugidb.sql.proto.SqlRequest;
 import com.tsurugidb.sql.proto.SqlResponse;
 import com.tsurugidb.tsubakuro.exception.ResponseTimeoutException;
 import com.tsurugidb.tsubakuro.exception.ServerException;
+import com.tsurugidb.tsubakuro.sql.ParameterBinder;
 import com.tsurugidb.tsubakuro.sql.PreparedStatement;
 import com.tsurugidb.tsubakuro.sql.ResultSet;
 import com.tsurugidb.tsubakuro.sql.SqlService;
@@ -123,6 +124,36 @@ public class TransactionImpl implements Transaction {
         return service.send(pb.build());
     }
 
+    @Override
+    public FutureResponse<Void> executeStatement(
+            @Nonnull PreparedStatement statement,
+            @Nonnull ParameterBinder parameters) throws IOException {
+        Objects.requireNonNull(statement);
+        Objects.requireNonNull(parameters);
+        if (cleanuped.get()) {
+            throw new IOException("transaction already closed");
+        }
+        return service.send(SqlRequest.ExecutePreparedStatement.newBuilder()
+                .setTransactionHandle(transaction.getTransactionHandle())
+                .setPreparedStatementHandle(((PreparedStatementImpl) statement).getHandle())
+                .build(), parameters);
+    }
+
+    @Override
+    public FutureResponse<ResultSet> executeQuery(
+            @Nonnull PreparedStatement statement,
+            @Nonnull ParameterBinder parameters) throws IOException {
+        Objects.requireNonNull(statement);
+        Objects.requireNonNull(parameters);
+        if (cleanuped.get()) {
+            throw new IOException("transaction already closed");
+        }
+        return service.send(SqlRequest.ExecutePreparedQuery.newBuilder()
+                .setTransactionHandle(transaction.getTransactionHandle())
+                .setPreparedStatementHandle(((PreparedStatementImpl) statement).getHandle())
+                .build(), parameters);
+    }
+
     @Override
     public FutureResponse<ResultSet> executeDump(@Nonnull String source, @Nonnull Path directory) throws IOException {
         Objects.requireNonNull(source);
@@ -153,6 +184,21 @@ public class TransactionImpl implements Transaction {
         return service.send(request);
     }
 
+    @Override
+    public FutureResponse<Void> batch(
+            @Nonnull PreparedStatement statement,
+            @Nonnull ParameterBinder parameters) throws IOException {
+        Objects.requireNonNull(statement);
+        Objects.requireNonNull(parameters);
+        if (cleanuped.get()) {
+            throw new IOException("transaction already closed");
+        }
+        return service.send(SqlRequest.Batch.newBuilder()
+                .setTransactionHandle(transaction.getTransactionHandle())
+                .setPreparedStatementHandle(((PreparedStatementImpl) statement).getHandle())
+                .build(), parameters);
+    }
+
     @Override
     public FutureResponse<ResultSet> executeDump(
             @Nonnull PreparedStatement statement,
@@ -287,17 +333,21 @@ public class TransactionImpl implements Transaction {
                             () -> closeHandler.onClosed(this));
                 }
                 if (needDispose) {
-                    try (var futureResponse = service.send(SqlRequest.DisposeTransaction.newBuilder()
+                    var futureResponse = service.send(SqlRequest.DisposeTransaction.newBuilder()
                             .setTransactionHandle(transaction.getTransactionHandle())
-                            .build())) {
-                        if (timeout == 0) {
-                            futureResponse.get();
-                        } else {
-                            futureResponse.get(timeout, unit);
+                            .build());
+                    // the service waits for the disposal on behalf of this if possible
+                    if (!service.deferDisposal(futureResponse)) {
+                        try (futureResponse) {
+                            if (timeout == 0) {
+                                futureResponse.get();
+                            } else {
+                                futureResponse.get(timeout, unit);
+                            }
+                        } catch (TimeoutException e) {
+                            LOG.warn("timeout occurred in the transaction disposal", e);
+                            throw new ResponseTimeoutException(e.getMessage(), e);
                         }
-                    } catch (TimeoutException e) {
-                        LOG.warn("timeout occurred in the transaction disposal", e);
-                        throw new ResponseTimeoutException(e.getMessage(), e);
                     }
                 }
             }
@@ -2,6 +2,8 @@ package com.tsurugidb.tsubakuro.sql.impl;
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.text.MessageFormat;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.LocalDateTime;
@@ -11,14 +13,20 @@ import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 import javax.annotation.Nonnull;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.tsurugidb.tsubakuro.sql.ColumnVector;
+import com.tsurugidb.tsubakuro.sql.RelationBatch;
+import com.tsurugidb.tsubakuro.sql.RelationBatchReader;
 import com.tsurugidb.tsubakuro.sql.RelationCursor;
 import com.tsurugidb.tsubakuro.sql.io.BrokenRelationException;
+import com.tsurugidb.tsubakuro.sql.io.ByteBufferBackedValueInput;
+import com.tsurugidb.tsubakuro.sql.io.ByteBuilder;
 import com.tsurugidb.tsubakuro.sql.io.DateTimeInterval;
 import com.tsurugidb.tsubakuro.sql.io.EntryType;
 import com.tsurugidb.tsubakuro.sql.io.ValueInput;
@@ -34,6 +42,8 @@ public class ValueInputBackedRelationCursor implements RelationCursor {
     private static final Set<EntryType> DECIMAL_EXPECTED_TYPES =
             EnumSet.of(EntryType.DECIMAL, EntryType.INT);
 
+    private static final int MAX_RESERVED_BATCH_ROWS = 1024;
+
     static final Logger LOG = LoggerFactory.getLogger(ValueInputBackedRelationCursor.class);
 
     private final ValueInput input;
@@ -42,6 +52,16 @@ public class ValueInputBackedRelationCursor implements RelationCursor {
 
     private EntryType currentColumnType = null;
 
+    private boolean started = false;
+
+    private final ByteBuilder byteBuilder = new ByteBuilder();
+
+    private final ByteBuilder valueBuilder = new ByteBuilder();
+
+    private byte[] valueViewSource;
+
+    private ByteBuffer valueView;
+
     /**
      * Creates a new instance.
      * @param input the source input
@@ -53,6 +73,7 @@ public class ValueInputBackedRelationCursor implements RelationCursor {
 
     @Override
     public boolean nextRow() throws IOException, InterruptedException {
+        started = true;
         discardTopLevelRow();
         EntryType type = input.peekType();
         if (type == EntryType.END_OF_CONTENTS) {
@@ -206,6 +227,45 @@ public class ValueInputBackedRelationCursor implements RelationCursor {
         return value;
     }
 
+    @Override
+    public ByteBuffer fetchCharacterBytes() throws IOException, InterruptedException {
+        return viewOf(fetchCharacterBytes(valueBuilder));
+    }
+
+    @Override
+    public ByteBuilder fetchCharacterBytes(@Nonnull ByteBuilder buffer) throws IOException, InterruptedException {
+        Objects.requireNonNull(buffer);
+        requireColumnType(EntryType.CHARACTER);
+        input.readCharacter(buffer);
+        columnConsumed();
+        return buffer;
+    }
+
+    @Override
+    public ByteBuffer fetchOctetBytes() throws IOException, InterruptedException {
+        return viewOf(fetchOctetBytes(valueBuilder));
+    }
+
+    @Override
+    public ByteBuilder fetchOctetBytes(@Nonnull ByteBuilder buffer) throws IOException, InterruptedException {
+        Objects.requireNonNull(buffer);
+        requireColumnType(EntryType.OCTET);
+        input.readOctet(buffer);
+        columnConsumed();
+        return buffer;
+    }
+
+    private ByteBuffer viewOf(ByteBuilder buffer) {
+        // reuses the view while the builder keeps its backing array
+        byte[] data = buffer.getData();
+        if (valueView == null || valueViewSource != data) {
+            valueViewSource = data;
+            valueView = ByteBuffer.wrap(data).asReadOnlyBuffer();
+        }
+        valueView.clear().limit(buffer.getSize());
+        return valueView;
+    }
+
     @Override
     public boolean[] fetchBitValue() throws IOException, InterruptedException {
         requireColumnType(EntryType.BIT);
@@ -300,6 +360,125 @@ public class ValueInputBackedRelationCursor implements RelationCursor {
         discardCurrentFrame();
     }
 
+    @Override
+    public int nextBatch(@Nonnull RelationBatch batch, int maxRows) throws IOException, InterruptedException {
+        Objects.requireNonNull(batch);
+        if (maxRows <= 0) {
+            throw new IllegalArgumentException(MessageFormat.format(
+                    "maxRows must be positive: {0}",
+                    maxRows));
+        }
+        started = true;
+        discardTopLevelRow();
+        batch.clear();
+        int rows = 0;
+        while (rows < maxRows) {
+            EntryType type = input.peekType();
+            if (type == EntryType.END_OF_CONTENTS) {
+                break;
+            }
+            if (type != EntryType.ROW) {
+                throw BrokenRelationException.sawUnexpectedValueType(type, TOPLEVEL_EXPECTED_TYPES);
+            }
+            int columns = input.readRowBegin();
+            batch.beginRow(columns, Math.min(maxRows, MAX_RESERVED_BATCH_ROWS));
+            for (int i = 0; i < columns; i++) {
+                readColumn(batch.getColumn(i));
+            }
+            batch.endRow();
+            rows++;
+        }
+        return rows;
+    }
+
+    @Override
+    public RelationBatchReader openBatchReader(
+            @Nonnull Executor executor, int parallelism, @Nonnull RelationBatchReader.Order order)
+            throws IOException, InterruptedException {
+        Objects.requireNonNull(executor);
+        Objects.requireNonNull(order);
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException(MessageFormat.format(
+                    "parallelism must be positive: {0}",
+                    parallelism));
+        }
+        if (started) {
+            throw new IllegalStateException("rows have been already retrieved from the cursor");
+        }
+        started = true;
+        if (input instanceof ByteBufferBackedValueInput) {
+            var source = ((ByteBufferBackedValueInput) input).getSource();
+            if (source != null && source.isSegmented()) {
+                LOG.trace("decoding relation segments in parallel: {}", parallelism); //$NON-NLS-1$
+                return new ParallelRelationBatchReader(source, executor, parallelism, order);
+            }
+        }
+        return () -> {
+            var batch = new RelationBatch();
+            if (nextBatch(batch, DEFAULT_BATCH_ROWS) == 0) {
+                return null;
+            }
+            return batch;
+        };
+    }
+
+    private void readColumn(ColumnVector column) throws IOException, InterruptedException {
+        EntryType type = input.peekType();
+        switch (type) {
+        case NULL:
+            input.readNull();
+            column.addNull();
+            break;
+        case INT:
+            column.addInt(input.readInt());
+            break;
+        case FLOAT4:
+            column.addFloat4(input.readFloat4());
+            break;
+        case FLOAT8:
+            column.addFloat8(input.readFloat8());
+            break;
+        case CHARACTER:
+            input.readCharacter(byteBuilder);
+            column.addBytes(type, byteBuilder.getData(), 0, byteBuilder.getSize());
+            break;
+        case OCTET:
+            input.readOctet(byteBuilder);
+            column.addBytes(type, byteBuilder.getData(), 0, byteBuilder.getSize());
+            break;
+        case DECIMAL:
+            column.addObject(type, input.readDecimal());
+            break;
+        case BIT:
+            column.addObject(type, input.readBit());
+            break;
+        case DATE:
+            column.addObject(type, input.readDate());
+            break;
+        case TIME_OF_DAY:
+            column.addObject(type, input.readTimeOfDay());
+            break;
+        case TIME_POINT:
+            column.addObject(type, input.readTimePoint());
+            break;
+        case TIME_OF_DAY_WITH_TIME_ZONE:
+            column.addObject(type, input.readTimeOfDayWithTimeZone());
+            break;
+        case TIME_POINT_WITH_TIME_ZONE:
+            column.addObject(type, input.readTimePointWithTimeZone());
+            break;
+        case DATETIME_INTERVAL:
+            column.addObject(type, input.readDateTimeInterval());
+            break;
+        case END_OF_CONTENTS:
+            throw BrokenRelationException.sawUnexpectedEndOfContents();
+        default:
+            throw new UnsupportedOperationException(MessageFormat.format(
+                    "{0} values are not supported in batches",
+                    type));
+        }
+    }
+
     @Override
     public void close() throws IOException, InterruptedException {
         input.close();
@@ -0,0 +1,196 @@
+package com.tsurugidb.tsubakuro.sql.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.tsurugidb.tsubakuro.channel.common.connection.sql.ResultSetWire.ByteBufferBackedInput;
+
+/**
+ * {@link ValueInput} which directly decodes the {@link ByteBuffer} chunks.
+ * <p>
+ * This is equivalent to {@link StreamBackedValueInput}, but reads the chunks of {@link ByteBufferBackedInput}
+ * without going through {@link java.io.InputStream} methods. Values split across chunk boundaries are also
+ * available.
+ * Each chunk is read through its duplicate, so that the position and byte order of the source chunks are
+ * never changed.
+ * </p>
+ * @see StreamBackedValueInput
+ */
+@NotThreadSafe
+public class ByteBufferBackedValueInput extends AbstractValueInput {
+
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+    // the maximum length of Base128Variant
+    private static final int MAX_VARIANT_SIZE = 9;
+
+    private final ByteBufferBackedInput chunks;
+
+    private ByteBuffer buffer;
+
+    /**
+     * Creates a new instance.
+     * @param input the source input
+     */
+    public ByteBufferBackedValueInput(@Nonnull ByteBufferBackedInput input) {
+        Objects.requireNonNull(input);
+        this.chunks = input;
+        this.buffer = prepare(input.currentChunk());
+    }
+
+    /**
+     * Creates a new instance which reads a single buffer.
+     * @param buffer the source buffer, from its position to the limit
+     */
+    public ByteBufferBackedValueInput(@Nonnull ByteBuffer buffer) {
+        Objects.requireNonNull(buffer);
+        this.chunks = null;
+        this.buffer = prepare(buffer);
+    }
+
+    /**
+     * Returns the source chunks of this input.
+     * @return the source chunks, or {@code null} if this input reads a single buffer
+     */
+    public @Nullable ByteBufferBackedInput getSource() {
+        return chunks;
+    }
+
+    private static ByteBuffer prepare(@Nullable ByteBuffer chunk) {
+        if (chunk == null) {
+            return EMPTY;
+        }
+        // the duplicate is always in big endian
+        return chunk.duplicate();
+    }
+
+    /**
+     * Advances to the next non-empty chunk.
+     * @return {@code true} if the next chunk is available, or {@code false} if there are no more chunks
+     */
+    private boolean nextChunk() {
+        while (!buffer.hasRemaining()) {
+            if (chunks == null || !chunks.nextChunk()) {
+                buffer = EMPTY;
+                return false;
+            }
+            buffer = prepare(chunks.currentChunk());
+        }
+        return true;
+    }
+
+    @Override
+    int read() {
+        if (buffer.hasRemaining() || nextChunk()) {
+            return buffer.get() & 0xff;
+        }
+        return -1;
+    }
+
+    private int readByte() throws IOException {
+        int c = read();
+        if (c < 0) {
+            throw BrokenEncodingException.sawUnexpectedEof();
+        }
+        return c;
+    }
+
+    @Override
+    String readString(int size) throws IOException {
+        if (buffer.hasArray() && buffer.remaining() >= size) {
+            // decode directly from the chunk
+            int position = buffer.position();
+            var s = new String(buffer.array(), buffer.arrayOffset() + position, size, StandardCharsets.UTF_8);
+            buffer.position(position + size);
+            return s;
+        }
+        return super.readString(size);
+    }
+
+    @Override
+    int read4() throws IOException {
+        if (buffer.remaining() >= Integer.BYTES) {
+            return buffer.getInt();
+        }
+        return super.read4();
+    }
+
+    @Override
+    long read8() throws IOException {
+        if (buffer.remaining() >= Long.BYTES) {
+            return buffer.getLong();
+        }
+        return super.read8();
+    }
+
+    @Override
+    void readN(byte[] buf, int offset, int length) throws IOException {
+        int rest = length;
+        int position = offset;
+        while (rest > 0) {
+            if (!buffer.hasRemaining() && !nextChunk()) {
+                throw BrokenEncodingException.sawUnexpectedEof();
+            }
+            int count = Math.min(rest, buffer.remaining());
+            buffer.get(buf, position, count);
+            position += count;
+            rest -= count;
+        }
+    }
+
+    @Override
+    void skipN(int length) throws IOException {
+        int rest = length;
+        while (rest > 0) {
+            if (!buffer.hasRemaining() && !nextChunk()) {
+                throw BrokenEncodingException.sawUnexpectedEof();
+            }
+            int count = Math.min(rest, buffer.remaining());
+            buffer.position(buffer.position() + count);
+            rest -= count;
+        }
+    }
+
+    // same as Base128Variant.readUnsigned()
+    @Override
+    long readUnsigned() throws IOException {
+        var buf = buffer;
+        if (buf.remaining() >= MAX_VARIANT_SIZE) {
+            // never crosses the chunk boundary
+            long result = 0;
+            for (int i = 0; i < 8; i++) {
+                int c = buf.get();
+                result |= (long) (c & 0x7f) << (i * 7);
+                if ((c & 0x80) == 0) {
+                    return result;
+                }
+            }
+            result |= (long) (buf.get() & 0xff) << 56;
+            return result;
+        }
+        long result = 0;
+        for (int i = 0; i < 8; i++) {
+            int c = readByte();
+            result |= (long) (c & 0x7f) << (i * 7);
+            if ((c & 0x80) == 0) {
+                return result;
+            }
+        }
+        result |= (long) readByte() << 56;
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer = EMPTY;
+        if (chunks != null) {
+            chunks.close();
+        }
+    }
+}
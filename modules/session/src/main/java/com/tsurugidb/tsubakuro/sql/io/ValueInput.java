@@ -2,11 +2,13 @@ package com.tsurugidb.tsubakuro.sql.io;
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.LocalDateTime;
 import java.time.OffsetTime;
 import java.time.OffsetDateTime;
+import java.util.Objects;
 
 import javax.annotation.Nonnull;
 
@@ -115,6 +117,23 @@ public interface ValueInput extends AutoCloseable {
      */
     StringBuilder readCharacter(@Nonnull StringBuilder buffer) throws IOException, InterruptedException;
 
+    /**
+     * Reads the next {@link EntryType#CHARACTER} entry and put its UTF-8 encoded contents to the buffer.
+     * @param buffer the target buffer
+     * @return the passed buffer
+     * @throws IOException if I/O error was occurred while reading the contents
+     * @throws InterruptedException if interrupted while reading the contents
+     * @throws IllegalStateException if the next entry is inconsistent value type
+     * @see #peekType()
+     */
+    default ByteBuilder readCharacter(@Nonnull ByteBuilder buffer) throws IOException, InterruptedException {
+        Objects.requireNonNull(buffer);
+        byte[] bytes = readCharacter().getBytes(StandardCharsets.UTF_8);
+        buffer.setSize(bytes.length, false);
+        System.arraycopy(bytes, 0, buffer.getData(), 0, bytes.length);
+        return buffer;
+    }
+
     /**
      * Reads the next {@link EntryType#OCTET} entry.
      * @return the value
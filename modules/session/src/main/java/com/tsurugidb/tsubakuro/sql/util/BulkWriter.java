@@ -0,0 +1,511 @@
+package com.tsurugidb.tsubakuro.sql.util;
+
+import java.io.IOException;
+import java.text.MessageFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.protobuf.CodedOutputStream;
+import com.tsurugidb.sql.proto.SqlRequest;
+import com.tsurugidb.tsubakuro.exception.ServerException;
+import com.tsurugidb.tsubakuro.sql.ParameterBinder;
+import com.tsurugidb.tsubakuro.sql.PreparedStatement;
+import com.tsurugidb.tsubakuro.sql.Transaction;
+import com.tsurugidb.tsubakuro.util.FutureResponse;
+
+/**
+ * Writes rows into a table incrementally, by using {@link Transaction#batch(PreparedStatement, Collection)}.
+ * <p>
+ * The added rows are split into chunks, each of which is bounded by the estimated request size and the number of
+ * rows, and each chunk is submitted as a {@code Batch} request.
+ * This keeps at most {@link #getMaxInflightChunks()} chunks in flight, and waits for the oldest one before
+ * submitting more, so that the client need not hold the entire rows in memory.
+ * </p>
+ * <p>
+ * Rows added via {@link #add(ParameterBinder)} are serialized into the batch of the binder, without building
+ * {@link com.tsurugidb.sql.proto.SqlRequest.Parameter Parameter} objects for the individual rows.
+ * </p>
+ * <p>
+ * If any chunk was failed, the following operations of this object raise the same error.
+ * Please close this object to wait for the all submitted chunks.
+ * If the thread was interrupted while waiting for a chunk, the chunks in flight are cancelled and this writer
+ * fails. The cancelled chunks are disposed after their responses arrive, without blocking the interrupted thread.
+ * Closing this object does not close the transaction nor the prepared statement.
+ * </p>
+ * <pre>
+ * var binder = new ParameterBinder(List.of("k", "v"));
+ * try (var writer = new BulkWriter(transaction, statement)) {
+ *     for (var row : rows) {
+ *         writer.add(binder.setLong(0, row.key()).setString(1, row.value()));
+ *     }
+ * }
+ * transaction.commit().await();
+ * </pre>
+ */
+@NotThreadSafe
+public class BulkWriter implements AutoCloseable {
+
+    static final Logger LOG = LoggerFactory.getLogger(BulkWriter.class);
+
+    /**
+     * The default maximum estimated size of each chunk, in bytes.
+     */
+    public static final int DEFAULT_MAX_CHUNK_BYTES = 1024 * 1024;
+
+    /**
+     * The default maximum number of rows in each chunk.
+     */
+    public static final int DEFAULT_MAX_CHUNK_ROWS = 10_000;
+
+    /**
+     * The default maximum number of chunks in flight.
+     */
+    public static final int DEFAULT_MAX_INFLIGHT_CHUNKS = 4;
+
+    private final Transaction transaction;
+
+    private final PreparedStatement statement;
+
+    private final int maxChunkBytes;
+
+    private final int maxChunkRows;
+
+    private final int maxInflightChunks;
+
+    private final Consumer<? super ChunkResult> listener;
+
+    private final ArrayDeque<Chunk> inflight = new ArrayDeque<>();
+
+    private List<Collection<? extends SqlRequest.Parameter>> rows = new ArrayList<>();
+
+    // the binder whose batch holds the buffered rows instead of rows, or null
+    private ParameterBinder binder;
+
+    private long rowsBytes = 0;
+
+    private long chunkCount = 0;
+
+    private long rowCount = 0;
+
+    private Exception failure;
+
+    private boolean closed = false;
+
+    /**
+     * The result of an individual chunk.
+     */
+    public static final class ChunkResult {
+
+        private final long index;
+
+        private final long firstRow;
+
+        private final int rowCount;
+
+        private final Exception exception;
+
+        ChunkResult(long index, long firstRow, int rowCount, @Nullable Exception exception) {
+            this.index = index;
+            this.firstRow = firstRow;
+            this.rowCount = rowCount;
+            this.exception = exception;
+        }
+
+        /**
+         * Returns the 0-origin index of the chunk.
+         * @return the chunk index
+         */
+        public long getIndex() {
+            return index;
+        }
+
+        /**
+         * Returns the 0-origin index of the first row in the chunk.
+         * @return the first row index
+         */
+        public long getFirstRow() {
+            return firstRow;
+        }
+
+        /**
+         * Returns the number of rows in the chunk.
+         * @return the number of rows
+         */
+        public int getRowCount() {
+            return rowCount;
+        }
+
+        /**
+         * Returns whether or not the chunk was successfully written.
+         * @return {@code true} if it was successfully written, otherwise {@code false}
+         */
+        public boolean isSuccessful() {
+            return exception == null;
+        }
+
+        /**
+         * Returns the occurred error.
+         * @return the occurred error, or {@code null} if the chunk was successfully written
+         */
+        public @Nullable Exception getException() {
+            return exception;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "ChunkResult(index=%s, firstRow=%s, rowCount=%s, exception=%s)", //$NON-NLS-1$
+                    index,
+                    firstRow,
+                    rowCount,
+                    exception);
+        }
+    }
+
+    private static final class Chunk {
+
+        final long index;
+
+        final long firstRow;
+
+        final int rowCount;
+
+        final FutureResponse<Void> response;
+
+        Chunk(long index, long firstRow, int rowCount, FutureResponse<Void> response) {
+            this.index = index;
+            this.firstRow = firstRow;
+            this.rowCount = rowCount;
+            this.response = response;
+        }
+    }
+
+    /**
+     * Creates a new instance with the default settings.
+     * @param transaction the transaction to write rows
+     * @param statement the prepared statement to execute for each row, like {@code INSERT}
+     */
+    public BulkWriter(@Nonnull Transaction transaction, @Nonnull PreparedStatement statement) {
+        this(transaction, statement,
+                DEFAULT_MAX_CHUNK_BYTES, DEFAULT_MAX_CHUNK_ROWS, DEFAULT_MAX_INFLIGHT_CHUNKS,
+                null);
+    }
+
+    /**
+     * Creates a new instance.
+     * @param transaction the transaction to write rows
+     * @param statement the prepared statement to execute for each row, like {@code INSERT}
+     * @param maxChunkBytes the maximum estimated size of each chunk, in bytes
+     * @param maxChunkRows the maximum number of rows in each chunk
+     * @param maxInflightChunks the maximum number of chunks in flight
+     * @param listener the listener which receives results of the individual chunks, or {@code null} to ignore them
+     * @throws IllegalArgumentException if the any limits are not positive
+     */
+    public BulkWriter(
+            @Nonnull Transaction transaction,
+            @Nonnull PreparedStatement statement,
+            int maxChunkBytes,
+            int maxChunkRows,
+            int maxInflightChunks,
+            @Nullable Consumer<? super ChunkResult> listener) {
+        Objects.requireNonNull(transaction);
+        Objects.requireNonNull(statement);
+        checkPositive("maxChunkBytes", maxChunkBytes); //$NON-NLS-1$
+        checkPositive("maxChunkRows", maxChunkRows); //$NON-NLS-1$
+        checkPositive("maxInflightChunks", maxInflightChunks); //$NON-NLS-1$
+        this.transaction = transaction;
+        this.statement = statement;
+        this.maxChunkBytes = maxChunkBytes;
+        this.maxChunkRows = maxChunkRows;
+        this.maxInflightChunks = maxInflightChunks;
+        this.listener = listener;
+    }
+
+    private static void checkPositive(String name, int value) {
+        if (value <= 0) {
+            throw new IllegalArgumentException(MessageFormat.format(
+                    "{0} must be positive: {1}",
+                    name,
+                    value));
+        }
+    }
+
+    /**
+     * Returns the maximum number of chunks in flight.
+     * @return the maximum number of chunks in flight
+     */
+    public int getMaxInflightChunks() {
+        return maxInflightChunks;
+    }
+
+    /**
+     * Returns the number of rows which have been added to this writer.
+     * @return the number of added rows
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Returns the number of chunks which have been submitted.
+     * @return the number of submitted chunks
+     */
+    public long getChunkCount() {
+        return chunkCount;
+    }
+
+    /**
+     * Adds a row.
+     * <p>
+     * This may submit the buffered rows, and may wait for the previous chunks.
+     * </p>
+     * @param row the parameters for the row
+     * @throws IOException if I/O error was occurred while submitting the rows
+     * @throws ServerException if server error was occurred while writing the previous rows
+     * @throws InterruptedException if interrupted while waiting for the previous rows
+     * @throws IllegalStateException if this writer is already closed
+     */
+    public void add(@Nonnull Collection<? extends SqlRequest.Parameter> row)
+            throws IOException, ServerException, InterruptedException {
+        Objects.requireNonNull(row);
+        checkOpen();
+        checkFailure();
+        if (binder != null) {
+            flush();
+        }
+        long size = estimateSize(row);
+        if (!rows.isEmpty() && rowsBytes + size > maxChunkBytes) {
+            flush();
+        }
+        rows.add(row);
+        rowsBytes += size;
+        rowCount++;
+        if (rows.size() >= maxChunkRows || rowsBytes >= maxChunkBytes) {
+            flush();
+        }
+    }
+
+    /**
+     * Adds a row of the current values in the binder.
+     * <p>
+     * The row is serialized into the batch of the binder immediately, so that the binder can be overwritten for
+     * the next row. The batch of the binder must not be modified until the row is submitted, and it is cleared
+     * after submitted.
+     * This may submit the buffered rows, and may wait for the previous chunks.
+     * </p>
+     * @param row the binder which holds the parameters for the row
+     * @throws IOException if I/O error was occurred while submitting the rows
+     * @throws ServerException if server error was occurred while writing the previous rows
+     * @throws InterruptedException if interrupted while waiting for the previous rows
+     * @throws IllegalStateException if this writer is already closed, or some place-holders are not bound
+     * @throws IllegalArgumentException if the binder has other batched rows
+     * @see ParameterBinder#addBatch()
+     */
+    public void add(@Nonnull ParameterBinder row) throws IOException, ServerException, InterruptedException {
+        Objects.requireNonNull(row);
+        checkOpen();
+        checkFailure();
+        if (binder != row) {
+            flush();
+            if (row.getBatchCount() != 0) {
+                throw new IllegalArgumentException(MessageFormat.format(
+                        "parameter binder already has batched rows: {0}",
+                        row.getBatchCount()));
+            }
+        }
+        long size = estimateSize(row);
+        if (binder != null && rowsBytes + size > maxChunkBytes) {
+            flush();
+        }
+        row.addBatch();
+        binder = row;
+        rowsBytes += size;
+        rowCount++;
+        if (row.getBatchCount() >= maxChunkRows || rowsBytes >= maxChunkBytes) {
+            flush();
+        }
+    }
+
+    /**
+     * Adds a row.
+     * @param row the parameters for the row
+     * @throws IOException if I/O error was occurred while submitting the rows
+     * @throws ServerException if server error was occurred while writing the previous rows
+     * @throws InterruptedException if interrupted while waiting for the previous rows
+     * @throws IllegalStateException if this writer is already closed
+     * @see #add(Collection)
+     */
+    public void add(@Nonnull SqlRequest.Parameter... row) throws IOException, ServerException, InterruptedException {
+        Objects.requireNonNull(row);
+        add(Arrays.asList(row));
+    }
+
+    /**
+     * Submits the buffered rows as a chunk, without waiting for its completion.
+     * <p>
+     * If there are already too many chunks in flight, this waits for the oldest ones.
+     * </p>
+     * @throws IOException if I/O error was occurred while submitting the rows
+     * @throws ServerException if server error was occurred while writing the previous rows
+     * @throws InterruptedException if interrupted while waiting for the previous rows
+     * @throws IllegalStateException if this writer is already closed
+     */
+    public void flush() throws IOException, ServerException, InterruptedException {
+        checkOpen();
+        checkFailure();
+        if (rows.isEmpty() && binder == null) {
+            return;
+        }
+        while (inflight.size() >= maxInflightChunks) {
+            complete(inflight.poll());
+            checkFailure();
+        }
+        rowsBytes = 0;
+        int chunkRowCount;
+        FutureResponse<Void> response;
+        if (binder != null) {
+            var chunkBinder = binder;
+            binder = null;
+            chunkRowCount = chunkBinder.getBatchCount();
+            LOG.trace("submitting bulk write chunk: index={}, rows={}", chunkCount, chunkRowCount); //$NON-NLS-1$
+            try {
+                response = transaction.batch(statement, chunkBinder);
+            } finally {
+                chunkBinder.clearBatch();
+            }
+        } else {
+            var chunkRows = rows;
+            rows = new ArrayList<>();
+            chunkRowCount = chunkRows.size();
+            LOG.trace("submitting bulk write chunk: index={}, rows={}", chunkCount, chunkRowCount); //$NON-NLS-1$
+            response = transaction.batch(statement, chunkRows);
+        }
+        inflight.add(new Chunk(chunkCount, rowCount - chunkRowCount, chunkRowCount, response));
+        chunkCount++;
+    }
+
+    /**
+     * Submits the buffered rows, and then waits for the all chunks.
+     * Closing this object does not close the transaction nor the prepared statement.
+     * @throws IOException if I/O error was occurred while writing the rows
+     * @throws ServerException if server error was occurred while writing the rows
+     * @throws InterruptedException if interrupted while waiting for the rows
+     */
+    @Override
+    public void close() throws IOException, ServerException, InterruptedException {
+        if (closed) {
+            return;
+        }
+        try {
+            if (failure == null) {
+                flush();
+            }
+        } finally {
+            closed = true;
+            rows = List.of();
+            if (binder != null) {
+                binder.clearBatch();
+                binder = null;
+            }
+            while (!inflight.isEmpty()) {
+                complete(inflight.poll());
+            }
+        }
+        checkFailure();
+    }
+
+    private void complete(Chunk chunk) throws InterruptedException {
+        Exception exception = null;
+        try (var response = chunk.response) {
+            response.get();
+        } catch (IOException | ServerException e) {
+            exception = e;
+            fail(e);
+        } catch (InterruptedException e) {
+            cancel(chunk, e);
+            throw e;
+        }
+        report(chunk, exception);
+    }
+
+    // cancels the interrupted chunk and the rest chunks in flight, whose results are no longer awaited
+    private void cancel(Chunk interrupted, InterruptedException cause) {
+        var exception = new IOException(MessageFormat.format(
+                "bulk write was interrupted, the results of {0} chunk(s) are unknown",
+                inflight.size() + 1), cause);
+        fail(exception);
+        report(interrupted, exception);
+        while (!inflight.isEmpty()) {
+            var chunk = inflight.poll();
+            // closing the response waits for it, so that closes it after it has arrived instead
+            chunk.response.whenDone(() -> dispose(chunk));
+            report(chunk, exception);
+        }
+    }
+
+    private static void dispose(Chunk chunk) {
+        try {
+            chunk.response.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOG.trace("interrupted while disposing bulk write chunk: index={}", chunk.index, e); //$NON-NLS-1$
+        } catch (IOException | ServerException | RuntimeException e) {
+            LOG.trace("error occurred while disposing bulk write chunk: index={}", chunk.index, e); //$NON-NLS-1$
+        }
+    }
+
+    private void fail(Exception exception) {
+        if (failure == null) {
+            failure = exception;
+        } else if (failure != exception) {
+            failure.addSuppressed(exception);
+        }
+    }
+
+    private void report(Chunk chunk, @Nullable Exception exception) {
+        if (listener != null) {
+            listener.accept(new ChunkResult(chunk.index, chunk.firstRow, chunk.rowCount, exception));
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("bulk writer is already closed");
+        }
+    }
+
+    private void checkFailure() throws IOException, ServerException {
+        if (failure instanceof IOException) {
+            throw (IOException) failure;
+        }
+        if (failure instanceof ServerException) {
+            throw (ServerException) failure;
+        }
+    }
+
+    // estimates the size of ParameterSet in Batch request
+    private static long estimateSize(Collection<? extends SqlRequest.Parameter> row) {
+        int size = 0;
+        for (var parameter : row) {
+            size += CodedOutputStream.computeMessageSize(1, parameter);
+        }
+        return CodedOutputStream.computeUInt32Size(1, size) + size;
+    }
+
+    private static long estimateSize(ParameterBinder row) {
+        int size = row.getSerializedSize(SqlRequest.ParameterSet.ELEMENTS_FIELD_NUMBER);
+        return CodedOutputStream.computeUInt32Size(1, size) + size;
+    }
+}
@@ -3,6 +3,8 @@ package com.tsurugidb.tsubakuro.common;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.Test;
@@ -55,4 +57,34 @@ class SessionBuilderTest {
         }
     }
 
+    @Test
+    void withMaxInFlightRequests() throws Exception {
+        var requested = new ArrayList<Integer>();
+        var connector = new Connector() {
+            @Override
+            public FutureResponse<Wire> connect(Credential credential) throws IOException {
+                throw new AssertionError();
+            }
+
+            @Override
+            public boolean setMaxInFlightRequests(int n) {
+                requested.add(n);
+                return true;
+            }
+        };
+        SessionBuilder.connect(connector).withMaxInFlightRequests(8);
+        assertEquals(List.of(8), requested);
+        var builder = SessionBuilder.connect(connector);
+        assertThrows(IllegalArgumentException.class, () -> builder.withMaxInFlightRequests(0));
+    }
+
+    @Test
+    void withMaxInFlightRequestsNotSupported() throws Exception {
+        SessionBuilder.connect(new Connector() {
+            @Override
+            public FutureResponse<Wire> connect(Credential credential) throws IOException {
+                throw new AssertionError();
+            }
+        }).withMaxInFlightRequests(8);
+    }
 }
@@ -0,0 +1,156 @@
+package com.tsurugidb.tsubakuro.sql;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.protobuf.CodedOutputStream;
+import com.tsurugidb.sql.proto.SqlCommon;
+import com.tsurugidb.sql.proto.SqlRequest;
+
+class ParameterBinderTest {
+
+    private static byte[] serialize(ParameterBinder binder) throws Exception {
+        int field = SqlRequest.ExecutePreparedStatement.PARAMETERS_FIELD_NUMBER;
+        var bytes = new byte[binder.getSerializedSize(field)];
+        var output = CodedOutputStream.newInstance(bytes);
+        binder.writeTo(output, field);
+        output.checkNoSpaceLeft();
+        return bytes;
+    }
+
+    private static byte[] serialize(List<SqlRequest.Parameter> parameters) {
+        return SqlRequest.ExecutePreparedStatement.newBuilder()
+                .addAllParameters(parameters)
+                .build()
+                .toByteArray();
+    }
+
+    private static void check(ParameterBinder binder, List<SqlRequest.Parameter> expected) throws Exception {
+        assertEquals(expected, binder.toParameters());
+        assertArrayEquals(serialize(expected), serialize(binder));
+        var parsed = SqlRequest.ExecutePreparedStatement.parseFrom(serialize(binder));
+        assertEquals(expected, parsed.getParametersList());
+    }
+
+    @Test
+    void simple() throws Exception {
+        var binder = new ParameterBinder(List.of("a", "b"))
+                .setInt(0, 100)
+                .setString(1, "Hello, world!");
+        check(binder, List.of(
+                Parameters.of("a", 100),
+                Parameters.of("b", "Hello, world!")));
+    }
+
+    @Test
+    void types() throws Exception {
+        var binder = new ParameterBinder(List.of(
+                "n", "z", "i4", "i8", "f4", "f8", "c", "o", "d", "t"));
+        binder.setNull(0)
+                .setBoolean(1, true)
+                .setInt(2, -1)
+                .setLong(3, Long.MIN_VALUE)
+                .setFloat(4, 1.25f)
+                .setDouble(5, -0.5d)
+                .setString(6, "\u3042\u3044\u3046")
+                .setBytes(7, new byte[] { 1, 2, 3 })
+                .setDate(8, LocalDate.of(2000, 1, 2))
+                .setTimeOfDay(9, LocalTime.of(12, 34, 56, 789));
+        check(binder, List.of(
+                Parameters.ofNull("n"),
+                Parameters.of("z", true),
+                Parameters.of("i4", -1),
+                Parameters.of("i8", Long.MIN_VALUE),
+                Parameters.of("f4", 1.25f),
+                Parameters.of("f8", -0.5d),
+                Parameters.of("c", "\u3042\u3044\u3046"),
+                Parameters.of("o", new byte[] { 1, 2, 3 }),
+                Parameters.of("d", LocalDate.of(2000, 1, 2)),
+                Parameters.of("t", LocalTime.of(12, 34, 56, 789))));
+    }
+
+    @Test
+    void decimal() throws Exception {
+        var values = List.of(
+                new BigDecimal("0"),
+                new BigDecimal("1.00"),
+                new BigDecimal("-128"),
+                new BigDecimal("127"),
+                new BigDecimal("-129"),
+                new BigDecimal("3.14159"),
+                new BigDecimal("12345678901234567890123456789.0123456789"),
+                new BigDecimal("-1E+10"),
+                BigDecimal.valueOf(Long.MIN_VALUE),
+                BigDecimal.valueOf(Long.MAX_VALUE));
+        var binder = new ParameterBinder(List.of("p"));
+        for (var value : values) {
+            binder.setDecimal(0, value);
+            check(binder, List.of(Parameters.of("p", value)));
+        }
+        binder.setDecimal(0, -12345, 2);
+        check(binder, List.of(Parameters.of("p", new BigDecimal("-123.45"))));
+    }
+
+    @Test
+    void reuse() throws Exception {
+        var binder = ParameterBinder.of(List.of(
+                Placeholders.of("k", SqlCommon.AtomType.INT8),
+                Placeholders.of("v", SqlCommon.AtomType.CHARACTER)));
+        assertEquals(1, binder.indexOf("v"));
+        assertEquals(-1, binder.indexOf("x"));
+        for (long i = 0; i < 3; i++) {
+            binder.setLong(0, i).setString(1, "v" + i);
+            check(binder, List.of(Parameters.of("k", i), Parameters.of("v", "v" + i)));
+        }
+    }
+
+    @Test
+    void unbound() throws Exception {
+        var binder = new ParameterBinder(List.of("a", "b")).setInt(0, 1);
+        assertThrows(IllegalStateException.class, () -> binder.toParameters());
+        assertThrows(IllegalStateException.class, () -> serialize(binder));
+        binder.setNull(1).clear();
+        assertThrows(IllegalStateException.class, () -> binder.toParameters());
+        assertThrows(IndexOutOfBoundsException.class, () -> binder.setInt(2, 0));
+    }
+
+    @Test
+    void batch() throws Exception {
+        var binder = new ParameterBinder(List.of("k", "v"));
+        var expected = SqlRequest.Batch.newBuilder();
+        for (long i = 0; i < 20; i++) {
+            binder.setLong(0, i).setString(1, "v".repeat((int) i)).addBatch();
+            expected.addParameterSets(SqlRequest.ParameterSet.newBuilder()
+                    .addElements(Parameters.of("k", i))
+                    .addElements(Parameters.of("v", "v".repeat((int) i))));
+        }
+        assertEquals(20, binder.getBatchCount());
+        assertEquals(expected.getParameterSetsList(), binder.toParameterSets());
+
+        int field = SqlRequest.Batch.PARAMETER_SETS_FIELD_NUMBER;
+        var bytes = new byte[binder.getBatchSerializedSize(field)];
+        var output = CodedOutputStream.newInstance(bytes);
+        binder.writeBatchTo(output, field);
+        output.checkNoSpaceLeft();
+        assertArrayEquals(expected.build().toByteArray(), bytes);
+
+        // the current values are kept
+        assertEquals(List.of(Parameters.of("k", 19L), Parameters.of("v", "v".repeat(19))), binder.toParameters());
+        binder.clearBatch();
+        assertEquals(0, binder.getBatchCount());
+        assertEquals(0, binder.getBatchSerializedSize(field));
+        assertEquals(List.of(), binder.toParameterSets());
+
+        binder.clear();
+        assertThrows(IllegalStateException.class, () -> binder.addBatch());
+        assertEquals(0, binder.getBatchCount());
+    }
+}
@@ -0,0 +1,189 @@
+package com.tsurugidb.tsubakuro.sql.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.tsurugidb.tsubakuro.channel.common.connection.sql.ResultSetWire.ByteBufferBackedInput;
+import com.tsurugidb.tsubakuro.sql.RelationBatch;
+import com.tsurugidb.tsubakuro.sql.RelationBatchReader;
+import com.tsurugidb.tsubakuro.sql.io.BrokenRelationException;
+import com.tsurugidb.tsubakuro.sql.io.ByteBufferBackedValueInput;
+import com.tsurugidb.tsubakuro.sql.io.StreamBackedValueOutput;
+
+class ParallelRelationBatchReaderTest {
+
+    private static final class SegmentedInput extends ByteBufferBackedInput {
+
+        private final Deque<List<ByteBuffer>> segments;
+
+        private final boolean segmented;
+
+        final AtomicInteger acquired = new AtomicInteger();
+
+        final AtomicInteger released = new AtomicInteger();
+
+        SegmentedInput(List<List<ByteBuffer>> segments, boolean segmented) {
+            super(ByteBuffer.allocate(0));
+            this.segments = new ArrayDeque<>(segments);
+            this.segmented = segmented;
+        }
+
+        @Override
+        protected boolean next() {
+            var segment = segments.peek();
+            if (segment == null) {
+                return false;
+            }
+            source = segment.remove(0);
+            if (segment.isEmpty()) {
+                segments.poll();
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isSegmented() {
+            return segmented;
+        }
+
+        @Override
+        public List<ByteBuffer> nextSegment() {
+            var segment = segments.poll();
+            if (segment != null) {
+                acquired.addAndGet(segment.size());
+            }
+            return segment;
+        }
+
+        @Override
+        public void releaseChunk(ByteBuffer chunk) {
+            released.incrementAndGet();
+        }
+    }
+
+    // each segment has the given number of rows, and is split into chunks of 7 bytes
+    private static SegmentedInput input(boolean segmented, int... rowsPerSegment) throws IOException {
+        var segments = new ArrayList<List<ByteBuffer>>();
+        int value = 0;
+        for (int rows : rowsPerSegment) {
+            var buffer = new ByteArrayOutputStream();
+            try (var output = new StreamBackedValueOutput(buffer)) {
+                for (int i = 0; i < rows; i++) {
+                    output.writeRowBegin(2);
+                    output.writeInt(value);
+                    output.writeCharacter("v" + value);
+                    value++;
+                }
+            }
+            byte[] bytes = buffer.toByteArray();
+            var chunks = new ArrayList<ByteBuffer>();
+            for (int offset = 0; offset < bytes.length; offset += 7) {
+                chunks.add(ByteBuffer.wrap(Arrays.copyOfRange(bytes, offset, Math.min(offset + 7, bytes.length))));
+            }
+            segments.add(chunks);
+        }
+        return new SegmentedInput(segments, segmented);
+    }
+
+    private static List<Long> readAll(RelationBatchReader reader) throws Exception {
+        var results = new ArrayList<Long>();
+        while (true) {
+            RelationBatch batch = reader.next();
+            if (batch == null) {
+                return results;
+            }
+            assertTrue(batch.getRowCount() > 0);
+            for (int i = 0; i < batch.getRowCount(); i++) {
+                long value = batch.getColumn(0).getLong(i);
+                assertEquals("v" + value, batch.getColumn(1).getString(i));
+                results.add(value);
+            }
+        }
+    }
+
+    private static List<Long> sequence(int count) {
+        var results = new ArrayList<Long>();
+        for (long i = 0; i < count; i++) {
+            results.add(i);
+        }
+        return results;
+    }
+
+    @Test
+    void relationOrder() throws Exception {
+        var executor = Executors.newFixedThreadPool(4);
+        try {
+            var input = input(true, 10, 1, 0, 100, 5, 3);
+            var cursor = new ValueInputBackedRelationCursor(new ByteBufferBackedValueInput(input));
+            try (var reader = cursor.openBatchReader(executor, 3, RelationBatchReader.Order.RELATION)) {
+                assertTrue(reader instanceof ParallelRelationBatchReader);
+                assertEquals(sequence(119), readAll(reader));
+                assertNull(reader.next());
+            }
+            assertEquals(input.acquired.get(), input.released.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void arrivalOrder() throws Exception {
+        var executor = Executors.newFixedThreadPool(4);
+        try {
+            var input = input(true, 50, 1, 20, 7, 7, 7, 30);
+            var cursor = new ValueInputBackedRelationCursor(new ByteBufferBackedValueInput(input));
+            try (var reader = cursor.openBatchReader(executor, 4, RelationBatchReader.Order.ARRIVAL)) {
+                var results = readAll(reader);
+                results.sort(null);
+                assertEquals(sequence(122), results);
+            }
+            assertEquals(input.acquired.get(), input.released.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void brokenSegment() throws Exception {
+        var input = new SegmentedInput(List.of(new ArrayList<>(List.of(ByteBuffer.wrap(new byte[] { 0x01 })))), true);
+        var cursor = new ValueInputBackedRelationCursor(new ByteBufferBackedValueInput(input));
+        try (var reader = cursor.openBatchReader(Runnable::run, 1, RelationBatchReader.Order.RELATION)) {
+            assertThrows(BrokenRelationException.class, () -> reader.next());
+        }
+        assertEquals(1, input.released.get());
+    }
+
+    @Test
+    void notSegmented() throws Exception {
+        var input = input(false, 3, 2000);
+        var cursor = new ValueInputBackedRelationCursor(new ByteBufferBackedValueInput(input));
+        try (var reader = cursor.openBatchReader(Runnable::run, 2, RelationBatchReader.Order.RELATION)) {
+            assertEquals(sequence(2003), readAll(reader));
+        }
+        assertEquals(0, input.acquired.get());
+    }
+
+    @Test
+    void alreadyStarted() throws Exception {
+        var input = input(true, 3);
+        var cursor = new ValueInputBackedRelationCursor(new ByteBufferBackedValueInput(input));
+        assertTrue(cursor.nextRow());
+        assertThrows(IllegalStateException.class,
+                () -> cursor.openBatchReader(Runnable::run, 1, RelationBatchReader.Order.RELATION));
+    }
+}
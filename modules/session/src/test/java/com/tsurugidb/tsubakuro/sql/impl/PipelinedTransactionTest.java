@@ -0,0 +1,184 @@
+package com.tsurugidb.tsubakuro.sql.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.Test;
+
+import com.tsurugidb.sql.proto.SqlRequest;
+import com.tsurugidb.tsubakuro.exception.CoreServiceCode;
+import com.tsurugidb.tsubakuro.exception.CoreServiceException;
+import com.tsurugidb.tsubakuro.exception.ServerException;
+import com.tsurugidb.tsubakuro.sql.Transaction;
+import com.tsurugidb.tsubakuro.util.FutureResponse;
+
+class PipelinedTransactionTest {
+
+    private static class MockBegin implements FutureResponse<Transaction> {
+
+        final CompletableFuture<Transaction> future = new CompletableFuture<>();
+
+        @Override
+        public boolean isDone() {
+            return future.isDone();
+        }
+
+        @Override
+        public Transaction get() throws IOException, ServerException, InterruptedException {
+            try {
+                return future.get();
+            } catch (ExecutionException e) {
+                throw (ServerException) e.getCause();
+            }
+        }
+
+        @Override
+        public Transaction get(long timeout, TimeUnit unit)
+                throws IOException, ServerException, InterruptedException, TimeoutException {
+            try {
+                return future.get(timeout, unit);
+            } catch (ExecutionException e) {
+                throw (ServerException) e.getCause();
+            }
+        }
+
+        @Override
+        public void close() {
+            return;
+        }
+    }
+
+    private static class MockTransaction implements Transaction {
+
+        final List<String> requests = new ArrayList<>();
+
+        // "slow" request blocks until released
+        final CountDownLatch entered = new CountDownLatch(1);
+
+        final CountDownLatch released = new CountDownLatch(1);
+
+        @Override
+        public FutureResponse<Void> executeStatement(String source) throws IOException {
+            if (source.equals("slow")) {
+                entered.countDown();
+                try {
+                    released.await();
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+            }
+            synchronized (this) {
+                requests.add(source);
+            }
+            return FutureResponse.returns(null);
+        }
+
+        @Override
+        public synchronized FutureResponse<Void> commit(SqlRequest.CommitStatus status) throws IOException {
+            requests.add("COMMIT");
+            return FutureResponse.returns(null);
+        }
+
+        @Override
+        public synchronized void close() {
+            requests.add("CLOSE");
+        }
+
+        synchronized List<String> requests() {
+            return List.copyOf(requests);
+        }
+    }
+
+    @Test
+    void pipelined() throws Exception {
+        var begin = new MockBegin();
+        var mock = new MockTransaction();
+        try (var transaction = new PipelinedTransaction(begin)) {
+            var r1 = transaction.executeStatement("a");
+            var r2 = transaction.executeStatement("b");
+            var r3 = transaction.commit();
+            assertEquals(List.of(), mock.requests());
+
+            begin.future.complete(mock);
+            r3.get();
+            assertEquals(List.of("a", "b", "COMMIT"), mock.requests());
+            r1.get();
+            r2.get();
+        }
+        assertEquals(List.of("a", "b", "COMMIT", "CLOSE"), mock.requests());
+    }
+
+    @Test
+    void direct() throws Exception {
+        var begin = new MockBegin();
+        var mock = new MockTransaction();
+        begin.future.complete(mock);
+        try (var transaction = new PipelinedTransaction(begin)) {
+            transaction.executeStatement("a").get();
+            transaction.executeStatement("b");
+            assertEquals(List.of("a", "b"), mock.requests());
+        }
+    }
+
+    @Test
+    void closeWithQueued() throws Exception {
+        var begin = new MockBegin();
+        var mock = new MockTransaction();
+        var transaction = new PipelinedTransaction(begin);
+        transaction.executeStatement("a");
+        new Thread(() -> begin.future.complete(mock)).start();
+        transaction.close();
+        assertEquals(List.of("a", "CLOSE"), mock.requests());
+        assertThrows(IOException.class, () -> transaction.executeStatement("b"));
+    }
+
+    @Test
+    void beginFailure() throws Exception {
+        var begin = new MockBegin();
+        var exception = new CoreServiceException(CoreServiceCode.UNKNOWN, "intentional");
+        try (var transaction = new PipelinedTransaction(begin)) {
+            var r1 = transaction.executeStatement("a");
+            begin.future.completeExceptionally(exception);
+            var e1 = assertThrows(ServerException.class, () -> r1.get());
+            assertSame(exception, e1);
+            var r2 = transaction.executeStatement("b");
+            var e2 = assertThrows(ServerException.class, () -> r2.get());
+            assertSame(exception, e2);
+        }
+    }
+
+    @Test
+    void timeoutWhileSending() throws Exception {
+        var begin = new MockBegin();
+        var mock = new MockTransaction();
+        try (var transaction = new PipelinedTransaction(begin)) {
+            var r1 = transaction.executeStatement("slow");
+            var r2 = transaction.executeStatement("b");
+            begin.future.complete(mock);
+
+            // the background thread is sending the queued requests
+            mock.entered.await();
+            assertThrows(TimeoutException.class, () -> r2.get(10, TimeUnit.MILLISECONDS));
+
+            // the later requests must not overtake the queued ones
+            var r3 = transaction.executeStatement("c");
+            mock.released.countDown();
+            r3.get();
+            r1.get();
+            r2.get();
+            assertEquals(List.of("slow", "b", "c"), mock.requests());
+        }
+        assertEquals(List.of("slow", "b", "c", "CLOSE"), mock.requests());
+    }
+}
@@ -0,0 +1,212 @@
+package com.tsurugidb.tsubakuro.sql.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.Test;
+
+import com.tsurugidb.sql.proto.SqlCommon;
+import com.tsurugidb.sql.proto.SqlRequest;
+import com.tsurugidb.tsubakuro.exception.ServerException;
+import com.tsurugidb.tsubakuro.sql.PreparedStatement;
+import com.tsurugidb.tsubakuro.sql.SqlService;
+import com.tsurugidb.tsubakuro.util.FutureResponse;
+
+class PreparedStatementCacheTest {
+
+    private static class MockService implements SqlService {
+
+        final List<String> prepared = new ArrayList<>();
+
+        final List<Long> disposed = new ArrayList<>();
+
+        @Override
+        public FutureResponse<PreparedStatement> send(SqlRequest.Prepare request) throws IOException {
+            prepared.add(request.getSql());
+            var handle = SqlCommon.PreparedStatement.newBuilder()
+                    .setHandle(prepared.size())
+                    .build();
+            return FutureResponse.returns(new PreparedStatementImpl(handle, this, null, request));
+        }
+
+        @Override
+        public FutureResponse<Void> send(SqlRequest.DisposePreparedStatement request) throws IOException {
+            disposed.add(request.getPreparedStatementHandle().getHandle());
+            return FutureResponse.returns(null);
+        }
+    }
+
+    private static SqlRequest.Prepare request(String sql) {
+        return SqlRequest.Prepare.newBuilder()
+                .setSql(sql)
+                .build();
+    }
+
+    private static long handle(PreparedStatement statement) throws IOException {
+        return ((PreparedStatementImpl) statement).getHandle().getHandle();
+    }
+
+    @Test
+    void hit() throws Exception {
+        var service = new MockService();
+        try (var cache = new PreparedStatementCache()) {
+            var a = cache.prepare(service, request("a")).get();
+            var b = cache.prepare(service, request("a")).get();
+            assertNotSame(a, b);
+            assertEquals(handle(a), handle(b));
+            assertEquals(List.of("a"), service.prepared);
+
+            a.close();
+            b.close();
+            assertEquals(List.of(), service.disposed);
+            assertThrows(IOException.class, () -> handle(a));
+
+            try (var c = cache.prepare(service, request("a")).get()) {
+                assertEquals(1, handle(c));
+            }
+            assertEquals(List.of("a"), service.prepared);
+        }
+        assertEquals(List.of(1L), service.disposed);
+    }
+
+    @Test
+    void evict() throws Exception {
+        var service = new MockService();
+        try (var cache = new PreparedStatementCache(2)) {
+            cache.prepare(service, request("a")).get().close();
+            var b = cache.prepare(service, request("b")).get();
+            cache.prepare(service, request("a")).get().close();
+
+            // evicts "b" but it is still in use
+            cache.prepare(service, request("c")).get().close();
+            assertEquals(2, cache.size());
+            assertEquals(List.of(), service.disposed);
+            assertEquals(2, handle(b));
+            b.close();
+            b.close();
+            assertEquals(List.of(2L), service.disposed);
+
+            // evicts "a"
+            cache.prepare(service, request("b")).get().close();
+            assertEquals(List.of(2L, 1L), service.disposed);
+            assertEquals(List.of("a", "b", "c", "b"), service.prepared);
+        }
+        assertEquals(List.of(2L, 1L, 3L, 4L), service.disposed);
+    }
+
+    @Test
+    void closeBeforeGet() throws Exception {
+        var service = new MockService();
+        var cache = new PreparedStatementCache(1);
+        cache.prepare(service, request("a")).close();
+        cache.prepare(service, request("b")).close();
+        assertEquals(List.of("a", "b"), service.prepared);
+        cache.close();
+        assertThrows(IOException.class, () -> cache.prepare(service, request("a")));
+    }
+
+    @Test
+    void invalidate() throws Exception {
+        var s1 = new MockService();
+        var s2 = new MockService();
+        try (var cache = new PreparedStatementCache()) {
+            cache.prepare(s1, request("a")).get().close();
+            cache.prepare(s2, request("a")).get().close();
+            assertEquals(2, cache.size());
+
+            cache.invalidate(s1);
+            assertEquals(1, cache.size());
+            assertEquals(List.of(1L), s1.disposed);
+            assertEquals(List.of(), s2.disposed);
+        }
+    }
+
+    @Test
+    void failure() throws Exception {
+        var service = new MockService() {
+            boolean fail = true;
+            @Override
+            public FutureResponse<PreparedStatement> send(SqlRequest.Prepare request) throws IOException {
+                if (fail) {
+                    fail = false;
+                    throw new IOException("intentional");
+                }
+                return super.send(request);
+            }
+        };
+        try (var cache = new PreparedStatementCache()) {
+            assertThrows(IOException.class, () -> cache.prepare(service, request("a")));
+            assertEquals(0, cache.size());
+            cache.prepare(service, request("a")).get().close();
+            assertEquals(1, cache.size());
+        }
+    }
+
+    @Test
+    void getWhileResolving() throws Exception {
+        var arrived = new CountDownLatch(1);
+        var service = new MockService() {
+            @Override
+            public FutureResponse<PreparedStatement> send(SqlRequest.Prepare request) throws IOException {
+                var response = super.send(request);
+                // blocks in get() until the response arrives
+                return new FutureResponse<>() {
+                    @Override
+                    public boolean isDone() {
+                        return arrived.getCount() == 0;
+                    }
+                    @Override
+                    public PreparedStatement get() throws IOException, ServerException, InterruptedException {
+                        arrived.await();
+                        return response.get();
+                    }
+                    @Override
+                    public PreparedStatement get(long timeout, TimeUnit unit)
+                            throws IOException, ServerException, InterruptedException, TimeoutException {
+                        if (!arrived.await(timeout, unit)) {
+                            throw new TimeoutException();
+                        }
+                        return response.get();
+                    }
+                    @Override
+                    public void close() {
+                        return;
+                    }
+                };
+            }
+        };
+        try (var cache = new PreparedStatementCache()) {
+            var first = cache.prepare(service, request("a"));
+            var resolver = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return first.get();
+                } catch (Exception e) {
+                    throw new AssertionError(e);
+                }
+            });
+
+            // the other handle times out while the first one is blocked in resolving the response
+            var second = cache.prepare(service, request("a"));
+            assertThrows(TimeoutException.class, () -> second.get(50, TimeUnit.MILLISECONDS));
+            assertFalse(second.isDone());
+            assertFalse(resolver.isDone());
+
+            arrived.countDown();
+            try (var a = resolver.get(10, TimeUnit.SECONDS); var b = second.get(10, TimeUnit.SECONDS)) {
+                assertEquals(1, handle(a));
+                assertEquals(1, handle(b));
+            }
+            assertEquals(List.of("a"), service.prepared);
+        }
+    }
+}
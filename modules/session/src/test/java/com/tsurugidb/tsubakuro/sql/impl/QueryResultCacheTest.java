@@ -0,0 +1,249 @@
+package com.tsurugidb.tsubakuro.sql.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.tsurugidb.sql.proto.SqlCommon;
+import com.tsurugidb.sql.proto.SqlRequest;
+import com.tsurugidb.sql.proto.SqlResponse;
+import com.tsurugidb.tsubakuro.sql.Parameters;
+import com.tsurugidb.tsubakuro.sql.PreparedStatement;
+import com.tsurugidb.tsubakuro.sql.ResultSet;
+import com.tsurugidb.tsubakuro.sql.Transaction;
+import com.tsurugidb.tsubakuro.sql.Types;
+import com.tsurugidb.tsubakuro.sql.impl.testing.Relation;
+import com.tsurugidb.tsubakuro.util.FutureResponse;
+
+class QueryResultCacheTest {
+
+    private static final ResultSetMetadataAdapter METADATA = new ResultSetMetadataAdapter(
+            SqlResponse.ResultSetMetadata.newBuilder()
+                    .addColumns(Types.column("k", Types.of(long.class)))
+                    .addColumns(Types.column("v", Types.of(String.class)))
+                    .addColumns(Types.column("d", Types.of(BigDecimal.class)))
+                    .build());
+
+    private static class MockTransaction implements Transaction {
+
+        final List<Object> queries = new ArrayList<>();
+
+        @Override
+        public FutureResponse<ResultSet> executeQuery(String source) throws IOException {
+            queries.add(source);
+            return FutureResponse.returns(result(source));
+        }
+
+        @Override
+        public FutureResponse<ResultSet> executeQuery(
+                PreparedStatement statement,
+                Collection<? extends SqlRequest.Parameter> parameters) throws IOException {
+            queries.add(parameters);
+            return FutureResponse.returns(result(String.valueOf(parameters.size())));
+        }
+
+        ResultSet result(String text) {
+            return Relation.of(new Object[][] {
+                { 1L, text, new BigDecimal("3.14") },
+                { 2L, null, BigDecimal.ONE },
+            }).getResultSet(METADATA);
+        }
+
+        @Override
+        public void close() {
+            return;
+        }
+    }
+
+    private static List<List<Object>> read(ResultSet rs) throws Exception {
+        var results = new ArrayList<List<Object>>();
+        try (rs) {
+            assertEquals(METADATA.getColumns(), rs.getMetadata().getColumns());
+            while (rs.nextRow()) {
+                var row = new ArrayList<Object>();
+                assertTrue(rs.nextColumn());
+                row.add(rs.fetchInt8Value());
+                assertTrue(rs.nextColumn());
+                row.add(rs.isNull() ? null : rs.fetchCharacterValue());
+                assertTrue(rs.nextColumn());
+                row.add(rs.fetchDecimalValue());
+                assertFalse(rs.nextColumn());
+                results.add(row);
+            }
+        }
+        return results;
+    }
+
+    private static List<Object> row(Object... values) {
+        var results = new ArrayList<Object>();
+        for (var value : values) {
+            results.add(value);
+        }
+        return results;
+    }
+
+    @Test
+    void executeQuery() throws Exception {
+        var cache = new QueryResultCache();
+        var transaction = new MockTransaction();
+        var expected = List.of(
+                row(1L, "a", new BigDecimal("3.14")),
+                row(2L, null, BigDecimal.ONE));
+
+        assertEquals(expected, read(cache.executeQuery(transaction, "a").get()));
+        assertEquals(1, cache.size());
+        assertTrue(cache.getTotalBytes() > 0);
+
+        assertEquals(expected, read(cache.executeQuery(transaction, "a").get()));
+        assertEquals(expected, read(cache.executeQuery(transaction, "a").get()));
+        assertEquals(List.of("a"), transaction.queries);
+    }
+
+    @Test
+    void executeQuery_prepared() throws Exception {
+        var cache = new QueryResultCache();
+        var transaction = new MockTransaction();
+        var handle = SqlCommon.PreparedStatement.newBuilder().setHandle(100).build();
+        var s1 = new PreparedStatementImpl(handle);
+        var s2 = new PreparedStatementImpl(handle);
+
+        read(cache.executeQuery(transaction, s1, Parameters.of("p", 1)).get());
+        read(cache.executeQuery(transaction, s2, Parameters.of("p", 1)).get());
+        assertEquals(1, transaction.queries.size());
+
+        read(cache.executeQuery(transaction, s1, Parameters.of("p", 2)).get());
+        assertEquals(2, transaction.queries.size());
+        assertEquals(2, cache.size());
+
+        cache.invalidate(s2);
+        assertEquals(0, cache.size());
+        read(cache.executeQuery(transaction, s1, Parameters.of("p", 1)).get());
+        assertEquals(3, transaction.queries.size());
+    }
+
+    @Test
+    void executeQuery_prepared_sql() throws Exception {
+        var cache = new QueryResultCache();
+        var transaction = new MockTransaction();
+        var handle = SqlCommon.PreparedStatement.newBuilder().setHandle(100).build();
+        var a = SqlRequest.Prepare.newBuilder().setSql("a").build();
+        var b = SqlRequest.Prepare.newBuilder().setSql("b").build();
+        var s1 = new PreparedStatementImpl(handle, null, null, a);
+
+        read(cache.executeQuery(transaction, s1, Parameters.of("p", 1)).get());
+        assertEquals(1, transaction.queries.size());
+
+        // the handle was reused for another statement after s1 was disposed
+        var s2 = new PreparedStatementImpl(handle, null, null, b);
+        read(cache.executeQuery(transaction, s2, Parameters.of("p", 1)).get());
+        assertEquals(2, transaction.queries.size());
+
+        // re-prepared statement of the same SQL shares the results
+        var s3 = new PreparedStatementImpl(SqlCommon.PreparedStatement.newBuilder().setHandle(200).build(),
+                null, null, a);
+        read(cache.executeQuery(transaction, s3, Parameters.of("p", 1)).get());
+        assertEquals(2, transaction.queries.size());
+        assertEquals(2, cache.size());
+
+        cache.invalidate("a");
+        assertEquals(1, cache.size());
+        cache.invalidate(s2);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void invalidate() throws Exception {
+        var cache = new QueryResultCache();
+        var transaction = new MockTransaction();
+        read(cache.executeQuery(transaction, "a").get());
+        read(cache.executeQuery(transaction, "b").get());
+        assertEquals(2, cache.size());
+
+        cache.invalidate("a");
+        assertEquals(1, cache.size());
+        read(cache.executeQuery(transaction, "a").get());
+        read(cache.executeQuery(transaction, "b").get());
+        assertEquals(List.of("a", "b", "a"), transaction.queries);
+
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getTotalBytes());
+    }
+
+    @Test
+    void invalidate_while_loading() throws Exception {
+        var cache = new QueryResultCache();
+        var transaction = new MockTransaction();
+        var future = cache.executeQuery(transaction, "a");
+        cache.invalidate("a");
+        read(future.get());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void expire() throws Exception {
+        var cache = new QueryResultCache(1024, 1, TimeUnit.NANOSECONDS);
+        var transaction = new MockTransaction();
+        read(cache.executeQuery(transaction, "a").get());
+        Thread.sleep(1);
+        read(cache.executeQuery(transaction, "a").get());
+        assertEquals(List.of("a", "a"), transaction.queries);
+    }
+
+    @Test
+    void evict() throws Exception {
+        var cache = new QueryResultCache();
+        var transaction = new MockTransaction();
+        read(cache.executeQuery(transaction, "a").get());
+        long bytes = cache.getTotalBytes();
+
+        var small = new QueryResultCache(bytes * 2, 1, TimeUnit.HOURS);
+        read(small.executeQuery(transaction, "a").get());
+        read(small.executeQuery(transaction, "b").get());
+        read(small.executeQuery(transaction, "a").get());
+        read(small.executeQuery(transaction, "c").get());
+        assertEquals(2, small.size());
+
+        // "b" is the least recently used
+        read(small.executeQuery(transaction, "a").get());
+        read(small.executeQuery(transaction, "b").get());
+        assertEquals(List.of("a", "a", "b", "c", "b"), transaction.queries);
+    }
+
+    @Test
+    void uncacheable() throws Exception {
+        var cache = new QueryResultCache();
+        var metadata = new ResultSetMetadataAdapter(SqlResponse.ResultSetMetadata.newBuilder()
+                .addColumns(Types.column("a", Types.row(Types.column(long.class))))
+                .build());
+        var rs = Relation.of(new Object[][] {
+            { Relation.row(1L) },
+        }).getResultSet(metadata);
+        var transaction = new MockTransaction() {
+            @Override
+            public FutureResponse<ResultSet> executeQuery(String source) {
+                queries.add(source);
+                return FutureResponse.returns(rs);
+            }
+        };
+        assertSame(rs, cache.executeQuery(transaction, "a").get());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void invalid_arguments() {
+        assertThrows(IllegalArgumentException.class, () -> new QueryResultCache(0, 1, TimeUnit.SECONDS));
+        assertThrows(IllegalArgumentException.class, () -> new QueryResultCache(1, 0, TimeUnit.SECONDS));
+    }
+}
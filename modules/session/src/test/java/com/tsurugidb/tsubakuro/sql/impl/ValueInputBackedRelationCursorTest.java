@@ -0,0 +1,207 @@
+package com.tsurugidb.tsubakuro.sql.impl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import com.tsurugidb.tsubakuro.sql.RelationBatch;
+import com.tsurugidb.tsubakuro.sql.io.BrokenRelationException;
+import com.tsurugidb.tsubakuro.sql.io.ByteBuilder;
+import com.tsurugidb.tsubakuro.sql.io.EntryType;
+import com.tsurugidb.tsubakuro.sql.io.StreamBackedValueInput;
+import com.tsurugidb.tsubakuro.sql.io.StreamBackedValueOutput;
+
+class ValueInputBackedRelationCursorTest {
+
+    @FunctionalInterface
+    private interface Writer {
+        void write(StreamBackedValueOutput output) throws IOException;
+    }
+
+    private static ValueInputBackedRelationCursor cursor(Writer writer) throws IOException {
+        var buffer = new ByteArrayOutputStream();
+        try (var output = new StreamBackedValueOutput(buffer)) {
+            writer.write(output);
+            output.writeEndOfContents();
+        }
+        return new ValueInputBackedRelationCursor(
+                new StreamBackedValueInput(new ByteArrayInputStream(buffer.toByteArray())));
+    }
+
+    @Test
+    void nextBatch() throws Exception {
+        var cursor = cursor(output -> {
+            for (int i = 0; i < 5; i++) {
+                output.writeRowBegin(4);
+                output.writeInt(i * 100);
+                output.writeFloat8(i / 2.0);
+                if (i == 2) {
+                    output.writeNull();
+                } else {
+                    output.writeCharacter("v" + i);
+                }
+                output.writeDate(LocalDate.ofEpochDay(i));
+            }
+        });
+        var batch = new RelationBatch();
+
+        assertEquals(3, cursor.nextBatch(batch, 3));
+        assertEquals(3, batch.getRowCount());
+        assertEquals(4, batch.getColumnCount());
+
+        var ints = batch.getColumn(0);
+        assertEquals(EntryType.INT, ints.getType());
+        assertArrayEquals(new long[] { 0, 100, 200 }, Arrays.copyOf(ints.getLongValues(), 3));
+        assertFalse(ints.hasNull());
+
+        var floats = batch.getColumn(1);
+        assertEquals(EntryType.FLOAT8, floats.getType());
+        assertEquals(0.5, floats.getDouble(1));
+
+        var chars = batch.getColumn(2);
+        assertEquals(EntryType.CHARACTER, chars.getType());
+        assertTrue(chars.hasNull());
+        assertEquals("v1", chars.getString(1));
+        assertTrue(chars.isNull(2));
+        assertNull(chars.getString(2));
+        assertEquals(0, chars.getLength(2));
+        assertEquals(chars.getOffset(3), chars.getOffset(2));
+
+        var dates = batch.getColumn(3);
+        assertEquals(EntryType.DATE, dates.getType());
+        assertEquals(LocalDate.ofEpochDay(2), dates.getObject(2));
+
+        assertEquals(2, cursor.nextBatch(batch, 3));
+        assertEquals(2, batch.getRowCount());
+        assertEquals(400, batch.getColumn(0).getLong(1));
+        assertEquals("v3", batch.getColumn(2).getString(0));
+
+        assertEquals(0, cursor.nextBatch(batch, 3));
+        assertEquals(0, batch.getRowCount());
+    }
+
+    @Test
+    void nextBatchAfterNextRow() throws Exception {
+        var cursor = cursor(output -> {
+            for (int i = 0; i < 3; i++) {
+                output.writeRowBegin(2);
+                output.writeInt(i);
+                output.writeOctet(new byte[] { (byte) i, (byte) i });
+            }
+        });
+        assertTrue(cursor.nextRow());
+        assertTrue(cursor.nextColumn());
+        assertEquals(0, cursor.fetchInt8Value());
+
+        var batch = new RelationBatch();
+        assertEquals(2, cursor.nextBatch(batch, 10));
+        var octets = batch.getColumn(1);
+        assertEquals(EntryType.OCTET, octets.getType());
+        assertArrayEquals(new byte[] { 2, 2 }, (byte[]) octets.getObject(1));
+        assertFalse(cursor.nextRow());
+    }
+
+    @Test
+    void nextBatchDecimalPromotion() throws Exception {
+        var cursor = cursor(output -> {
+            output.writeRowBegin(1);
+            output.writeInt(1);
+            output.writeRowBegin(1);
+            output.writeNull();
+            output.writeRowBegin(1);
+            output.writeDecimal(new BigDecimal("1.5"));
+            output.writeRowBegin(1);
+            output.writeInt(2);
+        });
+        var batch = new RelationBatch();
+        assertEquals(4, cursor.nextBatch(batch, 10));
+        var column = batch.getColumn(0);
+        assertEquals(EntryType.DECIMAL, column.getType());
+        assertEquals(BigDecimal.valueOf(1), column.getObject(0));
+        assertNull(column.getObject(1));
+        assertEquals(new BigDecimal("1.5"), column.getObject(2));
+        assertEquals(BigDecimal.valueOf(2), column.getObject(3));
+    }
+
+    @Test
+    void nextBatchInconsistentType() throws Exception {
+        var cursor = cursor(output -> {
+            output.writeRowBegin(1);
+            output.writeInt(1);
+            output.writeRowBegin(1);
+            output.writeCharacter("a");
+        });
+        assertThrows(BrokenRelationException.class, () -> cursor.nextBatch(new RelationBatch(), 10));
+    }
+
+    @Test
+    void nextBatchNested() throws Exception {
+        var cursor = cursor(output -> {
+            output.writeRowBegin(1);
+            output.writeArrayBegin(0);
+        });
+        assertThrows(UnsupportedOperationException.class, () -> cursor.nextBatch(new RelationBatch(), 10));
+    }
+
+    @Test
+    void nextBatchInvalidMaxRows() throws Exception {
+        var cursor = cursor(output -> {
+            // empty
+        });
+        assertThrows(IllegalArgumentException.class, () -> cursor.nextBatch(new RelationBatch(), 0));
+    }
+
+    @Test
+    void fetchCharacterBytes() throws Exception {
+        var cursor = cursor(output -> {
+            output.writeRowBegin(2);
+            output.writeCharacter("\u3042\u3044\u3046");
+            output.writeCharacter("x".repeat(100));
+        });
+        assertTrue(cursor.nextRow());
+        assertTrue(cursor.nextColumn());
+        var bytes = cursor.fetchCharacterBytes();
+        assertTrue(bytes.isReadOnly());
+        assertEquals(ByteBuffer.wrap("\u3042\u3044\u3046".getBytes(StandardCharsets.UTF_8)), bytes);
+        assertThrows(IllegalStateException.class, () -> cursor.fetchCharacterBytes());
+
+        assertTrue(cursor.nextColumn());
+        var buffer = cursor.fetchCharacterBytes(new ByteBuilder());
+        assertEquals("x".repeat(100), new String(buffer.getData(), 0, buffer.getSize(), StandardCharsets.UTF_8));
+        assertFalse(cursor.nextColumn());
+    }
+
+    @Test
+    void fetchOctetBytes() throws Exception {
+        var cursor = cursor(output -> {
+            output.writeRowBegin(3);
+            output.writeOctet(new byte[] { 1, 2, 3 });
+            output.writeOctet(new byte[] { 4, 5 });
+            output.writeInt(1);
+        });
+        assertTrue(cursor.nextRow());
+        assertTrue(cursor.nextColumn());
+        assertEquals(ByteBuffer.wrap(new byte[] { 1, 2, 3 }), cursor.fetchOctetBytes());
+
+        assertTrue(cursor.nextColumn());
+        var buffer = new ByteBuilder(new byte[] { 9, 9, 9, 9 });
+        assertArrayEquals(new byte[] { 4, 5 }, cursor.fetchOctetBytes(buffer).build());
+
+        assertTrue(cursor.nextColumn());
+        assertThrows(BrokenRelationException.class, () -> cursor.fetchOctetBytes());
+    }
+}
@@ -0,0 +1,171 @@
+package com.tsurugidb.tsubakuro.sql.io;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+import org.junit.jupiter.api.Test;
+
+import com.tsurugidb.tsubakuro.channel.common.connection.sql.ResultSetWire.ByteBufferBackedInput;
+
+class ByteBufferBackedValueInputTest {
+
+    @FunctionalInterface
+    private interface Writer {
+        void write(StreamBackedValueOutput output) throws IOException;
+    }
+
+    private static final class ChunkedInput extends ByteBufferBackedInput {
+
+        private final Deque<ByteBuffer> rest;
+
+        boolean closed;
+
+        ChunkedInput(byte[] contents, int chunkSize, boolean direct) {
+            super(ByteBuffer.allocate(0));
+            this.rest = new ArrayDeque<>();
+            for (int offset = 0; offset < contents.length; offset += chunkSize) {
+                int length = Math.min(chunkSize, contents.length - offset);
+                var chunk = direct ? ByteBuffer.allocateDirect(length) : ByteBuffer.allocate(length);
+                chunk.put(contents, offset, length).flip();
+                rest.add(chunk);
+                // an empty chunk between
+                rest.add(ByteBuffer.allocate(0));
+            }
+        }
+
+        @Override
+        protected boolean next() {
+            source = rest.poll();
+            return source != null;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    private static byte[] serialize(Writer writer) throws IOException {
+        var buffer = new ByteArrayOutputStream();
+        try (var output = new StreamBackedValueOutput(buffer)) {
+            writer.write(output);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static final String TEXT = "\u3042\u3044\u3046-" + "x".repeat(100);
+
+    private static void writeAll(StreamBackedValueOutput output) throws IOException {
+        output.writeRowBegin(12);
+        output.writeInt(1);
+        output.writeInt(Long.MIN_VALUE);
+        output.writeFloat4((float) Math.PI);
+        output.writeFloat8(-Math.E);
+        output.writeDecimal(new BigDecimal("3.14"));
+        output.writeDecimal(new BigDecimal("123456789012345678901234567890.5"));
+        output.writeCharacter(TEXT);
+        output.writeOctet(new byte[] { 1, 2, 3 });
+        output.writeNull();
+        output.writeDate(LocalDate.of(2023, 1, 2));
+        output.writeTimePoint(LocalDateTime.of(2023, 1, 2, 3, 4, 5, 6));
+        output.writeTimePointWithTimeZone(OffsetDateTime.of(2023, 1, 2, 3, 4, 5, 6, ZoneOffset.ofHours(9)));
+        output.writeEndOfContents();
+    }
+
+    private static void readAll(ValueInput input) throws Exception {
+        assertEquals(12, input.readRowBegin());
+        assertEquals(1, input.readInt());
+        assertEquals(Long.MIN_VALUE, input.readInt());
+        assertEquals((float) Math.PI, input.readFloat4());
+        assertEquals(-Math.E, input.readFloat8());
+        assertEquals(new BigDecimal("3.14"), input.readDecimal());
+        assertEquals(new BigDecimal("123456789012345678901234567890.5"), input.readDecimal());
+        assertEquals(TEXT, input.readCharacter());
+        assertArrayEquals(new byte[] { 1, 2, 3 }, input.readOctet());
+        input.readNull();
+        assertEquals(LocalDate.of(2023, 1, 2), input.readDate());
+        assertEquals(LocalDateTime.of(2023, 1, 2, 3, 4, 5, 6), input.readTimePoint());
+        assertEquals(OffsetDateTime.of(2023, 1, 2, 3, 4, 5, 6, ZoneOffset.ofHours(9)),
+                input.readTimePointWithTimeZone());
+        assertEquals(EntryType.END_OF_CONTENTS, input.peekType());
+        input.readEndOfContents();
+    }
+
+    @Test
+    void single() throws Exception {
+        var input = new ByteBufferBackedValueInput(ByteBuffer.wrap(serialize(ByteBufferBackedValueInputTest::writeAll)));
+        readAll(input);
+        assertEquals(EntryType.END_OF_CONTENTS, input.peekType());
+    }
+
+    @Test
+    void sourceUnchanged() throws Exception {
+        var source = ByteBuffer.wrap(serialize(ByteBufferBackedValueInputTest::writeAll))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        var input = new ByteBufferBackedValueInput(source);
+        readAll(input);
+        assertEquals(ByteOrder.LITTLE_ENDIAN, source.order());
+        assertEquals(0, source.position());
+    }
+
+    @Test
+    void chunked() throws Exception {
+        byte[] contents = serialize(ByteBufferBackedValueInputTest::writeAll);
+        for (int chunkSize = 1; chunkSize <= contents.length; chunkSize++) {
+            for (boolean direct : new boolean[] { false, true }) {
+                var chunks = new ChunkedInput(contents, chunkSize, direct);
+                try (var input = new ByteBufferBackedValueInput(chunks)) {
+                    readAll(input);
+                }
+                assertTrue(chunks.closed);
+            }
+        }
+    }
+
+    @Test
+    void readCharacterBytes() throws Exception {
+        byte[] contents = serialize(output -> output.writeCharacter(TEXT));
+        var input = new ByteBufferBackedValueInput(new ChunkedInput(contents, 5, false));
+        var buffer = input.readCharacter(new ByteBuilder());
+        assertEquals(TEXT, new String(buffer.getData(), 0, buffer.getSize(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void skip() throws Exception {
+        byte[] contents = serialize(output -> {
+            writeAll(output);
+            output.writeInt(100);
+        });
+        var input = new ByteBufferBackedValueInput(new ChunkedInput(contents, 3, false));
+        assertTrue(input.skip(true));
+        assertFalse(input.skip(true));
+        input.readEndOfContents();
+        assertEquals(100, input.readInt());
+        assertEquals(EntryType.END_OF_CONTENTS, input.peekType());
+    }
+
+    @Test
+    void unexpectedEof() throws Exception {
+        byte[] contents = serialize(output -> output.writeFloat8(1.0));
+        var input = new ByteBufferBackedValueInput(new ChunkedInput(
+                Arrays.copyOf(contents, contents.length - 1), 2, false));
+        assertThrows(BrokenEncodingException.class, () -> input.readFloat8());
+    }
+}
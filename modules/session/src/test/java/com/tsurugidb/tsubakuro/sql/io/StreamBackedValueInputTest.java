@@ -11,6 +11,7 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.LocalDateTime;
@@ -123,6 +124,16 @@ class StreamBackedValueInputTest {
                 input -> input.readCharacter(new StringBuilder().append("DUMMY")).toString());
     }
 
+    @Test
+    void readCharacter_bytes() {
+        assertSerDe("\u3042\u3044\u3046\u3048\u304a",
+                StreamBackedValueOutput::writeCharacter,
+                input -> {
+                    var bytes = input.readCharacter(new ByteBuilder(new byte[] { (byte) 0xca, (byte) 0xfe }));
+                    return new String(bytes.getData(), 0, bytes.getSize(), StandardCharsets.UTF_8);
+                });
+    }
+
     @Test
     void readOctet_embed() {
         assertSerDe(nOctet(1), StreamBackedValueOutput::writeOctet, StreamBackedValueInput::readOctet);
@@ -0,0 +1,382 @@
+package com.tsurugidb.tsubakuro.sql.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.Test;
+
+import com.tsurugidb.framework.proto.FrameworkRequest;
+import com.tsurugidb.sql.proto.SqlRequest;
+import com.tsurugidb.tsubakuro.channel.common.connection.ForegroundFutureResponse;
+import com.tsurugidb.tsubakuro.channel.common.connection.sql.ResultSetWire;
+import com.tsurugidb.tsubakuro.channel.common.connection.wire.impl.ChannelResponse;
+import com.tsurugidb.tsubakuro.channel.common.connection.wire.impl.Link;
+import com.tsurugidb.tsubakuro.exception.CoreServiceCode;
+import com.tsurugidb.tsubakuro.exception.CoreServiceException;
+import com.tsurugidb.tsubakuro.exception.ServerException;
+import com.tsurugidb.tsubakuro.sql.ParameterBinder;
+import com.tsurugidb.tsubakuro.sql.Parameters;
+import com.tsurugidb.tsubakuro.sql.PreparedStatement;
+import com.tsurugidb.tsubakuro.sql.Transaction;
+import com.tsurugidb.tsubakuro.util.FutureResponse;
+import com.tsurugidb.tsubakuro.util.Owner;
+
+class BulkWriterTest {
+
+    private static final PreparedStatement STATEMENT = new PreparedStatement() {
+        @Override
+        public boolean hasResultRecords() {
+            return false;
+        }
+
+        @Override
+        public void close() {
+            return;
+        }
+    };
+
+    private static class MockTransaction implements Transaction {
+
+        final List<List<Long>> chunks = new ArrayList<>();
+
+        int failAt = -1;
+
+        // responses which never complete, if not null
+        List<PendingResponse> pending;
+
+        @Override
+        public FutureResponse<Void> batch(
+                PreparedStatement statement,
+                Collection<? extends Collection<? extends SqlRequest.Parameter>> parameterTable)
+                throws IOException {
+            assertSame(STATEMENT, statement);
+            var chunk = new ArrayList<Long>();
+            for (var row : parameterTable) {
+                chunk.add(row.iterator().next().getInt8Value());
+            }
+            chunks.add(chunk);
+            if (chunks.size() - 1 == failAt) {
+                return FutureResponse.raises(new CoreServiceException(CoreServiceCode.UNKNOWN, "intentional"));
+            }
+            if (pending != null) {
+                var response = new PendingResponse();
+                pending.add(response);
+                return response;
+            }
+            return FutureResponse.returns(null);
+        }
+
+        @Override
+        public void close() {
+            return;
+        }
+    }
+
+    private static class PendingResponse implements FutureResponse<Void> {
+
+        final CountDownLatch arrived = new CountDownLatch(1);
+
+        final List<Runnable> actions = new ArrayList<>();
+
+        boolean gotten;
+
+        boolean closed;
+
+        @Override
+        public boolean isDone() {
+            return arrived.getCount() == 0;
+        }
+
+        @Override
+        public Void get() throws InterruptedException {
+            gotten = true;
+            arrived.await();
+            return null;
+        }
+
+        @Override
+        public Void get(long timeout, TimeUnit unit) throws InterruptedException {
+            return get();
+        }
+
+        @Override
+        public void whenDone(Runnable action) {
+            if (isDone()) {
+                action.run();
+                return;
+            }
+            actions.add(action);
+        }
+
+        void arrive() {
+            arrived.countDown();
+            actions.forEach(Runnable::run);
+            actions.clear();
+        }
+
+        @Override
+        public void close() throws InterruptedException {
+            if (!gotten) {
+                // the result is not received yet
+                get();
+            }
+            closed = true;
+        }
+    }
+
+    // a link which never receives messages until the test sets them to the responses
+    private static class QuietLink extends Link {
+
+        private final CountDownLatch closed = new CountDownLatch(1);
+
+        @Override
+        public void send(int s, FrameworkRequest.Header header, byte[] payload, ChannelResponse channelResponse) {
+            return;
+        }
+
+        @Override
+        public ResultSetWire createResultSetWire() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean doPull(long t, TimeUnit u) throws TimeoutException {
+            try {
+                if (t == 0) {
+                    closed.await();
+                } else if (!closed.await(t, u)) {
+                    throw new TimeoutException();
+                }
+            } catch (InterruptedException e) {
+                return false;
+            }
+            return false;
+        }
+
+        @Override
+        public boolean isAlive() {
+            return closed.getCount() > 0;
+        }
+
+        @Override
+        public void close() {
+            closed.countDown();
+        }
+    }
+
+    // the first chunk is interrupted, and the rest are backed by ChannelResponse
+    private static class ChannelTransaction implements Transaction {
+
+        final Link link;
+
+        final PendingResponse first = new PendingResponse();
+
+        final List<ChannelResponse> responses = new ArrayList<>();
+
+        final List<FutureResponse<Void>> futures = new ArrayList<>();
+
+        ChannelTransaction(Link link) {
+            this.link = link;
+        }
+
+        @Override
+        public FutureResponse<Void> batch(
+                PreparedStatement statement,
+                Collection<? extends Collection<? extends SqlRequest.Parameter>> parameterTable) {
+            if (futures.isEmpty()) {
+                futures.add(first);
+                return first;
+            }
+            var response = new ChannelResponse(link);
+            var future = new ForegroundFutureResponse<Void>(
+                    FutureResponse.wrap(Owner.of(response)),
+                    r -> {
+                        r.waitForMainResponse();
+                        return null;
+                    });
+            responses.add(response);
+            futures.add(future);
+            return future;
+        }
+
+        @Override
+        public void close() {
+            return;
+        }
+    }
+
+    private static List<Long> sequence(long first, long count) {
+        var results = new ArrayList<Long>();
+        for (long i = 0; i < count; i++) {
+            results.add(first + i);
+        }
+        return results;
+    }
+
+    @Test
+    void simple() throws Exception {
+        var transaction = new MockTransaction();
+        try (var writer = new BulkWriter(transaction, STATEMENT)) {
+            for (long i = 0; i < 3; i++) {
+                writer.add(Parameters.of("v", i));
+            }
+            assertEquals(List.of(), transaction.chunks);
+        }
+        assertEquals(List.of(List.of(0L, 1L, 2L)), transaction.chunks);
+    }
+
+    @Test
+    void splitByRows() throws Exception {
+        var transaction = new MockTransaction();
+        var results = new ArrayList<BulkWriter.ChunkResult>();
+        try (var writer = new BulkWriter(transaction, STATEMENT, Integer.MAX_VALUE, 4, 2, results::add)) {
+            for (long i = 0; i < 10; i++) {
+                writer.add(Parameters.of("v", i));
+            }
+            assertEquals(10, writer.getRowCount());
+            assertEquals(2, writer.getChunkCount());
+        }
+        assertEquals(List.of(sequence(0, 4), sequence(4, 4), sequence(8, 2)), transaction.chunks);
+        assertEquals(3, results.size());
+        assertEquals(2, results.get(2).getIndex());
+        assertEquals(8, results.get(2).getFirstRow());
+        assertEquals(2, results.get(2).getRowCount());
+        assertTrue(results.get(2).isSuccessful());
+    }
+
+    @Test
+    void splitBySize() throws Exception {
+        var transaction = new MockTransaction();
+        try (var writer = new BulkWriter(transaction, STATEMENT, 100, Integer.MAX_VALUE, 1, null)) {
+            for (long i = 0; i < 100; i++) {
+                writer.add(Parameters.of("v", i), Parameters.of("s", "x".repeat(20)));
+            }
+        }
+        assertTrue(transaction.chunks.size() > 1);
+        var rows = new ArrayList<Long>();
+        for (var chunk : transaction.chunks) {
+            assertFalse(chunk.isEmpty());
+            rows.addAll(chunk);
+        }
+        assertEquals(sequence(0, 100), rows);
+    }
+
+    @Test
+    void failure() throws Exception {
+        var transaction = new MockTransaction();
+        transaction.failAt = 1;
+        var results = new ArrayList<BulkWriter.ChunkResult>();
+        var writer = new BulkWriter(transaction, STATEMENT, Integer.MAX_VALUE, 2, 1, results::add);
+        assertThrows(ServerException.class, () -> {
+            for (long i = 0; i < 10; i++) {
+                writer.add(Parameters.of("v", i));
+            }
+        });
+        assertEquals(2, results.size());
+        assertFalse(results.get(1).isSuccessful());
+        assertThrows(ServerException.class, () -> writer.add(Parameters.of("v", 100L)));
+        assertThrows(ServerException.class, writer::close);
+        assertEquals(2, transaction.chunks.size());
+        assertThrows(IllegalStateException.class, () -> writer.add(Parameters.of("v", 100L)));
+    }
+
+    @Test
+    void binder() throws Exception {
+        var transaction = new MockTransaction();
+        var binder = new ParameterBinder(List.of("v"));
+        try (var writer = new BulkWriter(transaction, STATEMENT, Integer.MAX_VALUE, 4, 2, null)) {
+            for (long i = 0; i < 6; i++) {
+                writer.add(binder.setLong(0, i));
+            }
+            assertEquals(2, binder.getBatchCount());
+            writer.add(Parameters.of("v", 6L));
+            assertEquals(0, binder.getBatchCount());
+            writer.add(binder.setLong(0, 7L));
+        }
+        assertEquals(0, binder.getBatchCount());
+        assertEquals(List.of(sequence(0, 4), sequence(4, 2), sequence(6, 1), sequence(7, 1)), transaction.chunks);
+    }
+
+    @Test
+    void binderWithBatchedRows() throws Exception {
+        var transaction = new MockTransaction();
+        var binder = new ParameterBinder(List.of("v")).setLong(0, 1L).addBatch();
+        try (var writer = new BulkWriter(transaction, STATEMENT)) {
+            assertThrows(IllegalArgumentException.class, () -> writer.add(binder));
+        }
+        assertEquals(List.of(), transaction.chunks);
+    }
+
+    @Test
+    void interrupted() throws Exception {
+        var transaction = new MockTransaction();
+        transaction.pending = new ArrayList<>();
+        var results = new ArrayList<BulkWriter.ChunkResult>();
+        var writer = new BulkWriter(transaction, STATEMENT, Integer.MAX_VALUE, 1, 2, results::add);
+        writer.add(Parameters.of("v", 0L));
+        writer.add(Parameters.of("v", 1L));
+        assertEquals(2, transaction.pending.size());
+
+        // waits for the first chunk, but is interrupted
+        Thread.currentThread().interrupt();
+        assertThrows(InterruptedException.class, () -> writer.add(Parameters.of("v", 2L)));
+        assertFalse(Thread.currentThread().isInterrupted());
+
+        // the all chunks in flight are cancelled without waiting for them
+        assertTrue(transaction.pending.get(0).closed);
+        assertEquals(2, results.size());
+        assertFalse(results.get(0).isSuccessful());
+        assertFalse(results.get(1).isSuccessful());
+        assertFalse(transaction.pending.get(1).closed);
+
+        assertThrows(IOException.class, () -> writer.add(Parameters.of("v", 3L)));
+        assertThrows(IOException.class, writer::close);
+        assertEquals(2, transaction.chunks.size());
+
+        // the cancelled chunk is disposed after its response arrives
+        transaction.pending.get(1).arrive();
+        assertTrue(transaction.pending.get(1).closed);
+    }
+
+    @Test
+    void interrupted_channelResponse() throws Exception {
+        var link = new QuietLink();
+        try {
+            var transaction = new ChannelTransaction(link);
+            var writer = new BulkWriter(transaction, STATEMENT, Integer.MAX_VALUE, 1, 2, null);
+            writer.add(Parameters.of("v", 0L));
+            writer.add(Parameters.of("v", 1L));
+            assertEquals(2, transaction.futures.size());
+
+            // the interrupted chunk and the cancelled chunk must not wait for their responses
+            assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+                Thread.currentThread().interrupt();
+                assertThrows(InterruptedException.class, () -> writer.add(Parameters.of("v", 2L)));
+                assertFalse(Thread.currentThread().isInterrupted());
+            });
+            assertFalse(transaction.futures.get(1).isDone());
+            assertThrows(IOException.class, writer::close);
+
+            // the cancelled chunk is disposed after its response arrives
+            assertTrue(transaction.first.closed);
+            transaction.responses.get(0).setMainResponse(new IOException("intentional"));
+            var e = assertThrows(IOException.class, () -> transaction.futures.get(1).get());
+            assertTrue(e.getMessage().contains("already closed"), e.getMessage());
+        } finally {
+            link.close();
+        }
+    }
+}
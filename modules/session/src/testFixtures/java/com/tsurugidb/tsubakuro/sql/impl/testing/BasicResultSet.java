@@ -2,19 +2,24 @@ package com.tsurugidb.tsubakuro.sql.impl.testing;
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.LocalDateTime;
 import java.time.OffsetTime;
 import java.time.OffsetDateTime;
 import java.util.Objects;
+import java.util.concurrent.Executor;
 
 //import javax.annotation.Nonnull;
 
 import com.tsurugidb.tsubakuro.exception.ServerException;
+import com.tsurugidb.tsubakuro.sql.RelationBatch;
+import com.tsurugidb.tsubakuro.sql.RelationBatchReader;
 import com.tsurugidb.tsubakuro.sql.RelationCursor;
 import com.tsurugidb.tsubakuro.sql.ResultSet;
 import com.tsurugidb.tsubakuro.sql.ResultSetMetadata;
+import com.tsurugidb.tsubakuro.sql.io.ByteBuilder;
 import com.tsurugidb.tsubakuro.sql.io.DateTimeInterval;
 import com.tsurugidb.tsubakuro.util.Timeout;
 
@@ -49,6 +54,17 @@ public class BasicResultSet implements ResultSet {
         return cursor.nextRow();
     }
 
+    @Override
+    public int nextBatch(RelationBatch batch, int maxRows) throws IOException, ServerException, InterruptedException {
+        return cursor.nextBatch(batch, maxRows);
+    }
+
+    @Override
+    public RelationBatchReader openBatchReader(Executor executor, int parallelism, RelationBatchReader.Order order)
+            throws IOException, ServerException, InterruptedException {
+        return cursor.openBatchReader(executor, parallelism, order);
+    }
+
     @Override
     public boolean nextColumn() throws IOException, ServerException, InterruptedException {
         return cursor.nextColumn();
@@ -104,6 +120,28 @@ public class BasicResultSet implements ResultSet {
         return cursor.fetchOctetValue();
     }
 
+    @Override
+    public ByteBuffer fetchCharacterBytes() throws IOException, ServerException, InterruptedException {
+        return cursor.fetchCharacterBytes();
+    }
+
+    @Override
+    public ByteBuilder fetchCharacterBytes(ByteBuilder buffer)
+            throws IOException, ServerException, InterruptedException {
+        return cursor.fetchCharacterBytes(buffer);
+    }
+
+    @Override
+    public ByteBuffer fetchOctetBytes() throws IOException, ServerException, InterruptedException {
+        return cursor.fetchOctetBytes();
+    }
+
+    @Override
+    public ByteBuilder fetchOctetBytes(ByteBuilder buffer)
+            throws IOException, ServerException, InterruptedException {
+        return cursor.fetchOctetBytes(buffer);
+    }
+
     @Override
     public boolean[] fetchBitValue() throws IOException, ServerException, InterruptedException {
         return cursor.fetchBitValue();
@@ -1,23 +1,38 @@
 package com.tsurugidb.tsubakuro.channel.stream;
 
-import java.io.DataInputStream;
-import java.io.BufferedOutputStream;
 import java.io.EOFException;
 import java.io.IOException;
-import java.net.Socket;
-import java.net.SocketException;
+import java.net.InetSocketAddress;
 import java.net.SocketTimeoutException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
 import java.util.concurrent.locks.ReentrantLock;
 
+import javax.annotation.Nonnull;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.tsurugidb.framework.proto.FrameworkRequest;
 import com.tsurugidb.tsubakuro.channel.common.connection.sql.ResultSetWire;
+import com.tsurugidb.tsubakuro.channel.common.connection.wire.impl.BufferPool;
 import com.tsurugidb.tsubakuro.channel.common.connection.wire.impl.ChannelResponse;
 import com.tsurugidb.tsubakuro.channel.common.connection.wire.impl.Link;
 import com.tsurugidb.tsubakuro.channel.common.connection.wire.impl.LinkMessage;
@@ -26,18 +41,55 @@ import com.tsurugidb.tsubakuro.channel.stream.sql.ResultSetBox;
 import com.tsurugidb.tsubakuro.channel.stream.sql.ResultSetWireImpl;
 import com.tsurugidb.tsubakuro.exception.ResponseTimeoutException;
 import com.tsurugidb.tsubakuro.exception.ServerException;
-
+import com.tsurugidb.tsubakuro.util.Messages;
+
+/**
+ * A {@link Link} over a TCP connection.
+ * <p>
+ * This uses a non-blocking {@link SocketChannel}; each request is sent by a single gathering write
+ * of the frame header, the framework header and the payload, and responses are read through a
+ * receive buffer instead of byte by byte.
+ * Requests sent concurrently are coalesced: while a thread is writing to the socket, the requests
+ * from the other threads are queued and then written together by a single gathering write,
+ * see {@link #setSendCoalescing(long, TimeUnit, int)}.
+ * Note that the channel is never switched to blocking mode, so that interrupting a thread
+ * which is sending or receiving a message does not close the channel.
+ * </p>
+ */
 public final class StreamLink extends Link {
-    private Socket socket;
-    private BufferedOutputStream outStream;
-    private DataInputStream inStream;
-    private ResultSetBox resultSetBox = new ResultSetBox();
+    private final SocketChannel channel;
+    private final Selector readSelector;
+    private final Selector writeSelector;
+    private final ResultSetBox resultSetBox;
+    private final Lock sendLock = new ReentrantLock();
+    private final Object receiveLock = new Object();
+    private final ConcurrentLinkedQueue<PendingFrame> pendingFrames = new ConcurrentLinkedQueue<>();
+    private final AtomicLong pendingBytes = new AtomicLong();
+    private final AtomicLong writeCount = new AtomicLong();
+    private final ArrayList<PendingFrame> sendingFrames = new ArrayList<>();  // guarded by sendLock
+    private ByteBuffer[] sendBuffers = new ByteBuffer[16];  // guarded by sendLock
+    private ByteBuffer[] headerBuffers = new ByteBuffer[0];  // guarded by sendLock
+    private volatile Thread sendLeader;
+    private volatile long maxSendDelayNanos = 0;
+    private volatile int maxSendBytes = DEFAULT_MAX_SEND_BYTES;
+    private volatile BufferPool receiveBufferPool = new BufferPool();
+    private volatile int resultSetPrefetchChunks = 0;
+    private volatile long resultSetPrefetchBytes = 0;
+    private final ByteBuffer receiveBuffer = ByteBuffer.allocate(RECEIVE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);  // guarded by receiveLock
     private final Lock lock = new ReentrantLock();
     private final AtomicReference<LinkMessage> helloResponse = new AtomicReference<>();
     private final AtomicBoolean closed = new AtomicBoolean();
     private final AtomicBoolean socketError = new AtomicBoolean();
     private final AtomicBoolean socketClosed = new AtomicBoolean();
 
+    private static final int HEADER_SIZE = 7;  // info, slot (2 bytes), length (4 bytes)
+    private static final int RECEIVE_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The default maximum number of bytes written to the socket at once.
+     */
+    public static final int DEFAULT_MAX_SEND_BYTES = 64 * 1024;
+
     private static final byte REQUEST_SESSION_HELLO = 1;
     private static final byte REQUEST_SESSION_PAYLOAD = 2;
     private static final byte REQUEST_RESULT_SET_BYE_OK = 3;
@@ -54,15 +106,241 @@ public final class StreamLink extends Link {
 
     static final Logger LOG = LoggerFactory.getLogger(StreamLink.class);
 
+    /**
+     * A request frame waiting to be written to the socket.
+     */
+    private static final class PendingFrame {
+        final byte info;
+        final int slot;
+        final ByteBuffer frameHeader;
+        final ByteBuffer payload;
+        final ChannelResponse channelResponse;  // null for control frames
+        IOException error;
+
+        PendingFrame(byte info, int slot, ByteBuffer frameHeader, ByteBuffer payload, ChannelResponse channelResponse) {
+            this.info = info;
+            this.slot = slot;
+            this.frameHeader = frameHeader;
+            this.payload = payload;
+            this.channelResponse = channelResponse;
+        }
+
+        PendingFrame(byte info, int slot) {
+            this(info, slot, null, null, null);
+        }
+
+        int length() {
+            if (payload != null) {
+                return frameHeader.remaining() + payload.remaining();
+            }
+            return 0;
+        }
+
+        int size() {
+            return HEADER_SIZE + length();
+        }
+
+        int buffers() {
+            return (payload != null) ? 3 : 1;
+        }
+
+        int putTo(ByteBuffer[] buffers, int index, ByteBuffer header) {
+            buffers[index++] = header.clear()
+                    .put(info)
+                    .putShort((short) slot)
+                    .putInt(length())
+                    .flip();
+            if (payload != null) {
+                buffers[index++] = frameHeader;
+                buffers[index++] = payload;
+            }
+            return index;
+        }
+
+        void fail(IOException e) {
+            if (channelResponse != null) {
+                channelResponse.setMainResponse(e);
+            } else {
+                error = e;
+            }
+        }
+    }
+
     public StreamLink(String hostname, int port) throws IOException {
-        this.socket = new Socket(hostname, port);
-        this.socket.setTcpNoDelay(true);
-        this.outStream = new BufferedOutputStream(socket.getOutputStream());
-        this.inStream = new DataInputStream(socket.getInputStream());
+        this(hostname, port, ResponseBox.DEFAULT_SIZE);
+    }
+
+    /**
+     * Creates a new instance.
+     * @param hostname the host name of the server
+     * @param port the port number of the server
+     * @param maxInFlightRequests the maximum number of requests in flight, which is advertised to the server
+     * @throws IOException if I/O error was occurred while connecting to the server
+     * @throws IllegalArgumentException if the maxInFlightRequests is out of range
+     */
+    public StreamLink(String hostname, int port, int maxInFlightRequests) throws IOException {
+        super(maxInFlightRequests);
+        this.resultSetBox = new ResultSetBox(maxInFlightRequests);
+        this.channel = SocketChannel.open(new InetSocketAddress(hostname, port));
+        try {
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            channel.configureBlocking(false);
+            this.readSelector = openSelector(channel, SelectionKey.OP_READ);
+            this.writeSelector = openSelector(channel, SelectionKey.OP_WRITE);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        this.receiveBuffer.limit(0);
         this.helloResponse.set(null);
-        send(REQUEST_SESSION_HELLO, ResponseBox.responseBoxSize());
+        send(REQUEST_SESSION_HELLO, responseBox.size());
     }
 
+    private static Selector openSelector(SocketChannel channel, int ops) throws IOException {
+        var selector = Selector.open();
+        try {
+            channel.register(selector, ops);
+            return selector;
+        } catch (IOException e) {
+            selector.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Configures coalescing of the requests sent concurrently.
+     * <p>
+     * The thread which writes the queued requests to the socket waits up to {@code maxDelay} for
+     * the other requests to be queued, unless the queued requests already reach {@code maxBytes}.
+     * Each write to the socket is also limited to about {@code maxBytes}.
+     * By default, the delay is {@code 0}, that is, only the requests which are queued while
+     * another thread is writing to the socket are coalesced.
+     * </p>
+     * @param maxDelay the maximum time to wait for the other requests, or {@code 0} to never wait
+     * @param unit the time unit of maxDelay
+     * @param maxBytes the maximum number of bytes to write at once
+     * @throws IllegalArgumentException if the parameters are out of range
+     */
+    public void setSendCoalescing(long maxDelay, @Nonnull TimeUnit unit, int maxBytes) {
+        validateSendCoalescing(maxDelay, unit, maxBytes);
+        this.maxSendDelayNanos = unit.toNanos(maxDelay);
+        this.maxSendBytes = maxBytes;
+    }
+
+    /**
+     * Validates the parameters of {@link #setSendCoalescing(long, TimeUnit, int)}.
+     * @param maxDelay the maximum time to wait for the other requests, or {@code 0} to never wait
+     * @param unit the time unit of maxDelay
+     * @param maxBytes the maximum number of bytes to write at once
+     * @throws IllegalArgumentException if the parameters are out of range
+     */
+    public static void validateSendCoalescing(long maxDelay, @Nonnull TimeUnit unit, int maxBytes) {
+        Objects.requireNonNull(unit);
+        if (maxDelay < 0) {
+            throw new IllegalArgumentException(MessageFormat.format(
+                    "max send delay must not be negative: {0}",
+                    maxDelay));
+        }
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException(MessageFormat.format(
+                    "max send bytes must be positive: {0}",
+                    maxBytes));
+        }
+    }
+
+    /**
+     * Returns the number of writes to the socket so far, for diagnostics.
+     * Each write may contain more than one request, see {@link #setSendCoalescing(long, TimeUnit, int)}.
+     * @return the number of writes
+     */
+    public long getWriteCount() {
+        return writeCount.get();
+    }
+
+    /**
+     * Sets the pool of buffers which hold the received result set chunks.
+     * The buffers are returned to the pool when the corresponding result set input has consumed them.
+     * @param pool the buffer pool
+     */
+    public void setReceiveBufferPool(@Nonnull BufferPool pool) {
+        Objects.requireNonNull(pool);
+        this.receiveBufferPool = pool;
+    }
+
+    /**
+     * Returns the pool of buffers which hold the received result set chunks.
+     * @return the buffer pool
+     */
+    public BufferPool getReceiveBufferPool() {
+        return receiveBufferPool;
+    }
+
+    /**
+     * Configures prefetching of result set chunks.
+     * <p>
+     * If enabled, this link keeps receiving the chunks of result sets in background while the client decodes
+     * the received ones, until the committed and not yet consumed chunks of every result set reach either of
+     * the limits. The messages are received by at most one background task for this link,
+     * see {@link #acquirePullDemand()}.
+     * This is not necessary if the receiver thread of this link is running, which always receives messages.
+     * Prefetching is disabled if both limits are {@code 0}.
+     * </p>
+     * @param maxChunks the maximum number of prefetched chunks, or {@code 0} for no limit
+     * @param maxBytes the maximum total bytes of prefetched chunks, or {@code 0} for no limit
+     * @throws IllegalArgumentException if the limits are negative
+     */
+    public void setResultSetPrefetch(int maxChunks, long maxBytes) {
+        validateResultSetPrefetch(maxChunks, maxBytes);
+        this.resultSetPrefetchChunks = maxChunks;
+        this.resultSetPrefetchBytes = maxBytes;
+    }
+
+    /**
+     * Validates the parameters of {@link #setResultSetPrefetch(int, long)}.
+     * @param maxChunks the maximum number of prefetched chunks, or {@code 0} for no limit
+     * @param maxBytes the maximum total bytes of prefetched chunks, or {@code 0} for no limit
+     * @throws IllegalArgumentException if the limits are negative
+     */
+    public static void validateResultSetPrefetch(int maxChunks, long maxBytes) {
+        if (maxChunks < 0 || maxBytes < 0) {
+            throw new IllegalArgumentException(MessageFormat.format(
+                    "prefetch limits must not be negative: chunks={0}, bytes={1}",
+                    maxChunks,
+                    maxBytes));
+        }
+    }
+
+    /**
+     * Returns the maximum number of prefetched result set chunks.
+     * @return the maximum number of chunks, or {@code 0} for no limit
+     * @see #setResultSetPrefetch(int, long)
+     */
+    public int getResultSetPrefetchChunks() {
+        return resultSetPrefetchChunks;
+    }
+
+    /**
+     * Returns the maximum total bytes of prefetched result set chunks.
+     * @return the maximum total bytes, or {@code 0} for no limit
+     * @see #setResultSetPrefetch(int, long)
+     */
+    public long getResultSetPrefetchBytes() {
+        return resultSetPrefetchBytes;
+    }
+
+    /**
+     * Waits for the response of the {@code SESSION_HELLO} request.
+     * <p>
+     * The request advertises the maximum number of requests in flight in its slot field.
+     * If the server answers a smaller positive number in the slot field of {@code SESSION_HELLO_OK},
+     * this link uses it instead. Otherwise, the advertised number is used as is.
+     * </p>
+     * @param timeout the maximum time to wait, or {@code 0} to wait indefinitely
+     * @param unit the time unit of timeout
+     * @return the response message
+     * @throws IOException if I/O error was occurred while receiving the response
+     * @throws TimeoutException if the response has not been received within the specified time
+     */
     public LinkMessage helloResponse(long timeout, TimeUnit unit) throws IOException, TimeoutException {
         lock.lock();
         try {
@@ -79,6 +357,16 @@ public final class StreamLink extends Link {
         }
     }
 
+    // honors the number of requests in flight answered by the server, which is never larger than the advertised
+    private void acceptMaxInFlightRequests(int n) {
+        int advertised = responseBox.size();
+        if (n <= 0 || n >= advertised) {
+            return;
+        }
+        LOG.debug("server restricts the number of requests in flight: {} -> {}", advertised, n); //$NON-NLS-1$
+        responseBox.restrictSize(n);
+    }
+
     @Override
     public boolean doPull(long timeout, TimeUnit unit) throws TimeoutException {
         try {
@@ -93,19 +381,8 @@ public final class StreamLink extends Link {
     private boolean doPull(long timeout, TimeUnit unit, boolean throwException) throws TimeoutException, IOException {
         LinkMessage message = null;
         try {
-            int millis = ((timeout == 0) ? 0 : ((unit.toMillis(timeout) > Integer.MAX_VALUE) ? Integer.MAX_VALUE : (int) unit.toMillis(timeout)));
-            socket.setSoTimeout(millis);
-        } catch (SocketException e) {
-            if (throwException) {
-                throw e;
-            } else {
-                socketError.set(true);
-                closeBoxes(false);
-                return false;
-            }
-        }
-        try {
-            message = receive();
+            long millis = (timeout == 0) ? 0 : Math.max(unit.toMillis(timeout), 1);
+            message = receive(millis);
         } catch (SocketTimeoutException e) {
             throw new TimeoutException("response has not been received within the specified time");
         } catch (EOFException e) {   // imply session close
@@ -138,7 +415,7 @@ public final class StreamLink extends Link {
         case RESPONSE_RESULT_SET_PAYLOAD:
             byte writer = message.getWriter();
             LOG.trace("receive RESULT_SET_PAYLOAD, slot = {}, writer = {}", slot, writer);
-            resultSetBox.push(slot, writer, message.getBytes());
+            resultSetBox.push(slot, writer, message.getBuffer());
             return true;
 
         case RESPONSE_RESULT_SET_HELLO:
@@ -160,6 +437,9 @@ public final class StreamLink extends Link {
         case RESPONSE_SESSION_HELLO_OK:
         case RESPONSE_SESSION_HELLO_NG:
             LOG.trace("receive SESSION_HELLO_{}", ((info == RESPONSE_SESSION_HELLO_OK) ? "OK" : "NG"));
+            if (info == RESPONSE_SESSION_HELLO_OK) {
+                acceptMaxInFlightRequests(slot);
+            }
             lock.lock();
             try {
                 helloResponse.set(message);
@@ -188,7 +468,14 @@ public final class StreamLink extends Link {
         responseBox.doClose(intentionalClose);
         resultSetBox.doClose(intentionalClose);
         socketClosed.set(true);
-        socket.close();
+        closeChannel();
+    }
+
+    private void closeChannel() throws IOException {
+        // close the selectors first, which wakes up the threads waiting on them and deregisters the channel
+        try (var c1 = channel; var c2 = readSelector; var c3 = writeSelector) {
+            LOG.trace("close channel"); //$NON-NLS-1$
+        }
     }
 
     public ResultSetBox getResultSetBox() {
@@ -196,106 +483,278 @@ public final class StreamLink extends Link {
     }
 
     private void send(byte i, int s) throws IOException {  // SESSION_HELLO, RESULT_SET_BYE_OK
-        byte[] header = new byte[7];
-
-        header[0] = i;  // info
-        header[1] = strip(s);       // slot
-        header[2] = strip(s >> 8);  // slot
-        header[3] = 0;
-        header[4] = 0;
-        header[5] = 0;
-        header[6] = 0;
-
-        synchronized (outStream) {
-            if (socket.isClosed()) {
-                throw new IOException("socket is already closed");
-            }
-            outStream.write(header, 0, header.length);
-            outStream.flush();
+        if (!channel.isOpen()) {
+            throw new IOException("socket is already closed");
+        }
+        var frame = new PendingFrame(i, s);
+        sendLock.lock();
+        try {
+            enqueue(frame);
+            writePendingFrames();
+        } finally {
+            sendLock.unlock();
+        }
+        flushPendingFrames();
+        if (frame.error != null) {
+            throw new IOException(frame.error.getMessage(), frame.error);
         }
         LOG.trace("send {}, slot = {}", ((i == REQUEST_SESSION_HELLO) ? "SESSION_HELLO" : "RESULT_SET_BYE_OK"), s); //$NON-NLS-1$
     }
 
     @Override
-    public void send(int s, byte[] frameHeader, byte[] payload, ChannelResponse channelResponse) {  // SESSION_PAYLOAD
-        byte[] header = new byte[7];
+    public void send(int s, FrameworkRequest.Header header, byte[] payload, ChannelResponse channelResponse) {  // SESSION_PAYLOAD
+        if (!channel.isOpen()) {
+            channelResponse.setMainResponse(new IOException("socket is already closed"));
+            return;
+        }
+        byte[] frameHeader;
+        try {
+            frameHeader = Messages.toDelimitedByteArray(header);
+        } catch (IOException e) {
+            channelResponse.setMainResponse(e);
+            return;
+        }
         int length = frameHeader.length + payload.length;
+        enqueue(new PendingFrame(
+                REQUEST_SESSION_PAYLOAD,
+                s,
+                ByteBuffer.wrap(frameHeader),
+                ByteBuffer.wrap(payload),
+                channelResponse));
+        flushPendingFrames();
+        LOG.trace("send SESSION_PAYLOAD, length = {}, slot = {}", length, s);
+    }
 
-        header[0] = REQUEST_SESSION_PAYLOAD;
-        header[1] = strip(s);       // slot
-        header[2] = strip(s >> 8);  // slot
-        header[3] = strip(length);
-        header[4] = strip(length >> 8);
-        header[5] = strip(length >> 16);
-        header[6] = strip(length >> 24);
-
-        synchronized (outStream) {
-            if (socket.isClosed()) {
-                channelResponse.setMainResponse(new IOException("socket is already closed"));
-                return;
+    private void enqueue(PendingFrame frame) {
+        pendingFrames.add(frame);
+        if (pendingBytes.addAndGet(frame.size()) >= maxSendBytes) {
+            var leader = sendLeader;
+            if (leader != null) {
+                LockSupport.unpark(leader);
             }
+        }
+    }
+
+    private void flushPendingFrames() {
+        // if another thread is writing, it also writes the frames queued here before releasing the lock,
+        // or this thread retries after the lock was released
+        while (!pendingFrames.isEmpty() && sendLock.tryLock()) {
             try {
-                outStream.write(header, 0, header.length);
-                if (length > 0) {
-                    // payload送信
-                    outStream.write(frameHeader, 0, frameHeader.length);
-                    outStream.write(payload, 0, payload.length);
-                }
-                outStream.flush();
-            } catch (IOException e) {
-                channelResponse.setMainResponse(e);
-                return;
+                awaitPendingFrames();
+                writePendingFrames();
+            } finally {
+                sendLock.unlock();
             }
         }
-        LOG.trace("send SESSION_PAYLOAD, length = {}, slot = {}", length, s);
     }
 
-    byte strip(int i) {
-        return (byte) (i & 0xff);
+    // must be called while holding sendLock
+    private void awaitPendingFrames() {
+        long delay = maxSendDelayNanos;
+        if (delay <= 0) {
+            return;
+        }
+        long deadline = System.nanoTime() + delay;
+        sendLeader = Thread.currentThread();
+        try {
+            while (pendingBytes.get() < maxSendBytes && !Thread.currentThread().isInterrupted()) {
+                long rest = deadline - System.nanoTime();
+                if (rest <= 0) {
+                    break;
+                }
+                LockSupport.parkNanos(this, rest);
+            }
+        } finally {
+            sendLeader = null;
+        }
     }
 
-    public LinkMessage receive() throws IOException, SocketTimeoutException {
-        synchronized (inStream) {
+    // must be called while holding sendLock
+    private void writePendingFrames() {
+        while (true) {
+            long bytes = 0;
+            int count = 0;
+            PendingFrame frame;
+            while (bytes < maxSendBytes && (frame = pendingFrames.poll()) != null) {
+                sendingFrames.add(frame);
+                bytes += frame.size();
+                count += frame.buffers();
+            }
+            if (sendingFrames.isEmpty()) {
+                return;
+            }
+            pendingBytes.addAndGet(-bytes);
+            if (sendBuffers.length < count) {
+                sendBuffers = new ByteBuffer[Math.max(count, sendBuffers.length * 2)];
+            }
+            prepareHeaderBuffers(sendingFrames.size());
+            int index = 0;
+            for (int i = 0; i < sendingFrames.size(); i++) {
+                index = sendingFrames.get(i).putTo(sendBuffers, index, headerBuffers[i]);
+            }
             try {
-                byte[] bytes;
-                byte writer = 0;
-                byte info = 0;
-
-                // info受信
-                info = inStream.readByte();
-
-                // slot受信
-                int slot = 0;
-                for (int i = 0; i < 2; i++) {
-                    int inData = inStream.readByte() & 0xff;
-                    slot |= inData << (i * 8);
+                write(sendBuffers, count);
+                writeCount.incrementAndGet();
+                LOG.trace("write {} frames, {} bytes", sendingFrames.size(), bytes); //$NON-NLS-1$
+            } catch (IOException e) {
+                for (var f : sendingFrames) {
+                    f.fail(e);
                 }
+            } finally {
+                Arrays.fill(sendBuffers, 0, count, null);
+                sendingFrames.clear();
+            }
+        }
+    }
 
-                if (info ==  RESPONSE_RESULT_SET_PAYLOAD) {
-                    writer = inStream.readByte();
+    // must be called while holding sendLock
+    private void prepareHeaderBuffers(int count) {
+        // the frame headers are reused across writes, because they are only referred while holding sendLock
+        if (headerBuffers.length >= count) {
+            return;
+        }
+        var buffers = Arrays.copyOf(headerBuffers, Math.max(count, headerBuffers.length * 2));
+        for (int i = headerBuffers.length; i < buffers.length; i++) {
+            buffers[i] = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        headerBuffers = buffers;
+    }
+
+    // must be called while holding sendLock
+    private void write(ByteBuffer[] buffers, int count) throws IOException {
+        long remaining = 0;
+        for (int i = 0; i < count; i++) {
+            remaining += buffers[i].remaining();
+        }
+        try {
+            while (remaining > 0) {
+                long written = channel.write(buffers, 0, count);
+                remaining -= written;
+                if (written == 0) {
+                    // the socket send buffer is full
+                    writeSelector.select();
+                    writeSelector.selectedKeys().clear();
                 }
+            }
+        } catch (ClosedSelectorException e) {
+            throw new IOException("socket is already closed", e);
+        }
+    }
 
-                // length受信
-                int length = 0;
-                for (int i = 0; i < 4; i++) {
-                    int inData = inStream.readByte() & 0xff;
-                    length |= inData << (i * 8);
+    public LinkMessage receive() throws IOException {
+        return receive(0);
+    }
+
+    /**
+     * Receives a message from the server.
+     * @param timeoutMillis the maximum time to wait for the beginning of the next message in milliseconds,
+     *      or {@code 0} to wait indefinitely
+     * @return the received message
+     * @throws SocketTimeoutException if no message has arrived within the timeout
+     * @throws EOFException if the server has closed the connection
+     * @throws IOException if I/O error was occurred while receiving the message
+     */
+    LinkMessage receive(long timeoutMillis) throws IOException {
+        synchronized (receiveLock) {
+            try {
+                // the timeout is applied only until the message begins to arrive,
+                // so that a timeout never leaves a partially received message
+                fill(1, timeoutMillis);
+                byte info = receiveBuffer.get(receiveBuffer.position());
+                boolean hasWriter = info == RESPONSE_RESULT_SET_PAYLOAD;
+                fill(hasWriter ? HEADER_SIZE + 1 : HEADER_SIZE, 0);
+
+                receiveBuffer.get();  // info
+                int slot = receiveBuffer.getShort() & 0xffff;
+                byte writer = hasWriter ? receiveBuffer.get() : 0;
+                int length = receiveBuffer.getInt();
+
+                if (hasWriter) {
+                    // result set chunks are borrowed from the pool, and returned after consumed
+                    ByteBuffer buffer = null;
+                    if (length > 0) {
+                        buffer = receiveBufferPool.acquire(length);
+                        readFully(buffer);
+                        buffer.flip();
+                    }
+                    return new LinkMessage(info, buffer, slot, writer);
                 }
+                byte[] bytes = null;
                 if (length > 0) {
-                    // payload受信
                     bytes = new byte[length];
-                    inStream.readFully(bytes, 0, length);
-                } else {
-                    bytes = null;
+                    readFully(ByteBuffer.wrap(bytes));
                 }
                 return new LinkMessage(info, bytes, slot, writer);
-            } catch (SocketException e) {
+            } catch (EOFException | SocketTimeoutException e) {
+                throw e;
+            } catch (ClosedSelectorException e) {
+                socketError.set(true);
+                throw new IOException("socket is already closed", e);
+            } catch (IOException e) {
                 socketError.set(true);
                 throw e;
             }
         }
     }
 
+    // must be called in synchronized (receiveLock)
+    private void fill(int size, long timeoutMillis) throws IOException {
+        if (receiveBuffer.remaining() >= size) {
+            return;
+        }
+        receiveBuffer.compact();
+        try {
+            while (receiveBuffer.position() < size) {
+                read(receiveBuffer, timeoutMillis);
+            }
+        } finally {
+            receiveBuffer.flip();
+        }
+    }
+
+    // must be called in synchronized (receiveLock)
+    private void readFully(ByteBuffer destination) throws IOException {
+        int size = destination.remaining();
+        if (size <= receiveBuffer.capacity()) {
+            fill(size, 0);
+            int limit = receiveBuffer.limit();
+            receiveBuffer.limit(receiveBuffer.position() + size);
+            destination.put(receiveBuffer);
+            receiveBuffer.limit(limit);
+            return;
+        }
+        // large payload is read directly into the destination
+        destination.put(receiveBuffer);
+        while (destination.hasRemaining()) {
+            read(destination, 0);
+        }
+    }
+
+    // must be called in synchronized (receiveLock)
+    private void read(ByteBuffer destination, long timeoutMillis) throws IOException {
+        long deadline = (timeoutMillis > 0) ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis) : 0;
+        while (true) {
+            int n = channel.read(destination);
+            if (n < 0) {
+                throw new EOFException();
+            }
+            if (n > 0) {
+                return;
+            }
+            if (timeoutMillis > 0) {
+                // select() may return before the timeout without any ready keys, so wait until the deadline
+                long rest = deadline - System.nanoTime();
+                if (rest <= 0) {
+                    throw new SocketTimeoutException("Read timed out");
+                }
+                readSelector.select(Math.max(TimeUnit.NANOSECONDS.toMillis(rest), 1));
+            } else {
+                readSelector.select();
+            }
+            readSelector.selectedKeys().clear();
+        }
+    }
+
     @Override
     public ResultSetWire createResultSetWire() throws IOException {
         return new ResultSetWireImpl(this);
@@ -306,14 +765,17 @@ public final class StreamLink extends Link {
         if (closed.get()) {
             return false;
         }
-        return !socket.isClosed();
+        return channel.isOpen();
     }
 
     @Override
     public void close() throws IOException, ServerException {
         if (!closed.getAndSet(true) && !socketError.get()) {
-            try (var c1 = socket; var c2 = inStream; var c3 = outStream) {
+            try (var c1 = channel; var c2 = readSelector; var c3 = writeSelector) {
                 send(REQUEST_SESSION_BYE, 0);
+                if (isReceiverRunning()) {
+                    awaitReceiverTermination(timeout, timeUnit);
+                }
                 while (!socketClosed.get()) {
                     doPull(timeout, timeUnit);
                 }
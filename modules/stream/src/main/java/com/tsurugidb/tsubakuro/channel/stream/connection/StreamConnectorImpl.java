@@ -1,6 +1,11 @@
 package com.tsurugidb.tsubakuro.channel.stream.connection;
 
 import java.io.IOException;
+import java.text.MessageFormat;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -8,6 +13,8 @@ import org.slf4j.LoggerFactory;
 import com.tsurugidb.tsubakuro.channel.common.connection.Connector;
 import com.tsurugidb.tsubakuro.channel.common.connection.Credential;
 import com.tsurugidb.tsubakuro.channel.common.connection.wire.Wire;
+import com.tsurugidb.tsubakuro.channel.common.connection.wire.impl.BufferPool;
+import com.tsurugidb.tsubakuro.channel.common.connection.wire.impl.ResponseBox;
 import com.tsurugidb.tsubakuro.channel.stream.StreamLink;
 import com.tsurugidb.tsubakuro.util.FutureResponse;
 
@@ -21,15 +28,98 @@ public final class StreamConnectorImpl implements Connector {
     public static final int DEFAULT_PORT = 12345;
     private final String hostname;
     private final int port;
+    private int maxInFlightRequests = ResponseBox.DEFAULT_SIZE;
+    private long maxSendDelayNanos = 0;
+    private int maxSendBytes = StreamLink.DEFAULT_MAX_SEND_BYTES;
+    private BufferPool receiveBufferPool = null;
+    private int resultSetPrefetchChunks = 0;
+    private long resultSetPrefetchBytes = 0;
 
     public StreamConnectorImpl(String hostname, int port) {
         this.hostname = hostname;
         this.port = port;
     }
 
+    /**
+     * Sets the maximum number of requests which can be sent without waiting for their responses on each connection.
+     * The number is advertised to the server when the connection is established,
+     * and the requests beyond it wait until any of the preceding requests is completed.
+     * If the server answers a smaller number, the connection uses it instead.
+     * @param n the maximum number of requests in flight
+     * @return this
+     * @throws IllegalArgumentException if the number is out of range
+     * @see StreamLink#helloResponse(long, TimeUnit)
+     */
+    public StreamConnectorImpl withMaxInFlightRequests(int n) {
+        if (n <= 0 || n > ResponseBox.MAX_SIZE) {
+            throw new IllegalArgumentException(MessageFormat.format(
+                    "the number of requests in flight must be between 1 and {0}: {1}",
+                    ResponseBox.MAX_SIZE,
+                    n));
+        }
+        this.maxInFlightRequests = n;
+        return this;
+    }
+
+    @Override
+    public boolean setMaxInFlightRequests(int n) {
+        withMaxInFlightRequests(n);
+        return true;
+    }
+
+    /**
+     * Sets how requests sent concurrently on each connection are coalesced into a single write.
+     * @param maxDelay the maximum time to wait for the other requests before writing, or {@code 0} to never wait
+     * @param unit the time unit of maxDelay
+     * @param maxBytes the maximum number of bytes to write at once
+     * @return this
+     * @throws IllegalArgumentException if the parameters are out of range
+     * @see StreamLink#setSendCoalescing(long, TimeUnit, int)
+     */
+    public StreamConnectorImpl withSendCoalescing(long maxDelay, @Nonnull TimeUnit unit, int maxBytes) {
+        StreamLink.validateSendCoalescing(maxDelay, unit, maxBytes);
+        this.maxSendDelayNanos = unit.toNanos(maxDelay);
+        this.maxSendBytes = maxBytes;
+        return this;
+    }
+
+    /**
+     * Sets the pool of buffers which hold the received result set chunks.
+     * The pool can be shared among connections. If not set, each connection has its own pool of heap buffers.
+     * @param pool the buffer pool, which may pool direct buffers
+     * @return this
+     */
+    public StreamConnectorImpl withReceiveBufferPool(@Nonnull BufferPool pool) {
+        Objects.requireNonNull(pool);
+        this.receiveBufferPool = pool;
+        return this;
+    }
+
+    /**
+     * Sets the limits of prefetching result set chunks in background on each connection.
+     * Prefetching is disabled if both limits are {@code 0}, which is the default.
+     * @param maxChunks the maximum number of prefetched chunks, or {@code 0} for no limit
+     * @param maxBytes the maximum total bytes of prefetched chunks, or {@code 0} for no limit
+     * @return this
+     * @throws IllegalArgumentException if the limits are negative
+     * @see StreamLink#setResultSetPrefetch(int, long)
+     */
+    public StreamConnectorImpl withResultSetPrefetch(int maxChunks, long maxBytes) {
+        StreamLink.validateResultSetPrefetch(maxChunks, maxBytes);
+        this.resultSetPrefetchChunks = maxChunks;
+        this.resultSetPrefetchBytes = maxBytes;
+        return this;
+    }
+
     @Override
     public FutureResponse<Wire> connect(Credential credential) throws IOException {
-        LOG.trace("will connect to {}:{}", hostname, port); //$NON-NLS-1$
-        return new FutureStreamWireImpl(new StreamLink(hostname, port));
+        LOG.trace("will connect to {}:{}, max in-flight requests = {}", hostname, port, maxInFlightRequests); //$NON-NLS-1$
+        var link = new StreamLink(hostname, port, maxInFlightRequests);
+        link.setSendCoalescing(maxSendDelayNanos, TimeUnit.NANOSECONDS, maxSendBytes);
+        link.setResultSetPrefetch(resultSetPrefetchChunks, resultSetPrefetchBytes);
+        if (receiveBufferPool != null) {
+            link.setReceiveBufferPool(receiveBufferPool);
+        }
+        return new FutureStreamWireImpl(link);
     }
 }
@@ -1,121 +1,90 @@
 package com.tsurugidb.tsubakuro.channel.stream.sql;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.concurrent.locks.Condition;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.nio.ByteBuffer;
+import java.text.MessageFormat;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import com.tsurugidb.tsubakuro.channel.common.connection.wire.impl.ResponseBox;
 
 /**
  * ResultSetBox type.
+ * <p>
+ * The result set name is handed over between {@link #pushHello(String, int)} from the link and
+ * {@link #register(String)} from the client in either order, and neither of them blocks.
+ * The chunks which arrive before the client registers the result set wire are kept in its {@link ResultSetChunks}.
+ * </p>
  */
 public class ResultSetBox {
-    private static final int SIZE = ResponseBox.responseBoxSize();
-
-    private ResultSetWireImpl[] boxes = new ResultSetWireImpl[SIZE];
-    private Map<String, Integer> map = new HashMap<>();;
-    private Lock lock = new ReentrantLock();
-    private Condition availableCondition = lock.newCondition();
-    private Lock[] slotLock = new ReentrantLock[SIZE];
-    private Condition[] slotCondition = new Condition[SIZE];
-    private boolean intentionalClose = false;
+    private final AtomicReferenceArray<ResultSetChunks> boxes;
+    // the chunks whose name has been seen by only one of the link and the client
+    private final ConcurrentHashMap<String, ResultSetChunks> handshakes = new ConcurrentHashMap<>();
+    private volatile boolean closed = false;
+    private volatile boolean intentionalClose = false;
 
     public ResultSetBox() {
-        for (int i = 0; i < SIZE; i++) {
-            slotLock[i] = new ReentrantLock();
-            slotCondition[i] = slotLock[i].newCondition();
-        }
+        this(ResponseBox.DEFAULT_SIZE);
     }
 
-    public void register(String name, ResultSetWireImpl resultSetWire) throws IOException {
-        while (true) {
-            lock.lock();
-            try {
-                if (map.containsKey(name)) {
-                    var slot = (byte) map.get(name).intValue();
-                    map.remove(name);
-                    Lock l =  slotLock[slot];
-                    l.lock();
-                    try {
-                        boxes[slot] = resultSetWire;
-                        slotCondition[slot].signal();
-                    } finally {
-                        l.unlock();
-                    }
-                    return;
-                }
-                availableCondition.await();
-            } catch (InterruptedException e) {
-                throw new IOException(e);
-            } finally {
-                lock.unlock();
-            }
+    /**
+     * Creates a new instance.
+     * @param size the number of result set slots, which is the same as the number of requests in flight
+     */
+    public ResultSetBox(int size) {
+        boxes = new AtomicReferenceArray<>(size);
+    }
+
+    ResultSetChunks register(String name) {
+        var chunks = handshake(name);
+        if (closed) {
+            chunks.endOfRecords(closedException());
         }
+        return chunks;
     }
 
     public void pushHello(String name, int slot) throws IOException {  // for RESPONSE_RESULT_SET_HELLO
-        lock.lock();
-        try {
-            if (map.containsKey(name)) {
-                map.replace(name, slot);
-            } else {
-                map.put(name, slot);
+        boxes.set(slot, handshake(name));
+    }
+
+    // the first of the link and the client creates the chunks, and the second one takes them
+    private ResultSetChunks handshake(String name) {
+        var result = new ResultSetChunks[1];
+        handshakes.compute(name, (k, v) -> {
+            if (v == null) {
+                result[0] = new ResultSetChunks();
+                return result[0];
             }
-            availableCondition.signal();
-        } finally {
-            lock.unlock();
-        }
+            result[0] = v;
+            return null;
+        });
+        return result[0];
     }
 
-    public void push(int slot, int writerId, byte[] payload) throws IOException {  // for RESPONSE_RESULT_SET_PAYLOAD
-        if (boxes[slot] == null) {
-            waitRegistration(slot);
-        }
-        Lock l =  slotLock[slot];
-        l.lock();
-        try {
-            boxes[slot].add(writerId, payload);
-        } finally {
-            l.unlock();
-        }
+    public void push(int slot, int writerId, ByteBuffer payload) throws IOException {  // for RESPONSE_RESULT_SET_PAYLOAD
+        get(slot).add(writerId, payload);
     }
 
     public void pushBye(int slot) throws IOException {  // for RESPONSE_RESULT_SET_BYE
-        if (boxes[slot] == null) {
-            waitRegistration(slot);
-        }
-        var box = boxes[slot];
-        boxes[slot] = null;
-        box.endOfRecords();
+        var chunks = get(slot);
+        boxes.set(slot, null);
+        chunks.endOfRecords();
     }
 
     public void pushBye(int slot, IOException e) throws IOException {  // for RESPONSE_RESULT_SET_BYE
-        if (boxes[slot] == null) {
-            waitRegistration(slot);
-        }
-        var box = boxes[slot];
-        boxes[slot] = null;
-        box.endOfRecords(e);
+        var chunks = get(slot);
+        boxes.set(slot, null);
+        chunks.endOfRecords(e);
     }
 
-    private void waitRegistration(int slot) throws IOException {
-        while (true) {
-            Lock l =  slotLock[slot];
-            l.lock();
-            try {
-                if (boxes[slot] != null) {
-                    return;
-                }
-                slotCondition[slot].await();
-            } catch (InterruptedException e) {
-                throw new IOException(e);
-            } finally {
-                l.unlock();
-            }
+    private ResultSetChunks get(int slot) throws IOException {
+        var chunks = boxes.get(slot);
+        if (chunks == null) {
+            throw new IOException(MessageFormat.format(
+                    "result set slot {0} has not been opened",
+                    slot));
         }
+        return chunks;
     }
 
     public void doClose(boolean ic) {
@@ -124,14 +93,22 @@ public class ResultSetBox {
     }
 
     public void close() {
-        for (ResultSetWireImpl e : boxes) {
-            if (e != null) {
-                if (intentionalClose) {
-                    e.endOfRecords(new IOException("The wire was closed before closing this resultSet"));
-                } else {
-                    e.endOfRecords(new IOException("Server crashed"));
-                }
+        closed = true;
+        var e = closedException();
+        for (int i = 0; i < boxes.length(); i++) {
+            var chunks = boxes.get(i);
+            if (chunks != null) {
+                chunks.endOfRecords(e);
             }
         }
+        // the result sets registered by the client, but the server has never opened
+        handshakes.values().forEach(chunks -> chunks.endOfRecords(e));
+    }
+
+    private IOException closedException() {
+        if (intentionalClose) {
+            return new IOException("The wire was closed before closing this resultSet");
+        }
+        return new IOException("Server crashed");
     }
 }
@@ -0,0 +1,265 @@
+package com.tsurugidb.tsubakuro.channel.stream.sql;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+import javax.annotation.Nonnull;
+
+/**
+ * The chunks of a result set received from the server.
+ * <p>
+ * Each writer on the server sends chunks in order, and the chunks of a writer become visible to the consumer
+ * when the writer commits them. The chunks are added only by the thread which pulls messages from the link,
+ * so that the per-writer buffers are not synchronized, and the committed chunks are passed to
+ * the consumer through a lock-free queue.
+ * </p>
+ * <p>
+ * As each commit consists of whole rows, the end of the committed chunks is recorded as a segment boundary,
+ * so that the segments can be decoded independently.
+ * </p>
+ * <p>
+ * If prefetching is enabled, this demands the link to keep pulling messages while the committed chunks are
+ * within the limits, see {@link #prefetch(int, long, Runnable, Runnable)}.
+ * </p>
+ */
+final class ResultSetChunks {
+
+    private static final int MAX_WRITERS = 256;
+
+    // marks the end of committed chunks
+    private static final ByteBuffer END_OF_SEGMENT = ByteBuffer.allocate(0);
+
+    // only accessed by the thread pulling messages from the link
+    private final List<ArrayDeque<ByteBuffer>> writers = new ArrayList<>(Collections.nCopies(MAX_WRITERS, null));
+
+    private final ConcurrentLinkedQueue<ByteBuffer> committed = new ConcurrentLinkedQueue<>();
+
+    private final Lock lock = new ReentrantLock();
+
+    private final Condition arrival = lock.newCondition();
+
+    private final AtomicInteger committedChunks = new AtomicInteger();
+
+    private final AtomicLong committedBytes = new AtomicLong();
+
+    private volatile boolean prefetching;
+
+    private int prefetchChunks;  // guarded by lock
+
+    private long prefetchBytes;  // guarded by lock
+
+    private Runnable acquireDemand;  // guarded by lock
+
+    private Runnable releaseDemand;  // guarded by lock
+
+    private boolean demanding;  // guarded by lock
+
+    private volatile boolean eor;
+
+    private volatile IOException exception;
+
+    private volatile boolean closed;
+
+    /**
+     * Adds a chunk, or commits the chunks of the writer.
+     * @param writerId the writer ID
+     * @param payload the chunk, or {@code null} to commit the chunks added so far by the writer
+     */
+    void add(int writerId, ByteBuffer payload) {
+        var chunks = writer(writerId & 0xff);
+        if (payload != null) {
+            chunks.add(payload);
+            return;
+        }
+        if (chunks.isEmpty()) {
+            return;
+        }
+        while (!chunks.isEmpty()) {
+            var chunk = chunks.poll();
+            committedChunks.incrementAndGet();
+            committedBytes.addAndGet(chunk.remaining());
+            committed.add(chunk);
+        }
+        committed.add(END_OF_SEGMENT);
+        wakeUp();
+        if (prefetching) {
+            updateDemand();
+        }
+    }
+
+    private ArrayDeque<ByteBuffer> writer(int index) {
+        var chunks = writers.get(index);
+        if (chunks == null) {
+            chunks = new ArrayDeque<>();
+            writers.set(index, chunks);
+        }
+        return chunks;
+    }
+
+    void endOfRecords() {
+        eor = true;
+        wakeUp();
+        if (prefetching) {
+            updateDemand();
+        }
+    }
+
+    void endOfRecords(IOException e) {
+        exception = e;
+        wakeUp();
+        if (prefetching) {
+            updateDemand();
+        }
+    }
+
+    /**
+     * Retrieves the next committed chunk.
+     * @return the next chunk, or {@code null} if there are no committed chunks now
+     */
+    ByteBuffer poll() {
+        while (true) {
+            var chunk = pollEntry();
+            if (chunk != END_OF_SEGMENT) {
+                return chunk;
+            }
+        }
+    }
+
+    /**
+     * Retrieves the next committed chunk or the segment boundary.
+     * @return the next chunk, {@link #isEndOfSegment(ByteBuffer) the end of segment},
+     *      or {@code null} if there are no committed chunks now
+     */
+    ByteBuffer pollEntry() {
+        var chunk = committed.poll();
+        if (chunk != null && chunk != END_OF_SEGMENT) {
+            committedChunks.decrementAndGet();
+            committedBytes.addAndGet(-chunk.remaining());
+            if (prefetching) {
+                updateDemand();
+            }
+        }
+        return chunk;
+    }
+
+    static boolean isEndOfSegment(ByteBuffer entry) {
+        return entry == END_OF_SEGMENT;
+    }
+
+    boolean hasCommitted() {
+        return !committed.isEmpty();
+    }
+
+    boolean isEndOfRecords() {
+        return eor;
+    }
+
+    IOException getException() {
+        return exception;
+    }
+
+    /**
+     * Marks that the consumer no longer reads the chunks.
+     */
+    void close() {
+        closed = true;
+        if (prefetching) {
+            updateDemand();
+        }
+    }
+
+    /**
+     * Starts prefetching the chunks.
+     * <p>
+     * This calls {@code acquire} while the committed chunks are fewer than the given limits,
+     * so that the link keeps pulling messages in background,
+     * and then calls {@code release} when the chunks reach the limits or the result set is finished.
+     * Note that the chunks not yet committed by the writers are not counted.
+     * </p>
+     * @param maxChunks the maximum number of committed chunks, or {@code 0} for no limit
+     * @param maxBytes the maximum total bytes of committed chunks, or {@code 0} for no limit
+     * @param acquire demands the link to pull messages
+     * @param release withdraws the demand
+     */
+    void prefetch(int maxChunks, long maxBytes, @Nonnull Runnable acquire, @Nonnull Runnable release) {
+        Objects.requireNonNull(acquire);
+        Objects.requireNonNull(release);
+        lock.lock();
+        try {
+            prefetchChunks = maxChunks;
+            prefetchBytes = maxBytes;
+            acquireDemand = acquire;
+            releaseDemand = release;
+            prefetching = true;
+        } finally {
+            lock.unlock();
+        }
+        updateDemand();
+    }
+
+    // the last call observes the latest counts, because the counts are changed before calling this
+    private void updateDemand() {
+        lock.lock();
+        try {
+            boolean wanted = !isFinished() && !isFull();
+            if (wanted && !demanding) {
+                demanding = true;
+                acquireDemand.run();
+            } else if (!wanted && demanding) {
+                demanding = false;
+                releaseDemand.run();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean isFinished() {
+        return eor || exception != null || closed;
+    }
+
+    // must be called while holding lock
+    private boolean isFull() {
+        return (prefetchChunks > 0 && committedChunks.get() >= prefetchChunks)
+                || (prefetchBytes > 0 && committedBytes.get() >= prefetchBytes);
+    }
+
+    /**
+     * Waits until a chunk is committed or the result set is finished.
+     * @param waiting returns whether or not it should keep waiting
+     * @throws IOException if interrupted while waiting
+     */
+    void awaitArrival(BooleanSupplier waiting) throws IOException {
+        lock.lock();
+        try {
+            while (committed.isEmpty() && !eor && exception == null && waiting.getAsBoolean()) {
+                arrival.await();
+            }
+        } catch (InterruptedException e) {
+            throw new IOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void wakeUp() {
+        lock.lock();
+        try {
+            arrival.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -4,25 +4,28 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
-import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeoutException;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import com.tsurugidb.tsubakuro.channel.common.connection.sql.ResultSetWire;
+import com.tsurugidb.tsubakuro.channel.common.connection.wire.impl.BufferPool;
 import com.tsurugidb.tsubakuro.channel.stream.StreamLink;
 
 /**
  * ResultSetWireImpl type.
  */
 public class ResultSetWireImpl implements ResultSetWire {
+    static final Logger LOG = LoggerFactory.getLogger(ResultSetWireImpl.class);
+
     private final StreamLink streamLink;
     private final ResultSetBox resultSetBox;
-    private final HashMap<Integer, LinkedList<byte[]>> lists = new HashMap<>();
-    private final ConcurrentLinkedQueue<byte[]> queues = new ConcurrentLinkedQueue<>();
+    private final BufferPool bufferPool;
+    private volatile ResultSetChunks chunks;
     private ByteBufferBackedInput byteBufferBackedInput;
-    private boolean eor;
-    private IOException exception;
 
     class ByteBufferBackedInputForStream extends ByteBufferBackedInput {
         private final ResultSetWireImpl resultSetWireImpl;
@@ -39,16 +42,54 @@ public class ResultSetWireImpl implements ResultSetWire {
                 if (buffer == null) {
                     return false;
                 }
-                source = ByteBuffer.wrap(buffer);
+                // the previous chunk has been consumed
+                bufferPool.release(source);
+                source = buffer;
                 return true;
             } catch (IOException e) {
                 throw new UncheckedIOException(e);
             }
         }
 
+        @Override
+        public boolean isSegmented() {
+            return true;
+        }
+
+        @Override
+        public List<ByteBuffer> nextSegment() throws IOException {
+            var segment = new ArrayList<ByteBuffer>();
+            if (source.hasRemaining()) {
+                // the first chunk has been already received
+                segment.add(source);
+                source = ByteBuffer.allocate(0);
+            }
+            while (true) {
+                var buffer = receive(true);
+                if (buffer == null) {
+                    return segment.isEmpty() ? null : segment;
+                }
+                if (ResultSetChunks.isEndOfSegment(buffer)) {
+                    if (!segment.isEmpty()) {
+                        return segment;
+                    }
+                    continue;
+                }
+                segment.add(buffer);
+            }
+        }
+
+        @Override
+        public void releaseChunk(ByteBuffer chunk) {
+            bufferPool.release(chunk);
+        }
+
         @Override
         public void close() throws IOException {
             super.close();
+            var consumed = source;
+            source = ByteBuffer.allocate(0);
+            bufferPool.release(consumed);
             resultSetWireImpl.close();
         }
     }
@@ -60,9 +101,8 @@ public class ResultSetWireImpl implements ResultSetWire {
     public ResultSetWireImpl(StreamLink streamLink) {
         this.streamLink = streamLink;
         this.resultSetBox = streamLink.getResultSetBox();
+        this.bufferPool = streamLink.getReceiveBufferPool();
         this.byteBufferBackedInput = null;
-        this.eor = false;
-        this.exception = null;
     }
 
     /**
@@ -75,7 +115,8 @@ public class ResultSetWireImpl implements ResultSetWire {
         if (name.length() == 0) {
             throw new IOException("ResultSet wire name is empty");
         }
-        resultSetBox.register(name, this);
+        chunks = resultSetBox.register(name);
+        startPrefetch();
         return this;
     }
 
@@ -88,7 +129,7 @@ public class ResultSetWireImpl implements ResultSetWire {
             try {
                 var buffer = receive();
                 if (buffer != null) {
-                    byteBufferBackedInput = new ByteBufferBackedInputForStream(ByteBuffer.wrap(buffer), this);
+                    byteBufferBackedInput = new ByteBufferBackedInputForStream(buffer, this);
                 } else {
                     byteBufferBackedInput = new ByteBufferBackedInputForStream(ByteBuffer.allocate(0), this);
                 }
@@ -104,24 +145,54 @@ public class ResultSetWireImpl implements ResultSetWire {
      */
     @Override
     public void close() throws IOException {
+        var c = chunks;
+        if (c == null) {
+            return;
+        }
+        c.close();
+        // return the chunks which have not been consumed
+        while (true) {
+            var buffer = c.poll();
+            if (buffer == null) {
+                break;
+            }
+            bufferPool.release(buffer);
+        }
     }
 
     /**
      * Receive resultSet payload
      */
-    private byte[] receive() throws IOException {
+    private ByteBuffer receive() throws IOException {
+        return receive(false);
+    }
+
+    // also returns the segment boundaries if withBoundary is set
+    private ByteBuffer receive(boolean withBoundary) throws IOException {
+        var c = chunks;
+        if (c == null) {
+            throw new IOException("ResultSet wire is not connected");
+        }
         while (true) {
             var n = streamLink.messageNumber();
-            if (!queues.isEmpty()) {
-                return queues.poll();
+            var buffer = withBoundary ? c.pollEntry() : c.poll();
+            if (buffer != null) {
+                return buffer;
+            }
+            if (c.isEndOfRecords()) {
+                // chunks committed just before the end of records
+                return withBoundary ? c.pollEntry() : c.poll();
             }
-            if (eor) {
-                return null;
+            if (c.getException() != null) {
+                throw c.getException();
             }
-            if (exception != null) {
-                throw exception;
+            if (streamLink.isReceiverRunning()) {
+                // wait only for the chunks of this result set
+                c.awaitArrival(streamLink::isReceiverRunning);
+                continue;
             }
             try {
+                // this may wait for the message pulled by the other thread, e.g. the prefetching task
                 streamLink.pullMessage(n, 0, null);
             } catch (TimeoutException e) {
                 throw new IOException(e);
@@ -129,24 +200,13 @@ public class ResultSetWireImpl implements ResultSetWire {
         }
     }
 
-    public void add(int writerId, byte[] payload) {
-        if (!lists.containsKey(writerId)) {
-            lists.put(writerId, new LinkedList<byte[]>());
+    private void startPrefetch() {
+        int maxChunks = streamLink.getResultSetPrefetchChunks();
+        long maxBytes = streamLink.getResultSetPrefetchBytes();
+        if ((maxChunks == 0 && maxBytes == 0) || streamLink.isReceiverRunning()) {
+            return;
         }
-        var targetList = lists.get(writerId);
-        if (payload != null) {
-            targetList.add(payload);
-        } else {
-            queues.addAll(targetList);
-            targetList.clear();
-        }
-    }
-
-    public void endOfRecords() {
-        eor = true;
-    }
-
-    public void endOfRecords(IOException e) {
-        exception = e;
+        // the link pulls messages in its background task while the prefetched chunks are within the limits
+        chunks.prefetch(maxChunks, maxBytes, streamLink::acquirePullDemand, streamLink::releasePullDemand);
     }
 }
@@ -0,0 +1,271 @@
+package com.tsurugidb.tsubakuro.channel.stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.tsurugidb.framework.proto.FrameworkRequest;
+import com.tsurugidb.tsubakuro.util.Messages;
+
+/**
+ * Tests {@link StreamLink} against a loopback server which reads and writes raw frames.
+ */
+class StreamLinkTest {
+
+    private static final FrameworkRequest.Header HEADER = FrameworkRequest.Header.newBuilder()
+            .setMessageVersion(1)
+            .setServiceId(3)
+            .setSessionId(1)
+            .build();
+
+    private static final byte REQUEST_SESSION_HELLO = 1;
+    private static final byte REQUEST_SESSION_PAYLOAD = 2;
+
+    private static final class Frame {
+        final byte info;
+        final int slot;
+        final byte[] body;
+
+        Frame(byte info, int slot, byte[] body) {
+            this.info = info;
+            this.slot = slot;
+            this.body = body;
+        }
+    }
+
+    private ServerSocketChannel listener;
+
+    private SocketChannel peer;
+
+    private StreamLink link;
+
+    @BeforeEach
+    void open() throws IOException {
+        var address = InetAddress.getLoopbackAddress();
+        listener = ServerSocketChannel.open().bind(new InetSocketAddress(address, 0));
+        link = new StreamLink(address.getHostAddress(), listener.socket().getLocalPort());
+        peer = listener.accept();
+        assertEquals(REQUEST_SESSION_HELLO, readFrame().info);
+    }
+
+    @AfterEach
+    void close() throws Exception {
+        try (var c1 = listener; var c2 = peer) {
+            // the link waits for the reply of SESSION_BYE, which is never interpreted before it is sent
+            writeFrame(StreamLink.RESPONSE_SESSION_BYE_OK, 0, new byte[0]);
+            link.close();
+        }
+    }
+
+    private ByteBuffer readFully(int size) throws IOException {
+        var buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (peer.read(buffer) < 0) {
+                throw new EOFException();
+            }
+        }
+        return buffer.flip();
+    }
+
+    private Frame readFrame() throws IOException {
+        var header = readFully(7);
+        byte info = header.get();
+        int slot = header.getShort() & 0xffff;
+        int length = header.getInt();
+        return new Frame(info, slot, readFully(length).array());
+    }
+
+    private static ByteBuffer frame(byte info, int slot, byte[] payload) {
+        return ByteBuffer.allocate(7 + payload.length).order(ByteOrder.LITTLE_ENDIAN)
+                .put(info)
+                .putShort((short) slot)
+                .putInt(payload.length)
+                .put(payload)
+                .flip();
+    }
+
+    private void writeFrame(byte info, int slot, byte[] payload) throws IOException {
+        var buffer = frame(info, slot, payload);
+        while (buffer.hasRemaining()) {
+            peer.write(buffer);
+        }
+    }
+
+    private static byte[] payload(int size, int seed) {
+        var bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) (i + seed);
+        }
+        return bytes;
+    }
+
+    private static byte[] requestPayload(Frame frame) throws IOException {
+        byte[] header = Messages.toDelimitedByteArray(HEADER);
+        assertEquals(REQUEST_SESSION_PAYLOAD, frame.info);
+        assertArrayEquals(header, Arrays.copyOf(frame.body, header.length));
+        return Arrays.copyOfRange(frame.body, header.length, frame.body.length);
+    }
+
+    @Test
+    void helloRestrictsInFlightRequests() throws Exception {
+        writeFrame(StreamLink.RESPONSE_SESSION_HELLO_OK, 2, "1".getBytes(StandardCharsets.UTF_8));
+        assertEquals(StreamLink.RESPONSE_SESSION_HELLO_OK, link.helloResponse(10, TimeUnit.SECONDS).getInfo());
+        assertEquals(2, link.getResponseBox().size());
+
+        var box = link.getResponseBox();
+        for (int i = 0; i < 3; i++) {
+            box.register(HEADER, payload(1, i));
+        }
+        assertEquals(0, readFrame().slot);
+        assertEquals(1, readFrame().slot);
+
+        // the third request is sent after the first one was completed
+        writeFrame(StreamLink.RESPONSE_SESSION_PAYLOAD, 0, payload(1, 3));
+        link.doPull(10, TimeUnit.SECONDS);
+        var third = readFrame();
+        assertEquals(0, third.slot);
+        assertArrayEquals(payload(1, 2), requestPayload(third));
+    }
+
+    @Test
+    void helloKeepsAdvertisedInFlightRequests() throws Exception {
+        int advertised = link.getResponseBox().size();
+        writeFrame(StreamLink.RESPONSE_SESSION_HELLO_OK, 0, "1".getBytes(StandardCharsets.UTF_8));
+        link.helloResponse(10, TimeUnit.SECONDS);
+        assertEquals(advertised, link.getResponseBox().size());
+    }
+
+    @Test
+    void send() throws Exception {
+        var box = link.getResponseBox();
+        var payloads = new byte[][] { new byte[0], payload(10, 1), payload(30_000, 2) };
+        for (var payload : payloads) {
+            box.register(HEADER, payload);
+        }
+        for (int i = 0; i < payloads.length; i++) {
+            var frame = readFrame();
+            assertEquals(i, frame.slot);
+            assertArrayEquals(payloads[i], requestPayload(frame));
+        }
+    }
+
+    @Test
+    void sendCoalesced() throws Exception {
+        // the first sender waits for the others, and then writes all frames at once
+        link.setSendCoalescing(100, TimeUnit.MILLISECONDS, 1024 * 1024);
+        int count = 4;
+        var box = link.getResponseBox();
+        var threads = new ArrayList<Thread>();
+        for (int i = 0; i < count; i++) {
+            var payload = payload(i + 1, i);
+            threads.add(new Thread(() -> box.register(HEADER, payload)));
+        }
+        threads.forEach(Thread::start);
+        for (var thread : threads) {
+            thread.join();
+        }
+
+        var slots = new HashSet<Integer>();
+        var sizes = new HashSet<Integer>();
+        for (int i = 0; i < count; i++) {
+            var frame = readFrame();
+            slots.add(frame.slot);
+            var payload = requestPayload(frame);
+            assertArrayEquals(payload(payload.length, payload.length - 1), payload);
+            sizes.add(payload.length);
+        }
+        assertEquals(Set.of(0, 1, 2, 3), slots);
+        assertEquals(Set.of(1, 2, 3, 4), sizes);
+    }
+
+    @Test
+    void receiveFragmented() throws Exception {
+        var small = payload(10, 3);
+        var large = payload(200_000, 4);
+        var writer = new Thread(() -> {
+            try {
+                for (var buffer : new ByteBuffer[] {
+                        frame(StreamLink.RESPONSE_SESSION_PAYLOAD, 1, small),
+                        frame(StreamLink.RESPONSE_SESSION_PAYLOAD, 2, large) }) {
+                    // write each frame in several fragments, so that the link receives partial headers
+                    for (int size : new int[] { 1, 5, 10 }) {
+                        var fragment = buffer.slice();
+                        fragment.limit(Math.min(size, fragment.remaining()));
+                        while (fragment.hasRemaining()) {
+                            buffer.position(buffer.position() + peer.write(fragment));
+                        }
+                        Thread.sleep(10);
+                    }
+                    while (buffer.hasRemaining()) {
+                        peer.write(buffer);
+                    }
+                }
+            } catch (IOException | InterruptedException e) {
+                throw new AssertionError(e);
+            }
+        });
+        writer.start();
+
+        var first = link.receive(10_000);
+        assertEquals(StreamLink.RESPONSE_SESSION_PAYLOAD, first.getInfo());
+        assertEquals(1, first.getSlot());
+        assertArrayEquals(small, first.getBytes());
+
+        var second = link.receive(10_000);
+        assertEquals(2, second.getSlot());
+        assertArrayEquals(large, second.getBytes());
+        writer.join();
+    }
+
+    @Test
+    void receiveTimeout() throws Exception {
+        assertThrows(SocketTimeoutException.class, () -> link.receive(10));
+
+        var payload = payload(10, 5);
+        writeFrame(StreamLink.RESPONSE_SESSION_PAYLOAD, 0, payload);
+        assertArrayEquals(payload, link.receive(0).getBytes());
+    }
+
+    @Test
+    void receiveAfterSpuriousWakeup() throws Exception {
+        var payload = payload(10, 6);
+        var writer = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+                writeFrame(StreamLink.RESPONSE_SESSION_PAYLOAD, 0, payload);
+            } catch (IOException | InterruptedException e) {
+                throw new AssertionError(e);
+            }
+        });
+        writer.start();
+
+        // the interrupt status makes select() return immediately without any ready keys
+        Thread.currentThread().interrupt();
+        try {
+            assertArrayEquals(payload, link.receive(10_000).getBytes());
+        } finally {
+            Thread.interrupted();
+        }
+        writer.join();
+    }
+}
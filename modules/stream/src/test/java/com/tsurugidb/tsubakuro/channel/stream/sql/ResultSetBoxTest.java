@@ -0,0 +1,148 @@
+package com.tsurugidb.tsubakuro.channel.stream.sql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class ResultSetBoxTest {
+
+    private static ByteBuffer chunk(int value) {
+        return ByteBuffer.wrap(new byte[] { (byte) value });
+    }
+
+    @Test
+    void registerBeforeHello() throws Exception {
+        var box = new ResultSetBox(4);
+        var chunks = box.register("rs");
+        box.pushHello("rs", 1);
+        box.push(1, 0, chunk(1));
+        box.push(1, 0, null);
+        assertEquals(1, chunks.poll().get());
+        assertNull(chunks.poll());
+    }
+
+    @Test
+    void registerAfterChunks() throws Exception {
+        var box = new ResultSetBox(4);
+        box.pushHello("rs", 2);
+        box.push(2, 0, chunk(1));
+        box.push(2, 0, null);
+        box.pushBye(2);
+
+        var chunks = box.register("rs");
+        assertEquals(1, chunks.poll().get());
+        assertTrue(chunks.isEndOfRecords());
+    }
+
+    @Test
+    void multipleWriters() throws Exception {
+        var box = new ResultSetBox(4);
+        var chunks = box.register("rs");
+        box.pushHello("rs", 0);
+        box.push(0, 0, chunk(1));
+        box.push(0, 200, chunk(2));
+        box.push(0, 0, chunk(3));
+        box.push(0, 200, null);
+        assertEquals(2, chunks.poll().get());
+        assertNull(chunks.poll());
+
+        box.push(0, 0, null);
+        assertEquals(1, chunks.poll().get());
+        assertEquals(3, chunks.poll().get());
+        assertNull(chunks.poll());
+    }
+
+    @Test
+    void segments() throws Exception {
+        var box = new ResultSetBox(4);
+        var chunks = box.register("rs");
+        box.pushHello("rs", 0);
+        box.push(0, 0, chunk(1));
+        box.push(0, 1, chunk(2));
+        box.push(0, 0, chunk(3));
+        box.push(0, 0, null);
+        box.push(0, 1, null);
+        assertEquals(1, chunks.pollEntry().get());
+        assertEquals(3, chunks.pollEntry().get());
+        assertTrue(ResultSetChunks.isEndOfSegment(chunks.pollEntry()));
+        assertEquals(2, chunks.pollEntry().get());
+        assertTrue(ResultSetChunks.isEndOfSegment(chunks.pollEntry()));
+        assertNull(chunks.pollEntry());
+    }
+
+    @Test
+    void sameNameReused() throws Exception {
+        var box = new ResultSetBox(4);
+        var first = box.register("rs");
+        box.pushHello("rs", 0);
+        box.pushBye(0);
+
+        var second = box.register("rs");
+        box.pushHello("rs", 0);
+        assertTrue(first.isEndOfRecords());
+        box.push(0, 0, chunk(1));
+        box.push(0, 0, null);
+        assertNull(first.poll());
+        assertEquals(1, second.poll().get());
+    }
+
+    @Test
+    void unknownSlot() {
+        var box = new ResultSetBox(4);
+        assertThrows(IOException.class, () -> box.push(3, 0, chunk(1)));
+    }
+
+    @Test
+    void closeFailsRegistered() {
+        var box = new ResultSetBox(4);
+        var chunks = box.register("rs");
+        box.doClose(true);
+        assertTrue(chunks.getException() instanceof IOException);
+        assertTrue(box.register("other").getException() instanceof IOException);
+    }
+
+    @Test
+    void prefetchDemand() throws Exception {
+        var box = new ResultSetBox(4);
+        var chunks = box.register("rs");
+        box.pushHello("rs", 0);
+        var demands = new AtomicInteger();
+        chunks.prefetch(2, 0, demands::incrementAndGet, demands::decrementAndGet);
+        assertEquals(1, demands.get());
+
+        // the uncommitted chunks are not counted
+        box.push(0, 0, chunk(1));
+        box.push(0, 0, chunk(2));
+        assertEquals(1, demands.get());
+        box.push(0, 0, null);
+        assertEquals(0, demands.get());
+
+        chunks.poll();
+        assertEquals(1, demands.get());
+
+        box.pushBye(0);
+        assertEquals(0, demands.get());
+        chunks.poll();
+        chunks.close();
+        assertEquals(0, demands.get());
+    }
+
+    @Test
+    void prefetchDemandOnClose() throws Exception {
+        var box = new ResultSetBox(4);
+        var chunks = box.register("rs");
+        box.pushHello("rs", 0);
+        var demands = new AtomicInteger();
+        chunks.prefetch(0, 1, demands::incrementAndGet, demands::decrementAndGet);
+        assertEquals(1, demands.get());
+        chunks.close();
+        assertEquals(0, demands.get());
+    }
+}
@@ -7,6 +7,10 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -49,6 +53,119 @@ class SessionWireTest {
         }
     }
 
+    @Test
+    void requestBeginWithReceiver() {
+        try {
+            server = new ServerWireImpl(PORT, sessionID);
+            client = new WireImpl(new StreamLink(HOST, PORT), sessionID);
+            assertTrue(client.startReceiver(Thread::new));
+            assertFalse(client.startReceiver(Thread::new));
+        } catch (Exception e) {
+            fail("cought Exception");
+        }
+
+        CommunicationChecker.check(server, client);
+
+        try {
+            client.close();
+            server.close();
+        } catch (IOException e) {
+            fail("cought IOException in close");
+        }
+    }
+
+    @Test
+    void requestBeginWithSendCoalescing() {
+        try {
+            server = new ServerWireImpl(PORT, sessionID);
+            var link = new StreamLink(HOST, PORT);
+            link.setSendCoalescing(1, TimeUnit.MILLISECONDS, 16);
+            client = new WireImpl(link, sessionID);
+        } catch (Exception e) {
+            fail("cought Exception");
+        }
+
+        CommunicationChecker.check(server, client);
+
+        try {
+            client.close();
+            server.close();
+        } catch (IOException e) {
+            fail("cought IOException in close");
+        }
+    }
+
+    @Test
+    void sendCoalescingWithConcurrentSenders() throws Exception {
+        server = new ServerWireImpl(PORT, sessionID);
+        var link = new StreamLink(HOST, PORT);
+        // the first sender waits for the others, so that their requests are written together
+        link.setSendCoalescing(100, TimeUnit.MILLISECONDS, 64 * 1024);
+        client = new WireImpl(link, sessionID);
+        long writesBefore = link.getWriteCount();
+
+        int senders = 8;
+        var executor = Executors.newFixedThreadPool(senders);
+        try {
+            var start = new CountDownLatch(1);
+            var futures = new ArrayList<Future<?>>();
+            for (int i = 0; i < senders; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return client.send(SERVICE_ID_SQL, DelimitedConverter.toByteArray(ProtosForTest.BeginRequestChecker.builder().build()));
+                }));
+            }
+            start.countDown();
+            for (var future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        for (int i = 0; i < senders; i++) {
+            assertTrue(ProtosForTest.BeginRequestChecker.check(server.get(), sessionID));
+        }
+        long writes = link.getWriteCount() - writesBefore;
+        assertTrue(writes < senders, () -> "writes=" + writes);
+
+        client.close();
+        server.close();
+    }
+
+    @Test
+    void invalidSendCoalescing() throws Exception {
+        server = new ServerWireImpl(PORT, sessionID);
+        var link = new StreamLink(HOST, PORT);
+        client = new WireImpl(link, sessionID);
+        assertThrows(IllegalArgumentException.class, () -> link.setSendCoalescing(-1, TimeUnit.MILLISECONDS, 16));
+        assertThrows(IllegalArgumentException.class, () -> link.setSendCoalescing(1, TimeUnit.MILLISECONDS, 0));
+        client.close();
+        server.close();
+    }
+
+    @Test
+    void timeoutWithReceiver() {
+        try {
+            server = new ServerWireImpl(PORT, sessionID);
+            client = new WireImpl(new StreamLink(HOST, PORT), sessionID);
+            assertTrue(client.startReceiver(Thread::new));
+
+            var futureResponse = client.send(SERVICE_ID_SQL, DelimitedConverter.toByteArray(ProtosForTest.BeginRequestChecker.builder().build()));
+            assertTrue(ProtosForTest.BeginRequestChecker.check(server.get(), sessionID));
+
+            // server side does not send Response, see also LinkTest for the receiver behavior
+            Throwable exception = assertThrows(TimeoutException.class, () -> {
+                    futureResponse.get().waitForMainResponse(100, TimeUnit.MILLISECONDS);
+            });
+            assertEquals("response has not been received within the specified time", exception.getMessage());
+
+            client.close();
+            server.close();
+        } catch (IOException e) {
+            fail("cought IOException");
+        }
+    }
+
     @Test
     void inconsistentResponse() {
         try {